@@ -432,7 +432,8 @@ public class CmsReport extends CmsMultiDialog {
 
         A_CmsReportThread thread = OpenCms.getThreadStore().retrieveThread(m_paramThread);
         if (thread != null) {
-            return thread.isAlive();
+            // keep polling until all output has been returned, since report updates are bounded
+            return thread.isAlive() || thread.hasPendingReportUpdate();
         } else {
             return false;
         }
@@ -69,6 +69,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.Acl;
@@ -126,6 +127,8 @@ import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl
 import org.apache.chemistry.opencmis.commons.spi.Holder;
 import org.apache.commons.logging.Log;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Repository instance for CMIS repositories.<p>
  */
@@ -193,6 +196,9 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /** The index parameter name. */
     private static final String PARAM_INDEX = "index";
 
+    /** Striped lock used to serialize concurrent write operations on the same object or folder. */
+    private static final Striped<Lock> OBJECT_LOCKS = Striped.lock(64);
+
     /** The internal admin CMS context. */
     private CmsObject m_adminCms;
 
@@ -263,7 +269,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocument(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.data.ContentStream, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocument(
+    public String createDocument(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -283,6 +289,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createDocument: no content stream given");
         }
 
+        Iterable<Lock> locks = lockObjects(folderId);
         try {
             CmsObject cms = getCmsObject(context);
             Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
@@ -316,13 +323,15 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             return null;
         } catch (IOException e) {
             throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            unlockObjects(locks);
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocumentFromSource(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocumentFromSource(
+    public String createDocumentFromSource(
         CmsCmisCallContext context,
         String sourceId,
         Properties propertiesObj,
@@ -338,6 +347,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createDocument: ACEs not allowed");
         }
 
+        Iterable<Lock> locks = lockObjects(sourceId, folderId);
         try {
             CmsObject cms = getCmsObject(context);
             Map<String, PropertyData<?>> properties = new HashMap<String, PropertyData<?>>();
@@ -391,13 +401,15 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         } catch (CmsException e) {
             handleCmsException(e);
             return null;
+        } finally {
+            unlockObjects(locks);
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createFolder(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createFolder(
+    public String createFolder(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -411,6 +423,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createFolder: ACEs not allowed");
         }
 
+        Iterable<Lock> locks = lockObjects(folderId);
         try {
             CmsObject cms = getCmsObject(context);
             Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
@@ -439,13 +452,15 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         } catch (CmsException e) {
             handleCmsException(e);
             return null;
+        } finally {
+            unlockObjects(locks);
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createRelationship(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createRelationship(
+    public String createRelationship(
         CmsCmisCallContext context,
         Properties properties,
         List<String> policies,
@@ -465,15 +480,20 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             CmsUUID sourceId = new CmsUUID(sourceProp);
             CmsUUID targetId = new CmsUUID(targetProp);
             CmsResource sourceRes = cms.readResource(sourceId);
-            boolean wasLocked = ensureLock(cms, sourceRes);
+            Iterable<Lock> locks = lockObjects(sourceProp);
             try {
-                CmsResource targetRes = cms.readResource(targetId);
-                cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
-                return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(sourceRes);
+                boolean wasLocked = ensureLock(cms, sourceRes);
+                try {
+                    CmsResource targetRes = cms.readResource(targetId);
+                    cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
+                    return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(sourceRes);
+                    }
                 }
+            } finally {
+                unlockObjects(locks);
             }
         } catch (CmsException e) {
             CmsCmisUtil.handleCmsException(e);
@@ -484,7 +504,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void deleteContentStream(
+    public void deleteContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken) {
@@ -496,16 +516,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         checkWriteAccess();
-        getHelper(objectId).deleteObject(context, objectId, allVersions);
+        Iterable<Lock> locks = lockObjects(objectId);
+        try {
+            getHelper(objectId).deleteObject(context, objectId, allVersions);
+        } finally {
+            unlockObjects(locks);
+        }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteTree(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.UnfileObject, boolean)
      */
-    public synchronized FailedToDeleteData deleteTree(
+    public FailedToDeleteData deleteTree(
         CmsCmisCallContext context,
         String folderId,
         boolean allVersions,
@@ -514,6 +539,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Iterable<Lock> locks = lockObjects(folderId);
         try {
 
             FailedToDeleteDataImpl result = new FailedToDeleteDataImpl();
@@ -530,13 +556,15 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         } catch (CmsException e) {
             handleCmsException(e);
             return null;
+        } finally {
+            unlockObjects(locks);
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +572,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +580,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +599,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -668,7 +696,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -709,7 +737,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -798,7 +826,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -826,7 +854,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -850,7 +878,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -894,7 +922,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -957,7 +985,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -1002,7 +1030,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1011,7 +1039,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1039,7 +1067,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1113,7 +1141,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1126,7 +1154,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1134,7 +1162,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1200,7 +1228,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#moveObject(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, java.lang.String, java.lang.String)
      */
-    public synchronized void moveObject(
+    public void moveObject(
         CmsCmisCallContext context,
         Holder<String> objectId,
         String targetFolderId,
@@ -1208,6 +1236,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Iterable<Lock> locks = lockObjects(objectId.getValue(), targetFolderId, sourceFolderId);
         try {
             CmsObject cms = getCmsObject(context);
             CmsUUID structureId = new CmsUUID(objectId.getValue());
@@ -1227,6 +1256,8 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             }
         } catch (CmsException e) {
             handleCmsException(e);
+        } finally {
+            unlockObjects(locks);
         }
     }
 
@@ -1234,7 +1265,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1291,7 +1322,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#setContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.ContentStream)
      */
-    public synchronized void setContentStream(
+    public void setContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean overwriteFlag,
@@ -1300,6 +1331,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Iterable<Lock> locks = lockObjects(objectId.getValue());
         try {
             CmsObject cms = getCmsObject(context);
             CmsUUID structureId = new CmsUUID(objectId.getValue());
@@ -1323,6 +1355,8 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             handleCmsException(e);
         } catch (IOException e) {
             throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            unlockObjects(locks);
         }
     }
 
@@ -1346,7 +1380,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#updateProperties(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.Properties)
      */
-    public synchronized void updateProperties(
+    public void updateProperties(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken,
@@ -1354,6 +1388,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        Iterable<Lock> locks = lockObjects(objectId.getValue());
         try {
 
             CmsObject cms = getCmsObject(context);
@@ -1393,6 +1428,8 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             }
         } catch (CmsException e) {
             handleCmsException(e);
+        } finally {
+            unlockObjects(locks);
         }
     }
 
@@ -1536,6 +1573,44 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         return m_typeManager;
     }
 
+    /**
+     * Acquires the write locks for the given object ids.<p>
+     *
+     * Only write operations use these locks. They serialize concurrent changes to the same object, or to the
+     * contents of the same folder, while reads and writes on unrelated objects proceed in parallel. The locks
+     * are always acquired in the same order, so an operation which locks several objects can not deadlock.<p>
+     *
+     * @param objectIds the ids of the objects to lock, <code>null</code> values are ignored
+     *
+     * @return the acquired locks, which have to be released with {@link #unlockObjects(Iterable)}
+     */
+    protected Iterable<Lock> lockObjects(String... objectIds) {
+
+        List<String> keys = new ArrayList<String>(objectIds.length);
+        for (String objectId : objectIds) {
+            if (objectId != null) {
+                keys.add(objectId);
+            }
+        }
+        Iterable<Lock> locks = OBJECT_LOCKS.bulkGet(keys);
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        return locks;
+    }
+
+    /**
+     * Releases the locks acquired with {@link #lockObjects(String...)}.<p>
+     *
+     * @param locks the locks to release
+     */
+    protected void unlockObjects(Iterable<Lock> locks) {
+
+        for (Lock lock : locks) {
+            lock.unlock();
+        }
+    }
+
     /**
      * Gets the correct helper object for a given object id to perform operations on the corresponding object.<p>
      *
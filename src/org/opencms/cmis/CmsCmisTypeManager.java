@@ -31,6 +31,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.definitions.PropertyDefinition;
@@ -110,7 +112,10 @@ public class CmsCmisTypeManager {
     private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
 
     /** The last update time. */
-    private long m_lastUpdate;
+    private volatile long m_lastUpdate;
+
+    /** Lock which protects the type definitions while they are rebuilt. */
+    private ReadWriteLock m_lock = new ReentrantReadWriteLock();
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
@@ -587,11 +592,16 @@ public class CmsCmisTypeManager {
     public List<String> getCmsPropertyNames() {
 
         refresh();
-        List<String> result = new ArrayList<String>();
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
-            result.add(propDef.getName());
+        m_lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<String>();
+            for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+                result.add(propDef.getName());
+            }
+            return result;
+        } finally {
+            m_lock.readLock().unlock();
         }
-        return result;
     }
 
     /**
@@ -633,12 +643,17 @@ public class CmsCmisTypeManager {
     public TypeDefinition getType(String typeId) {
 
         refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
-        if (tc == null) {
-            return null;
-        }
+        m_lock.readLock().lock();
+        try {
+            TypeDefinitionContainer tc = m_types.get(typeId);
+            if (tc == null) {
+                return null;
+            }
 
-        return tc.getTypeDefinition();
+            return tc.getTypeDefinition();
+        } finally {
+            m_lock.readLock().unlock();
+        }
     }
 
     /**
@@ -659,61 +674,66 @@ public class CmsCmisTypeManager {
         BigInteger skipCount) {
 
         refresh();
-        TypeDefinitionListImpl result = new TypeDefinitionListImpl(new ArrayList<TypeDefinition>());
-
-        int skip = (skipCount == null ? 0 : skipCount.intValue());
-        if (skip < 0) {
-            skip = 0;
-        }
-
-        int max = (maxItems == null ? Integer.MAX_VALUE : maxItems.intValue());
-        if (max < 1) {
-            return result;
-        }
+        m_lock.readLock().lock();
+        try {
+            TypeDefinitionListImpl result = new TypeDefinitionListImpl(new ArrayList<TypeDefinition>());
 
-        if (typeId == null) {
-            if (skip < 1) {
-                result.getList().add(copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition()));
-                max--;
-            }
-            if ((skip < 2) && (max > 0)) {
-                result.getList().add(copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
-                max--;
+            int skip = (skipCount == null ? 0 : skipCount.intValue());
+            if (skip < 0) {
+                skip = 0;
             }
 
-            result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < 2));
-            result.setNumItems(BigInteger.valueOf(2));
-        } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
-            if ((tc == null) || (tc.getChildren() == null)) {
+            int max = (maxItems == null ? Integer.MAX_VALUE : maxItems.intValue());
+            if (max < 1) {
                 return result;
             }
 
-            for (TypeDefinitionContainer child : tc.getChildren()) {
-                if (skip > 0) {
-                    skip--;
-                    continue;
+            if (typeId == null) {
+                if (skip < 1) {
+                    result.getList().add(copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition()));
+                    max--;
+                }
+                if ((skip < 2) && (max > 0)) {
+                    result.getList().add(copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition()));
+                    max--;
+                }
+
+                result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < 2));
+                result.setNumItems(BigInteger.valueOf(2));
+            } else {
+                TypeDefinitionContainer tc = m_types.get(typeId);
+                if ((tc == null) || (tc.getChildren() == null)) {
+                    return result;
                 }
 
-                result.getList().add(copyTypeDefintion(child.getTypeDefinition()));
+                for (TypeDefinitionContainer child : tc.getChildren()) {
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+
+                    result.getList().add(copyTypeDefintion(child.getTypeDefinition()));
 
-                max--;
-                if (max == 0) {
-                    break;
+                    max--;
+                    if (max == 0) {
+                        break;
+                    }
                 }
-            }
 
-            result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < tc.getChildren().size()));
-            result.setNumItems(BigInteger.valueOf(tc.getChildren().size()));
-        }
+                result.setHasMoreItems(Boolean.valueOf((result.getList().size() + skip) < tc.getChildren().size()));
+                result.setNumItems(BigInteger.valueOf(tc.getChildren().size()));
+            }
 
-        if (!includePropertyDefinitions) {
-            for (TypeDefinition type : result.getList()) {
-                type.getPropertyDefinitions().clear();
+            if (!includePropertyDefinitions) {
+                for (TypeDefinition type : result.getList()) {
+                    type.getPropertyDefinitions().clear();
+                }
             }
-        }
 
-        return result;
+            return result;
+        } finally {
+            m_lock.readLock().unlock();
+        }
     }
 
     /**
@@ -726,12 +746,17 @@ public class CmsCmisTypeManager {
     public TypeDefinition getTypeDefinition(String typeId) {
 
         refresh();
-        TypeDefinitionContainer tc = m_types.get(typeId);
-        if (tc == null) {
-            throw new CmisObjectNotFoundException("Type '" + typeId + "' is unknown!");
-        }
+        m_lock.readLock().lock();
+        try {
+            TypeDefinitionContainer tc = m_types.get(typeId);
+            if (tc == null) {
+                throw new CmisObjectNotFoundException("Type '" + typeId + "' is unknown!");
+            }
 
-        return copyTypeDefintion(tc.getTypeDefinition());
+            return copyTypeDefintion(tc.getTypeDefinition());
+        } finally {
+            m_lock.readLock().unlock();
+        }
     }
 
     /**
@@ -750,26 +775,31 @@ public class CmsCmisTypeManager {
         boolean includePropertyDefinitions) {
 
         refresh();
-        List<TypeDefinitionContainer> result = new ArrayList<TypeDefinitionContainer>();
+        m_lock.readLock().lock();
+        try {
+            List<TypeDefinitionContainer> result = new ArrayList<TypeDefinitionContainer>();
 
-        // check depth
-        int d = (depth == null ? -1 : depth.intValue());
-        if (d == 0) {
-            throw new CmisInvalidArgumentException("Depth must not be 0!");
-        }
+            // check depth
+            int d = (depth == null ? -1 : depth.intValue());
+            if (d == 0) {
+                throw new CmisInvalidArgumentException("Depth must not be 0!");
+            }
 
-        if (typeId == null) {
-            result.add(getTypeDescendants(d, m_types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
-            result.add(getTypeDescendants(d, m_types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
-        } else {
-            TypeDefinitionContainer tc = m_types.get(typeId);
-            if (tc != null) {
-                result.add(getTypeDescendants(d, tc, includePropertyDefinitions));
+            if (typeId == null) {
+                result.add(getTypeDescendants(d, m_types.get(FOLDER_TYPE_ID), includePropertyDefinitions));
+                result.add(getTypeDescendants(d, m_types.get(DOCUMENT_TYPE_ID), includePropertyDefinitions));
+                result.add(getTypeDescendants(d, m_types.get(RELATIONSHIP_TYPE_ID), includePropertyDefinitions));
+            } else {
+                TypeDefinitionContainer tc = m_types.get(typeId);
+                if (tc != null) {
+                    result.add(getTypeDescendants(d, tc, includePropertyDefinitions));
+                }
             }
-        }
 
-        return result;
+            return result;
+        } finally {
+            m_lock.readLock().unlock();
+        }
     }
 
     /**
@@ -1087,15 +1117,21 @@ public class CmsCmisTypeManager {
     /**
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
      */
-    private synchronized void refresh() {
+    private void refresh() {
 
+        if ((System.currentTimeMillis() - m_lastUpdate) <= UPDATE_INTERVAL) {
+            return;
+        }
+        m_lock.writeLock().lock();
         try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
+            // check again, another thread may have refreshed the data while we were waiting for the lock
+            if ((System.currentTimeMillis() - m_lastUpdate) > UPDATE_INTERVAL) {
                 setup();
             }
         } catch (CmsException e) {
             LOG.error(e.getLocalizedMessage(), e);
+        } finally {
+            m_lock.writeLock().unlock();
         }
     }
 
@@ -235,6 +235,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
     /**  The node name of the static export export-rules node. */
     public static final String N_STATICEXPORT_EXPORTRULES = "export-rules";
 
+    /**  The node name of the static export exportthreads node. */
+    public static final String N_STATICEXPORT_EXPORTTHREADS = "exportthreads";
+
     /**  The node name of the static export exporturl node. */
     public static final String N_STATICEXPORT_EXPORTURL = "exporturl";
 
@@ -480,6 +483,8 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTWORKPATH, "setExportWorkPath", 0);
         // exportbackups rule
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTBACKUPS, "setExportBackups", 0);
+        // exportthreads rule
+        digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_EXPORTTHREADS, "setExportThreads", 0);
         // default property rule
         digester.addCallMethod("*/" + N_STATICEXPORT + "/" + N_STATICEXPORT_DEFAULT, "setDefault", 0);
         // export suffix rule
@@ -903,6 +908,12 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             staticexportElement.addElement(N_STATICEXPORT_EXPORTBACKUPS).addText(exportBackupsUnmodified);
         }
 
+        // <exportthreads> node
+        if (m_staticExportManager.getExportThreadsForConfiguration() != null) {
+            staticexportElement.addElement(N_STATICEXPORT_EXPORTTHREADS).addText(
+                String.valueOf(m_staticExportManager.getExportThreadsForConfiguration()));
+        }
+
         // <defaultpropertyvalue> node
         staticexportElement.addElement(N_STATICEXPORT_DEFAULT).addText(m_staticExportManager.getDefault());
 
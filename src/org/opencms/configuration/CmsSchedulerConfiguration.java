@@ -32,12 +32,17 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.CmsScheduleManager;
 import org.opencms.scheduler.CmsScheduledJobInfo;
+import org.opencms.scheduler.CmsSchedulerElasticThreadPool;
+import org.opencms.util.CmsStringUtil;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.commons.digester3.Digester;
+import org.apache.commons.logging.Log;
 
 import org.dom4j.Element;
 
@@ -52,6 +57,15 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
     /** The name of the default XML file for this configuration. */
     public static final String DEFAULT_XML_FILE_NAME = "opencms-scheduler.xml";
 
+    /** The attribute name for the maximum number of concurrently running jobs. */
+    public static final String A_MAXCONCURRENT = "maxconcurrent";
+
+    /** The attribute name for the maximum number of threads. */
+    public static final String A_MAXTHREADS = "maxthreads";
+
+    /** The attribute name for the virtual threads flag. */
+    public static final String A_VIRTUALTHREADS = "virtualthreads";
+
     /** The node name for the job "active" value. */
     public static final String N_ACTIVE = "active";
 
@@ -70,9 +84,15 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
     /** The node name for a job. */
     public static final String N_JOB = "job";
 
+    /** The node name for a job class limit. */
+    public static final String N_JOBLIMIT = "joblimit";
+
     /** The node name for individual locales. */
     public static final String N_LOCALE = "locale";
 
+    /** The node name for the job "nooverlap" value. */
+    public static final String N_NOOVERLAP = "nooverlap";
+
     /** The node name for the job parameters. */
     public static final String N_PARAMETERS = "parameters";
 
@@ -94,15 +114,54 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the context site root. */
     public static final String N_SITEROOT = "siteroot";
 
+    /** The node name for the scheduler thread pool. */
+    public static final String N_THREADPOOL = "threadpool";
+
     /** The node name for the context user name. */
     public static final String N_USERNAME = "user";
 
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSchedulerConfiguration.class);
+
     /** The list of jobs for the scheduler. */
     private List<CmsScheduledJobInfo> m_configuredJobs;
 
+    /** The maximum number of concurrently running jobs per job class name. */
+    private Map<String, Integer> m_jobClassLimits;
+
+    /** The maximum number of threads for the scheduler thread pool. */
+    private int m_maxThreads;
+
     /** The configured schedule manager. */
     private CmsScheduleManager m_scheduleManager;
 
+    /** Indicates if the scheduler thread pool should use virtual threads if the JVM supports them. */
+    private boolean m_virtualThreads;
+
+    /**
+     * Adds a limit for the number of concurrently running jobs of a job class.<p>
+     *
+     * @param className the job class name
+     * @param maxConcurrent the maximum number of concurrently running jobs of the class
+     */
+    public void addJobClassLimit(String className, String maxConcurrent) {
+
+        int limit;
+        try {
+            limit = Integer.parseInt(maxConcurrent.trim());
+        } catch (NumberFormatException e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_INVALID_JOB_CLASS_LIMIT_2, className, maxConcurrent),
+                e);
+            return;
+        }
+        m_jobClassLimits.put(className, new Integer(limit));
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(Messages.INIT_SCHEDULER_JOB_CLASS_LIMIT_2, className, new Integer(limit)));
+        }
+    }
+
     /**
      * Adds a new job description for the scheduler.<p>
      *
@@ -128,6 +187,11 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
     public void addScheduleManager() {
 
         m_scheduleManager = new CmsScheduleManager(m_configuredJobs);
+        m_scheduleManager.setMaxThreads(m_maxThreads);
+        m_scheduleManager.setVirtualThreads(m_virtualThreads);
+        for (Map.Entry<String, Integer> limit : m_jobClassLimits.entrySet()) {
+            m_scheduleManager.setJobClassLimit(limit.getKey(), limit.getValue().intValue());
+        }
     }
 
     /**
@@ -138,6 +202,14 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
         // add scheduler creation rule
         digester.addCallMethod("*/" + N_SCHEDULER, "addScheduleManager");
 
+        // add thread pool and job class limit rules
+        digester.addCallMethod("*/" + N_SCHEDULER + "/" + N_THREADPOOL, "setThreadPool", 2);
+        digester.addCallParam("*/" + N_SCHEDULER + "/" + N_THREADPOOL, 0, A_MAXTHREADS);
+        digester.addCallParam("*/" + N_SCHEDULER + "/" + N_THREADPOOL, 1, A_VIRTUALTHREADS);
+        digester.addCallMethod("*/" + N_SCHEDULER + "/" + N_JOBLIMIT, "addJobClassLimit", 2);
+        digester.addCallParam("*/" + N_SCHEDULER + "/" + N_JOBLIMIT, 0, A_CLASS);
+        digester.addCallParam("*/" + N_SCHEDULER + "/" + N_JOBLIMIT, 1, A_MAXCONCURRENT);
+
         // add scheduler job creation rule
         digester.addObjectCreate("*/" + N_SCHEDULER + "/" + N_JOB, CmsScheduledJobInfo.class);
         digester.addBeanPropertySetter("*/" + N_SCHEDULER + "/" + N_JOB + "/" + N_NAME, "jobName");
@@ -145,6 +217,7 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
         digester.addBeanPropertySetter("*/" + N_SCHEDULER + "/" + N_JOB + "/" + N_CRONEXPRESSION, "cronExpression");
         digester.addBeanPropertySetter("*/" + N_SCHEDULER + "/" + N_JOB + "/" + N_REUSEINSTANCE, "reuseInstance");
         digester.addBeanPropertySetter("*/" + N_SCHEDULER + "/" + N_JOB + "/" + N_ACTIVE, "active");
+        digester.addBeanPropertySetter("*/" + N_SCHEDULER + "/" + N_JOB + "/" + N_NOOVERLAP, "noOverlap");
         digester.addSetNext("*/" + N_SCHEDULER + "/" + N_JOB, "addJobFromConfiguration");
 
         // add job context creation rule
@@ -190,6 +263,17 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
             m_configuredJobs = OpenCms.getScheduleManager().getJobs();
         }
 
+        if ((m_maxThreads != CmsSchedulerElasticThreadPool.DEFAULT_MAX_THREAD_COUNT) || m_virtualThreads) {
+            Element threadPoolElement = schedulerElement.addElement(N_THREADPOOL);
+            threadPoolElement.addAttribute(A_MAXTHREADS, String.valueOf(m_maxThreads));
+            threadPoolElement.addAttribute(A_VIRTUALTHREADS, String.valueOf(m_virtualThreads));
+        }
+        for (Map.Entry<String, Integer> limit : m_jobClassLimits.entrySet()) {
+            Element limitElement = schedulerElement.addElement(N_JOBLIMIT);
+            limitElement.addAttribute(A_CLASS, limit.getKey());
+            limitElement.addAttribute(A_MAXCONCURRENT, String.valueOf(limit.getValue()));
+        }
+
         Iterator<CmsScheduledJobInfo> jobs = m_configuredJobs.iterator();
         while (jobs.hasNext()) {
             CmsScheduledJobInfo jobInfo = jobs.next();
@@ -198,6 +282,9 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
             jobElement.addElement(N_CLASS).addText(jobInfo.getClassName());
             jobElement.addElement(N_REUSEINSTANCE).addText(String.valueOf(jobInfo.isReuseInstance()));
             jobElement.addElement(N_ACTIVE).addText(String.valueOf(jobInfo.isActive()));
+            if (jobInfo.isNoOverlap()) {
+                jobElement.addElement(N_NOOVERLAP).addText(String.valueOf(jobInfo.isNoOverlap()));
+            }
             jobElement.addElement(N_CRONEXPRESSION).addCDATA(jobInfo.getCronExpression());
             Element contextElement = jobElement.addElement(N_CONTEXT);
             contextElement.addElement(N_USERNAME).setText(jobInfo.getContextInfo().getUserName());
@@ -235,6 +322,31 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
         return m_scheduleManager;
     }
 
+    /**
+     * Sets the scheduler thread pool settings.<p>
+     *
+     * @param maxThreads the maximum number of threads for the scheduler thread pool
+     * @param virtualThreads if "true", virtual threads are used if the JVM supports them
+     */
+    public void setThreadPool(String maxThreads, String virtualThreads) {
+
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(maxThreads)) {
+            try {
+                m_maxThreads = Integer.parseInt(maxThreads.trim());
+            } catch (NumberFormatException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_SCHEDULER_THREADS_1, maxThreads), e);
+            }
+        }
+        m_virtualThreads = Boolean.valueOf(virtualThreads).booleanValue();
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(
+                    Messages.INIT_SCHEDULER_THREAD_POOL_2,
+                    new Integer(m_maxThreads),
+                    Boolean.valueOf(m_virtualThreads)));
+        }
+    }
+
     /**
      * @see org.opencms.configuration.A_CmsXmlConfiguration#initMembers()
      */
@@ -243,6 +355,8 @@ public class CmsSchedulerConfiguration extends A_CmsXmlConfiguration {
 
         setXmlFileName(DEFAULT_XML_FILE_NAME);
         m_configuredJobs = new ArrayList<CmsScheduledJobInfo>();
+        m_jobClassLimits = new TreeMap<String, Integer>();
+        m_maxThreads = CmsSchedulerElasticThreadPool.DEFAULT_MAX_THREAD_COUNT;
     }
 
 }
@@ -129,6 +129,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
     /** Node name constant. */
     public static final String N_EXTRACTION_CACHE_MAX_AGE = "extractionCacheMaxAge";
 
+    /** Node name constant. */
+    public static final String N_EXTRACTION_CACHE_MAX_SIZE = "extractionCacheMaxSize";
+
     /** Node name constant. */
     public static final String N_FIELD = "field";
 
@@ -264,6 +267,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // rule for the max. age of entries in the extraction cache
         digester.addCallMethod(XPATH_SEARCH + "/" + N_EXTRACTION_CACHE_MAX_AGE, "setExtractionCacheMaxAge", 0);
 
+        // rule for the max. size of the extraction cache
+        digester.addCallMethod(XPATH_SEARCH + "/" + N_EXTRACTION_CACHE_MAX_SIZE, "setExtractionCacheMaxSize", 0);
+
         // rule for max. number of modifications before commit
         digester.addCallMethod(
             XPATH_SEARCH + "/" + N_MAX_MODIFICATIONS_BEFORE_COMMIT,
@@ -425,6 +431,11 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // add <extractionCacheMaxAge> element
         searchElement.addElement(N_EXTRACTION_CACHE_MAX_AGE).addText(
             String.valueOf(m_searchManager.getExtractionCacheMaxAge()));
+        // add <extractionCacheMaxSize> element
+        if (m_searchManager.getExtractionCacheMaxSize() != CmsSearchManager.DEFAULT_EXTRACTION_CACHE_MAX_SIZE) {
+            searchElement.addElement(N_EXTRACTION_CACHE_MAX_SIZE).addText(
+                String.valueOf(m_searchManager.getExtractionCacheMaxSize()));
+        }
         // add <maxModificationsBeforeCommit> element
         searchElement.addElement(N_MAX_MODIFICATIONS_BEFORE_COMMIT).addText(
             String.valueOf(m_searchManager.getMaxModificationsBeforeCommit()));
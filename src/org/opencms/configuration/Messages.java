@@ -160,6 +160,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SCHEDULER_CONFIG_JOB_3 = "INIT_SCHEDULER_CONFIG_JOB_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_SCHEDULER_JOB_CLASS_LIMIT_2 = "INIT_SCHEDULER_JOB_CLASS_LIMIT_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_SCHEDULER_THREAD_POOL_2 = "INIT_SCHEDULER_THREAD_POOL_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SEARCH_CONFIG_FINISHED_0 = "INIT_SEARCH_CONFIG_FINISHED_0";
 
@@ -301,6 +307,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INVALID_CONFIG_BASE_FOLDER_1 = "LOG_INVALID_CONFIG_BASE_FOLDER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_JOB_CLASS_LIMIT_2 = "LOG_INVALID_JOB_CLASS_LIMIT_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_SCHEDULER_THREADS_1 = "LOG_INVALID_SCHEDULER_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MAIL_SETTINGS_1 = "LOG_MAIL_SETTINGS_1";
 
@@ -35,6 +35,7 @@ import org.opencms.db.generic.CmsUserDriver;
 import org.opencms.db.log.CmsLogEntry;
 import org.opencms.db.log.CmsLogEntryType;
 import org.opencms.db.log.CmsLogFilter;
+import org.opencms.db.urlname.CmsUrlNameMappingCache;
 import org.opencms.db.urlname.CmsUrlNameMappingEntry;
 import org.opencms.db.urlname.CmsUrlNameMappingFilter;
 import org.opencms.file.CmsDataAccessException;
@@ -126,6 +127,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -140,6 +142,7 @@ import java.util.regex.PatternSyntaxException;
 import org.apache.commons.logging.Log;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -187,6 +190,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Request context attribute holding a list that collects deleted resources, so that the caches are
+     * flushed and the delete event is fired only once for a whole batch of delete operations.<p>
+     */
+    public static final String ATTR_DELETED_RESOURCES = "ATTR_DELETED_RESOURCES";
+
     /** Attribute for signaling to the user driver that a specific OU should be initialized by fillDefaults. */
     public static final String ATTR_INIT_OU = "INIT_OU";
 
@@ -329,6 +338,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Constant mode parameter to read all files and folders in the {@link #readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}} method. */
     private static final CmsReadChangedProjectResourceMode RCPRM_FOLDERS_ONLY_MODE = new CmsReadChangedProjectResourceMode();
 
+    /** The maximum number of structure ids for which the URL name mappings are read with a single query. */
+    private static final int URLNAME_BULK_READ_SIZE = 100;
+
     /** Map of pools defined in opencms.properties. */
     protected static ConcurrentMap<String, CmsDbPoolV11> m_pools = Maps.newConcurrentMap();
 
@@ -371,6 +383,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The subscription driver. */
     private I_CmsSubscriptionDriver m_subscriptionDriver;
 
+    /** The cache for the URL name mappings. */
+    private CmsUrlNameMappingCache m_urlNameCache = new CmsUrlNameMappingCache(CmsUrlNameMappingCache.DEFAULT_MAX_SIZE);
+
     /** The user driver. */
     private I_CmsUserDriver m_userDriver;
 
@@ -999,6 +1014,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 m_monitor.clearCache();
+                m_urlNameCache.clear();
                 break;
             case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
             case I_CmsEventListener.EVENT_USER_MODIFIED:
@@ -3004,6 +3020,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                         dbc,
                         false,
                         CmsUrlNameMappingFilter.ALL.filterStructureId(currentResource.getStructureId()));
+                    m_urlNameCache.invalidateStructureId(false, currentResource.getStructureId());
                     getVfsDriver(dbc).deleteAliases(
                         dbc,
                         dbc.currentProject(),
@@ -3045,17 +3062,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
 
-        // flush all caches
-        m_monitor.clearAccessControlListCache();
-        m_monitor.flushCache(
-            CmsMemoryMonitor.CacheType.PROPERTY,
-            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
-            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
-
-        Map<String, Object> eventData = new HashMap<String, Object>();
-        eventData.put(I_CmsEventListener.KEY_RESOURCES, resources);
-        eventData.put(I_CmsEventListener.KEY_DBCONTEXT, dbc);
-        OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_DELETED, eventData));
+        @SuppressWarnings("unchecked")
+        List<CmsResource> batch = (List<CmsResource>)dbc.getRequestContext().getAttribute(ATTR_DELETED_RESOURCES);
+        if (batch != null) {
+            // flushing the caches and firing the event is done once for the whole batch
+            batch.addAll(resources);
+            return;
+        }
+        resourcesDeleted(dbc, resources);
     }
 
     /**
@@ -5417,6 +5431,58 @@ public final class CmsDriverManager implements I_CmsEventListener {
         OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
     }
 
+    /**
+     * Locks a list of resources.<p>
+     *
+     * This is meant for batch operations which modify or delete the locked resources right afterwards, like
+     * the jobs deleting expired resources or updating image sizes. The resource and permission caches are
+     * flushed only once for all given resources.<p>
+     *
+     * Instead of one {@link I_CmsEventListener#EVENT_RESOURCE_MODIFIED} event per resource, like
+     * {@link #lockResource(CmsDbContext, CmsResource, CmsLockType)} fires, a single
+     * {@link I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED} event is fired for the resources
+     * whose project last modified has changed. This event has no change type, so the listeners handle these
+     * resources like modified ones, and the offline search indexes update them. Since the caller modifies or
+     * deletes the resources anyway, this causes no additional work worth mentioning.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to lock
+     * @param type type of the lock
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see #lockResource(CmsDbContext, CmsResource, CmsLockType)
+     */
+    public void lockResources(CmsDbContext dbc, List<CmsResource> resources, CmsLockType type) throws CmsException {
+
+        // update the resource cache
+        m_monitor.clearResourceCache();
+
+        CmsProject project = dbc.currentProject();
+
+        List<CmsResource> changedResources = new ArrayList<CmsResource>(resources.size());
+        for (CmsResource resource : resources) {
+            // add the resource to the lock dispatcher
+            m_lockManager.addResource(dbc, resource, dbc.currentUser(), project, type);
+            if (!resource.getState().isUnchanged() && !resource.getState().isKeep()) {
+                // update the project flag of a modified resource as "last modified inside the current project"
+                getVfsDriver(dbc).writeLastModifiedProjectId(dbc, project, project.getUuid(), resource);
+                changedResources.add(resource);
+            }
+        }
+
+        // we must also clear the permission cache
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PERMISSION);
+
+        // fire a single modification event for all resources with a changed project,
+        // the listeners ignore lock changes of the other resources anyway
+        if (!changedResources.isEmpty()) {
+            Map<String, Object> data = new HashMap<String, Object>(2);
+            data.put(I_CmsEventListener.KEY_RESOURCES, changedResources);
+            OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED, data));
+        }
+    }
+
     /**
      * Adds the given log entry to the current user's log.<p>
      *
@@ -6031,6 +6097,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void publishJob(CmsObject cms, CmsDbContext dbc, CmsPublishList publishList, I_CmsReport report)
     throws CmsException {
 
+        // make sure no online project data is read from a read replica while publishing
+        CmsSqlManager.publishStarted();
         try {
             // check state and lock
             List<CmsResource> allResources = new ArrayList<CmsResource>(publishList.getFolderList());
@@ -6103,8 +6171,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 cms.getRequestContext().setCurrentProject(onlineProject);
             }
         } finally {
-            // clear the cache again
-            m_monitor.clearCache();
+            try {
+                // clear the cache again
+                m_monitor.clearCache();
+            } finally {
+                // the lag of the read replica is measured from the end of the publish job
+                CmsSqlManager.publishFinished();
+            }
         }
     }
 
@@ -6241,6 +6314,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsUrlNameMappingFilter idFilter = CmsUrlNameMappingFilter.ALL.filterStructureId(res.getStructureId());
             vfsDriver.deleteUrlNameMappingEntries(dbc, true, idFilter);
             vfsDriver.deleteUrlNameMappingEntries(dbc, false, idFilter);
+            m_urlNameCache.invalidateStructureId(true, res.getStructureId());
+            m_urlNameCache.invalidateStructureId(false, res.getStructureId());
         } else {
             // copy the new entries to the online table
             List<CmsUrlNameMappingEntry> entries = vfsDriver.readUrlNameMappingEntries(
@@ -6288,6 +6363,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     vfsDriver.addUrlNameMappingEntry(dbc, true, newEntry);
                     vfsDriver.addUrlNameMappingEntry(dbc, false, newEntry);
                 }
+
+                // only the mappings of this resource, and of the resources which had one of its new names, have changed
+                m_urlNameCache.invalidateStructureId(true, res.getStructureId());
+                m_urlNameCache.invalidateStructureId(false, res.getStructureId());
+                for (CmsUrlNameMappingEntry entry : entries) {
+                    m_urlNameCache.invalidateName(true, entry.getName());
+                    m_urlNameCache.invalidateName(false, entry.getName());
+                }
             }
         }
     }
@@ -6450,40 +6533,44 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public String readBestUrlName(CmsDbContext dbc, CmsUUID id, Locale locale, List<Locale> defaultLocales)
     throws CmsDataAccessException {
 
-        List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
+        List<CmsUrlNameMappingEntry> lastEntries = readLatestUrlNameMappingEntries(
             dbc,
-            dbc.currentProject().isOnlineProject(),
-            CmsUrlNameMappingFilter.ALL.filterStructureId(id));
-        if (entries.isEmpty()) {
-            return null;
-        }
+            Collections.singletonList(id)).get(id);
+        return selectBestUrlName(lastEntries, locale, defaultLocales);
+    }
 
-        ArrayListMultimap<String, CmsUrlNameMappingEntry> entriesByLocale = ArrayListMultimap.create();
-        for (CmsUrlNameMappingEntry entry : entries) {
-            entriesByLocale.put(entry.getLocale(), entry);
-        }
-        List<CmsUrlNameMappingEntry> lastEntries = new ArrayList<CmsUrlNameMappingEntry>();
-        Comparator<CmsUrlNameMappingEntry> dateChangedComparator = new UrlNameMappingComparator();
-        for (String localeKey : entriesByLocale.keySet()) {
-            // for each locale select the latest mapping entry
-            CmsUrlNameMappingEntry latestEntryForLocale = Collections.max(
-                entriesByLocale.get(localeKey),
-                dateChangedComparator);
-            lastEntries.add(latestEntryForLocale);
-        }
-        CmsLocaleManager localeManager = OpenCms.getLocaleManager();
-        List<Locale> availableLocales = new ArrayList<Locale>();
-        for (CmsUrlNameMappingEntry entry : lastEntries) {
-            availableLocales.add(CmsLocaleManager.getLocale(entry.getLocale()));
-        }
-        Locale bestLocale = localeManager.getBestMatchingLocale(locale, defaultLocales, availableLocales);
-        String bestLocaleStr = bestLocale.toString();
-        for (CmsUrlNameMappingEntry entry : lastEntries) {
-            if (entry.getLocale().equals(bestLocaleStr)) {
-                return entry.getName();
+    /**
+     * Selects the best url names for a collection of resources and a locale.<p>
+     *
+     * The mappings of all resources which are not cached are read with as few queries as possible,
+     * which makes this method preferable to {@link #readBestUrlName(CmsDbContext, CmsUUID, Locale, List)}
+     * when links to many detail pages have to be generated.<p>
+     *
+     * @param dbc the database context
+     * @param ids the structure ids of the resources
+     * @param locale the requested locale
+     * @param defaultLocales the default locales to use if the locale isn't available
+     *
+     * @return the URL names by structure id, which contains no entries for resources without URL name
+     *
+     * @throws CmsDataAccessException if the database operation failed
+     */
+    public Map<CmsUUID, String> readBestUrlNames(
+        CmsDbContext dbc,
+        Collection<CmsUUID> ids,
+        Locale locale,
+        List<Locale> defaultLocales)
+    throws CmsDataAccessException {
+
+        Map<CmsUUID, List<CmsUrlNameMappingEntry>> entriesById = readLatestUrlNameMappingEntries(dbc, ids);
+        Map<CmsUUID, String> result = new HashMap<CmsUUID, String>();
+        for (Entry<CmsUUID, List<CmsUrlNameMappingEntry>> lastEntries : entriesById.entrySet()) {
+            String name = selectBestUrlName(lastEntries.getValue(), locale, defaultLocales);
+            if (name != null) {
+                result.put(lastEntries.getKey(), name);
             }
         }
-        return null;
+        return result;
     }
 
     /**
@@ -6998,14 +7085,19 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public CmsUUID readIdForUrlName(CmsDbContext dbc, String name) throws CmsDataAccessException {
 
+        boolean online = dbc.currentProject().isOnlineProject();
+        CmsUUID cachedId = m_urlNameCache.getId(online, name);
+        if (cachedId != null) {
+            return cachedId.isNullUUID() ? null : cachedId;
+        }
+        long generation = m_urlNameCache.getGeneration();
         List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
             dbc,
-            dbc.currentProject().isOnlineProject(),
+            online,
             CmsUrlNameMappingFilter.ALL.filterName(name));
-        if (entries.isEmpty()) {
-            return null;
-        }
-        return entries.get(0).getStructureId();
+        CmsUUID result = entries.isEmpty() ? null : entries.get(0).getStructureId();
+        m_urlNameCache.putId(online, name, result, generation);
+        return result;
     }
 
     /**
@@ -8627,6 +8719,30 @@ public final class CmsDriverManager implements I_CmsEventListener {
         OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
     }
 
+    /**
+     * Flushes the caches affected by deleting resources and fires the resource deleted event.<p>
+     *
+     * This is done at the end of every delete operation, or only once for a whole batch of
+     * delete operations if the request context contains the {@link #ATTR_DELETED_RESOURCES} attribute.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the deleted resources
+     */
+    public void resourcesDeleted(CmsDbContext dbc, List<CmsResource> resources) {
+
+        // flush all caches
+        m_monitor.clearAccessControlListCache();
+        m_monitor.flushCache(
+            CmsMemoryMonitor.CacheType.PROPERTY,
+            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+            CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+
+        Map<String, Object> eventData = new HashMap<String, Object>();
+        eventData.put(I_CmsEventListener.KEY_RESOURCES, resources);
+        eventData.put(I_CmsEventListener.KEY_DBCONTEXT, dbc);
+        OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_DELETED, eventData));
+    }
+
     /**
      * Restores a resource in the current project with a version from the historical archive.<p>
      *
@@ -10087,6 +10203,68 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Writes one property for each of the given resources.<p>
+     *
+     * The caches are flushed and the modification event is fired only once for all resources.<p>
+     *
+     * @param dbc the current database context
+     * @param properties the property to write, by resource
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see #writePropertyObject(CmsDbContext, CmsResource, CmsProperty)
+     */
+    public void writePropertyObjects(CmsDbContext dbc, Map<CmsResource, CmsProperty> properties)
+    throws CmsException {
+
+        List<CmsResource> modifiedResources = new ArrayList<CmsResource>(properties.size());
+        try {
+            I_CmsVfsDriver vfsDriver = getVfsDriver(dbc);
+            for (Map.Entry<CmsResource, CmsProperty> entry : properties.entrySet()) {
+                CmsResource resource = entry.getKey();
+                CmsProperty property = entry.getValue();
+                if (property == CmsProperty.getNullProperty()) {
+                    // skip empty or null properties
+                    continue;
+                }
+
+                // test if and what state should be updated
+                // 0: none, 1: structure, 2: resource
+                int updateState = getUpdateState(dbc, resource, Collections.singletonList(property));
+
+                // write the property
+                vfsDriver.writePropertyObject(dbc, dbc.currentProject(), resource, property);
+                modifiedResources.add(resource);
+
+                if (updateState > 0) {
+                    updateState(dbc, resource, updateState == 2);
+                }
+                // log it, forced since every resource is a separate operation
+                log(
+                    dbc,
+                    new CmsLogEntry(
+                        dbc,
+                        resource.getStructureId(),
+                        CmsLogEntryType.RESOURCE_PROPERTIES,
+                        new String[] {resource.getRootPath()}),
+                    true);
+            }
+        } finally {
+            // update the driver manager cache
+            m_monitor.clearResourceCache();
+            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+
+            // fire an event that the properties of the resources have been modified
+            if (!modifiedResources.isEmpty()) {
+                OpenCms.fireCmsEvent(
+                    new CmsEvent(
+                        I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED,
+                        Collections.<String, Object> singletonMap(I_CmsEventListener.KEY_RESOURCES, modifiedResources)));
+            }
+        }
+    }
+
     /**
      * Updates a publish job.<p>
      *
@@ -10273,6 +10451,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             System.currentTimeMillis(),
             locale);
         getVfsDriver(dbc).addUrlNameMappingEntry(dbc, false, newEntry);
+        m_urlNameCache.invalidateStructureId(false, structureId);
+        m_urlNameCache.invalidateName(false, name);
     }
 
     /**
@@ -11490,6 +11670,98 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Reads the newest URL name mapping entry per locale for each of the given structure ids.<p>
+     *
+     * Cached entries are used if available, the entries of all other structure ids are read in batches
+     * and added to the cache.<p>
+     *
+     * @param dbc the current database context
+     * @param ids the structure ids
+     *
+     * @return the newest mapping entries per locale, by structure id; the list is empty for structure ids without mappings
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private Map<CmsUUID, List<CmsUrlNameMappingEntry>> readLatestUrlNameMappingEntries(
+        CmsDbContext dbc,
+        Collection<CmsUUID> ids)
+    throws CmsDataAccessException {
+
+        boolean online = dbc.currentProject().isOnlineProject();
+        Map<CmsUUID, List<CmsUrlNameMappingEntry>> result = new HashMap<CmsUUID, List<CmsUrlNameMappingEntry>>();
+        Set<CmsUUID> missingIds = new LinkedHashSet<CmsUUID>();
+        for (CmsUUID id : ids) {
+            List<CmsUrlNameMappingEntry> cachedEntries = m_urlNameCache.getLatestEntries(online, id);
+            if (cachedEntries != null) {
+                result.put(id, cachedEntries);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return result;
+        }
+
+        long generation = m_urlNameCache.getGeneration();
+        Comparator<CmsUrlNameMappingEntry> dateChangedComparator = new UrlNameMappingComparator();
+        for (List<CmsUUID> batch : Lists.partition(new ArrayList<CmsUUID>(missingIds), URLNAME_BULK_READ_SIZE)) {
+            CmsUrlNameMappingFilter filter = batch.size() == 1
+            ? CmsUrlNameMappingFilter.ALL.filterStructureId(batch.get(0))
+            : CmsUrlNameMappingFilter.ALL.filterStructureIds(batch);
+            ArrayListMultimap<CmsUUID, CmsUrlNameMappingEntry> entriesById = ArrayListMultimap.create();
+            for (CmsUrlNameMappingEntry entry : getVfsDriver(dbc).readUrlNameMappingEntries(dbc, online, filter)) {
+                entriesById.put(entry.getStructureId(), entry);
+            }
+            for (CmsUUID id : batch) {
+                ArrayListMultimap<String, CmsUrlNameMappingEntry> entriesByLocale = ArrayListMultimap.create();
+                for (CmsUrlNameMappingEntry entry : entriesById.get(id)) {
+                    entriesByLocale.put(entry.getLocale(), entry);
+                }
+                List<CmsUrlNameMappingEntry> lastEntries = new ArrayList<CmsUrlNameMappingEntry>();
+                for (String localeKey : entriesByLocale.keySet()) {
+                    // for each locale select the latest mapping entry
+                    lastEntries.add(Collections.max(entriesByLocale.get(localeKey), dateChangedComparator));
+                }
+                m_urlNameCache.putLatestEntries(online, id, lastEntries, generation);
+                result.put(id, lastEntries);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the URL name with the best matching locale from the newest mapping entries per locale of a resource.<p>
+     *
+     * @param lastEntries the newest mapping entry for each locale
+     * @param locale the requested locale
+     * @param defaultLocales the default locales to use if the locale isn't available
+     *
+     * @return the best URL name, or null if there are no entries
+     */
+    private String selectBestUrlName(
+        List<CmsUrlNameMappingEntry> lastEntries,
+        Locale locale,
+        List<Locale> defaultLocales) {
+
+        if ((lastEntries == null) || lastEntries.isEmpty()) {
+            return null;
+        }
+        CmsLocaleManager localeManager = OpenCms.getLocaleManager();
+        List<Locale> availableLocales = new ArrayList<Locale>();
+        for (CmsUrlNameMappingEntry entry : lastEntries) {
+            availableLocales.add(CmsLocaleManager.getLocale(entry.getLocale()));
+        }
+        Locale bestLocale = localeManager.getBestMatchingLocale(locale, defaultLocales, availableLocales);
+        String bestLocaleStr = bestLocale.toString();
+        for (CmsUrlNameMappingEntry entry : lastEntries) {
+            if (entry.getLocale().equals(bestLocaleStr)) {
+                return entry.getName();
+            }
+        }
+        return null;
+    }
+
     /**
      * Sorts the given list of {@link CmsAccessControlEntry} objects.<p>
      *
@@ -11764,6 +12036,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 CmsUrlNameMappingFilter.ALL.filterStructureId(res.getStructureId()).filterStates(
                     CmsUrlNameMappingEntry.MAPPING_STATUS_NEW,
                     CmsUrlNameMappingEntry.MAPPING_STATUS_REPLACE_ON_PUBLISH));
+            m_urlNameCache.invalidateStructureId(false, res.getStructureId());
             // restore the state to unchanged
             res.setState(newState);
             m_vfsDriver.writeResourceState(dbc, dbc.currentProject(), res, UPDATE_ALL, false);
@@ -3579,6 +3579,61 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Locks all resources of the given list which are not locked by another user.<p>
+     *
+     * Resources which are already locked by the current user in the current project are
+     * returned as they are, resources which are locked by another user or for which the
+     * current user has no write permissions are skipped.<p>
+     *
+     * @param context the current request context
+     * @param resources the resources to lock
+     * @param type type of the lock
+     *
+     * @return the resources which are locked by the current user after this operation
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see #lockResource(CmsRequestContext, CmsResource, CmsLockType)
+     */
+    public List<CmsResource> lockResources(CmsRequestContext context, List<CmsResource> resources, CmsLockType type)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        try {
+            checkOfflineProject(dbc);
+            List<CmsResource> unlocked = new ArrayList<CmsResource>(resources.size());
+            for (CmsResource resource : resources) {
+                try {
+                    checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL);
+                } catch (CmsSecurityException e) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                    continue;
+                }
+                CmsLock lock = m_driverManager.getLock(dbc, resource);
+                if (lock.isNullLock()) {
+                    unlocked.add(resource);
+                    result.add(resource);
+                } else if (lock.isOwnedInProjectBy(dbc.currentUser(), dbc.currentProject())) {
+                    result.add(resource);
+                }
+            }
+            m_driverManager.lockResources(dbc, unlocked, type);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_LOCK_RESOURCES_2,
+                    Integer.valueOf(resources.size()),
+                    type.toString()),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Attempts to authenticate a user into OpenCms with the given password.<p>
      *
@@ -4109,6 +4164,39 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Reads the best URL names which are mapped to the given structure ids.<p>
+     *
+     * @param context the request context
+     * @param ids the structure ids for which the URL names should be returned
+     * @param locale the locale for the mapping
+     * @param defaultLocales the default locales to use if there is no URL name mapping for the requested locale
+     *
+     * @return the URL names by structure id, without entries for structure ids which are not mapped to any name
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, String> readBestUrlNames(
+        CmsRequestContext context,
+        Collection<CmsUUID> ids,
+        Locale locale,
+        List<Locale> defaultLocales)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            return m_driverManager.readBestUrlNames(dbc, ids, locale, defaultLocales);
+        } catch (Exception e) {
+            CmsMessageContainer message = Messages.get().container(
+                Messages.ERR_READ_BEST_URLNAMES_1,
+                Integer.valueOf(ids.size()));
+            dbc.report(null, message, e);
+            return null; // will never be reached
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Returns the child resources of a resource, that is the resources
      * contained in a folder.<p>
@@ -5802,6 +5890,25 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Flushes the caches affected by deleting resources and fires the resource deleted event
+     * for a batch of delete operations.<p>
+     *
+     * @param context the current request context
+     * @param resources the deleted resources
+     *
+     * @see CmsDriverManager#ATTR_DELETED_RESOURCES
+     */
+    public void resourcesDeleted(CmsRequestContext context, List<CmsResource> resources) {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.resourcesDeleted(dbc, resources);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Restores a deleted resource identified by its structure id from the historical archive.<p>
      *
@@ -6852,6 +6959,45 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Writes one property for each of the given resources.<p>
+     *
+     * Either the properties of all resources are written, or the operation fails
+     * before writing if the current user has insufficient permissions for one of the resources.<p>
+     *
+     * @param context the current request context
+     * @param properties the property to write, by resource
+     *
+     * @throws CmsException if something goes wrong
+     * @throws CmsSecurityException if the user has insufficient permission for one of the resources ({@link CmsPermissionSet#ACCESS_WRITE} required)
+     *
+     * @see CmsObject#writePropertyObjects(Map)
+     */
+    public void writePropertyObjects(CmsRequestContext context, Map<CmsResource, CmsProperty> properties)
+    throws CmsException, CmsSecurityException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            checkOfflineProject(dbc);
+            for (CmsResource resource : properties.keySet()) {
+                checkPermissions(
+                    dbc,
+                    resource,
+                    CmsPermissionSet.ACCESS_WRITE,
+                    true,
+                    CmsResourceFilter.IGNORE_EXPIRATION);
+            }
+            m_driverManager.writePropertyObjects(dbc, properties);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_WRITE_PROPS_RESOURCES_1, Integer.valueOf(properties.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Writes a resource to the OpenCms VFS.<p>
      *
@@ -31,6 +31,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Superclass for all SQL manager implementations.<p>
@@ -39,6 +40,12 @@ import java.util.List;
  */
 public class CmsSqlManager {
 
+    /** The time the last publish job finished. */
+    private static volatile long m_lastPublishEnd;
+
+    /** The number of currently running publish jobs. */
+    private static final AtomicInteger m_runningPublishes = new AtomicInteger();
+
     /** the driver manager. */
     private CmsDriverManager m_driverManager;
 
@@ -59,6 +66,43 @@ public class CmsSqlManager {
         m_driverManager = driverManager;
     }
 
+    /**
+     * Checks if the online project may be considered unchanged for the given time span.<p>
+     *
+     * This is the case if no publish job is currently running, and the last publish job
+     * finished more than the given number of milliseconds ago. It is used to decide if
+     * online project data may be read from a read replica, which may lag behind the primary database.<p>
+     *
+     * @param lag the time span in milliseconds
+     *
+     * @return <code>true</code> if the online project has not been changed by a publish job in the given time span
+     */
+    public static boolean isOnlineProjectStable(long lag) {
+
+        return (m_runningPublishes.get() == 0) && ((System.currentTimeMillis() - m_lastPublishEnd) > lag);
+    }
+
+    /**
+     * Notifies the SQL managers that a publish job has finished.<p>
+     *
+     * @see #publishStarted()
+     */
+    public static void publishFinished() {
+
+        m_lastPublishEnd = System.currentTimeMillis();
+        m_runningPublishes.decrementAndGet();
+    }
+
+    /**
+     * Notifies the SQL managers that a publish job has started.<p>
+     *
+     * Every call of this method must be followed by a call to {@link #publishFinished()}.<p>
+     */
+    public static void publishStarted() {
+
+        m_runningPublishes.incrementAndGet();
+    }
+
     /**
      * Returns the number of active connections managed by a pool.<p>
      *
@@ -345,6 +345,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_LOCK_RESOURCE_2 = "ERR_LOCK_RESOURCE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_LOCK_RESOURCES_2 = "ERR_LOCK_RESOURCES_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_LOGIN_MESSAGE_BAD_END_TIME_0 = "ERR_LOGIN_MESSAGE_BAD_END_TIME_0";
 
@@ -438,6 +441,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_ALL_PROPDEF_0 = "ERR_READ_ALL_PROPDEF_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_BEST_URLNAMES_1 = "ERR_READ_BEST_URLNAMES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_CHILD_GROUP_NO_PERMISSION_0 = "ERR_READ_CHILD_GROUP_NO_PERMISSION_0";
 
@@ -774,6 +780,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_PROPS_1 = "ERR_WRITE_PROPS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_WRITE_PROPS_RESOURCES_1 = "ERR_WRITE_PROPS_RESOURCES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_RESOURCE_1 = "ERR_WRITE_RESOURCE_1";
 
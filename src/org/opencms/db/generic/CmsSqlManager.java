@@ -31,6 +31,7 @@ import org.opencms.db.CmsDbContext;
 import org.opencms.file.CmsProject;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
+import org.opencms.monitor.CmsRequestStatistics;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
@@ -65,9 +66,15 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
     /** The filename/path of the SQL query properties. */
     private static final String QUERY_PROPERTIES = "org/opencms/db/generic/query.properties";
 
-    /** A map to cache queries with replaced search patterns. */
+    /** A map to cache project independent queries with replaced search patterns. */
     protected ConcurrentHashMap<String, String> m_cachedQueries;
 
+    /** A map to cache offline project queries with replaced search patterns. */
+    protected ConcurrentHashMap<String, String> m_cachedQueriesOffline;
+
+    /** A map to cache online project queries with replaced search patterns. */
+    protected ConcurrentHashMap<String, String> m_cachedQueriesOnline;
+
     /** The type ID of the driver (vfs, user, project or history) from where this SQL manager is referenced. */
     protected int m_driverType;
 
@@ -77,12 +84,20 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
     /** A map holding all SQL queries. */
     protected Map<String, String> m_queries;
 
+    /** The time in milliseconds after a publish during which online project reads are not sent to the read pool. */
+    protected long m_readPoolLag;
+
+    /** The pool URL of the optional read replica used for read-only online project queries, may be <code>null</code>. */
+    protected String m_readPoolUrl;
+
     /**
      * Creates a new, empty SQL manager.<p>
      */
     public CmsSqlManager() {
 
         m_cachedQueries = new ConcurrentHashMap<String, String>();
+        m_cachedQueriesOffline = new ConcurrentHashMap<String, String>();
+        m_cachedQueriesOnline = new ConcurrentHashMap<String, String>();
         m_queries = new HashMap<String, String>();
         loadQueryProperties(QUERY_PROPERTIES);
     }
@@ -164,6 +179,7 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         try {
             // close the statement
             if (stmnt != null) {
+                CmsRequestStatistics.recordSqlClosed(stmnt);
                 stmnt.close();
             }
         } catch (SQLException e) {
@@ -224,6 +240,38 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         return getConnectionByUrl(m_poolUrl);
     }
 
+    /**
+     * Returns a JDBC connection for a read-only query in the given project.<p>
+     *
+     * If a read pool is configured, the query is for the online project, no publish job has changed
+     * the online project recently and the current user is the guest user, the connection is taken from the read pool.
+     * In all other cases, or if no connection can be obtained from the read pool, the connection
+     * is taken from the primary pool, like in {@link #getConnection(CmsDbContext)}.<p>
+     *
+     * The returned connection must only be used for reading.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the project the query is for
+     *
+     * @return a JDBC connection
+     *
+     * @throws SQLException if something goes wrong
+     */
+    public Connection getReadConnection(CmsDbContext dbc, CmsUUID projectId) throws SQLException {
+
+        if ((m_readPoolUrl != null)
+            && isReadPoolAllowed(dbc, projectId)
+            && org.opencms.db.CmsSqlManager.isOnlineProjectStable(m_readPoolLag)) {
+            try {
+                return getConnectionByUrl(m_readPoolUrl);
+            } catch (Exception e) {
+                // fall back to the primary pool
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_READ_POOL_FALLBACK_1, m_readPoolUrl), e);
+            }
+        }
+        return getConnection(dbc);
+    }
+
     /**
      * Returns a PreparedStatement for a JDBC connection specified by the key of a SQL query
      * and the CmsProject.<p>
@@ -258,7 +306,9 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
     throws SQLException {
 
         String rawSql = readQuery(projectId, queryKey);
-        return getPreparedStatementForSql(con, rawSql);
+        PreparedStatement stmnt = getPreparedStatementForSql(con, rawSql);
+        CmsRequestStatistics.recordSqlPrepared(stmnt, queryKey);
+        return stmnt;
     }
 
     /**
@@ -272,7 +322,9 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
     public PreparedStatement getPreparedStatement(Connection con, String queryKey) throws SQLException {
 
         String rawSql = readQuery(CmsUUID.getNullUUID(), queryKey);
-        return getPreparedStatementForSql(con, rawSql);
+        PreparedStatement stmnt = getPreparedStatementForSql(con, rawSql);
+        CmsRequestStatistics.recordSqlPrepared(stmnt, queryKey);
+        return stmnt;
     }
 
     /**
@@ -303,6 +355,23 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Initializes this SQL manager with an additional read pool.<p>
+     *
+     * @param driverType the type ID of the driver (vfs,user,project or history) from where this SQL manager is referenced
+     * @param poolUrl the pool URL to get connections from the JDBC driver manager
+     * @param readPoolUrl the pool URL of the read replica for read-only online project queries, may be <code>null</code>
+     * @param readPoolLag the time in milliseconds after a publish during which the read pool is not used
+     *
+     * @see #getReadConnection(CmsDbContext, CmsUUID)
+     */
+    public void init(int driverType, String poolUrl, String readPoolUrl, long readPoolLag) {
+
+        init(driverType, poolUrl);
+        m_readPoolUrl = CmsStringUtil.isEmptyOrWhitespaceOnly(readPoolUrl) ? null : readPoolUrl.trim();
+        m_readPoolLag = readPoolLag;
+    }
+
     /**
      * Searches for the SQL query with the specified key and CmsProject.<p>
      *
@@ -328,23 +397,18 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
      */
     public String readQuery(CmsUUID projectId, String queryKey) {
 
-        String key;
-        if ((projectId != null) && !projectId.isNullUUID()) {
-            // id 0 is special, please see below
-            StringBuffer buffer = new StringBuffer(128);
-            buffer.append(queryKey);
-            if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
-                buffer.append("_ONLINE");
-            } else {
-                buffer.append("_OFFLINE");
-            }
-            key = buffer.toString();
+        // id 0 is special, please see below
+        ConcurrentHashMap<String, String> cachedQueries;
+        if ((projectId == null) || projectId.isNullUUID()) {
+            cachedQueries = m_cachedQueries;
+        } else if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
+            cachedQueries = m_cachedQueriesOnline;
         } else {
-            key = queryKey;
+            cachedQueries = m_cachedQueriesOffline;
         }
 
         // look up the query in the cache
-        String query = m_cachedQueries.get(key);
+        String query = cachedQueries.get(queryKey);
 
         if (query == null) {
             // the query has not been cached yet
@@ -366,7 +430,7 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
             }
 
             // to minimize costs, all statements with replaced expressions are cached in a map
-            m_cachedQueries.put(key, query);
+            cachedQueries.put(queryKey, query);
         }
 
         return query;
@@ -424,6 +488,26 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         return " ";
     }
 
+    /**
+     * Checks if a read-only query in the given project may use the read pool for the given database context.<p>
+     *
+     * This is only the case for queries in the online project done by the guest user,
+     * the state of the online project is checked separately.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the project the query is for
+     *
+     * @return <code>true</code> if the read pool may be used
+     */
+    protected boolean isReadPoolAllowed(CmsDbContext dbc, CmsUUID projectId) {
+
+        return (dbc != null)
+            && (dbc.getRequestContext() != null)
+            && CmsProject.ONLINE_PROJECT_ID.equals(projectId)
+            && dbc.currentProject().isOnlineProject()
+            && dbc.currentUser().isGuestUser();
+    }
+
     /**
      * Loads a Java properties hash containing SQL queries.<p>
      *
@@ -147,6 +147,15 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             parameters.add(new CmsPreparedStatementStringParameter(filter.getStructureId().toString()));
         }
 
+        if (filter.getStructureIds() != null) {
+            List<String> placeholders = new ArrayList<String>();
+            for (CmsUUID structureId : filter.getStructureIds()) {
+                placeholders.add("?");
+                parameters.add(new CmsPreparedStatementStringParameter(structureId.toString()));
+            }
+            sqlConditions.add("STRUCTURE_ID IN (" + CmsStringUtil.listAsString(placeholders, ",") + ")");
+        }
+
         if (filter.getNamePattern() != null) {
             sqlConditions.add(" NAME LIKE ? ");
             parameters.add(new CmsPreparedStatementStringParameter(filter.getNamePattern()));
@@ -1364,14 +1373,23 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
         CmsParameterConfiguration configuration = configurationManager.getConfiguration();
         String poolUrl = configuration.get("db.vfs.pool");
+        String readPoolUrl = configuration.get("db.vfs.readpool");
+        long readPoolLag = configuration.getInteger("db.vfs.readpool.lag", 10000);
         String classname = configuration.get("db.vfs.sqlmanager");
         m_sqlManager = initSqlManager(classname);
-        m_sqlManager.init(I_CmsVfsDriver.DRIVER_TYPE_ID, poolUrl);
+        m_sqlManager.init(I_CmsVfsDriver.DRIVER_TYPE_ID, poolUrl, readPoolUrl, readPoolLag);
 
         m_driverManager = driverManager;
 
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_ASSIGNED_POOL_1, poolUrl));
+            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(readPoolUrl)) {
+                CmsLog.INIT.info(
+                    Messages.get().getBundle().key(
+                        Messages.INIT_ASSIGNED_READ_POOL_2,
+                        readPoolUrl,
+                        String.valueOf(readPoolLag)));
+            }
         }
 
         if ((successiveDrivers != null) && !successiveDrivers.isEmpty()) {
@@ -1860,7 +1878,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         byte[] byteRes = null;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
                 stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_ONLINE_FILES_CONTENT");
             } else {
@@ -2094,7 +2112,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         int resultSize = 0;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_READ");
 
             stmt.setString(1, key);
@@ -2167,7 +2185,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         CmsProperty property;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_PROPERTIES_READALL");
             stmt.setString(1, resource.getStructureId().toString());
             stmt.setString(2, resource.getResourceId().toString());
@@ -2309,7 +2327,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         Connection conn = null;
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_READBYID");
 
             stmt.setString(1, structureId.toString());
@@ -2360,7 +2378,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         boolean endsWithSlash = (len != path.length());
 
         try {
-            conn = m_sqlManager.getConnection(dbc);
+            conn = m_sqlManager.getReadConnection(dbc, projectId);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_READ");
 
             stmt.setString(1, path);
@@ -274,6 +274,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_ASSIGNED_POOL_1 = "INIT_ASSIGNED_POOL_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_ASSIGNED_READ_POOL_2 = "INIT_ASSIGNED_READ_POOL_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_DEFAULT_USERS_CREATED_0 = "INIT_DEFAULT_USERS_CREATED_0";
 
@@ -388,6 +391,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_QUERY_NOT_FOUND_1 = "LOG_QUERY_NOT_FOUND_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_READ_POOL_FALLBACK_1 = "LOG_READ_POOL_FALLBACK_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_READING_RESOURCE_1 = "LOG_READING_RESOURCE_1";
 
@@ -0,0 +1,325 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db.urlname;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Cache for the URL name mappings used when generating and resolving detail page links.<p>
+ *
+ * For both the Online and the Offline project, the cache stores the newest mapping entry per locale
+ * for a structure id, and the structure id for an URL name. Lookups which found no mapping are cached
+ * as well, so requests for unknown detail names don't need a database query either.<p>
+ *
+ * The cache is not cleared when a project is published. Instead, the driver manager invalidates the
+ * entries for the structure ids and names which it changes, so the mappings of all other contents
+ * stay cached. To find the cached entries for a name, the structure ids of the cached entries are indexed by
+ * the names they contain.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsUrlNameMappingCache {
+
+    /** The default maximum number of cached structure ids and names, per project type. */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /** Marker for names which are cached as not mapped to any structure id. */
+    private static final CmsUUID NOT_MAPPED = CmsUUID.getNullUUID();
+
+    /** The newest Offline mapping entries per locale, by structure id. */
+    private Cache<CmsUUID, List<CmsUrlNameMappingEntry>> m_entriesOffline;
+
+    /** The newest Online mapping entries per locale, by structure id. */
+    private Cache<CmsUUID, List<CmsUrlNameMappingEntry>> m_entriesOnline;
+
+    /** Counter which is increased on every change, to prevent caching of values read before the change. */
+    private AtomicLong m_generation = new AtomicLong();
+
+    /** The Offline structure ids, by URL name. */
+    private Cache<String, CmsUUID> m_idsOffline;
+
+    /** The Online structure ids, by URL name. */
+    private Cache<String, CmsUUID> m_idsOnline;
+
+    /** The structure ids of the cached Offline entries, by the URL names contained in the entries. */
+    private Map<String, Set<CmsUUID>> m_namesOffline = new HashMap<String, Set<CmsUUID>>();
+
+    /** The structure ids of the cached Online entries, by the URL names contained in the entries. */
+    private Map<String, Set<CmsUUID>> m_namesOnline = new HashMap<String, Set<CmsUUID>>();
+
+    /**
+     * Creates a new URL name mapping cache.<p>
+     *
+     * @param maxSize the maximum number of cached structure ids and names, per project type
+     */
+    public CmsUrlNameMappingCache(int maxSize) {
+
+        m_entriesOffline = createEntriesCache(maxSize, m_namesOffline);
+        m_entriesOnline = createEntriesCache(maxSize, m_namesOnline);
+        m_idsOffline = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        m_idsOnline = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Removes all entries from the cache.<p>
+     */
+    public void clear() {
+
+        m_generation.incrementAndGet();
+        m_entriesOffline.invalidateAll();
+        m_entriesOnline.invalidateAll();
+        m_idsOffline.invalidateAll();
+        m_idsOnline.invalidateAll();
+    }
+
+    /**
+     * Returns the current generation of the cache.<p>
+     *
+     * The generation must be read before the mappings are read from the database, and passed to
+     * the <code>put</code> methods afterwards. If the cache was changed in between, the values are not cached.<p>
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+
+        return m_generation.get();
+    }
+
+    /**
+     * Returns the cached structure id for an URL name.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param name the URL name
+     *
+     * @return the structure id, the null UUID if the name is cached as not mapped, or null if the name is not cached
+     */
+    public CmsUUID getId(boolean online, String name) {
+
+        return getIds(online).getIfPresent(name);
+    }
+
+    /**
+     * Returns the cached newest mapping entries per locale for a structure id.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param structureId the structure id
+     *
+     * @return the unmodifiable list of entries, which is empty if the structure id has no mappings,
+     *      or null if the structure id is not cached
+     */
+    public List<CmsUrlNameMappingEntry> getLatestEntries(boolean online, CmsUUID structureId) {
+
+        return getEntries(online).getIfPresent(structureId);
+    }
+
+    /**
+     * Removes an URL name from the cache.<p>
+     *
+     * This also removes the cached entries of all structure ids for which the name is the newest mapping of a locale.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param name the URL name
+     */
+    public void invalidateName(boolean online, String name) {
+
+        m_generation.incrementAndGet();
+        getIds(online).invalidate(name);
+        Map<String, Set<CmsUUID>> index = getNames(online);
+        Set<CmsUUID> structureIds;
+        synchronized (index) {
+            structureIds = index.remove(name);
+        }
+        if (structureIds != null) {
+            getEntries(online).invalidateAll(structureIds);
+        }
+    }
+
+    /**
+     * Removes a structure id from the cache.<p>
+     *
+     * This also removes all cached URL names which are mapped to the structure id.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param structureId the structure id
+     */
+    public void invalidateStructureId(boolean online, CmsUUID structureId) {
+
+        m_generation.incrementAndGet();
+        getEntries(online).invalidate(structureId);
+        Iterator<CmsUUID> it = getIds(online).asMap().values().iterator();
+        while (it.hasNext()) {
+            if (structureId.equals(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Caches the structure id for an URL name.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param name the URL name
+     * @param structureId the structure id, or null if the name is not mapped
+     * @param generation the generation of the cache before the structure id was read
+     */
+    public void putId(boolean online, String name, CmsUUID structureId, long generation) {
+
+        if (generation == m_generation.get()) {
+            getIds(online).put(name, structureId != null ? structureId : NOT_MAPPED);
+            if (generation != m_generation.get()) {
+                // the cache was changed between the check and the put, and may have missed the new value
+                getIds(online).invalidate(name);
+            }
+        }
+    }
+
+    /**
+     * Caches the newest mapping entries per locale for a structure id.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     * @param structureId the structure id
+     * @param entries the newest mapping entries per locale, may be empty
+     * @param generation the generation of the cache before the entries were read
+     */
+    public void putLatestEntries(
+        boolean online,
+        CmsUUID structureId,
+        List<CmsUrlNameMappingEntry> entries,
+        long generation) {
+
+        if (generation == m_generation.get()) {
+            getEntries(online).put(
+                structureId,
+                Collections.unmodifiableList(new ArrayList<CmsUrlNameMappingEntry>(entries)));
+            Map<String, Set<CmsUUID>> index = getNames(online);
+            synchronized (index) {
+                for (CmsUrlNameMappingEntry entry : entries) {
+                    Set<CmsUUID> structureIds = index.get(entry.getName());
+                    if (structureIds == null) {
+                        structureIds = new HashSet<CmsUUID>();
+                        index.put(entry.getName(), structureIds);
+                    }
+                    structureIds.add(structureId);
+                }
+            }
+            if (generation != m_generation.get()) {
+                // the cache was changed between the check and indexing the names, and may have missed the new entries
+                getEntries(online).invalidate(structureId);
+            }
+        }
+    }
+
+    /**
+     * Creates a cache for mapping entries, which removes the structure ids of removed entries from the name index.<p>
+     *
+     * This also happens when entries are replaced, the names of the new entries are indexed after they have been put
+     * into the cache. The index may contain a few structure ids which are not cached anymore, this only
+     * causes unnecessary invalidations.<p>
+     *
+     * @param maxSize the maximum number of cached structure ids
+     * @param index the name index
+     *
+     * @return the mapping entry cache
+     */
+    private Cache<CmsUUID, List<CmsUrlNameMappingEntry>> createEntriesCache(
+        int maxSize,
+        final Map<String, Set<CmsUUID>> index) {
+
+        return CacheBuilder.newBuilder().maximumSize(maxSize).removalListener(
+            new RemovalListener<CmsUUID, List<CmsUrlNameMappingEntry>>() {
+
+                public void onRemoval(RemovalNotification<CmsUUID, List<CmsUrlNameMappingEntry>> notification) {
+
+                    synchronized (index) {
+                        for (CmsUrlNameMappingEntry entry : notification.getValue()) {
+                            Set<CmsUUID> structureIds = index.get(entry.getName());
+                            if (structureIds != null) {
+                                structureIds.remove(notification.getKey());
+                                if (structureIds.isEmpty()) {
+                                    index.remove(entry.getName());
+                                }
+                            }
+                        }
+                    }
+                }
+            }).build();
+    }
+
+    /**
+     * Returns the mapping entry cache for the given project type.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     *
+     * @return the mapping entry cache
+     */
+    private Cache<CmsUUID, List<CmsUrlNameMappingEntry>> getEntries(boolean online) {
+
+        return online ? m_entriesOnline : m_entriesOffline;
+    }
+
+    /**
+     * Returns the name index for the given project type.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     *
+     * @return the name index
+     */
+    private Map<String, Set<CmsUUID>> getNames(boolean online) {
+
+        return online ? m_namesOnline : m_namesOffline;
+    }
+
+    /**
+     * Returns the structure id cache for the given project type.<p>
+     *
+     * @param online true for the Online project, false for the Offline project
+     *
+     * @return the structure id cache
+     */
+    private Cache<String, CmsUUID> getIds(boolean online) {
+
+        return online ? m_idsOnline : m_idsOffline;
+    }
+
+}
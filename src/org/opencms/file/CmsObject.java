@@ -28,6 +28,7 @@
 package org.opencms.file;
 
 import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.CmsSecurityManager;
@@ -46,6 +47,7 @@ import org.opencms.lock.CmsLockFilter;
 import org.opencms.lock.CmsLockType;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
+import org.opencms.main.CmsMultiException;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsRelation;
@@ -68,6 +70,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -1072,6 +1075,49 @@ public final class CmsObject {
         getResourceType(resource).deleteResource(this, m_securityManager, resource, siblingMode);
     }
 
+    /**
+     * Deletes a list of resources.<p>
+     *
+     * Every resource is deleted by its resource type like in {@link #deleteResource(CmsResource, CmsResourceDeleteMode)},
+     * but the caches are flushed and the resource deleted event is fired only once for all deleted resources.
+     * A failure to delete a single resource does not stop the operation, all failures are collected
+     * and thrown as a {@link CmsMultiException} at the end.<p>
+     *
+     * @param resources the resources to delete
+     * @param siblingMode indicates how to handle siblings of the deleted resources
+     *
+     * @throws CmsException if one or more of the resources could not be deleted
+     */
+    public void deleteResources(List<CmsResource> resources, CmsResource.CmsResourceDeleteMode siblingMode)
+    throws CmsException {
+
+        boolean nested = m_context.getAttribute(CmsDriverManager.ATTR_DELETED_RESOURCES) != null;
+        List<CmsResource> deleted = new ArrayList<CmsResource>();
+        if (!nested) {
+            m_context.setAttribute(CmsDriverManager.ATTR_DELETED_RESOURCES, deleted);
+        }
+        CmsMultiException errors = new CmsMultiException();
+        try {
+            for (CmsResource resource : resources) {
+                try {
+                    getResourceType(resource).deleteResource(this, m_securityManager, resource, siblingMode);
+                } catch (CmsException e) {
+                    errors.addException(e);
+                }
+            }
+        } finally {
+            if (!nested) {
+                m_context.removeAttribute(CmsDriverManager.ATTR_DELETED_RESOURCES);
+                if (!deleted.isEmpty()) {
+                    m_securityManager.resourcesDeleted(m_context, deleted);
+                }
+            }
+        }
+        if (errors.hasExceptions()) {
+            throw errors;
+        }
+    }
+
     /**
      * Deletes a published resource entry.<p>
      *
@@ -2162,6 +2208,27 @@ public final class CmsObject {
         lockResource(resourcename, CmsLockType.TEMPORARY);
     }
 
+    /**
+     * Locks all resources of the given list which are not locked by another user.<p>
+     *
+     * This will be an exclusive, persistent lock that is removed only if the user unlocks it.
+     * Resources which are locked by another user or which the current user is not allowed to write are skipped.<p>
+     *
+     * This is meant for batch operations which modify or delete the resources right afterwards. Instead of one
+     * event per resource, a single {@link org.opencms.main.I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED}
+     * event is fired for all locked resources.<p>
+     *
+     * @param resources the resources to lock
+     *
+     * @return the resources which are locked by the current user in the current project after this operation
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> lockResources(List<CmsResource> resources) throws CmsException {
+
+        return m_securityManager.lockResources(m_context, resources, CmsLockType.EXCLUSIVE);
+    }
+
     /**
      * Logs a user into the Cms, if the password is correct.<p>
      *
@@ -2367,6 +2434,24 @@ public final class CmsObject {
         return m_securityManager.readBestUrlName(m_context, id, locale, defaultLocales);
     }
 
+    /**
+     * Reads the best URL names which are mapped to the given structure ids.<p>
+     *
+     * Use this instead of calling {@link #readBestUrlName(CmsUUID, Locale, List)} for every id when generating
+     * links to many detail pages, e.g. in a list of teasers.<p>
+     *
+     * @param ids the structure ids for which the URL names should be returned
+     * @param locale the locale for which the URL names should be selected if possible
+     * @param defaultLocales the default locales which should be used if the locale is not available
+     * @return the URL names by structure id, without entries for structure ids which are not mapped to any name
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, String> readBestUrlNames(Collection<CmsUUID> ids, Locale locale, List<Locale> defaultLocales)
+    throws CmsException {
+
+        return m_securityManager.readBestUrlNames(m_context, ids, locale, defaultLocales);
+    }
+
     /**
      * Returns the default resource for the given folder.<p>
      * <ol>
@@ -4111,6 +4196,21 @@ public final class CmsObject {
         getResourceType(resource).writePropertyObjects(this, m_securityManager, resource, properties);
     }
 
+    /**
+     * Writes one property for each of the given resources.<p>
+     *
+     * This is intended for bulk operations, the caches are flushed and the modification event is
+     * fired only once for all resources. All resources must be locked by the current user.<p>
+     *
+     * @param properties the property to write, by resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void writePropertyObjects(Map<CmsResource, CmsProperty> properties) throws CmsException {
+
+        m_securityManager.writePropertyObjects(m_context, properties);
+    }
+
     /**
      * Writes a resource.<p>
      *
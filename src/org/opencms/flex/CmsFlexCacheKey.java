@@ -151,15 +151,73 @@ public class CmsFlexCacheKey {
     /** Marker to identify use of certain String key members (uri, ip etc.). */
     private static final String IS_USED = "/ /";
 
+    /** Key layout: index of the uri value. */
+    private static final int LAYOUT_0_URI = 0;
+
+    /** Key layout: index of the site value. */
+    private static final int LAYOUT_1_SITE = 1;
+
+    /** Key layout: index of the element value. */
+    private static final int LAYOUT_2_ELEMENT = 2;
+
+    /** Key layout: index of the device value. */
+    private static final int LAYOUT_3_DEVICE = 3;
+
+    /** Key layout: index of the container element value. */
+    private static final int LAYOUT_4_CONTAINER_ELEMENT = 4;
+
+    /** Key layout: index of the locale value. */
+    private static final int LAYOUT_5_LOCALE = 5;
+
+    /** Key layout: index of the encoding value. */
+    private static final int LAYOUT_6_ENCODING = 6;
+
+    /** Key layout: index of the ip value. */
+    private static final int LAYOUT_7_IP = 7;
+
+    /** Key layout: index of the user value. */
+    private static final int LAYOUT_8_USER = 8;
+
+    /** The variation prefixes of the key layout values, the order is the order of the values in the variation. */
+    private static final String[] LAYOUT_PREFIXES = {
+        CACHE_02_URI + "=(",
+        CACHE_17_SITE + "=(",
+        CACHE_14_ELEMENT + "=(",
+        CACHE_20_DEVICE + "=(",
+        CACHE_21_CONTAINER_ELEMENT + "=(",
+        CACHE_15_LOCALE + "=(",
+        CACHE_16_ENCODING + "=(",
+        CACHE_13_IP + "=(",
+        CACHE_03_USER + "=("};
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCacheKey.class);
 
+    /** Buffers larger than this are not kept for the next variation. */
+    private static final int MAX_BUILDER_CAPACITY = 4096;
+
+    /** The per thread buffer used to build the variation, to avoid a new buffer for every key match. */
+    private static final ThreadLocal<StringBuilder> VARIATION_BUILDER = new ThreadLocal<StringBuilder>() {
+
+        /**
+         * @see java.lang.ThreadLocal#initialValue()
+         */
+        @Override
+        protected StringBuilder initialValue() {
+
+            return new StringBuilder(256);
+        }
+    };
+
     /** Cache key variable: Determines if this resource can be cached alwys, never or under certain conditions. -1 = never, 0=check, 1=always. */
     private int m_always;
 
     /** Cache key variable: List of attributes. */
     private Set<String> m_attrs;
 
+    /** The attributes as array, to match them without an iterator. */
+    private String[] m_attrsArray;
+
     /** Cache key variable: The current container element. */
     private String m_containerElement;
 
@@ -175,18 +233,30 @@ public class CmsFlexCacheKey {
     /** Cache key variable: The ip address of the request. */
     private String m_ip;
 
+    /** The precomputed layout of the simple key values (uri, site etc.) in the variation. */
+    private int[] m_layout;
+
     /** Cache key variable: The requested locale. */
     private String m_locale;
 
     /** Cache key variable: List of "blocking" attributes. */
     private Set<String> m_noattrs;
 
+    /** The "blocking" attributes as array, to match them without an iterator. */
+    private String[] m_noattrsArray;
+
     /** Cache key variable: List of "blocking" parameters. */
     private Set<String> m_noparams;
 
+    /** The "blocking" parameters as array, to match them without an iterator. */
+    private String[] m_noparamsArray;
+
     /** Cache key variable: List of parameters. */
     private Set<String> m_params;
 
+    /** The parameters as array, to match them without an iterator. */
+    private String[] m_paramsArray;
+
     /** Flag raised in case a key parse error occurred. */
     private boolean m_parseError;
 
@@ -202,12 +272,18 @@ public class CmsFlexCacheKey {
     /** Cache key variable: List of session variables. */
     private Set<String> m_session;
 
+    /** The session variables as array, to match them without an iterator. */
+    private String[] m_sessionArray;
+
     /** Cache key variable: The current site root. */
     private String m_site;
 
     /** Cache key variable: Timeout of the resource. */
     private long m_timeout;
 
+    /** The precomputed timeout part of the variation. */
+    private String m_timeoutVariation;
+
     /** Cache key variable: The uri of the original request. */
     private String m_uri;
 
@@ -246,6 +322,7 @@ public class CmsFlexCacheKey {
         if (cacheDirectives != null) {
             parseFlexKey(cacheDirectives);
         }
+        initLayout();
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_GENERATED_1, toString()));
         }
@@ -365,7 +442,6 @@ public class CmsFlexCacheKey {
      */
     public String matchRequestKey(CmsFlexRequestKey key) {
 
-        StringBuffer str = new StringBuffer(100);
         if (m_always < 0) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_NEVER_0));
@@ -376,13 +452,13 @@ public class CmsFlexCacheKey {
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CHECK_NO_PARAMS_0));
         }
-        if ((m_noparams != null) && (key.getParams() != null)) {
-            if ((m_noparams.size() == 0) && (key.getParams().size() > 0)) {
+        if ((m_noparamsArray != null) && (key.getParams() != null)) {
+            Map<String, String[]> keyParams = key.getParams();
+            if ((m_noparamsArray.length == 0) && (keyParams.size() > 0)) {
                 return null;
             }
-            Iterator<String> i = key.getParams().keySet().iterator();
-            while (i.hasNext()) {
-                if (m_noparams.contains(i.next())) {
+            for (int i = 0; i < m_noparamsArray.length; i++) {
+                if (keyParams.containsKey(m_noparamsArray[i])) {
                     return null;
                 }
             }
@@ -391,13 +467,13 @@ public class CmsFlexCacheKey {
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CHECK_NO_ATTRS_0));
         }
-        if ((m_noattrs != null) && (key.getAttributes() != null)) {
-            if ((m_noattrs.size() == 0) && (key.getAttributes().size() > 0)) {
+        if ((m_noattrsArray != null) && (key.getAttributes() != null)) {
+            Map<String, Object> keyAttrs = key.getAttributes();
+            if ((m_noattrsArray.length == 0) && (keyAttrs.size() > 0)) {
                 return null;
             }
-            Iterator<String> i = key.getAttributes().keySet().iterator();
-            while (i.hasNext()) {
-                if (m_noattrs.contains(i.next())) {
+            for (int i = 0; i < m_noattrsArray.length; i++) {
+                if (keyAttrs.containsKey(m_noattrsArray[i])) {
                     return null;
                 }
             }
@@ -407,63 +483,48 @@ public class CmsFlexCacheKey {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHEKEY_KEYMATCH_CACHE_ALWAYS_0));
             }
-            str.append(CACHE_00_ALWAYS);
-            return str.toString();
-        }
-
-        if (m_uri != null) {
-            appendKeyValue(str, CACHE_02_URI, key.getUri());
-        }
-
-        if (m_site != null) {
-            appendKeyValue(str, CACHE_17_SITE, key.getSite());
+            return CACHE_00_ALWAYS;
         }
 
-        if (m_element != null) {
-            appendKeyValue(str, CACHE_14_ELEMENT, key.getElement());
-        }
-
-        if (m_device != null) {
-            appendKeyValue(str, CACHE_20_DEVICE, key.getDevice());
-        }
-
-        if (m_containerElement != null) {
-            appendKeyValue(str, CACHE_21_CONTAINER_ELEMENT, key.getContainerElement());
-        }
-
-        if (m_locale != null) {
-            appendKeyValue(str, CACHE_15_LOCALE, key.getLocale());
+        if (m_schemes != null) {
+            // check the scheme first, so no variation must be build if the scheme does not match
+            if ((m_schemes.size() > 0) && (!m_schemes.contains(key.getScheme()))) {
+                return null;
+            }
         }
-
-        if (m_encoding != null) {
-            appendKeyValue(str, CACHE_16_ENCODING, key.getEncoding());
+        if (m_ports != null) {
+            if ((m_ports.size() > 0) && (!m_ports.contains(key.getPort()))) {
+                return null;
+            }
         }
 
-        if (m_ip != null) {
-            appendKeyValue(str, CACHE_13_IP, key.getIp());
-        }
+        // the variation is only used as lookup key in most cases,
+        // so the buffer is reused and only the resulting String is created
+        StringBuilder str = VARIATION_BUILDER.get();
+        str.setLength(0);
 
-        if (m_user != null) {
-            appendKeyValue(str, CACHE_03_USER, key.getUser());
+        for (int i = 0; i < m_layout.length; i++) {
+            str.append(LAYOUT_PREFIXES[m_layout[i]]);
+            str.append(getLayoutValue(key, m_layout[i]));
+            str.append(");");
         }
 
-        if (m_params != null) {
+        if (m_paramsArray != null) {
             str.append(CACHE_04_PARAMS);
             str.append("=(");
             Map<String, String[]> keyParams = key.getParams();
             if (keyParams != null) {
-                if (m_params.size() > 0) {
+                if (m_paramsArray.length > 0) {
                     // match only params listed in cache directives
-                    Iterator<String> i = m_params.iterator();
-                    while (i.hasNext()) {
-                        Object o = i.next();
-                        if (keyParams.containsKey(o)) {
-                            str.append(o);
+                    for (int i = 0; i < m_paramsArray.length; i++) {
+                        String name = m_paramsArray[i];
+                        String[] values = keyParams.get(name);
+                        if ((values != null) || keyParams.containsKey(name)) {
+                            str.append(name);
                             str.append("=");
                             // TODO: handle multiple occurrences of the same parameter value
-                            String[] values = keyParams.get(o);
                             str.append(values[0]);
-                            if (i.hasNext()) {
+                            if (i < (m_paramsArray.length - 1)) {
                                 str.append(",");
                             }
                         }
@@ -487,22 +548,21 @@ public class CmsFlexCacheKey {
             str.append(");");
         }
 
-        if (m_attrs != null) {
+        if (m_attrsArray != null) {
             str.append(CACHE_18_ATTRS);
             str.append("=(");
             Map<String, Object> keyAttrs = key.getAttributes();
             if (keyAttrs != null) {
-                if (m_attrs.size() > 0) {
+                if (m_attrsArray.length > 0) {
                     // match only attributes listed in cache directives
-                    Iterator<String> i = m_attrs.iterator();
-                    while (i.hasNext()) {
-                        String s = i.next();
-                        if (keyAttrs.containsKey(s)) {
-                            str.append(s);
+                    for (int i = 0; i < m_attrsArray.length; i++) {
+                        String name = m_attrsArray[i];
+                        Object value = keyAttrs.get(name);
+                        if ((value != null) || keyAttrs.containsKey(name)) {
+                            str.append(name);
                             str.append("=");
-                            Object value = keyAttrs.get(s);
                             str.append(value);
-                            if (i.hasNext()) {
+                            if (i < (m_attrsArray.length - 1)) {
                                 str.append(",");
                             }
                         }
@@ -525,66 +585,63 @@ public class CmsFlexCacheKey {
             str.append(");");
         }
 
-        if (m_session != null) {
-            StringBuffer buf = new StringBuffer(32);
-            boolean found = false;
-            buf.append(CACHE_07_SESSION);
-            buf.append("=(");
+        if (m_sessionArray != null) {
             HttpSession keySession = key.getSession();
             if (keySession != null) {
+                // the session part is only added if at least one of the session attributes is found
+                int start = str.length();
+                boolean found = false;
+                str.append(CACHE_07_SESSION);
+                str.append("=(");
                 // match only session attributes listed in cache directives
-                Iterator<String> i = m_session.iterator();
-                while (i.hasNext()) {
-                    String name = i.next();
+                for (int i = 0; i < m_sessionArray.length; i++) {
+                    String name = m_sessionArray[i];
                     Object val = keySession.getAttribute(name);
                     if (val != null) {
                         found = true;
-                        buf.append(name);
-                        buf.append("=");
-                        buf.append(val);
-                        if (i.hasNext()) {
-                            buf.append(",");
+                        str.append(name);
+                        str.append("=");
+                        str.append(val);
+                        if (i < (m_sessionArray.length - 1)) {
+                            str.append(",");
                         }
                     }
                 }
-            }
-            if (found) {
-                buf.append(");");
-                str.append(buf);
+                if (found) {
+                    str.append(");");
+                } else {
+                    str.setLength(start);
+                }
             }
         }
 
         if (m_schemes != null) {
-            String s = key.getScheme();
-            if ((m_schemes.size() > 0) && (!m_schemes.contains(s))) {
-                return null;
-            }
-            appendKeyValue(str, CACHE_08_SCHEMES, s);
+            str.append(CACHE_08_SCHEMES);
+            str.append("=(");
+            str.append(key.getScheme());
+            str.append(");");
         }
 
         if (m_ports != null) {
-            Integer i = key.getPort();
-            if ((m_ports.size() > 0) && (!m_ports.contains(i))) {
-                return null;
-            }
             str.append(CACHE_09_PORTS);
             str.append("=(");
-            str.append(i);
+            str.append(key.getPort());
             str.append(");");
         }
 
-        if (m_timeout > 0) {
-            str.append(CACHE_06_TIMEOUT);
-            str.append("=(");
-            str.append(m_timeout);
-            str.append(");");
+        if (m_timeoutVariation != null) {
+            str.append(m_timeoutVariation);
         }
 
+        String result = null;
         if (str.length() > 0) {
-            return str.toString();
-        } else {
-            return null;
+            result = str.toString();
         }
+        if (str.capacity() > MAX_BUILDER_CAPACITY) {
+            // don't keep very large buffers for the thread
+            VARIATION_BUILDER.remove();
+        }
+        return result;
     }
 
     /**
@@ -824,6 +881,66 @@ public class CmsFlexCacheKey {
         m_variation = variation;
     }
 
+    /**
+     * Returns the request value for the given index of the key layout.<p>
+     *
+     * @param key the request key
+     * @param layoutIndex the index of the key layout
+     *
+     * @return the request value
+     */
+    private String getLayoutValue(CmsFlexRequestKey key, int layoutIndex) {
+
+        switch (layoutIndex) {
+            case LAYOUT_0_URI:
+                return key.getUri();
+            case LAYOUT_1_SITE:
+                return key.getSite();
+            case LAYOUT_2_ELEMENT:
+                return key.getElement();
+            case LAYOUT_3_DEVICE:
+                return key.getDevice();
+            case LAYOUT_4_CONTAINER_ELEMENT:
+                return key.getContainerElement();
+            case LAYOUT_5_LOCALE:
+                return key.getLocale();
+            case LAYOUT_6_ENCODING:
+                return key.getEncoding();
+            case LAYOUT_7_IP:
+                return key.getIp();
+            case LAYOUT_8_USER:
+                return key.getUser();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Precomputes the layout of the variation from the parsed cache directives,
+     * so that matching a request key does not need to evaluate the directives again.<p>
+     */
+    private void initLayout() {
+
+        String[] used = {m_uri, m_site, m_element, m_device, m_containerElement, m_locale, m_encoding, m_ip, m_user};
+        int count = 0;
+        int[] layout = new int[used.length];
+        for (int i = 0; i < used.length; i++) {
+            if (used[i] != null) {
+                layout[count++] = i;
+            }
+        }
+        m_layout = Arrays.copyOf(layout, count);
+        m_paramsArray = toArray(m_params);
+        m_noparamsArray = toArray(m_noparams);
+        m_attrsArray = toArray(m_attrs);
+        m_noattrsArray = toArray(m_noattrs);
+        m_sessionArray = toArray(m_session);
+        m_timeoutVariation = null;
+        if (m_timeout > 0) {
+            m_timeoutVariation = CACHE_06_TIMEOUT + "=(" + m_timeout + ");";
+        }
+    }
+
     /**
      * Parse a String in the Flex cache language and construct
      * the key data structure from this.<p>
@@ -1001,4 +1118,16 @@ public class CmsFlexCacheKey {
         result.addAll(tokens);
         return result;
     }
+
+    /**
+     * Returns the values of the given set as array, keeping the iteration order of the set.<p>
+     *
+     * @param values the set of values, may be <code>null</code>
+     *
+     * @return the values as array, or <code>null</code> if the set is <code>null</code>
+     */
+    private String[] toArray(Set<String> values) {
+
+        return values != null ? values.toArray(new String[values.size()]) : null;
+    }
 }
\ No newline at end of file
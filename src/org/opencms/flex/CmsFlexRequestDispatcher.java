@@ -35,6 +35,7 @@ import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsRequestStatistics;
 
 import java.io.IOException;
 import java.util.List;
@@ -143,6 +144,7 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                     m_extTarget));
         }
 
+        CmsRequestStatistics.recordFlexInclude();
         CmsFlexController controller = CmsFlexController.getController(req);
         CmsResource resource = null;
 
@@ -307,6 +309,7 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             if (f_req.isCacheable()) {
                 // caching is on, check if requested resource is already in cache
                 entry = cache.get(w_req.getCmsCacheKey());
+                CmsRequestStatistics.recordFlexCacheLookup(entry != null);
                 if (entry != null) {
                     // the target is already in the cache
                     try {
@@ -187,6 +187,17 @@ public class CmsFlexRequestKey {
     /** The OpenCms resource that this key is used for. */
     private String m_resource;
 
+    /**
+     * Creates an empty request key.<p>
+     *
+     * Only to be used by subclasses which provide the key values by overriding the getters,
+     * for example to measure the cache key matching without a running OpenCms instance.<p>
+     */
+    protected CmsFlexRequestKey() {
+
+        // empty
+    }
+
     /**
      * This constructor is used when building a cache key from a request.<p>
      *
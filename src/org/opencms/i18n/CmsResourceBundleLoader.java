@@ -28,6 +28,7 @@
 package org.opencms.i18n;
 
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -35,6 +36,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -161,6 +164,12 @@ public final class CmsResourceBundleLoader {
     /**  The permanent list resource bundle cache. */
     private static Map<String, I_CmsResourceBundle> m_permanentCache;
 
+    /** The ISO country codes, used to recognize the locale suffixes of permanent cache keys. */
+    private static final Set<String> ISO_COUNTRIES = new HashSet<String>(Arrays.asList(Locale.getISOCountries()));
+
+    /** The ISO language codes, used to recognize the locale suffixes of permanent cache keys. */
+    private static final Set<String> ISO_LANGUAGES = new HashSet<String>(Arrays.asList(Locale.getISOLanguages()));
+
     /** Singleton cache entry to represent previous failed lookups. */
     private static final ResourceBundle NULL_ENTRY = new CmsListResourceBundle();
 
@@ -187,11 +196,7 @@ public final class CmsResourceBundleLoader {
      */
     public static void addBundleToCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
 
-        String key = baseName;
-        if (locale != null) {
-            key += "_" + locale;
-        }
-        m_permanentCache.put(key, bundle);
+        m_permanentCache.put(getPermanentCacheKey(baseName, locale), bundle);
     }
 
     /**
@@ -252,6 +257,55 @@ public final class CmsResourceBundleLoader {
         }
     }
 
+    /**
+     * Replaces all bundles for the given base names in the permanent cache.<p>
+     *
+     * New bundles are added before the outdated ones are removed, so lookups for the given base names
+     * never fail in between. Bundles for other base names are not touched.<p>
+     *
+     * @param baseNames the base names of the bundles to replace
+     * @param bundles the new bundles, with keys as returned by {@link #getPermanentCacheKey(String, Locale)}
+     */
+    static void replaceBundles(Collection<String> baseNames, Map<String, I_CmsResourceBundle> bundles) {
+
+        synchronized (m_bundleCache) {
+            m_permanentCache.putAll(bundles);
+            Set<String> keys = new HashSet<String>(m_permanentCache.keySet());
+            for (String key : keys) {
+                if (!bundles.containsKey(key) && hasBaseName(key, baseNames)) {
+                    m_permanentCache.remove(key);
+                }
+            }
+            Map<BundleKey, ResourceBundle> bundleCacheNew = new ConcurrentHashMap<BundleKey, ResourceBundle>(
+                m_bundleCache.size());
+            for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
+                if (!baseNames.contains(entry.getKey().m_baseName)) {
+                    bundleCacheNew.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (bundleCacheNew.size() < m_bundleCache.size()) {
+                m_bundleCache = bundleCacheNew;
+            }
+        }
+    }
+
+    /**
+     * Returns the key used in the permanent cache for the given base name and locale.<p>
+     *
+     * @param baseName the raw bundle name, without locale qualifiers
+     * @param locale the locale, may be <code>null</code>
+     *
+     * @return the permanent cache key
+     */
+    static String getPermanentCacheKey(String baseName, Locale locale) {
+
+        String key = baseName;
+        if (locale != null) {
+            key += "_" + locale;
+        }
+        return key;
+    }
+
     /**
      * Get the appropriate ResourceBundle for the given locale. The following
      * strategy is used:
@@ -346,6 +400,48 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Checks if a permanent cache key belongs to one of the given base names.<p>
+     *
+     * A key belongs to a base name if it is the base name itself, or the base name followed by a locale suffix
+     * as created by {@link #getPermanentCacheKey(String, Locale)}. Base names may contain <code>_</code> themselves,
+     * so <code>foo_bar</code> does not belong to <code>foo</code>, unless <code>bar</code> is a locale.<p>
+     *
+     * @param key the permanent cache key
+     * @param baseNames the base names
+     *
+     * @return true if the key belongs to one of the base names
+     */
+    private static boolean hasBaseName(String key, Collection<String> baseNames) {
+
+        if (baseNames.contains(key)) {
+            return true;
+        }
+        int pos = key.indexOf('_');
+        while (pos > 0) {
+            if (baseNames.contains(key.substring(0, pos)) && isLocaleSuffix(key.substring(pos + 1))) {
+                return true;
+            }
+            pos = key.indexOf('_', pos + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given String is the name of a locale with an ISO language and an optional ISO country.<p>
+     *
+     * @param suffix the suffix of a permanent cache key
+     *
+     * @return true if the suffix is the name of a locale
+     */
+    private static boolean isLocaleSuffix(String suffix) {
+
+        Locale locale = CmsLocaleManager.getLocale(suffix);
+        return suffix.equals(locale.toString())
+            && ISO_LANGUAGES.contains(locale.getLanguage())
+            && (CmsStringUtil.isEmpty(locale.getCountry()) || ISO_COUNTRIES.contains(locale.getCountry()));
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
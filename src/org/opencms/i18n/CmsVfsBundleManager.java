@@ -31,6 +31,7 @@ import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
@@ -41,10 +42,14 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 
@@ -108,14 +113,20 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     /** The logger instance for this class. */
     protected static final Log LOG = CmsLog.getLog(CmsVfsBundleManager.class);
 
-    /** The set of bundle base names. */
-    private Set<String> m_bundleBaseNames;
+    /** The base names of the bundles, by root path of the bundle resource. */
+    private Map<String, String> m_bundlePaths;
 
     /** The CMS context to use. */
     private CmsObject m_cms;
 
+    /** Indicates if the next scheduled reload has to read all bundles. */
+    private boolean m_fullReloadPending;
+
+    /** The root paths of published bundle resources for the next scheduled reload. */
+    private Set<String> m_pendingPaths = new HashSet<String>();
+
     /** Indicated if a reload is already scheduled. */
-    private boolean m_reloadIsScheduled;
+    private AtomicBoolean m_reloadIsScheduled = new AtomicBoolean();
 
     /** Thread generation counter. */
     private int m_threadCount;
@@ -128,7 +139,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     public CmsVfsBundleManager(CmsObject cms) {
 
         m_cms = cms;
-        m_bundleBaseNames = new HashSet<String>();
+        m_bundlePaths = new HashMap<String, String>();
         CmsVfsResourceBundle.setCmsObject(cms);
         OpenCms.getEventManager().addCmsEventListener(
             this,
@@ -170,7 +181,71 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
      */
     public boolean isReloadScheduled() {
 
-        return m_reloadIsScheduled;
+        return m_reloadIsScheduled.get();
+    }
+
+    /**
+     * Re-initializes the resource bundles for the given bundle resources.<p>
+     *
+     * Only the bundles sharing a base name with one of the given resources are replaced, all other bundles
+     * stay untouched and remain available while the changed bundles are read.<p>
+     *
+     * @param rootPaths the root paths of the changed bundle resources
+     */
+    public synchronized void reload(Collection<String> rootPaths) {
+
+        if ((OpenCms.getRunLevel() <= OpenCms.RUNLEVEL_1_CORE_OBJECT)
+            || !OpenCms.getResourceManager().hasResourceType(TYPE_XML_BUNDLE)) {
+            return;
+        }
+        Set<String> baseNames = new HashSet<String>();
+        Map<String, CmsResource> resources = new HashMap<String, CmsResource>();
+        for (String rootPath : rootPaths) {
+            String oldBaseName = m_bundlePaths.get(rootPath);
+            if (oldBaseName != null) {
+                baseNames.add(oldBaseName);
+            }
+            CmsResource resource = readBundleResource(rootPath);
+            if (resource != null) {
+                resources.put(rootPath, resource);
+                baseNames.add(getNameAndLocale(resource).getName());
+            }
+        }
+        // bundles with the same base name are replaced together, so the unchanged ones have to be read, too
+        Map<String, String> bundlePaths = new HashMap<String, String>(m_bundlePaths);
+        for (Map.Entry<String, String> entry : m_bundlePaths.entrySet()) {
+            if (baseNames.contains(entry.getValue())) {
+                bundlePaths.remove(entry.getKey());
+                if (!resources.containsKey(entry.getKey()) && !rootPaths.contains(entry.getKey())) {
+                    CmsResource resource = readBundleResource(entry.getKey());
+                    if (resource != null) {
+                        resources.put(entry.getKey(), resource);
+                    }
+                }
+            }
+        }
+        List<CmsResource> xmlBundles = Lists.newArrayList();
+        List<CmsResource> propertyBundles = Lists.newArrayList();
+        for (CmsResource resource : resources.values()) {
+            if (OpenCms.getResourceManager().matchResourceType(TYPE_XML_BUNDLE, resource.getTypeId())) {
+                xmlBundles.add(resource);
+            } else {
+                propertyBundles.add(resource);
+            }
+        }
+        try {
+            Map<String, I_CmsResourceBundle> bundles = createBundles(xmlBundles, propertyBundles, bundlePaths);
+            // read the changed bundles now, so lookups don't have to wait for this after the bundles were replaced
+            for (I_CmsResourceBundle bundle : bundles.values()) {
+                if (bundle instanceof CmsVfsResourceBundle) {
+                    ((CmsVfsResourceBundle)bundle).keySet();
+                }
+            }
+            replaceBundles(baseNames, bundles);
+            m_bundlePaths = bundlePaths;
+        } catch (Exception e) {
+            logError(e, false);
+        }
     }
 
     /**
@@ -197,24 +272,12 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 logError(e, isStartup);
             }
             try {
-                synchronized (CmsResourceBundleLoader.class) {
-                    // Although the methods of CmsResourceBundleLoader which manipulate the cache
-                    // are synchronized, we synchronize the whole block to avoid intermediate states
-                    // where bundles have been removed from the cache but not re-added again
-                    for (String baseName : m_bundleBaseNames) {
-                        CmsResourceBundleLoader.flushBundleCache(baseName, true);
-                    }
-                    m_bundleBaseNames.clear();
-                    for (CmsResource xmlBundle : xmlBundles) {
-                        addXmlBundle(xmlBundle);
-                    }
-                    for (CmsResource propertyBundle : propertyBundles) {
-                        addPropertyBundle(propertyBundle);
-                    }
-                    if (OpenCms.getWorkplaceManager() != null) {
-                        OpenCms.getWorkplaceManager().flushMessageCache();
-                    }
-                }
+                Map<String, String> bundlePaths = new HashMap<String, String>();
+                Map<String, I_CmsResourceBundle> bundles = createBundles(xmlBundles, propertyBundles, bundlePaths);
+                Set<String> baseNames = new HashSet<String>(m_bundlePaths.values());
+                baseNames.addAll(bundlePaths.values());
+                replaceBundles(baseNames, bundles);
+                m_bundlePaths = bundlePaths;
             } catch (Exception e) {
                 logError(e, isStartup);
             }
@@ -228,7 +291,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
      */
     public void setReloadScheduled(boolean reloadIsScheduled) {
 
-        m_reloadIsScheduled = reloadIsScheduled;
+        m_reloadIsScheduled.set(reloadIsScheduled);
     }
 
     /**
@@ -262,34 +325,42 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         } else {
             LOG.info(e.getLocalizedMessage(), e);
         }
-        // if an error was logged make sure that the flag to schedule a reload is reset
-        setReloadScheduled(false);
     }
 
     /**
-     * Internal method for adding a resource bundle to the internal cache.<p>
+     * Internal method for adding a resource bundle to the new bundles.<p>
      *
+     * @param bundles the new bundles
      * @param baseName the base name of the resource bundle
      * @param locale the locale of the resource bundle
      * @param bundle the resource bundle to add
      */
-    private void addBundle(String baseName, Locale locale, I_CmsResourceBundle bundle) {
+    private void addBundle(
+        Map<String, I_CmsResourceBundle> bundles,
+        String baseName,
+        Locale locale,
+        I_CmsResourceBundle bundle) {
 
-        CmsResourceBundleLoader.addBundleToCache(baseName, locale, bundle);
+        bundles.put(CmsResourceBundleLoader.getPermanentCacheKey(baseName, locale), bundle);
     }
 
     /**
      * Adds a resource bundle based on a properties file in the VFS.<p>
      *
+     * @param bundles the new bundles
+     * @param bundlePaths the base names of the bundles by root path
      * @param bundleResource the properties file
      */
-    private void addPropertyBundle(CmsResource bundleResource) {
+    private void addPropertyBundle(
+        Map<String, I_CmsResourceBundle> bundles,
+        Map<String, String> bundlePaths,
+        CmsResource bundleResource) {
 
         NameAndLocale nameAndLocale = getNameAndLocale(bundleResource);
         Locale locale = nameAndLocale.getLocale();
 
         String baseName = nameAndLocale.getName();
-        m_bundleBaseNames.add(baseName);
+        bundlePaths.put(bundleResource.getRootPath(), baseName);
         LOG.info(
             String.format(
                 "Adding property VFS bundle (path=%s, name=%s, locale=%s)",
@@ -304,19 +375,24 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             locale == null,
             CmsVfsResourceBundle.TYPE_PROPERTIES);
         CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-        addBundle(baseName, locale, bundle);
+        addBundle(bundles, baseName, locale, bundle);
     }
 
     /**
      * Adds an XML based message bundle.<p>
      *
+     * @param bundles the new bundles
+     * @param bundlePaths the base names of the bundles by root path
      * @param xmlBundle the XML content containing the message bundle data
      */
-    private void addXmlBundle(CmsResource xmlBundle) {
+    private void addXmlBundle(
+        Map<String, I_CmsResourceBundle> bundles,
+        Map<String, String> bundlePaths,
+        CmsResource xmlBundle) {
 
         String name = xmlBundle.getName();
         String path = xmlBundle.getRootPath();
-        m_bundleBaseNames.add(name);
+        bundlePaths.put(path, name);
 
         LOG.info(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
         for (Locale locale : getAllLocales()) {
@@ -327,10 +403,35 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 false,
                 CmsVfsResourceBundle.TYPE_XML);
             CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-            addBundle(name, locale, bundle);
+            addBundle(bundles, name, locale, bundle);
         }
     }
 
+    /**
+     * Creates the bundles for the given bundle resources.<p>
+     *
+     * @param xmlBundles the XML bundle resources
+     * @param propertyBundles the property bundle resources
+     * @param bundlePaths the map to which the base names of the bundles are added, by root path
+     *
+     * @return the bundles, by permanent cache key
+     */
+    private Map<String, I_CmsResourceBundle> createBundles(
+        List<CmsResource> xmlBundles,
+        List<CmsResource> propertyBundles,
+        Map<String, String> bundlePaths) {
+
+        Map<String, I_CmsResourceBundle> bundles = new LinkedHashMap<String, I_CmsResourceBundle>();
+        for (CmsResource xmlBundle : xmlBundles) {
+            addXmlBundle(bundles, bundlePaths, xmlBundle);
+        }
+        // property bundles win if both kinds of bundles use the same name
+        for (CmsResource propertyBundle : propertyBundles) {
+            addPropertyBundle(bundles, bundlePaths, propertyBundle);
+        }
+        return bundles;
+    }
+
     /**
      * Extracts the locale and base name from a resource's file name.<p>
      *
@@ -373,16 +474,19 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                         List<CmsPublishedResource> publishedResources = m_cms.readPublishedResources(publishId);
                         if (!publishedResources.isEmpty()) {
                             String[] typesToMatch = new String[] {TYPE_PROPERTIES_BUNDLE, TYPE_XML_BUNDLE};
-                            boolean reload = false;
+                            Set<String> changedPaths = new HashSet<String>();
                             for (CmsPublishedResource res : publishedResources) {
                                 for (String typeName : typesToMatch) {
                                     if (OpenCms.getResourceManager().matchResourceType(typeName, res.getType())) {
-                                        reload = true;
+                                        changedPaths.add(res.getRootPath());
                                         break;
                                     }
                                 }
                             }
-                            if (reload) {
+                            if (!changedPaths.isEmpty()) {
+                                synchronized (m_pendingPaths) {
+                                    m_pendingPaths.addAll(changedPaths);
+                                }
                                 scheduleReload();
                             }
                         }
@@ -392,35 +496,97 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 }
                 break;
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
+                synchronized (m_pendingPaths) {
+                    m_fullReloadPending = true;
+                }
                 scheduleReload();
                 break;
             default:
         }
     }
 
+    /**
+     * Reads a bundle resource.<p>
+     *
+     * @param rootPath the root path of the bundle resource
+     *
+     * @return the bundle resource, or null if it does not exist anymore or is no bundle
+     */
+    private CmsResource readBundleResource(String rootPath) {
+
+        try {
+            CmsResource resource = m_cms.readResource(rootPath, CmsResourceFilter.ALL);
+            if (OpenCms.getResourceManager().matchResourceType(TYPE_XML_BUNDLE, resource.getTypeId())
+                || OpenCms.getResourceManager().matchResourceType(TYPE_PROPERTIES_BUNDLE, resource.getTypeId())) {
+                return resource;
+            }
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the bundle has been deleted or moved
+            LOG.debug(e.getLocalizedMessage(), e);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Reloads the bundles changed since the last reload, or all bundles if caches were cleared in the meantime.<p>
+     */
+    private void reloadPending() {
+
+        Set<String> changedPaths;
+        boolean fullReload;
+        synchronized (m_pendingPaths) {
+            changedPaths = new HashSet<String>(m_pendingPaths);
+            m_pendingPaths.clear();
+            fullReload = m_fullReloadPending;
+            m_fullReloadPending = false;
+        }
+        if (fullReload) {
+            reload(false);
+        } else if (!changedPaths.isEmpty()) {
+            reload(changedPaths);
+        }
+    }
+
+    /**
+     * Replaces the bundles for the given base names and flushes the workplace message cache.<p>
+     *
+     * @param baseNames the base names of the replaced bundles
+     * @param bundles the new bundles
+     */
+    private void replaceBundles(Set<String> baseNames, Map<String, I_CmsResourceBundle> bundles) {
+
+        CmsResourceBundleLoader.replaceBundles(baseNames, bundles);
+        if (OpenCms.getWorkplaceManager() != null) {
+            OpenCms.getWorkplaceManager().flushMessageCache();
+        }
+    }
+
     /**
      * Schedules a bundle reload.<p>
      */
     private void scheduleReload() {
 
-        if (!isReloadScheduled() && (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT)) {
-            // only schedule a reload if the system is not going down already
+        // only schedule a reload if the system is not going down already, and if no other reload is waiting
+        if ((OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT)
+            && m_reloadIsScheduled.compareAndSet(false, true)) {
             m_threadCount++;
             Thread thread = new Thread("Bundle reload Thread " + m_threadCount) {
 
                 @Override
                 public void run() {
 
-                    setReloadScheduled(true);
                     try {
                         Thread.sleep(1000);
                     } catch (Exception e) {
                         // ignore
                     }
-                    if (isReloadScheduled()) {
-                        reload(false);
+                    // reset the flag before reloading, so changes published while reloading schedule the next reload,
+                    // the reload is skipped if it was canceled by a shutdown in the meantime
+                    if (m_reloadIsScheduled.compareAndSet(true, false)) {
+                        reloadPending();
                     }
-                    setReloadScheduled(false);
                 }
             };
             thread.start();
@@ -37,10 +37,12 @@ import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
 import org.opencms.util.CmsFileUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -467,6 +469,10 @@ public class CmsJspNavBuilder {
         CmsResourceFilter resourceFilter) {
 
         folder = CmsFileUtil.removeTrailingSeparator(folder);
+        CmsJspNavCache cache = OpenCms.getNavigationCache();
+        if ((cache != null) && CmsJspNavCache.isCacheable(m_cms, resourceFilter)) {
+            return getCachedNavigationForFolder(cache, folder, visibility);
+        }
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
 
         List<CmsResource> resources = null;
@@ -692,6 +698,75 @@ public class CmsJspNavBuilder {
         m_requestUriFolder = CmsResource.getFolderPath(m_requestUri);
     }
 
+    /**
+     * Builds the navigation for the given folder from the shared navigation cache.<p>
+     *
+     * The cached entries are filtered by the permissions of the current user and by the request time,
+     * and a new navigation element is created for each of them, so the caller may modify the result.<p>
+     *
+     * @param cache the navigation cache
+     * @param folder the selected folder
+     * @param visibility the visibility mode
+     *
+     * @return a sorted (ascending to navigation position) list of navigation elements
+     */
+    private List<CmsJspNavElement> getCachedNavigationForFolder(
+        CmsJspNavCache cache,
+        String folder,
+        Visibility visibility) {
+
+        List<CmsJspNavCache.CmsNavEntry> entries;
+        try {
+            entries = cache.getEntries(m_cms, folder);
+        } catch (Exception e) {
+            // should never happen
+            LOG.error(e.getLocalizedMessage(), e);
+            return Collections.<CmsJspNavElement> emptyList();
+        }
+        boolean includeAll = visibility == Visibility.all;
+        boolean includeHidden = visibility == Visibility.includeHidden;
+        long requestTime = m_cms.getRequestContext().getRequestTime();
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>(entries.size());
+        for (CmsJspNavCache.CmsNavEntry entry : entries) {
+            CmsJspNavElement element;
+            try {
+                if (!m_cms.hasPermissions(
+                    entry.getResource(),
+                    CmsPermissionSet.ACCESS_READ,
+                    false,
+                    CmsResourceFilter.DEFAULT)) {
+                    continue;
+                }
+            } catch (CmsException e) {
+                // may happen if permissions are not sufficient
+                LOG.warn(e.getLocalizedMessage(), e);
+                continue;
+            }
+            if (entry.isNavigationLevel()) {
+                // the target of a navigation level depends on the current user, so it is not cached
+                element = getNavigationForResource(entry.getSitePath(), CmsResourceFilter.DEFAULT, false);
+            } else if ((entry.getDefaultFile() != null)
+                && !entry.getDefaultFile().isReleasedAndNotExpired(requestTime)) {
+                // do not show navigation entries for unreleased or expired resources
+                element = null;
+            } else {
+                element = new CmsJspNavElement(
+                    entry.getSitePath(),
+                    entry.getResource(),
+                    new HashMap<String, String>(entry.getProperties()),
+                    entry.getLevel(),
+                    m_locale);
+            }
+            if ((element != null)
+                && (includeAll
+                    || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
+                result.add(element);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
     /**
      * Collect all navigation elements from the files in the given folder.<p>
     *
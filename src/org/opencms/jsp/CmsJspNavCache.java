@@ -0,0 +1,440 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.jsp;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Shared cache for the navigation data of folders, used by the {@link CmsJspNavBuilder}.<p>
+ *
+ * For every folder, the child resources, their properties and the default files of the child folders are read
+ * once with the permissions of the administrator, and are stored in an immutable snapshot keyed by project,
+ * site root and folder. The snapshots contain no time or user dependent decisions, so they can be shared by all
+ * requests: release dates, expiration dates and the permissions of the current user are checked when the
+ * navigation is built from a snapshot.<p>
+ *
+ * Since offline changes don't fire publish events, only the Online project is cached. The snapshots of a folder
+ * are removed when a resource in it, in one of its sub folders or one of its direct child folders is published.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsJspNavCache implements I_CmsEventListener {
+
+    /**
+     * The immutable navigation data of a single resource in a cached folder.<p>
+     */
+    public static class CmsNavEntry {
+
+        /** The default file of the resource, if it is a folder. */
+        private CmsResource m_defaultFile;
+
+        /** The navigation tree level. */
+        private int m_level;
+
+        /** The properties of the resource. */
+        private Map<String, String> m_properties;
+
+        /** The resource. */
+        private CmsResource m_resource;
+
+        /** The site path of the resource. */
+        private String m_sitePath;
+
+        /**
+         * Creates a new navigation entry.<p>
+         *
+         * @param sitePath the site path of the resource
+         * @param resource the resource
+         * @param properties the properties of the resource
+         * @param level the navigation tree level
+         * @param defaultFile the default file of the resource, or <code>null</code>
+         */
+        protected CmsNavEntry(
+            String sitePath,
+            CmsResource resource,
+            Map<String, String> properties,
+            int level,
+            CmsResource defaultFile) {
+
+            m_sitePath = sitePath;
+            m_resource = resource;
+            m_properties = Collections.unmodifiableMap(properties);
+            m_level = level;
+            m_defaultFile = defaultFile;
+        }
+
+        /**
+         * Returns the default file of the resource.<p>
+         *
+         * @return the default file, or <code>null</code> if the resource is no folder or has no readable default file
+         */
+        public CmsResource getDefaultFile() {
+
+            return m_defaultFile;
+        }
+
+        /**
+         * Returns the navigation tree level.<p>
+         *
+         * @return the navigation tree level
+         */
+        public int getLevel() {
+
+            return m_level;
+        }
+
+        /**
+         * Returns the unmodifiable properties of the resource.<p>
+         *
+         * @return the properties of the resource
+         */
+        public Map<String, String> getProperties() {
+
+            return m_properties;
+        }
+
+        /**
+         * Returns the resource.<p>
+         *
+         * @return the resource
+         */
+        public CmsResource getResource() {
+
+            return m_resource;
+        }
+
+        /**
+         * Returns the site path of the resource.<p>
+         *
+         * @return the site path of the resource
+         */
+        public String getSitePath() {
+
+            return m_sitePath;
+        }
+
+        /**
+         * Returns if the resource is a folder marked as navigation level.<p>
+         *
+         * @return <code>true</code> if the resource is a navigation level folder
+         */
+        public boolean isNavigationLevel() {
+
+            return m_resource.isFolder()
+                && CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER.equals(
+                    m_properties.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE));
+        }
+    }
+
+    /**
+     * The cached navigation data of a folder.<p>
+     */
+    private static class CmsNavFolder {
+
+        /** The navigation entries of the folder. */
+        private List<CmsNavEntry> m_entries;
+
+        /** The root path of the folder. */
+        private String m_rootPath;
+
+        /**
+         * Creates a new folder entry.<p>
+         *
+         * @param rootPath the root path of the folder
+         * @param entries the navigation entries of the folder
+         */
+        CmsNavFolder(String rootPath, List<CmsNavEntry> entries) {
+
+            m_rootPath = rootPath;
+            m_entries = Collections.unmodifiableList(entries);
+        }
+
+        /**
+         * Returns the navigation entries.<p>
+         *
+         * @return the navigation entries
+         */
+        List<CmsNavEntry> getEntries() {
+
+            return m_entries;
+        }
+
+        /**
+         * Returns the root path of the folder.<p>
+         *
+         * @return the root path of the folder
+         */
+        String getRootPath() {
+
+            return m_rootPath;
+        }
+    }
+
+    /** The default maximum number of cached folders. */
+    public static final int DEFAULT_MAX_FOLDERS = 5000;
+
+    /** The filter used to read the cached resources, the time range is checked when the navigation is built. */
+    public static final CmsResourceFilter READ_FILTER = CmsResourceFilter.IGNORE_EXPIRATION;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavCache.class);
+
+    /** The cached folders. */
+    private Cache<String, CmsNavFolder> m_cache;
+
+    /** The admin CMS context used to read the navigation data. */
+    private CmsObject m_cms;
+
+    /** Counts the invalidations, so folders read while a publish was processed are not put into the cache. */
+    private AtomicLong m_generation = new AtomicLong();
+
+    /**
+     * Creates a new navigation cache and registers it for publish events.<p>
+     *
+     * @param cms the admin CMS context used to read the navigation data
+     */
+    public CmsJspNavCache(CmsObject cms) {
+
+        this(cms, DEFAULT_MAX_FOLDERS);
+        OpenCms.getEventManager().addCmsEventListener(
+            this,
+            new int[] {I_CmsEventListener.EVENT_PUBLISH_PROJECT, I_CmsEventListener.EVENT_CLEAR_CACHES});
+    }
+
+    /**
+     * Creates a new navigation cache without registering it for events.<p>
+     *
+     * @param cms the admin CMS context used to read the navigation data
+     * @param maxFolders the maximum number of cached folders
+     */
+    protected CmsJspNavCache(CmsObject cms, int maxFolders) {
+
+        m_cms = cms;
+        m_cache = CacheBuilder.newBuilder().concurrencyLevel(4).maximumSize(maxFolders).build();
+    }
+
+    /**
+     * Checks if the navigation for the given context and filter can be read from this cache.<p>
+     *
+     * @param cms the current CMS context
+     * @param resourceFilter the resource filter used to build the navigation
+     *
+     * @return <code>true</code> if the navigation can be read from this cache
+     */
+    public static boolean isCacheable(CmsObject cms, CmsResourceFilter resourceFilter) {
+
+        return CmsResourceFilter.DEFAULT.equals(resourceFilter)
+            && cms.getRequestContext().getCurrentProject().isOnlineProject();
+    }
+
+    /**
+     * Removes all cached folders.<p>
+     */
+    public void clear() {
+
+        m_generation.incrementAndGet();
+        m_cache.invalidateAll();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+                if (publishIdStr == null) {
+                    clear();
+                    break;
+                }
+                try {
+                    List<String> rootPaths = new ArrayList<String>();
+                    for (CmsPublishedResource res : m_cms.readPublishedResources(new CmsUUID(publishIdStr))) {
+                        rootPaths.add(res.getRootPath());
+                    }
+                    invalidate(rootPaths);
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                    clear();
+                }
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+                clear();
+                break;
+            default:
+                // ignore
+        }
+    }
+
+    /**
+     * Returns the navigation entries of the given folder, reading and caching them if required.<p>
+     *
+     * The returned entries are not filtered by the permissions of the current user, nor by release or
+     * expiration dates.<p>
+     *
+     * @param cms the current CMS context
+     * @param folder the site path of the folder
+     *
+     * @return the unmodifiable list of navigation entries of the folder
+     *
+     * @throws CmsException if something goes wrong reading the folder
+     */
+    public List<CmsNavEntry> getEntries(CmsObject cms, String folder) throws CmsException {
+
+        CmsProject project = cms.getRequestContext().getCurrentProject();
+        String siteRoot = cms.getRequestContext().getSiteRoot();
+        String sitePath = CmsFileUtil.addTrailingSeparator(folder);
+        String rootPath = cms.getRequestContext().addSiteRoot(sitePath);
+        String key = project.getUuid() + ":" + siteRoot + ":" + rootPath;
+        CmsNavFolder result = m_cache.getIfPresent(key);
+        if (result == null) {
+            long generation = m_generation.get();
+            result = new CmsNavFolder(rootPath, readEntries(project, siteRoot, sitePath));
+            if (generation == m_generation.get()) {
+                m_cache.put(key, result);
+                if (generation != m_generation.get()) {
+                    // the cache was invalidated between the check and the put, and may have missed the new entry
+                    m_cache.invalidate(key);
+                }
+            }
+        }
+        return result.getEntries();
+    }
+
+    /**
+     * Removes the cached folders affected by changes of the given resources.<p>
+     *
+     * These are the parent folder of each resource, the folder above it since the default file of a folder
+     * controls whether the folder is shown, and the resource itself and all folders below it if it is a folder.<p>
+     *
+     * @param rootPaths the root paths of the changed resources
+     */
+    public void invalidate(Collection<String> rootPaths) {
+
+        if (rootPaths.isEmpty()) {
+            return;
+        }
+        Set<String> parents = new HashSet<String>();
+        List<String> subTrees = new ArrayList<String>();
+        for (String rootPath : rootPaths) {
+            String parent = CmsResource.getParentFolder(rootPath);
+            if (parent != null) {
+                parents.add(parent);
+                String grandParent = CmsResource.getParentFolder(parent);
+                if (grandParent != null) {
+                    parents.add(grandParent);
+                }
+            }
+            if (CmsResource.isFolder(rootPath)) {
+                subTrees.add(rootPath);
+            }
+        }
+        m_generation.incrementAndGet();
+        Iterator<CmsNavFolder> it = m_cache.asMap().values().iterator();
+        while (it.hasNext()) {
+            String folder = it.next().getRootPath();
+            boolean affected = parents.contains(folder);
+            for (int i = 0; !affected && (i < subTrees.size()); i++) {
+                affected = folder.startsWith(subTrees.get(i));
+            }
+            if (affected) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Reads the navigation entries of a folder.<p>
+     *
+     * @param project the project to read from
+     * @param siteRoot the site root to use
+     * @param folder the site path of the folder
+     *
+     * @return the navigation entries
+     *
+     * @throws CmsException if something goes wrong reading the folder
+     */
+    private List<CmsNavEntry> readEntries(CmsProject project, String siteRoot, String folder) throws CmsException {
+
+        CmsObject cms = OpenCms.initCmsObject(m_cms);
+        cms.getRequestContext().setCurrentProject(project);
+        cms.getRequestContext().setSiteRoot(siteRoot);
+        List<CmsResource> resources = cms.getResourcesInFolder(folder, READ_FILTER);
+        List<CmsNavEntry> result = new ArrayList<CmsNavEntry>(resources.size());
+        for (CmsResource resource : resources) {
+            String sitePath = cms.getSitePath(resource);
+            Map<String, String> properties = CmsProperty.toMap(cms.readPropertyObjects(resource, false));
+            int level = CmsResource.getPathLevel(sitePath);
+            CmsResource defaultFile = null;
+            if (resource.isFolder()) {
+                level--;
+                if (!CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER.equals(
+                    properties.get(CmsPropertyDefinition.PROPERTY_DEFAULT_FILE))) {
+                    try {
+                        defaultFile = cms.readDefaultFile(resource, READ_FILTER);
+                    } catch (CmsException e) {
+                        // the folder is shown as if it had no default file
+                        LOG.debug(e.getLocalizedMessage(), e);
+                    }
+                }
+            }
+            result.add(new CmsNavEntry(sitePath, resource, properties, level, defaultFile));
+        }
+        return result;
+    }
+}
@@ -32,10 +32,12 @@ import org.opencms.file.CmsResource;
 import org.opencms.flex.CmsFlexController;
 import org.opencms.ugc.CmsUgcSession;
 import org.opencms.ugc.CmsUgcSessionFactory;
+import org.opencms.ugc.shared.CmsUgcException;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.tagext.TagSupport;
 
@@ -112,6 +114,16 @@ public class CmsJspTagUgc extends TagSupport {
                 pageContext.setAttribute(
                     m_var == null ? DEFAULT_SESSION_ID_ATTR : m_var,
                     ugcsession.getId().toString());
+            } catch (CmsUgcException e) {
+                if ((e.getRetryAfter() > 0) && !pageContext.getResponse().isCommitted()) {
+                    // tell the client when a new session request will be admitted, rounded up to full seconds
+                    ((HttpServletResponse)pageContext.getResponse()).setHeader(
+                        "Retry-After",
+                        String.valueOf((e.getRetryAfter() + 999) / 1000));
+                }
+                pageContext.setAttribute(
+                    m_error == null ? DEFAULT_ERROR_MESSAGE_ATTR : m_error,
+                    e.getLocalizedMessage());
             } catch (Exception e) {
                 pageContext.setAttribute(
                     m_error == null ? DEFAULT_ERROR_MESSAGE_ATTR : m_error,
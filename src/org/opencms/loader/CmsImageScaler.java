@@ -46,11 +46,17 @@ import org.opencms.util.CmsStringUtil;
 import java.awt.Color;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.logging.Log;
@@ -204,10 +210,18 @@ public class CmsImageScaler {
 
         init();
         try {
-            // read the scaled image
-            BufferedImage image = Simapi.read(content);
-            m_height = image.getHeight();
-            m_width = image.getWidth();
+            // the image header contains the size for all formats supported by image io,
+            // so the image data needs to be decoded only for other formats
+            int[] size = readImageSize(content);
+            if (size != null) {
+                m_width = size[0];
+                m_height = size[1];
+            } else {
+                // read the scaled image
+                BufferedImage image = Simapi.read(content);
+                m_height = image.getHeight();
+                m_width = image.getWidth();
+            }
         } catch (Exception e) {
             // nothing we can do about this, keep the original properties
             if (LOG.isDebugEnabled()) {
@@ -340,6 +354,46 @@ public class CmsImageScaler {
         return result;
     }
 
+    /**
+     * Reads the width and height of an image from its header, without decoding the image data.<p>
+     *
+     * @param content the image content
+     *
+     * @return the width [0] and height [1] of the image, or <code>null</code> if the size
+     *      can not be read from the header of the image
+     */
+    public static int[] readImageSize(byte[] content) {
+
+        ImageInputStream input = null;
+        try {
+            // the content is already in memory, so don't let ImageIO create a file cache for the stream
+            input = new MemoryCacheImageInputStream(new ByteArrayInputStream(content));
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            // the caller falls back to decoding the image
+            LOG.debug(e.getLocalizedMessage(), e);
+            return null;
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
     /**
      * Adds a filter name to the list of filters that should be applied to the image.<p>
      *
@@ -65,7 +65,6 @@ import org.opencms.workplace.CmsWorkplaceManager;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
@@ -94,6 +93,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 
 import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.Striped;
 
 /**
  * The JSP loader which enables the execution of JSP in OpenCms.<p>
@@ -169,15 +169,15 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
     /** The id of this loader. */
     public static final int RESOURCE_LOADER_ID = 6;
 
+    /** Striped lock used to serialize concurrent writes of the same file in the JSP repository. */
+    private static final Striped<Lock> FILE_LOCKS = Striped.lock(64);
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsJspLoader.class);
 
     /** The maximum age for delivered contents in the clients cache. */
     private static long m_clientCacheMaxAge;
 
-    /** Read write locks for jsp files. */
-    private static Map<String, ReentrantReadWriteLock> m_fileLocks = CmsMemoryMonitor.createLRUCacheMap(10000);
-
     /** The directory to store the generated JSP pages in (absolute path). */
     private static String m_jspRepository;
 
@@ -217,7 +217,6 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         OpenCms.addCmsEventListener(
             this,
             new int[] {EVENT_CLEAR_CACHES, EVENT_CLEAR_OFFLINE_CACHES, EVENT_CLEAR_ONLINE_CACHES});
-        m_fileLocks = CmsMemoryMonitor.createLRUCacheMap(10000);
         initCaches(1000);
     }
 
@@ -634,14 +633,14 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         String jspName = getJspRfsPath(resource, false);
         Set<String> pathSet = new HashSet<String>();
         pathSet.add(resource.getRootPath());
-        ReentrantReadWriteLock lock = getFileLock(jspName);
-        lock.writeLock().lock();
+        Lock lock = FILE_LOCKS.get(jspName);
+        lock.lock();
         try {
             removeFromCache(pathSet, false);
             File jspFile = new File(jspName);
             jspFile.delete();
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -774,142 +773,125 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
             // create directory structure
             d.mkdirs();
         }
-        ReentrantReadWriteLock readWriteLock = getFileLock(jspVfsName);
-        try {
-            // get a read lock for this jsp
-            readWriteLock.readLock().lock();
-            File jspFile = new File(jspPath);
-            // check if the JSP must be updated
-            boolean mustUpdate = false;
-            long jspModificationDate = 0;
-            if (!jspFile.exists()) {
-                // file does not exist in real FS
-                mustUpdate = true;
-                // make sure the parent folder exists
-                File folder = jspFile.getParentFile();
-                if (!folder.exists()) {
-                    boolean success = folder.mkdirs();
-                    if (!success) {
-                        LOG.error(
-                            org.opencms.db.Messages.get().getBundle().key(
-                                org.opencms.db.Messages.LOG_CREATE_FOLDER_FAILED_1,
-                                folder.getAbsolutePath()));
-                    }
+        File jspFile = new File(jspPath);
+        // check if the JSP must be updated
+        boolean mustUpdate = false;
+        long jspModificationDate = 0;
+        if (!jspFile.exists()) {
+            // file does not exist in real FS
+            mustUpdate = true;
+            // make sure the parent folder exists
+            File folder = jspFile.getParentFile();
+            if (!folder.exists()) {
+                boolean success = folder.mkdirs();
+                if (!success) {
+                    LOG.error(
+                        org.opencms.db.Messages.get().getBundle().key(
+                            org.opencms.db.Messages.LOG_CREATE_FOLDER_FAILED_1,
+                            folder.getAbsolutePath()));
                 }
+            }
+        } else {
+            jspModificationDate = jspFile.lastModified();
+            if (jspModificationDate < resource.getDateLastModified()) {
+                // file in real FS is older then file in VFS
+                mustUpdate = true;
+            } else if (controller.getCurrentRequest().isDoRecompile()) {
+                // recompile is forced with parameter
+                mustUpdate = true;
             } else {
-                jspModificationDate = jspFile.lastModified();
-                if (jspModificationDate < resource.getDateLastModified()) {
-                    // file in real FS is older then file in VFS
-                    mustUpdate = true;
-                } else if (controller.getCurrentRequest().isDoRecompile()) {
-                    // recompile is forced with parameter
-                    mustUpdate = true;
+                // check if update is needed
+                if (controller.getCurrentRequest().isOnline()) {
+                    mustUpdate = !m_onlineJsps.containsKey(jspVfsName);
                 } else {
-                    // check if update is needed
-                    if (controller.getCurrentRequest().isOnline()) {
-                        mustUpdate = !m_onlineJsps.containsKey(jspVfsName);
-                    } else {
-                        mustUpdate = !m_offlineJsps.containsKey(jspVfsName);
-                    }
-                    // check strong links only if update is needed
-                    if (mustUpdate) {
-                        // update strong link dependencies
-                        mustUpdate = updateStrongLinks(resource, controller, updatedFiles);
-                    }
+                    mustUpdate = !m_offlineJsps.containsKey(jspVfsName);
+                }
+                // check strong links only if update is needed
+                if (mustUpdate) {
+                    // update strong link dependencies
+                    mustUpdate = updateStrongLinks(resource, controller, updatedFiles);
                 }
             }
-            if (mustUpdate) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_WRITING_JSP_1, jspTargetName));
+        }
+        if (mustUpdate) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_WRITING_JSP_1, jspTargetName));
+            }
+            // no lock is held while the JSP is parsed, since parsing also updates the included JSPs
+            updatedFiles.add(jspTargetName);
+            byte[] contents;
+            String encoding;
+            try {
+                CmsObject cms = controller.getCmsObject();
+                contents = cms.readFile(resource).getContents();
+                // check the "content-encoding" property for the JSP, use system default if not found on path
+                encoding = cms.readPropertyObject(
+                    resource,
+                    CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
+                    true).getValue();
+                if (encoding == null) {
+                    encoding = OpenCms.getSystemInfo().getDefaultEncoding();
+                } else {
+                    encoding = CmsEncoder.lookupEncoding(encoding.trim(), encoding);
                 }
-                // jsp needs updating, acquire a write lock
-                readWriteLock.readLock().unlock();
-                readWriteLock.writeLock().lock();
+            } catch (CmsException e) {
+                controller.setThrowable(e, jspVfsName);
+                throw new ServletException(
+                    Messages.get().getBundle().key(Messages.ERR_LOADER_JSP_ACCESS_1, jspVfsName),
+                    e);
+            }
+
+            try {
+                // parse the JSP and modify OpenCms critical directives
+                contents = parseJsp(contents, encoding, controller, updatedFiles, isHardInclude);
+                if (LOG.isInfoEnabled()) {
+                    // check for existing file and display some debug info
+                    LOG.info(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_JSP_PERMCHECK_4,
+                            new Object[] {
+                                jspFile.getAbsolutePath(),
+                                Boolean.valueOf(jspFile.exists()),
+                                Boolean.valueOf(jspFile.isFile()),
+                                Boolean.valueOf(jspFile.canWrite())}));
+                }
+                // write the parsed JSP content to the real FS
+                Lock lock = FILE_LOCKS.get(jspPath);
+                lock.lock();
                 try {
-                    // check again if updating is still necessary as this might have happened while waiting for the write lock
+                    // check again if updating is still necessary as another request might have done this meanwhile
                     if (!jspFile.exists() || (jspModificationDate == jspFile.lastModified())) {
-                        updatedFiles.add(jspTargetName);
-                        byte[] contents;
-                        String encoding;
-                        try {
-                            CmsObject cms = controller.getCmsObject();
-                            contents = cms.readFile(resource).getContents();
-                            // check the "content-encoding" property for the JSP, use system default if not found on path
-                            encoding = cms.readPropertyObject(
-                                resource,
-                                CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING,
-                                true).getValue();
-                            if (encoding == null) {
-                                encoding = OpenCms.getSystemInfo().getDefaultEncoding();
-                            } else {
-                                encoding = CmsEncoder.lookupEncoding(encoding.trim(), encoding);
-                            }
-                        } catch (CmsException e) {
-                            controller.setThrowable(e, jspVfsName);
-                            throw new ServletException(
-                                Messages.get().getBundle().key(Messages.ERR_LOADER_JSP_ACCESS_1, jspVfsName),
-                                e);
-                        }
+                        // the file is replaced atomically, so requests never see a partially written JSP
+                        CmsFileUtil.writeFileAtomically(jspFile, contents);
 
-                        try {
-                            // parse the JSP and modify OpenCms critical directives
-                            contents = parseJsp(contents, encoding, controller, updatedFiles, isHardInclude);
-                            if (LOG.isInfoEnabled()) {
-                                // check for existing file and display some debug info
-                                LOG.info(
-                                    Messages.get().getBundle().key(
-                                        Messages.LOG_JSP_PERMCHECK_4,
-                                        new Object[] {
-                                            jspFile.getAbsolutePath(),
-                                            Boolean.valueOf(jspFile.exists()),
-                                            Boolean.valueOf(jspFile.isFile()),
-                                            Boolean.valueOf(jspFile.canWrite())}));
-                            }
-                            // write the parsed JSP content to the real FS
-                            synchronized (CmsJspLoader.class) {
-                                // this must be done only one file at a time
-                                FileOutputStream fs = new FileOutputStream(jspFile);
-                                fs.write(contents);
-                                fs.close();
-
-                                // we set the modification date to (approximately) that of the VFS resource. This is needed because in the Online project, the old version of a JSP
-                                // may be generated in the RFS JSP repository *after* the JSP has been changed, but *before* it has been published, which would lead
-                                // to it not being updated after the changed JSP is published.
-
-                                // Note: the RFS may only support second precision for the last modification date
-                                jspFile.setLastModified((1 + (resource.getDateLastModified() / 1000)) * 1000);
-                            }
-                            if (controller.getCurrentRequest().isOnline()) {
-                                m_onlineJsps.put(jspVfsName, Boolean.TRUE);
-                            } else {
-                                m_offlineJsps.put(jspVfsName, Boolean.TRUE);
-                            }
-                            if (LOG.isInfoEnabled()) {
-                                LOG.info(
-                                    Messages.get().getBundle().key(
-                                        Messages.LOG_UPDATED_JSP_2,
-                                        jspTargetName,
-                                        jspVfsName));
-                            }
-                        } catch (FileNotFoundException e) {
-                            throw new ServletException(
-                                Messages.get().getBundle().key(Messages.ERR_LOADER_JSP_WRITE_1, jspFile.getName()),
-                                e);
-                        }
+                        // we set the modification date to (approximately) that of the VFS resource. This is needed because in the Online project, the old version of a JSP
+                        // may be generated in the RFS JSP repository *after* the JSP has been changed, but *before* it has been published, which would lead
+                        // to it not being updated after the changed JSP is published.
+
+                        // Note: the RFS may only support second precision for the last modification date
+                        jspFile.setLastModified((1 + (resource.getDateLastModified() / 1000)) * 1000);
                     }
                 } finally {
-                    readWriteLock.readLock().lock();
-                    readWriteLock.writeLock().unlock();
+                    lock.unlock();
+                }
+                if (controller.getCurrentRequest().isOnline()) {
+                    m_onlineJsps.put(jspVfsName, Boolean.TRUE);
+                } else {
+                    m_offlineJsps.put(jspVfsName, Boolean.TRUE);
+                }
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_UPDATED_JSP_2, jspTargetName, jspVfsName));
                 }
+            } catch (FileNotFoundException e) {
+                throw new ServletException(
+                    Messages.get().getBundle().key(Messages.ERR_LOADER_JSP_WRITE_1, jspFile.getName()),
+                    e);
             }
-
-            // update "last modified" and "expires" date on controller
-            controller.updateDates(jspFile.lastModified(), CmsResource.DATE_EXPIRED_DEFAULT);
-        } finally {
-            //m_processingFiles.remove(jspVfsName);
-            readWriteLock.readLock().unlock();
         }
 
+        // update "last modified" and "expires" date on controller
+        controller.updateDates(jspFile.lastModified(), CmsResource.DATE_EXPIRED_DEFAULT);
+
         return jspTargetName;
     }
 
@@ -1741,27 +1723,6 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
         return numberOfUpdates < updatedFiles.size();
     }
 
-    /**
-     * Returns the read-write-lock for the given jsp vfs name.<p>
-     *
-     * @param jspVfsName the jsp vfs name
-     *
-     * @return the read-write-lock
-     */
-    private ReentrantReadWriteLock getFileLock(String jspVfsName) {
-
-        ReentrantReadWriteLock lock = m_fileLocks.get(jspVfsName);
-        if (lock == null) {
-            synchronized (m_fileLocks) {
-                if (!m_fileLocks.containsKey(jspVfsName)) {
-                    m_fileLocks.put(jspVfsName, new ReentrantReadWriteLock(true));
-                }
-                lock = m_fileLocks.get(jspVfsName);
-            }
-        }
-        return lock;
-    }
-
     /**
      * Returns the RFS path for a JSP resource.<p>
      *
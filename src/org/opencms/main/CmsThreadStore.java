@@ -224,7 +224,10 @@ public final class CmsThreadStore extends Thread {
             i = doomed.iterator();
             // no remove all doomed Threads from the Thread store
             while (i.hasNext()) {
-                m_threads.remove(i.next());
+                A_CmsReportThread thread = m_threads.remove(i.next());
+                if (thread != null) {
+                    thread.disposeReport();
+                }
             }
             if (LOG.isDebugEnabled()) {
                 dumpThreads();
@@ -39,6 +39,7 @@ import org.opencms.file.CmsResource;
 import org.opencms.flex.CmsFlexCache;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavCache;
 import org.opencms.letsencrypt.CmsLetsEncryptConfiguration;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.loader.CmsTemplateContextManager;
@@ -374,6 +375,16 @@ public final class OpenCms {
         return OpenCmsCore.getInstance().getModuleManager();
     }
 
+    /**
+     * Returns the shared navigation cache.<p>
+     *
+     * @return the navigation cache
+     */
+    public static CmsJspNavCache getNavigationCache() {
+
+        return OpenCmsCore.getInstance().getNavigationCache();
+    }
+
     /**
      * Returns the organizational unit manager.<p>
      *
@@ -68,6 +68,7 @@ import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsSingleTreeLocaleHandler;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavCache;
 import org.opencms.jsp.jsonpart.CmsJsonPartFilter;
 import org.opencms.letsencrypt.CmsLetsEncryptConfiguration;
 import org.opencms.loader.CmsResourceManager;
@@ -78,6 +79,7 @@ import org.opencms.lock.CmsLockManager;
 import org.opencms.module.CmsModuleManager;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.CmsMemoryMonitorConfiguration;
+import org.opencms.monitor.CmsRequestStatistics;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishManager;
 import org.opencms.repository.CmsRepositoryManager;
@@ -242,6 +244,9 @@ public final class OpenCmsCore {
     /** The module manager. */
     private CmsModuleManager m_moduleManager;
 
+    /** The shared navigation cache. */
+    private CmsJspNavCache m_navigationCache;
+
     /** The organizational unit manager. */
     private CmsOrgUnitManager m_orgUnitManager;
 
@@ -639,6 +644,16 @@ public final class OpenCmsCore {
         return m_moduleManager;
     }
 
+    /**
+     * Returns the shared navigation cache.<p>
+     *
+     * @return the navigation cache
+     */
+    protected CmsJspNavCache getNavigationCache() {
+
+        return m_navigationCache;
+    }
+
     /**
      * Returns the organizational unit manager.<p>
      *
@@ -1616,6 +1631,9 @@ public final class OpenCmsCore {
             // initialize the VFS bundle manager
             m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
 
+            // initialize the navigation cache
+            m_navigationCache = new CmsJspNavCache(initCmsObject(adminCms));
+
             // initialize the workplace manager
             m_workplaceManager.initialize(initCmsObject(adminCms));
 
@@ -1962,13 +1980,16 @@ public final class OpenCmsCore {
      * Servlet response output stream.<p>
      *
      * @param req the current servlet request
-     * @param res the current servlet response
+     * @param response the current servlet response
      */
-    protected void showResource(HttpServletRequest req, HttpServletResponse res) {
+    protected void showResource(HttpServletRequest req, HttpServletResponse response) {
 
         CmsObject cms = null;
+        CmsRequestStatistics.start(req.getRequestURI());
+        HttpServletResponse res = CmsRequestStatistics.wrapResponse(req, response);
         try {
             cms = initCmsObject(req, res);
+            CmsRequestStatistics.checkHeaderPermission(cms, req);
 
             if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
                 String uri = cms.getRequestContext().getUri();
@@ -2004,6 +2025,8 @@ public final class OpenCmsCore {
 
         } catch (Throwable t) {
             errorHandling(cms, req, res, t);
+        } finally {
+            CmsRequestStatistics.finish(res);
         }
     }
 
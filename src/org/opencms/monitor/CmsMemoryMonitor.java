@@ -1415,7 +1415,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsAccessControlList getCachedACL(String key) {
 
-        return m_cacheAccessControlList.get(key);
+        return recordLookup("acl", m_cacheAccessControlList.get(key));
     }
 
     /**
@@ -1427,7 +1427,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsXmlContentDefinition getCachedContentDefinition(String key) {
 
-        return m_cacheContentDefinitions.get(key);
+        return recordLookup("contentDefinition", m_cacheContentDefinitions.get(key));
     }
 
     /**
@@ -1439,7 +1439,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsGroup getCachedGroup(String key) {
 
-        return m_cacheGroup.get(key);
+        return recordLookup("group", m_cacheGroup.get(key));
     }
 
     /**
@@ -1491,7 +1491,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsOrganizationalUnit getCachedOrgUnit(String key) {
 
-        return m_cacheOrgUnit.get(key);
+        return recordLookup("orgUnit", m_cacheOrgUnit.get(key));
     }
 
     /**
@@ -1503,7 +1503,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
 
-        return m_cachePermission.get(key);
+        return recordLookup("permission", m_cachePermission.get(key));
     }
 
     /**
@@ -1515,7 +1515,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProject getCachedProject(String key) {
 
-        return m_cacheProject.get(key);
+        return recordLookup("project", m_cacheProject.get(key));
     }
 
     /**
@@ -1539,7 +1539,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProperty getCachedProperty(String key) {
 
-        return m_cacheProperty.get(key);
+        return recordLookup("property", m_cacheProperty.get(key));
     }
 
     /**
@@ -1551,7 +1551,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsProperty> getCachedPropertyList(String key) {
 
-        return m_cachePropertyList.get(key);
+        return recordLookup("propertyList", m_cachePropertyList.get(key));
     }
 
     /**
@@ -1614,7 +1614,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return recordLookup("resource", m_cacheResource.get(key));
     }
 
     /**
@@ -1626,7 +1626,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return recordLookup("resourceList", m_cacheResourceList.get(key));
     }
 
     /**
@@ -1638,7 +1638,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Boolean getCachedRole(String key) {
 
-        return m_cacheHasRoles.get(key);
+        return recordLookup("role", m_cacheHasRoles.get(key));
     }
 
     /**
@@ -1650,7 +1650,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsRole> getCachedRoleList(String key) {
 
-        return m_cacheRoleLists.get(key);
+        return recordLookup("roleList", m_cacheRoleLists.get(key));
     }
 
     /**
@@ -1662,7 +1662,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsUser getCachedUser(String key) {
 
-        return m_cacheUser.get(key);
+        return recordLookup("user", m_cacheUser.get(key));
     }
 
     /**
@@ -1674,7 +1674,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsGroup> getCachedUserGroups(String key) {
 
-        return m_cacheUserGroups.get(key);
+        return recordLookup("userGroups", m_cacheUserGroups.get(key));
     }
 
     /**
@@ -1698,7 +1698,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Object getCachedVfsObject(String key) {
 
-        return m_cacheVfsObject.get(key);
+        return recordLookup("vfsObject", m_cacheVfsObject.get(key));
     }
 
     /**
@@ -1796,6 +1796,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_intervalWarning = 720 * 60000;
         m_maxUsagePercent = 90;
 
+        CmsRequestStatistics.getAggregate().registerMBean();
+
         m_intervalEmail = m_configuration.getEmailInterval() * 1000;
         m_intervalLog = m_configuration.getLogInterval() * 1000;
 
@@ -2181,6 +2183,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         for (CacheType type : CacheType.values()) {
             flushCache(type);
         }
+        CmsRequestStatistics.getAggregate().unregisterMBean();
     }
 
     /**
@@ -2736,4 +2739,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_memoryCurrent.update();
         m_memoryAverage.calculateAverage(m_memoryCurrent);
     }
+
+    /**
+     * Records a lookup in one of the core caches with the request statistics of the current thread.<p>
+     *
+     * @param <T> the type of the cached value
+     * @param cacheName the name of the cache, used in the request statistics
+     * @param value the value read from the cache, <code>null</code> for a cache miss
+     *
+     * @return the given value
+     */
+    private <T> T recordLookup(String cacheName, T value) {
+
+        CmsRequestStatistics.recordCacheLookup(cacheName, value != null);
+        return value;
+    }
 }
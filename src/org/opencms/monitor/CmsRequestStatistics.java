@@ -0,0 +1,524 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsRole;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Collects performance statistics for a single request.<p>
+ *
+ * A collector is bound to the current thread with {@link #start(String)} and released with {@link #finish()}.
+ * All recording methods are static and do nothing if no collector is bound to the current thread,
+ * so they can be called from the database, cache and flex layers without further checks.<p>
+ *
+ * Finished collectors are added to the {@link CmsRequestStatisticsAggregate} returned by {@link #getAggregate()}.<p>
+ *
+ * @since 11.0.0
+ */
+public final class CmsRequestStatistics {
+
+    /**
+     * The name of the response header the statistics are written to for administrators.<p>
+     *
+     * The header is written just before the response is committed, see {@link CmsRequestStatisticsResponse}.
+     */
+    public static final String HEADER_REQUEST_STATISTICS = "X-OpenCms-Request-Statistics";
+
+    /** The request parameter an administrator uses to request the statistics header. */
+    public static final String PARAM_REQUEST_STATISTICS = "__requestStatistics";
+
+    /** The aggregated statistics of all finished requests. */
+    private static final CmsRequestStatisticsAggregate AGGREGATE = new CmsRequestStatisticsAggregate();
+
+    /** The statistics collector bound to the current thread. */
+    private static final ThreadLocal<CmsRequestStatistics> CURRENT = new ThreadLocal<CmsRequestStatistics>();
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsRequestStatistics.class);
+
+    /** The hit / miss counters per cache name. */
+    private Map<String, long[]> m_cacheLookups = new HashMap<String, long[]>();
+
+    /** The duration of the request in nanoseconds, set when the request is finished. */
+    private long m_duration;
+
+    /** The number of flex cache hits. */
+    private int m_flexCacheHits;
+
+    /** The number of flex cache misses. */
+    private int m_flexCacheMisses;
+
+    /** The number of flex includes. */
+    private int m_flexIncludes;
+
+    /** Flag indicating the statistics may be written to the response header. */
+    private boolean m_headerAllowed;
+
+    /** The statements which have been prepared but not closed yet, with their query key and start time. */
+    private Map<Statement, Object[]> m_openStatements = new IdentityHashMap<Statement, Object[]>();
+
+    /** The execution count and time in nanoseconds per SQL query key. */
+    private Map<String, long[]> m_sqlQueries = new HashMap<String, long[]>();
+
+    /** The start time of the request in nanoseconds. */
+    private long m_start;
+
+    /** The URI of the request. */
+    private String m_uri;
+
+    /**
+     * Creates a new statistics collector.<p>
+     *
+     * @param uri the URI of the request
+     */
+    private CmsRequestStatistics(String uri) {
+
+        m_uri = uri;
+        m_start = System.nanoTime();
+    }
+
+    /**
+     * Releases the statistics collector of the current thread and adds it to the aggregated statistics.<p>
+     *
+     * @return the released statistics collector, or <code>null</code> if none was bound to the current thread
+     */
+    public static CmsRequestStatistics finish() {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if (stats == null) {
+            return null;
+        }
+        CURRENT.remove();
+        stats.m_duration = System.nanoTime() - stats.m_start;
+        // statements that were not closed with the SQL manager are counted, but their time is unknown
+        stats.m_openStatements.clear();
+        AGGREGATE.add(stats);
+        return stats;
+    }
+
+    /**
+     * Allows writing the statistics of the current request to the response header,
+     * if a root administrator requested them with the {@link #PARAM_REQUEST_STATISTICS} parameter.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param req the current request
+     */
+    public static void checkHeaderPermission(CmsObject cms, HttpServletRequest req) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if ((stats != null)
+            && Boolean.valueOf(req.getParameter(PARAM_REQUEST_STATISTICS)).booleanValue()
+            && OpenCms.getRoleManager().hasRole(cms, CmsRole.ROOT_ADMIN)) {
+            stats.setHeaderAllowed(true);
+        }
+    }
+
+    /**
+     * Finishes the statistics of a request delivered by the OpenCms servlet.<p>
+     *
+     * The statistics are logged on debug level. If a root administrator requested them with the
+     * {@link #PARAM_REQUEST_STATISTICS} parameter, they are logged on info level. If the response has no
+     * output, the header is written now, otherwise it has already been written before the response was committed.<p>
+     *
+     * @param res the current response, as returned by {@link #wrapResponse(HttpServletRequest, HttpServletResponse)}
+     */
+    public static void finish(HttpServletResponse res) {
+
+        CmsRequestStatistics stats = finish();
+        if (stats == null) {
+            return;
+        }
+        if (stats.m_headerAllowed) {
+            if (res instanceof CmsRequestStatisticsResponse) {
+                ((CmsRequestStatisticsResponse)res).writeStatisticsHeader();
+            }
+            LOG.info(Messages.get().getBundle().key(Messages.LOG_REQUEST_STATISTICS_1, stats));
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_REQUEST_STATISTICS_1, stats));
+        }
+    }
+
+    /**
+     * Returns the aggregated statistics of all finished requests.<p>
+     *
+     * @return the aggregated statistics
+     */
+    public static CmsRequestStatisticsAggregate getAggregate() {
+
+        return AGGREGATE;
+    }
+
+    /**
+     * Returns the statistics collector bound to the current thread.<p>
+     *
+     * @return the statistics collector bound to the current thread, or <code>null</code>
+     */
+    public static CmsRequestStatistics getCurrent() {
+
+        return CURRENT.get();
+    }
+
+    /**
+     * Records a lookup in one of the core caches.<p>
+     *
+     * @param cacheName the name of the cache
+     * @param hit <code>true</code> if the lookup was a cache hit
+     */
+    public static void recordCacheLookup(String cacheName, boolean hit) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if (stats != null) {
+            long[] counters = stats.m_cacheLookups.get(cacheName);
+            if (counters == null) {
+                counters = new long[2];
+                stats.m_cacheLookups.put(cacheName, counters);
+            }
+            counters[hit ? 0 : 1]++;
+        }
+    }
+
+    /**
+     * Records a lookup in the flex cache.<p>
+     *
+     * @param hit <code>true</code> if the lookup was a cache hit
+     */
+    public static void recordFlexCacheLookup(boolean hit) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if (stats != null) {
+            if (hit) {
+                stats.m_flexCacheHits++;
+            } else {
+                stats.m_flexCacheMisses++;
+            }
+        }
+    }
+
+    /**
+     * Records a flex include.<p>
+     */
+    public static void recordFlexInclude() {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if (stats != null) {
+            stats.m_flexIncludes++;
+        }
+    }
+
+    /**
+     * Records that a statement prepared with {@link #recordSqlPrepared(Statement, String)} has been closed.<p>
+     *
+     * The time between preparing and closing the statement is added to the time of its query key.<p>
+     *
+     * @param stmnt the closed statement
+     */
+    public static void recordSqlClosed(Statement stmnt) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if ((stats != null) && (stmnt != null)) {
+            Object[] open = stats.m_openStatements.remove(stmnt);
+            if (open != null) {
+                long[] counters = stats.m_sqlQueries.get(open[0]);
+                counters[1] += System.nanoTime() - ((Long)open[1]).longValue();
+            }
+        }
+    }
+
+    /**
+     * Records that a statement has been prepared for the given query key.<p>
+     *
+     * @param stmnt the prepared statement
+     * @param queryKey the key of the SQL query
+     */
+    public static void recordSqlPrepared(Statement stmnt, String queryKey) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        if ((stats != null) && (stmnt != null)) {
+            long[] counters = stats.m_sqlQueries.get(queryKey);
+            if (counters == null) {
+                counters = new long[2];
+                stats.m_sqlQueries.put(queryKey, counters);
+            }
+            counters[0]++;
+            stats.m_openStatements.put(stmnt, new Object[] {queryKey, Long.valueOf(System.nanoTime())});
+        }
+    }
+
+    /**
+     * Binds a new statistics collector to the current thread.<p>
+     *
+     * A collector already bound to the current thread is replaced without being aggregated.<p>
+     *
+     * @param uri the URI of the request
+     *
+     * @return the new statistics collector
+     */
+    public static CmsRequestStatistics start(String uri) {
+
+        CmsRequestStatistics stats = new CmsRequestStatistics(uri);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Wraps the response of a request which asks for the statistics header, so the header can be written
+     * before the response is committed.<p>
+     *
+     * Only the query string is checked here, since the request parameters must not be read before the
+     * request encoding has been set. Whether the header is actually written is decided by
+     * {@link #checkHeaderPermission(CmsObject, HttpServletRequest)}.<p>
+     *
+     * @param req the current request
+     * @param res the current response
+     *
+     * @return the wrapped response, or the given response if the header is not requested
+     */
+    public static HttpServletResponse wrapResponse(HttpServletRequest req, HttpServletResponse res) {
+
+        CmsRequestStatistics stats = CURRENT.get();
+        String query = req.getQueryString();
+        if ((stats != null) && (query != null) && query.contains(PARAM_REQUEST_STATISTICS)) {
+            return new CmsRequestStatisticsResponse(res, stats);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the number of cache hits over all core caches.<p>
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHits() {
+
+        long result = 0;
+        for (long[] counters : m_cacheLookups.values()) {
+            result += counters[0];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of cache misses over all core caches.<p>
+     *
+     * @return the number of cache misses
+     */
+    public long getCacheMisses() {
+
+        long result = 0;
+        for (long[] counters : m_cacheLookups.values()) {
+            result += counters[1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration of the request in milliseconds.<p>
+     *
+     * For a request which is not finished yet, the time elapsed so far is returned.<p>
+     *
+     * @return the duration of the request in milliseconds
+     */
+    public long getDuration() {
+
+        long duration = m_duration > 0 ? m_duration : System.nanoTime() - m_start;
+        return duration / 1000000L;
+    }
+
+    /**
+     * Returns the number of flex cache hits.<p>
+     *
+     * @return the number of flex cache hits
+     */
+    public int getFlexCacheHits() {
+
+        return m_flexCacheHits;
+    }
+
+    /**
+     * Returns the number of flex cache misses.<p>
+     *
+     * @return the number of flex cache misses
+     */
+    public int getFlexCacheMisses() {
+
+        return m_flexCacheMisses;
+    }
+
+    /**
+     * Returns the number of flex includes.<p>
+     *
+     * @return the number of flex includes
+     */
+    public int getFlexIncludes() {
+
+        return m_flexIncludes;
+    }
+
+    /**
+     * Returns the number of SQL statements prepared during the request.<p>
+     *
+     * @return the number of SQL statements
+     */
+    public long getSqlCount() {
+
+        long result = 0;
+        for (long[] counters : m_sqlQueries.values()) {
+            result += counters[0];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time spent in SQL statements during the request, in milliseconds.<p>
+     *
+     * @return the time spent in SQL statements
+     */
+    public long getSqlTime() {
+
+        return getSqlNanos() / 1000000L;
+    }
+
+    /**
+     * Checks if the statistics may be written to the response header.<p>
+     *
+     * @return <code>true</code> if the statistics may be written to the response header
+     */
+    boolean isHeaderAllowed() {
+
+        return m_headerAllowed;
+    }
+
+    /**
+     * Sets if the statistics may be written to the response header.<p>
+     *
+     * @param headerAllowed <code>true</code> if the statistics may be written to the response header
+     */
+    void setHeaderAllowed(boolean headerAllowed) {
+
+        m_headerAllowed = headerAllowed;
+    }
+
+    /**
+     * Returns the URI of the request.<p>
+     *
+     * @return the URI of the request
+     */
+    public String getUri() {
+
+        return m_uri;
+    }
+
+    /**
+     * Returns a compact summary of the statistics, suitable as a HTTP header value.<p>
+     *
+     * @return a compact summary of the statistics
+     */
+    public String toHeaderValue() {
+
+        StringBuffer result = new StringBuffer(128);
+        result.append("time=").append(getDuration()).append("ms");
+        result.append("; sql=").append(getSqlCount());
+        result.append("; sqlTime=").append(getSqlTime()).append("ms");
+        result.append("; cacheHits=").append(getCacheHits());
+        result.append("; cacheMisses=").append(getCacheMisses());
+        result.append("; flexIncludes=").append(m_flexIncludes);
+        result.append("; flexHits=").append(m_flexCacheHits);
+        result.append("; flexMisses=").append(m_flexCacheMisses);
+        return result.toString();
+    }
+
+    /**
+     * Returns the summary followed by the SQL queries ordered by time, and the per cache hit / miss counters.<p>
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(512);
+        result.append(m_uri).append(": ").append(toHeaderValue());
+        List<Map.Entry<String, long[]>> queries = new ArrayList<Map.Entry<String, long[]>>(m_sqlQueries.entrySet());
+        Collections.sort(queries, new Comparator<Map.Entry<String, long[]>>() {
+
+            public int compare(Map.Entry<String, long[]> e1, Map.Entry<String, long[]> e2) {
+
+                return Long.compare(e2.getValue()[1], e1.getValue()[1]);
+            }
+        });
+        for (Map.Entry<String, long[]> query : queries) {
+            result.append("\n  sql ").append(query.getKey()).append(": ").append(query.getValue()[0]).append(
+                " x, ").append(query.getValue()[1] / 1000000L).append(" ms");
+        }
+        for (Map.Entry<String, long[]> cache : m_cacheLookups.entrySet()) {
+            result.append("\n  cache ").append(cache.getKey()).append(": ").append(cache.getValue()[0]).append(
+                " hits, ").append(cache.getValue()[1]).append(" misses");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the hit / miss counters per cache name.<p>
+     *
+     * @return the hit / miss counters per cache name
+     */
+    Map<String, long[]> getCacheLookups() {
+
+        return m_cacheLookups;
+    }
+
+    /**
+     * Returns the time spent in SQL statements during the request, in nanoseconds.<p>
+     *
+     * @return the time spent in SQL statements
+     */
+    long getSqlNanos() {
+
+        long result = 0;
+        for (long[] counters : m_sqlQueries.values()) {
+            result += counters[1];
+        }
+        return result;
+    }
+}
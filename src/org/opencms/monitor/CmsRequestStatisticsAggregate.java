@@ -0,0 +1,367 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.main.CmsLog;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Aggregates the statistics of all finished requests into histograms and counters.<p>
+ *
+ * The aggregate is registered with the platform MBean server by the memory monitor, so the values
+ * can be read with any JMX client, or in Prometheus format with {@link #getPrometheusMetrics()}.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestStatisticsAggregate implements I_CmsRequestStatisticsMBean {
+
+    /** The upper bounds of the request duration histogram buckets, in milliseconds. */
+    public static final long[] DURATION_BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /** The JMX object name the aggregate is registered with. */
+    public static final String OBJECT_NAME = "org.opencms:type=RequestStatistics";
+
+    /** The upper bounds of the SQL statement count histogram buckets. */
+    public static final long[] SQL_COUNT_BUCKETS = {0, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsRequestStatisticsAggregate.class);
+
+    /** The hit / miss counters per cache name. */
+    private ConcurrentHashMap<String, LongAdder[]> m_cacheLookups = new ConcurrentHashMap<String, LongAdder[]>();
+
+    /** The request duration histogram, the last bucket counts all requests above the largest bound. */
+    private AtomicLongArray m_durationHistogram = new AtomicLongArray(DURATION_BUCKETS.length + 1);
+
+    /** The number of flex cache hits. */
+    private LongAdder m_flexCacheHits = new LongAdder();
+
+    /** The number of flex cache misses. */
+    private LongAdder m_flexCacheMisses = new LongAdder();
+
+    /** The number of flex includes. */
+    private LongAdder m_flexIncludes = new LongAdder();
+
+    /** The number of recorded requests. */
+    private LongAdder m_requestCount = new LongAdder();
+
+    /** The SQL statement count histogram, the last bucket counts all requests above the largest bound. */
+    private AtomicLongArray m_sqlCountHistogram = new AtomicLongArray(SQL_COUNT_BUCKETS.length + 1);
+
+    /** The total duration of all recorded requests in milliseconds. */
+    private LongAdder m_totalDuration = new LongAdder();
+
+    /** The total number of SQL statements of all recorded requests. */
+    private LongAdder m_totalSqlCount = new LongAdder();
+
+    /** The total SQL time of all recorded requests in nanoseconds. */
+    private LongAdder m_totalSqlNanos = new LongAdder();
+
+    /**
+     * Returns the index of the histogram bucket for the given value.<p>
+     *
+     * @param buckets the upper bounds of the buckets
+     * @param value the value
+     *
+     * @return the index of the histogram bucket
+     */
+    private static int getBucket(long[] buckets, long value) {
+
+        for (int i = 0; i < buckets.length; i++) {
+            if (value <= buckets[i]) {
+                return i;
+            }
+        }
+        return buckets.length;
+    }
+
+    /**
+     * Adds the statistics of a finished request.<p>
+     *
+     * @param stats the statistics of the finished request
+     */
+    public void add(CmsRequestStatistics stats) {
+
+        long duration = stats.getDuration();
+        long sqlCount = stats.getSqlCount();
+        m_requestCount.increment();
+        m_totalDuration.add(duration);
+        m_totalSqlCount.add(sqlCount);
+        m_totalSqlNanos.add(stats.getSqlNanos());
+        m_durationHistogram.incrementAndGet(getBucket(DURATION_BUCKETS, duration));
+        m_sqlCountHistogram.incrementAndGet(getBucket(SQL_COUNT_BUCKETS, sqlCount));
+        m_flexIncludes.add(stats.getFlexIncludes());
+        m_flexCacheHits.add(stats.getFlexCacheHits());
+        m_flexCacheMisses.add(stats.getFlexCacheMisses());
+        for (Map.Entry<String, long[]> entry : stats.getCacheLookups().entrySet()) {
+            LongAdder[] counters = m_cacheLookups.get(entry.getKey());
+            if (counters == null) {
+                counters = new LongAdder[] {new LongAdder(), new LongAdder()};
+                LongAdder[] existing = m_cacheLookups.putIfAbsent(entry.getKey(), counters);
+                if (existing != null) {
+                    counters = existing;
+                }
+            }
+            counters[0].add(entry.getValue()[0]);
+            counters[1].add(entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getAverageRequestTime()
+     */
+    public double getAverageRequestTime() {
+
+        return average(m_totalDuration.sum());
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getAverageSqlCount()
+     */
+    public double getAverageSqlCount() {
+
+        return average(m_totalSqlCount.sum());
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getAverageSqlTime()
+     */
+    public double getAverageSqlTime() {
+
+        return average(m_totalSqlNanos.sum() / 1000000L);
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getCacheStatistics()
+     */
+    public String getCacheStatistics() {
+
+        StringBuffer result = new StringBuffer(256);
+        for (Map.Entry<String, LongAdder[]> entry : new TreeMap<String, LongAdder[]>(m_cacheLookups).entrySet()) {
+            long hits = entry.getValue()[0].sum();
+            long misses = entry.getValue()[1].sum();
+            result.append(entry.getKey()).append(": ").append(hits).append(" hits, ").append(misses).append(
+                " misses");
+            if ((hits + misses) > 0) {
+                result.append(" (").append((hits * 100) / (hits + misses)).append("%)");
+            }
+            result.append('\n');
+        }
+        result.append("flex: ").append(m_flexCacheHits.sum()).append(" hits, ").append(
+            m_flexCacheMisses.sum()).append(" misses, ").append(m_flexIncludes.sum()).append(" includes");
+        return result.toString();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getDurationHistogram()
+     */
+    public String getDurationHistogram() {
+
+        return formatHistogram(DURATION_BUCKETS, m_durationHistogram, " ms");
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getPrometheusMetrics()
+     */
+    public String getPrometheusMetrics() {
+
+        StringBuffer result = new StringBuffer(2048);
+        appendPrometheusHistogram(
+            result,
+            "opencms_request_duration_milliseconds",
+            DURATION_BUCKETS,
+            m_durationHistogram,
+            m_totalDuration.sum());
+        appendPrometheusHistogram(
+            result,
+            "opencms_request_sql_statements",
+            SQL_COUNT_BUCKETS,
+            m_sqlCountHistogram,
+            m_totalSqlCount.sum());
+        result.append("# TYPE opencms_request_sql_milliseconds_total counter\n");
+        result.append("opencms_request_sql_milliseconds_total ").append(m_totalSqlNanos.sum() / 1000000L).append(
+            '\n');
+        result.append("# TYPE opencms_cache_lookups_total counter\n");
+        for (Map.Entry<String, LongAdder[]> entry : new TreeMap<String, LongAdder[]>(m_cacheLookups).entrySet()) {
+            result.append("opencms_cache_lookups_total{cache=\"").append(entry.getKey()).append(
+                "\",result=\"hit\"} ").append(entry.getValue()[0].sum()).append('\n');
+            result.append("opencms_cache_lookups_total{cache=\"").append(entry.getKey()).append(
+                "\",result=\"miss\"} ").append(entry.getValue()[1].sum()).append('\n');
+        }
+        result.append("opencms_cache_lookups_total{cache=\"flex\",result=\"hit\"} ").append(
+            m_flexCacheHits.sum()).append('\n');
+        result.append("opencms_cache_lookups_total{cache=\"flex\",result=\"miss\"} ").append(
+            m_flexCacheMisses.sum()).append('\n');
+        result.append("# TYPE opencms_flex_includes_total counter\n");
+        result.append("opencms_flex_includes_total ").append(m_flexIncludes.sum()).append('\n');
+        return result.toString();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getRequestCount()
+     */
+    public long getRequestCount() {
+
+        return m_requestCount.sum();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#getSqlCountHistogram()
+     */
+    public String getSqlCountHistogram() {
+
+        return formatHistogram(SQL_COUNT_BUCKETS, m_sqlCountHistogram, " statements");
+    }
+
+    /**
+     * Registers this aggregate with the platform MBean server.<p>
+     */
+    public void registerMBean() {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(this, I_CmsRequestStatisticsMBean.class), name);
+            }
+        } catch (Exception e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_REQUEST_STATISTICS_MBEAN_1, OBJECT_NAME), e);
+        }
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsRequestStatisticsMBean#reset()
+     */
+    public void reset() {
+
+        m_requestCount.reset();
+        m_totalDuration.reset();
+        m_totalSqlCount.reset();
+        m_totalSqlNanos.reset();
+        m_flexIncludes.reset();
+        m_flexCacheHits.reset();
+        m_flexCacheMisses.reset();
+        for (int i = 0; i < m_durationHistogram.length(); i++) {
+            m_durationHistogram.set(i, 0);
+        }
+        for (int i = 0; i < m_sqlCountHistogram.length(); i++) {
+            m_sqlCountHistogram.set(i, 0);
+        }
+        m_cacheLookups.clear();
+    }
+
+    /**
+     * Unregisters this aggregate from the platform MBean server.<p>
+     */
+    public void unregisterMBean() {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_REQUEST_STATISTICS_MBEAN_1, OBJECT_NAME), e);
+        }
+    }
+
+    /**
+     * Appends a histogram in Prometheus text format, with cumulative bucket counts.<p>
+     *
+     * @param result the buffer to append to
+     * @param metric the name of the metric
+     * @param buckets the upper bounds of the buckets
+     * @param histogram the histogram counters
+     * @param sum the sum of all observed values
+     */
+    private void appendPrometheusHistogram(
+        StringBuffer result,
+        String metric,
+        long[] buckets,
+        AtomicLongArray histogram,
+        long sum) {
+
+        result.append("# TYPE ").append(metric).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += histogram.get(i);
+            result.append(metric).append("_bucket{le=\"").append(buckets[i]).append("\"} ").append(
+                cumulative).append('\n');
+        }
+        cumulative += histogram.get(buckets.length);
+        result.append(metric).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        result.append(metric).append("_sum ").append(sum).append('\n');
+        result.append(metric).append("_count ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Returns the given total divided by the number of recorded requests.<p>
+     *
+     * @param total the total
+     *
+     * @return the average per request
+     */
+    private double average(long total) {
+
+        long count = m_requestCount.sum();
+        return count > 0 ? (double)total / count : 0;
+    }
+
+    /**
+     * Formats a histogram as human readable text, one bucket per line.<p>
+     *
+     * @param buckets the upper bounds of the buckets
+     * @param histogram the histogram counters
+     * @param unit the unit to append to the bucket bounds
+     *
+     * @return the formatted histogram
+     */
+    private String formatHistogram(long[] buckets, AtomicLongArray histogram, String unit) {
+
+        StringBuffer result = new StringBuffer(256);
+        for (int i = 0; i < buckets.length; i++) {
+            result.append("<= ").append(buckets[i]).append(unit).append(": ").append(histogram.get(i)).append('\n');
+        }
+        result.append("> ").append(buckets[buckets.length - 1]).append(unit).append(": ").append(
+            histogram.get(buckets.length));
+        return result.toString();
+    }
+}
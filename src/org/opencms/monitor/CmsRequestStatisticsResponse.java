@@ -0,0 +1,282 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper which writes the {@link CmsRequestStatistics#HEADER_REQUEST_STATISTICS} header
+ * just before the response is committed.<p>
+ *
+ * Headers can not be added after the first output has been sent to the client, so the header contains the
+ * statistics collected up to the first output, flush, redirect or error. For pages delivered by the flex layer,
+ * this is usually after the whole page has been processed, since the page output is buffered.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsRequestStatisticsResponse extends HttpServletResponseWrapper {
+
+    /**
+     * Output stream which writes the statistics header before anything is written to the wrapped stream.<p>
+     */
+    private class CmsStatisticsOutputStream extends ServletOutputStream {
+
+        /** The wrapped stream. */
+        private ServletOutputStream m_stream;
+
+        /**
+         * Creates a new output stream.<p>
+         *
+         * @param stream the stream to wrap
+         */
+        CmsStatisticsOutputStream(ServletOutputStream stream) {
+
+            m_stream = stream;
+        }
+
+        /**
+         * @see java.io.OutputStream#close()
+         */
+        @Override
+        public void close() throws IOException {
+
+            writeStatisticsHeader();
+            m_stream.close();
+        }
+
+        /**
+         * @see java.io.OutputStream#flush()
+         */
+        @Override
+        public void flush() throws IOException {
+
+            writeStatisticsHeader();
+            m_stream.flush();
+        }
+
+        /**
+         * @see javax.servlet.ServletOutputStream#isReady()
+         */
+        @Override
+        public boolean isReady() {
+
+            return m_stream.isReady();
+        }
+
+        /**
+         * @see javax.servlet.ServletOutputStream#setWriteListener(javax.servlet.WriteListener)
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+
+            m_stream.setWriteListener(writeListener);
+        }
+
+        /**
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            writeStatisticsHeader();
+            m_stream.write(b, off, len);
+        }
+
+        /**
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) throws IOException {
+
+            writeStatisticsHeader();
+            m_stream.write(b);
+        }
+    }
+
+    /**
+     * Writer which writes the statistics header before anything is written to the wrapped writer.<p>
+     */
+    private class CmsStatisticsWriter extends Writer {
+
+        /** The wrapped writer. */
+        private Writer m_writer;
+
+        /**
+         * Creates a new writer.<p>
+         *
+         * @param writer the writer to wrap
+         */
+        CmsStatisticsWriter(Writer writer) {
+
+            m_writer = writer;
+        }
+
+        /**
+         * @see java.io.Writer#close()
+         */
+        @Override
+        public void close() throws IOException {
+
+            writeStatisticsHeader();
+            m_writer.close();
+        }
+
+        /**
+         * @see java.io.Writer#flush()
+         */
+        @Override
+        public void flush() throws IOException {
+
+            writeStatisticsHeader();
+            m_writer.flush();
+        }
+
+        /**
+         * @see java.io.Writer#write(char[], int, int)
+         */
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+
+            writeStatisticsHeader();
+            m_writer.write(cbuf, off, len);
+        }
+    }
+
+    /** Flag indicating the header has already been written, or can not be written anymore. */
+    private boolean m_headerWritten;
+
+    /** The wrapped output stream, created on first use. */
+    private ServletOutputStream m_outputStream;
+
+    /** The statistics of the request. */
+    private CmsRequestStatistics m_stats;
+
+    /** The wrapped writer, created on first use. */
+    private PrintWriter m_writer;
+
+    /**
+     * Creates a new response wrapper.<p>
+     *
+     * @param res the response to wrap
+     * @param stats the statistics of the request
+     */
+    public CmsRequestStatisticsResponse(HttpServletResponse res, CmsRequestStatistics stats) {
+
+        super(res);
+        m_stats = stats;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#flushBuffer()
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+
+        writeStatisticsHeader();
+        super.flushBuffer();
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getOutputStream()
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+
+        if (m_outputStream == null) {
+            m_outputStream = new CmsStatisticsOutputStream(super.getOutputStream());
+        }
+        return m_outputStream;
+    }
+
+    /**
+     * @see javax.servlet.ServletResponseWrapper#getWriter()
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (m_writer == null) {
+            m_writer = new PrintWriter(new CmsStatisticsWriter(super.getWriter()));
+        }
+        return m_writer;
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendError(int)
+     */
+    @Override
+    public void sendError(int sc) throws IOException {
+
+        writeStatisticsHeader();
+        super.sendError(sc);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendError(int, java.lang.String)
+     */
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+
+        writeStatisticsHeader();
+        super.sendError(sc, msg);
+    }
+
+    /**
+     * @see javax.servlet.http.HttpServletResponseWrapper#sendRedirect(java.lang.String)
+     */
+    @Override
+    public void sendRedirect(String location) throws IOException {
+
+        writeStatisticsHeader();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Writes the statistics header, if this has not been done yet and the response is not committed.<p>
+     *
+     * This is called before the response is committed, and once more when the request is finished,
+     * for responses without any output.<p>
+     */
+    public void writeStatisticsHeader() {
+
+        if (m_headerWritten) {
+            return;
+        }
+        m_headerWritten = true;
+        if (m_stats.isHeaderAllowed() && !isCommitted()) {
+            setHeader(CmsRequestStatistics.HEADER_REQUEST_STATISTICS, m_stats.toHeaderValue());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+/**
+ * Management interface for the aggregated per-request statistics, registered with the platform MBean server.<p>
+ *
+ * @since 11.0.0
+ */
+public interface I_CmsRequestStatisticsMBean {
+
+    /**
+     * Returns the average duration of a request in milliseconds.<p>
+     *
+     * @return the average duration of a request in milliseconds
+     */
+    double getAverageRequestTime();
+
+    /**
+     * Returns the average number of SQL statements executed per request.<p>
+     *
+     * @return the average number of SQL statements executed per request
+     */
+    double getAverageSqlCount();
+
+    /**
+     * Returns the average time spent in SQL statements per request, in milliseconds.<p>
+     *
+     * @return the average time spent in SQL statements per request
+     */
+    double getAverageSqlTime();
+
+    /**
+     * Returns the cache hit / miss counters of all caches as a human readable text.<p>
+     *
+     * @return the cache hit / miss counters
+     */
+    String getCacheStatistics();
+
+    /**
+     * Returns the request duration histogram as a human readable text.<p>
+     *
+     * @return the request duration histogram
+     */
+    String getDurationHistogram();
+
+    /**
+     * Returns all statistics in the Prometheus text exposition format.<p>
+     *
+     * @return all statistics in the Prometheus text exposition format
+     */
+    String getPrometheusMetrics();
+
+    /**
+     * Returns the number of requests recorded since startup or the last reset.<p>
+     *
+     * @return the number of recorded requests
+     */
+    long getRequestCount();
+
+    /**
+     * Returns the SQL statement count histogram as a human readable text.<p>
+     *
+     * @return the SQL statement count histogram
+     */
+    String getSqlCountHistogram();
+
+    /**
+     * Resets all aggregated statistics.<p>
+     */
+    void reset();
+}
@@ -100,6 +100,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_WARNING_MEM_STATUS_AVG_6 = "LOG_MM_WARNING_MEM_STATUS_AVG_6";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REQUEST_STATISTICS_1 = "LOG_REQUEST_STATISTICS_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REQUEST_STATISTICS_MBEAN_1 = "LOG_REQUEST_STATISTICS_MBEAN_1";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.monitor.messages";
 
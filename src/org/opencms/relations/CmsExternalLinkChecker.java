@@ -0,0 +1,341 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.relations;
+
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUriSplitter;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Checks whether external URLs can be reached.<p>
+ *
+ * URLs are checked with a <code>HEAD</code> request first. If the server answers with an error status,
+ * which many servers do for <code>HEAD</code> requests they do not support, a <code>GET</code> request is tried.
+ * All status codes 2xx (success) and 3xx (redirect) count as reachable. Only URLs using the <code>http</code>
+ * protocol are requested, all other absolute URLs are considered reachable.<p>
+ *
+ * A number of URLs can be checked concurrently using {@link #checkAll(Collection, I_CmsResultHandler)}. The URLs are
+ * queued by host, and every host queue is worked off by a limited number of workers. So the URLs of a slow or dead host
+ * wait in their queue instead of occupying workers that could check other hosts meanwhile.
+ * The results are cached for a while, so URLs used many times are only checked once.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsExternalLinkChecker {
+
+    /**
+     * Handler receiving the results of checking URLs.<p>
+     */
+    public interface I_CmsResultHandler {
+
+        /**
+         * Called for every checked URL, in the thread that started the check.<p>
+         *
+         * @param url the URL
+         * @param reachable <code>true</code> if the URL can be reached
+         */
+        void handleResult(String url, boolean reachable);
+    }
+
+    /** The default time in milliseconds the result of a check is cached. */
+    public static final long DEFAULT_CACHE_TTL = 30 * 60 * 1000L;
+
+    /** The default number of URLs checked concurrently. */
+    public static final int DEFAULT_THREADS = 8;
+
+    /** The default number of URLs of the same host checked concurrently. */
+    public static final int DEFAULT_THREADS_PER_HOST = 2;
+
+    /** The default connect and read timeout in milliseconds. */
+    public static final int DEFAULT_TIMEOUT = 10000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExternalLinkChecker.class);
+
+    /** Request method GET. */
+    private static final String METHOD_GET = "GET";
+
+    /** Request method HEAD. */
+    private static final String METHOD_HEAD = "HEAD";
+
+    /** The cached results by URL. */
+    private Cache<String, Boolean> m_cache;
+
+    /** The number of URLs checked concurrently. */
+    private int m_threads;
+
+    /** The number of URLs of the same host checked concurrently. */
+    private int m_threadsPerHost;
+
+    /** The connect and read timeout in milliseconds. */
+    private int m_timeout;
+
+    /**
+     * Creates a new link checker with the default settings.<p>
+     */
+    public CmsExternalLinkChecker() {
+
+        this(DEFAULT_THREADS, DEFAULT_THREADS_PER_HOST, DEFAULT_TIMEOUT, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * Creates a new link checker.<p>
+     *
+     * @param threads the number of URLs checked concurrently
+     * @param threadsPerHost the number of URLs of the same host checked concurrently
+     * @param timeout the connect and read timeout in milliseconds
+     * @param cacheTtl the time in milliseconds the result of a check is cached
+     */
+    public CmsExternalLinkChecker(int threads, int threadsPerHost, int timeout, long cacheTtl) {
+
+        m_threads = Math.max(1, threads);
+        m_threadsPerHost = Math.max(1, threadsPerHost);
+        m_timeout = Math.max(0, timeout);
+        m_cache = CacheBuilder.newBuilder().expireAfterWrite(cacheTtl, TimeUnit.MILLISECONDS).build();
+    }
+
+    /**
+     * Checks all given URLs concurrently.<p>
+     *
+     * Every distinct URL is checked only once. The handler is called for each of them in the calling thread,
+     * in the order the checks finish, so it can be used for progress reports.<p>
+     *
+     * @param urls the URLs to check
+     * @param handler the handler for the results
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for results
+     */
+    public void checkAll(Collection<String> urls, I_CmsResultHandler handler) throws InterruptedException {
+
+        List<String> toCheck = new ArrayList<String>();
+        for (String url : new LinkedHashSet<String>(urls)) {
+            Boolean cached = m_cache.getIfPresent(url);
+            if (cached != null) {
+                handler.handleResult(url, cached.booleanValue());
+            } else {
+                toCheck.add(url);
+            }
+        }
+        if (toCheck.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> urlsByHost = groupByHost(toCheck);
+        int workers = 0;
+        for (List<String> hostUrls : urlsByHost.values()) {
+            workers += Math.min(m_threadsPerHost, hostUrls.size());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(m_threads, workers), new ThreadFactory() {
+
+            private AtomicInteger m_count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: external link check " + m_count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            final BlockingQueue<Map.Entry<String, Boolean>> results;
+            results = new LinkedBlockingQueue<Map.Entry<String, Boolean>>();
+            List<Queue<String>> hostQueues = new ArrayList<Queue<String>>(urlsByHost.size());
+            for (List<String> hostUrls : urlsByHost.values()) {
+                hostQueues.add(new ConcurrentLinkedQueue<String>(hostUrls));
+            }
+            // start the first worker of every host before the second one of any host,
+            // so the pool works on as many different hosts as possible
+            for (int i = 0; i < m_threadsPerHost; i++) {
+                for (final Queue<String> hostQueue : hostQueues) {
+                    if (hostQueue.size() > i) {
+                        executor.execute(new Runnable() {
+
+                            public void run() {
+
+                                String url;
+                                while (!Thread.currentThread().isInterrupted() && ((url = hostQueue.poll()) != null)) {
+                                    boolean reachable;
+                                    try {
+                                        reachable = isReachable(url);
+                                    } catch (RuntimeException e) {
+                                        LOG.error(e.getLocalizedMessage(), e);
+                                        reachable = false;
+                                    }
+                                    results.add(new AbstractMap.SimpleImmutableEntry<String, Boolean>(
+                                        url,
+                                        Boolean.valueOf(reachable)));
+                                }
+                            }
+                        });
+                    }
+                }
+            }
+            for (int i = 0; i < toCheck.size(); i++) {
+                Map.Entry<String, Boolean> result = results.take();
+                handler.handleResult(result.getKey(), result.getValue().booleanValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Removes all cached results.<p>
+     */
+    public void clearCache() {
+
+        m_cache.invalidateAll();
+    }
+
+    /**
+     * Checks whether the given absolute URL can be reached.<p>
+     *
+     * The result is taken from the cache if available.<p>
+     *
+     * @param check the URL to check
+     *
+     * @return <code>true</code> if the URL can be reached
+     */
+    public boolean isReachable(String check) {
+
+        Boolean cached = m_cache.getIfPresent(check);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        boolean result;
+        URL url;
+        try {
+            URI uri = new CmsUriSplitter(check, true).toURI();
+            url = uri.isAbsolute() ? uri.toURL() : null;
+        } catch (URISyntaxException e) {
+            url = null;
+        } catch (IOException e) {
+            url = null;
+        } catch (IllegalArgumentException e) {
+            url = null;
+        }
+        if (url == null) {
+            result = false;
+        } else if (!"http".equals(url.getProtocol())) {
+            result = true;
+        } else {
+            int status = request(url, METHOD_HEAD);
+            if (status >= 400) {
+                // many servers do not support HEAD requests properly
+                status = request(url, METHOD_GET);
+            }
+            // accepting all status codes 2xx success and 3xx - redirect
+            result = (status >= 200) && (status < 400);
+        }
+        m_cache.put(check, Boolean.valueOf(result));
+        return result;
+    }
+
+    /**
+     * Groups the given URLs by their host.<p>
+     *
+     * @param urls the URLs
+     *
+     * @return the URLs by host, in the order the hosts first occur
+     */
+    private Map<String, List<String>> groupByHost(List<String> urls) {
+
+        Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+        for (String url : urls) {
+            String host;
+            try {
+                host = new URI(url).getHost();
+            } catch (URISyntaxException e) {
+                host = null;
+            }
+            String key = host == null ? "" : host.toLowerCase(Locale.ROOT);
+            List<String> list = result.get(key);
+            if (list == null) {
+                list = new ArrayList<String>();
+                result.put(key, list);
+            }
+            list.add(url);
+        }
+        return result;
+    }
+
+    /**
+     * Requests the given URL and returns the response status.<p>
+     *
+     * @param url the URL
+     * @param method the request method
+     *
+     * @return the response status, or <code>-1</code> if the request failed
+     */
+    private int request(URL url, String method) {
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection)url.openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(m_timeout);
+            connection.setReadTimeout(m_timeout);
+            connection.setInstanceFollowRedirects(false);
+            return connection.getResponseCode();
+        } catch (IOException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            return -1;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+}
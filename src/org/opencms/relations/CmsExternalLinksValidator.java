@@ -33,22 +33,24 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypePointer;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUriSplitter;
 
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+
 /**
  * Class to validate pointer links.<p>
  *
@@ -56,6 +58,30 @@ import java.util.Map;
  */
 public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
+    /** Scheduled job parameter for the time in milliseconds link check results are cached. */
+    public static final String PARAM_CACHE_TTL = "cacheTtl";
+
+    /** Scheduled job parameter for the number of links checked concurrently. */
+    public static final String PARAM_THREADS = "threads";
+
+    /** Scheduled job parameter for the number of links to the same host checked concurrently. */
+    public static final String PARAM_THREADS_PER_HOST = "threadsPerHost";
+
+    /** Scheduled job parameter for the connect and read timeout in milliseconds. */
+    public static final String PARAM_TIMEOUT = "timeout";
+
+    /** The link checker used if no other one is configured, shared so its cached results can be reused. */
+    private static final CmsExternalLinkChecker DEFAULT_CHECKER = new CmsExternalLinkChecker();
+
+    /** The link checkers by configuration, kept between the runs of the job so their cached results can be reused. */
+    private static final Map<String, CmsExternalLinkChecker> CHECKERS = new HashMap<String, CmsExternalLinkChecker>();
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExternalLinksValidator.class);
+
+    /** The link checker to use. */
+    private CmsExternalLinkChecker m_checker = DEFAULT_CHECKER;
+
     /** The report for the output. */
     private I_CmsReport m_report;
 
@@ -80,19 +106,8 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             if (!uri.isAbsolute()) {
                 return cms.existsResource(cms.getRequestContext().removeSiteRoot(uri.getPath()));
             } else {
-                URL url = uri.toURL();
-                if ("http".equals(url.getProtocol())) {
-                    // ensure that file is encoded properly
-                    HttpURLConnection httpcon = (HttpURLConnection)url.openConnection();
-                    int responseCode = httpcon.getResponseCode();
-                    // accepting all status codes 2xx success and 3xx - redirect
-                    return ((responseCode >= 200) && (responseCode < 400));
-                } else {
-                    return true;
-                }
+                return DEFAULT_CHECKER.isReachable(check);
             }
-        } catch (MalformedURLException mue) {
-            return false;
         } catch (Exception ex) {
             return false;
         }
@@ -111,10 +126,30 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         if (Boolean.valueOf(parameters.get("writeLog")).booleanValue()) {
             m_report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsExternalLinksValidator.class);
         }
+        if (parameters.containsKey(PARAM_THREADS)
+            || parameters.containsKey(PARAM_THREADS_PER_HOST)
+            || parameters.containsKey(PARAM_TIMEOUT)
+            || parameters.containsKey(PARAM_CACHE_TTL)) {
+            m_checker = getChecker(
+                getIntParameter(parameters, PARAM_THREADS, CmsExternalLinkChecker.DEFAULT_THREADS),
+                getIntParameter(parameters, PARAM_THREADS_PER_HOST, CmsExternalLinkChecker.DEFAULT_THREADS_PER_HOST),
+                getIntParameter(parameters, PARAM_TIMEOUT, CmsExternalLinkChecker.DEFAULT_TIMEOUT),
+                getLongParameter(parameters, PARAM_CACHE_TTL, CmsExternalLinkChecker.DEFAULT_CACHE_TTL));
+        }
         validateLinks(cms);
         return "CmsExternLinkValidator.launch(): Links checked.";
     }
 
+    /**
+     * Sets the link checker to use.<p>
+     *
+     * @param checker the link checker
+     */
+    public void setChecker(CmsExternalLinkChecker checker) {
+
+        m_checker = checker;
+    }
+
     /**
      * Sets the report for the output.<p>
      *
@@ -149,41 +184,50 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             CmsResourceTypePointer.getStaticTypeName()).getTypeId();
         CmsResourceFilter filter = CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(pointerId);
         List<CmsResource> links = cms.readResources("/", filter);
-        Iterator<CmsResource> iterator = links.iterator();
-        Map<String, String> brokenLinks = new HashMap<String, String>();
+        final Map<String, String> brokenLinks = new HashMap<String, String>();
+        final int size = links.size();
+        final int[] count = new int[] {1};
 
-        for (int i = 1; iterator.hasNext(); i++) {
-            CmsFile link = cms.readFile(cms.getSitePath(iterator.next()), filter);
+        // read the pointers and check the links to VFS resources directly,
+        // since the cms context can not be shared with the threads checking the external links
+        final Map<String, List<String>> pointersByUrl = new LinkedHashMap<String, List<String>>();
+        for (CmsResource resource : links) {
+            CmsFile link = cms.readFile(cms.getSitePath(resource), filter);
             String linkUrl = new String(link.getContents());
-
-            // print to the report
-            m_report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_1,
-                    new Integer(i),
-                    new Integer(links.size())),
-                I_CmsReport.FORMAT_NOTE);
-            m_report.print(Messages.get().container(Messages.RPT_VALIDATE_LINK_0), I_CmsReport.FORMAT_NOTE);
-            m_report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    link.getRootPath()));
-            m_report.print(Messages.get().container(Messages.GUI_LINK_POINTING_TO_0), I_CmsReport.FORMAT_NOTE);
-            m_report.print(
-                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, linkUrl));
-            m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-            // check link and append it to the list of broken links, if test fails
-            if (!checkUrl(cms, linkUrl)) {
-                brokenLinks.put(link.getRootPath(), linkUrl);
-                m_report.println(Messages.get().container(Messages.RPT_BROKEN_0), I_CmsReport.FORMAT_ERROR);
+            boolean external;
+            try {
+                external = new CmsUriSplitter(linkUrl, true).toURI().isAbsolute();
+            } catch (URISyntaxException e) {
+                external = false;
+            }
+            if (external) {
+                List<String> pointers = pointersByUrl.get(linkUrl);
+                if (pointers == null) {
+                    pointers = new ArrayList<String>();
+                    pointersByUrl.put(linkUrl, pointers);
+                }
+                pointers.add(link.getRootPath());
             } else {
-                m_report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
+                reportLink(link.getRootPath(), linkUrl, checkUrl(cms, linkUrl), count[0]++, size, brokenLinks);
             }
         }
 
+        // check the external links concurrently, every URL only once
+        try {
+            m_checker.checkAll(pointersByUrl.keySet(), new CmsExternalLinkChecker.I_CmsResultHandler() {
+
+                public void handleResult(String url, boolean reachable) {
+
+                    for (String pointer : pointersByUrl.get(url)) {
+                        reportLink(pointer, url, reachable, count[0]++, size, brokenLinks);
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            Thread.currentThread().interrupt();
+        }
+
         m_report.println(
             Messages.get().container(
                 Messages.RPT_LINK_VALIDATION_STAT_2,
@@ -196,4 +240,117 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
         OpenCms.getLinkManager().setPointerLinkValidationResult(new CmsExternalLinksValidationResult(brokenLinks));
     }
+
+    /**
+     * Returns the shared link checker for the given configuration, creating it if required.<p>
+     *
+     * @param threads the number of URLs checked concurrently
+     * @param threadsPerHost the number of URLs of the same host checked concurrently
+     * @param timeout the connect and read timeout in milliseconds
+     * @param cacheTtl the time in milliseconds the result of a check is cached
+     *
+     * @return the link checker
+     */
+    private static synchronized CmsExternalLinkChecker getChecker(
+        int threads,
+        int threadsPerHost,
+        int timeout,
+        long cacheTtl) {
+
+        String key = threads + "|" + threadsPerHost + "|" + timeout + "|" + cacheTtl;
+        CmsExternalLinkChecker checker = CHECKERS.get(key);
+        if (checker == null) {
+            checker = new CmsExternalLinkChecker(threads, threadsPerHost, timeout, cacheTtl);
+            CHECKERS.put(key, checker);
+        }
+        return checker;
+    }
+
+    /**
+     * Returns the value of an integer scheduled job parameter.<p>
+     *
+     * @param parameters the parameters
+     * @param name the parameter name
+     * @param defaultValue the value to use if the parameter is not set or invalid
+     *
+     * @return the parameter value
+     */
+    private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+
+        String value = parameters.get(name);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the value of a long scheduled job parameter.<p>
+     *
+     * @param parameters the parameters
+     * @param name the parameter name
+     * @param defaultValue the value to use if the parameter is not set or invalid
+     *
+     * @return the parameter value
+     */
+    private long getLongParameter(Map<String, String> parameters, String name, long defaultValue) {
+
+        String value = parameters.get(name);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Writes the result of checking a link to the report.<p>
+     *
+     * @param pointer the root path of the pointer resource
+     * @param linkUrl the link URL
+     * @param valid <code>true</code> if the link is valid
+     * @param count the number of the link
+     * @param size the total number of links
+     * @param brokenLinks the map to add broken links to
+     */
+    private void reportLink(
+        String pointer,
+        String linkUrl,
+        boolean valid,
+        int count,
+        int size,
+        Map<String, String> brokenLinks) {
+
+        // print to the report
+        m_report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                Integer.valueOf(count),
+                Integer.valueOf(size)),
+            I_CmsReport.FORMAT_NOTE);
+        m_report.print(Messages.get().container(Messages.RPT_VALIDATE_LINK_0), I_CmsReport.FORMAT_NOTE);
+        m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, pointer));
+        m_report.print(Messages.get().container(Messages.GUI_LINK_POINTING_TO_0), I_CmsReport.FORMAT_NOTE);
+        m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, linkUrl));
+        m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        // append the link to the list of broken links, if the test failed
+        if (!valid) {
+            brokenLinks.put(pointer, linkUrl);
+            m_report.println(Messages.get().container(Messages.RPT_BROKEN_0), I_CmsReport.FORMAT_ERROR);
+        } else {
+            m_report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+        }
+    }
 }
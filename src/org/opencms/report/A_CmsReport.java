@@ -33,6 +33,7 @@ import org.opencms.i18n.CmsMessages;
 import org.opencms.util.CmsStringUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -44,10 +45,10 @@ import java.util.Locale;
 public abstract class A_CmsReport implements I_CmsReport {
 
     /** Contains all error messages generated by the report. */
-    private List<Object> m_errors = new ArrayList<Object>();
+    private List<Object> m_errors = Collections.synchronizedList(new ArrayList<Object>());
 
     /** Time of last report entry. */
-    private long m_lastEntryTime;
+    private volatile long m_lastEntryTime;
 
     /** The locale this report is written in. */
     private Locale m_locale;
@@ -62,7 +63,7 @@ public abstract class A_CmsReport implements I_CmsReport {
     private long m_starttime;
 
     /** Contains all warning messages generated by the report. */
-    private List<Object> m_warnings = new ArrayList<Object>();
+    private List<Object> m_warnings = Collections.synchronizedList(new ArrayList<Object>());
 
     /**
      * @see org.opencms.report.I_CmsReport#addError(java.lang.Object)
@@ -80,6 +81,16 @@ public abstract class A_CmsReport implements I_CmsReport {
         m_warnings.add(obj);
     }
 
+    /**
+     * Releases resources held by this report, like temporary files.<p>
+     *
+     * The report output may not be available anymore after this has been called.<p>
+     */
+    public void dispose() {
+
+        // nothing to release by default
+    }
+
     /**
      * @see org.opencms.report.I_CmsReport#formatRuntime()
      */
@@ -155,6 +166,19 @@ public abstract class A_CmsReport implements I_CmsReport {
         return (m_errors.size() > 0);
     }
 
+    /**
+     * Checks if there is report output which has not been returned by a report update yet.<p>
+     *
+     * Report updates return a bounded number of entries, so clients should keep requesting updates
+     * as long as this returns <code>true</code>, even if the report thread has already finished.<p>
+     *
+     * @return <code>true</code> if there is report output left for the next report update
+     */
+    public boolean hasPendingUpdate() {
+
+        return false;
+    }
+
     /**
      * @see org.opencms.report.I_CmsReport#hasWarning()
      */
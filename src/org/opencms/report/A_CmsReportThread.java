@@ -93,6 +93,16 @@ public abstract class A_CmsReportThread extends Thread implements I_CmsReportThr
         }
     }
 
+    /**
+     * Releases resources held by the report of this thread, like temporary files.<p>
+     */
+    public void disposeReport() {
+
+        if (m_report instanceof A_CmsReport) {
+            ((A_CmsReport)m_report).dispose();
+        }
+    }
+
     /**
      * Returns the error exception in case there was an error during the execution of
      * this Thread, null otherwise.<p>
@@ -202,6 +212,18 @@ public abstract class A_CmsReportThread extends Thread implements I_CmsReportThr
         }
     }
 
+    /**
+     * Checks if the report of this thread has output which has not been returned by a report update yet.<p>
+     *
+     * @return <code>true</code> if there is report output left for the next report update
+     *
+     * @see A_CmsReport#hasPendingUpdate()
+     */
+    public boolean hasPendingReportUpdate() {
+
+        return (getReport() instanceof A_CmsReport) && ((A_CmsReport)getReport()).hasPendingUpdate();
+    }
+
     /**
      * Returns true if this thread is already "doomed" to be deleted.<p>
      *
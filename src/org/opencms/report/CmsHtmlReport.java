@@ -31,7 +31,6 @@ import org.opencms.i18n.CmsEncoder;
 import org.opencms.main.CmsException;
 import org.opencms.util.CmsStringUtil;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
@@ -53,14 +52,14 @@ public class CmsHtmlReport extends A_CmsReport {
      */
     public static final String LINEBREAK_TRADITIONAL = "<br>\\n";
 
-    /** The list of report objects e.g. String, CmsPageLink, Exception ... */
-    private List<Object> m_content;
+    /** The report entries, either preformatted strings or exceptions. */
+    private CmsReportBuffer m_buffer;
 
     /**
      * Counter to remember what is already shown,
-     * indicates the next index of the m_content list that has to be reported.
+     * indicates the next index of the report entries that has to be reported.
      */
-    private int m_indexNext;
+    private long m_indexNext;
 
     /** Flag to indicate if an exception should be displayed long or short. */
     private boolean m_showExceptionStackTrace;
@@ -93,35 +92,52 @@ public class CmsHtmlReport extends A_CmsReport {
     public CmsHtmlReport(Locale locale, String siteRoot, boolean writeHtml, boolean isTransient) {
 
         init(locale, siteRoot);
-        m_content = new ArrayList<Object>(256);
+        m_buffer = new CmsReportBuffer();
         m_showExceptionStackTrace = true;
         m_writeHtml = writeHtml;
         m_transient = isTransient;
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReport#dispose()
+     */
+    @Override
+    public void dispose() {
+
+        m_buffer.dispose();
+    }
+
     /**
      * @see org.opencms.report.I_CmsReport#getReportUpdate()
      */
     public synchronized String getReportUpdate() {
 
         StringBuffer result = new StringBuffer();
-        int indexEnd = m_content.size();
-        for (int i = m_indexNext; i < indexEnd; i++) {
-            int pos = m_transient ? 0 : i;
-            Object obj = m_content.get(pos);
-            if ((obj instanceof String) || (obj instanceof StringBuffer)) {
-                result.append(obj);
-            } else if (obj instanceof Throwable) {
-                result.append(getExceptionElement((Throwable)obj));
-            }
-            if (m_transient) {
-                m_content.remove(m_indexNext);
+        long indexStart = Math.max(m_indexNext, m_buffer.getFirstAvailableIndex());
+        List<CmsReportUpdateItem> items = m_buffer.read(indexStart, CmsReportBuffer.MAX_UPDATE_ENTRIES);
+        for (CmsReportUpdateItem item : items) {
+            if (item.getType() == CmsReportFormatType.fmtException) {
+                result.append(getExceptionElement((Throwable)item.getMessage()));
+            } else {
+                result.append(item.getMessage());
             }
         }
-        m_indexNext = m_transient ? 0 : indexEnd;
+        m_indexNext = indexStart + items.size();
+        if (m_transient) {
+            m_buffer.discard(m_indexNext);
+        }
         return result.toString();
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReport#hasPendingUpdate()
+     */
+    @Override
+    public synchronized boolean hasPendingUpdate() {
+
+        return Math.max(m_indexNext, m_buffer.getFirstAvailableIndex()) < m_buffer.size();
+    }
+
     /**
      * Returns if the report writes html or javascript code.<p>
      *
@@ -136,7 +152,7 @@ public class CmsHtmlReport extends A_CmsReport {
      * @see org.opencms.report.A_CmsReport#print(java.lang.String, int)
      */
     @Override
-    public synchronized void print(String value, int format) {
+    public void print(String value, int format) {
 
         StringBuffer buf = null;
 
@@ -188,7 +204,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("aB(); ");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         } else {
             switch (format) {
                 case FORMAT_HEADLINE:
@@ -230,7 +246,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("\n");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         }
         setLastEntryTime(System.currentTimeMillis());
     }
@@ -246,10 +262,10 @@ public class CmsHtmlReport extends A_CmsReport {
     /**
      * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
      */
-    public synchronized void println(Throwable t) {
+    public void println(Throwable t) {
 
         addError(t.getMessage());
-        m_content.add(t);
+        m_buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtException, t));
         setLastEntryTime(System.currentTimeMillis());
     }
 
@@ -263,6 +279,16 @@ public class CmsHtmlReport extends A_CmsReport {
         return m_writeHtml ? LINEBREAK_TRADITIONAL : LINEBREAK;
     }
 
+    /**
+     * Adds preformatted output to the report entries.<p>
+     *
+     * @param content the preformatted output
+     */
+    private void addContent(String content) {
+
+        m_buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtDefault, content));
+    }
+
     /**
      * Output helper method to format a reported {@link Throwable} element.<p>
      *
@@ -300,7 +326,7 @@ public class CmsHtmlReport extends A_CmsReport {
                 buf.append(CmsStringUtil.escapeJavaScript(throwable.toString()));
                 buf.append("'); ");
             }
-            m_content.add(buf);
+            addContent(buf.toString());
         } else {
             if (m_showExceptionStackTrace) {
                 buf.append("<span class='throw'>");
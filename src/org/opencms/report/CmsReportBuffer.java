@@ -0,0 +1,490 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.report;
+
+import org.opencms.main.CmsLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Bounded storage for the entries of a report.<p>
+ *
+ * New entries are appended to an in-memory tail without locking. When the tail grows beyond the configured
+ * number of entries, the oldest entries are moved to rolling temporary files, from which they can still be read
+ * page by page. Only the most recent segment files are kept, so the disk usage of a single report is bounded as well.<p>
+ *
+ * Entries are addressed by their index, starting with 0 for the first entry ever added to the buffer.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsReportBuffer {
+
+    /** The default maximum number of entries kept in memory. */
+    public static final int DEFAULT_MAX_MEMORY_ENTRIES = 2000;
+
+    /** The maximum number of entries returned by a single report update. */
+    public static final int MAX_UPDATE_ENTRIES = 1000;
+
+    /** The number of entries per page. */
+    public static final int PAGE_SIZE = 200;
+
+    /** The maximum number of segment files kept per report. */
+    static final int MAX_SEGMENTS = 20;
+
+    /** The number of pages written to a single segment file. */
+    static final int SEGMENT_PAGES = 250;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsReportBuffer.class);
+
+    /** The total number of entries added to this buffer. */
+    private final AtomicLong m_count = new AtomicLong();
+
+    /** The index of the first entry which can still be read. */
+    private long m_firstAvailableIndex;
+
+    /** The index of the first entry in the in-memory tail. */
+    private long m_firstTailIndex;
+
+    /** The lock guarding the segment files and the removal of entries from the tail. */
+    private final ReentrantLock m_lock = new ReentrantLock();
+
+    /** The maximum number of entries kept in memory. */
+    private final int m_maxMemoryEntries;
+
+    /** The segment files, oldest first. */
+    private final LinkedList<Segment> m_segments = new LinkedList<Segment>();
+
+    /** Flag indicating that writing to the segment files failed, so all further entries are kept in memory. */
+    private boolean m_spillFailed;
+
+    /** The in-memory tail. */
+    private final ConcurrentLinkedQueue<CmsReportUpdateItem> m_tail = new ConcurrentLinkedQueue<CmsReportUpdateItem>();
+
+    /** The number of entries in the in-memory tail. */
+    private final AtomicInteger m_tailSize = new AtomicInteger();
+
+    /**
+     * A temporary file holding a contiguous range of report entries.<p>
+     */
+    private static class Segment {
+
+        /** The number of entries in this segment. */
+        int m_count;
+
+        /** The temporary file. */
+        File m_file;
+
+        /** The index of the first entry in this segment. */
+        long m_firstIndex;
+
+        /** The output stream, or null if the segment is complete. */
+        DataOutputStream m_out;
+
+        /** The file offsets at which the pages of this segment start. */
+        long[] m_pageOffsets = new long[SEGMENT_PAGES];
+
+        /**
+         * Creates a new segment.<p>
+         *
+         * @param firstIndex the index of the first entry in this segment
+         *
+         * @throws IOException if the temporary file could not be created
+         */
+        Segment(long firstIndex)
+        throws IOException {
+
+            m_firstIndex = firstIndex;
+            m_file = File.createTempFile("opencms-report-", ".tmp");
+            m_file.deleteOnExit();
+            m_out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(m_file)));
+        }
+
+        /**
+         * Closes the output stream and deletes the temporary file.<p>
+         */
+        void delete() {
+
+            close();
+            // if this fails, the file is still deleted on exit
+            m_file.delete();
+        }
+
+        /**
+         * Closes the output stream.<p>
+         */
+        void close() {
+
+            if (m_out != null) {
+                try {
+                    m_out.close();
+                } catch (IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                m_out = null;
+            }
+        }
+
+        /**
+         * Checks if no more entries can be written to this segment.<p>
+         *
+         * @return true if this segment is full
+         */
+        boolean isFull() {
+
+            return m_count >= (SEGMENT_PAGES * PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Creates a new buffer with the default maximum number of entries kept in memory.<p>
+     */
+    public CmsReportBuffer() {
+
+        this(DEFAULT_MAX_MEMORY_ENTRIES);
+    }
+
+    /**
+     * Creates a new buffer.<p>
+     *
+     * @param maxMemoryEntries the maximum number of entries kept in memory
+     */
+    public CmsReportBuffer(int maxMemoryEntries) {
+
+        m_maxMemoryEntries = Math.max(PAGE_SIZE, maxMemoryEntries);
+    }
+
+    /**
+     * Adds an entry to the buffer.<p>
+     *
+     * This never waits for other threads. If the in-memory tail is too large and no other thread is currently moving
+     * entries to disk, the calling thread does so.<p>
+     *
+     * @param item the entry to add
+     */
+    public void add(CmsReportUpdateItem item) {
+
+        m_tail.add(item);
+        m_tailSize.incrementAndGet();
+        m_count.incrementAndGet();
+        if ((m_tailSize.get() > m_maxMemoryEntries) && m_lock.tryLock()) {
+            try {
+                spill();
+            } finally {
+                m_lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Discards all entries with an index lower than the given index.<p>
+     *
+     * This is used by transient reports which do not need entries any more once they have been read.<p>
+     *
+     * @param index the index of the first entry to keep
+     */
+    public void discard(long index) {
+
+        m_lock.lock();
+        try {
+            while ((m_firstTailIndex < index) && (m_tail.poll() != null)) {
+                m_tailSize.decrementAndGet();
+                m_firstTailIndex++;
+            }
+            while (!m_segments.isEmpty()
+                && ((m_segments.getFirst().m_firstIndex + m_segments.getFirst().m_count) <= index)) {
+                m_segments.removeFirst().delete();
+            }
+            m_firstAvailableIndex = Math.max(m_firstAvailableIndex, Math.min(index, m_firstTailIndex));
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the temporary files and removes all entries from memory.<p>
+     */
+    public void dispose() {
+
+        m_lock.lock();
+        try {
+            for (Segment segment : m_segments) {
+                segment.delete();
+            }
+            m_segments.clear();
+            m_firstTailIndex += m_tailSize.getAndSet(0);
+            m_tail.clear();
+            m_firstAvailableIndex = m_firstTailIndex;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the index of the first entry which can still be read.<p>
+     *
+     * @return the index of the first available entry
+     */
+    public long getFirstAvailableIndex() {
+
+        m_lock.lock();
+        try {
+            return m_firstAvailableIndex;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Reads entries from the buffer.<p>
+     *
+     * Entries which have already been discarded or rolled out of the temporary files are skipped.<p>
+     *
+     * @param fromIndex the index of the first entry to read
+     * @param maxCount the maximum number of entries to read
+     *
+     * @return the entries read
+     */
+    public List<CmsReportUpdateItem> read(long fromIndex, int maxCount) {
+
+        List<CmsReportUpdateItem> result = new ArrayList<CmsReportUpdateItem>();
+        m_lock.lock();
+        try {
+            long index = Math.max(fromIndex, m_firstAvailableIndex);
+            for (Segment segment : m_segments) {
+                if ((result.size() >= maxCount) || (index >= m_firstTailIndex)) {
+                    break;
+                }
+                if (index < (segment.m_firstIndex + segment.m_count)) {
+                    index += readSegment(segment, index, maxCount - result.size(), result);
+                }
+            }
+            if (index < m_firstTailIndex) {
+                // entries were lost because writing to disk failed
+                index = m_firstTailIndex;
+            }
+            Iterator<CmsReportUpdateItem> it = m_tail.iterator();
+            long position = m_firstTailIndex;
+            while (it.hasNext() && (result.size() < maxCount)) {
+                CmsReportUpdateItem item = it.next();
+                if (position >= index) {
+                    result.add(item);
+                }
+                position++;
+            }
+        } finally {
+            m_lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total number of entries added to this buffer.<p>
+     *
+     * @return the number of entries
+     */
+    public long size() {
+
+        return m_count.get();
+    }
+
+    /**
+     * Reads a single entry from a segment file.<p>
+     *
+     * @param in the input to read from
+     *
+     * @return the entry
+     *
+     * @throws IOException if reading the entry fails
+     */
+    private CmsReportUpdateItem readItem(DataInputStream in) throws IOException {
+
+        CmsReportFormatType type = CmsReportFormatType.values()[in.readByte()];
+        boolean isThrowable = in.readBoolean();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        Object message;
+        if (isThrowable) {
+            try (ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                message = objIn.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        } else {
+            message = new String(data, StandardCharsets.UTF_8);
+        }
+        return new CmsReportUpdateItem(type, message);
+    }
+
+    /**
+     * Reads entries from a segment file.<p>
+     *
+     * @param segment the segment
+     * @param index the index of the first entry to read
+     * @param maxCount the maximum number of entries to read
+     * @param result the list to which the entries are added
+     *
+     * @return the number of entries read
+     */
+    private int readSegment(Segment segment, long index, int maxCount, List<CmsReportUpdateItem> result) {
+
+        int offset = (int)(index - segment.m_firstIndex);
+        int page = offset / PAGE_SIZE;
+        int toRead = Math.min(maxCount, segment.m_count - offset);
+        int read = 0;
+        try (InputStream fileIn = new FileInputStream(segment.m_file)) {
+            long skip = segment.m_pageOffsets[page];
+            while (skip > 0) {
+                long skipped = fileIn.skip(skip);
+                if (skipped <= 0) {
+                    throw new IOException("Unexpected end of report segment file " + segment.m_file);
+                }
+                skip -= skipped;
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn));
+            for (int i = page * PAGE_SIZE; i < offset; i++) {
+                readItem(in);
+            }
+            while (read < toRead) {
+                result.add(readItem(in));
+                read++;
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_REPORT_READ_ERROR_1, segment.m_file), e);
+            // skip the unreadable entries
+            return toRead;
+        }
+        return read;
+    }
+
+    /**
+     * Moves the oldest entries of the in-memory tail to the segment files.<p>
+     *
+     * Must only be called while holding the lock.<p>
+     */
+    private void spill() {
+
+        if (m_spillFailed) {
+            return;
+        }
+        Segment segment = m_segments.isEmpty() ? null : m_segments.getLast();
+        try {
+            // move entries until half of the allowed entries are left, so this does not happen on every add
+            while (m_tailSize.get() > (m_maxMemoryEntries / 2)) {
+                if ((segment == null) || segment.isFull()) {
+                    if (segment != null) {
+                        segment.close();
+                    }
+                    segment = new Segment(m_firstTailIndex);
+                    m_segments.add(segment);
+                    while (m_segments.size() > MAX_SEGMENTS) {
+                        m_segments.removeFirst().delete();
+                        m_firstAvailableIndex = Math.max(m_firstAvailableIndex, m_segments.getFirst().m_firstIndex);
+                    }
+                }
+                if ((segment.m_count % PAGE_SIZE) == 0) {
+                    segment.m_pageOffsets[segment.m_count / PAGE_SIZE] = segment.m_out.size();
+                }
+                // write before removing the entry from memory, so nothing is lost if writing fails
+                writeItem(segment.m_out, m_tail.peek());
+                m_tail.poll();
+                m_tailSize.decrementAndGet();
+                m_firstTailIndex++;
+                segment.m_count++;
+            }
+            segment.m_out.flush();
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_REPORT_SPILL_ERROR_0), e);
+            m_spillFailed = true;
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a single entry to a segment file.<p>
+     *
+     * @param out the output to write to
+     * @param item the entry to write
+     *
+     * @throws IOException if writing fails
+     */
+    private void writeItem(DataOutputStream out, CmsReportUpdateItem item) throws IOException {
+
+        Object message = item.getMessage();
+        byte[] data;
+        boolean isThrowable = message instanceof Throwable;
+        if (isThrowable) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objOut = new ObjectOutputStream(bytes)) {
+                objOut.writeObject(message);
+            } catch (IOException e) {
+                // the exception references something not serializable, keep at least its text and stack trace
+                Throwable original = (Throwable)message;
+                Exception copy = new Exception(original.toString());
+                copy.setStackTrace(original.getStackTrace());
+                bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objOut = new ObjectOutputStream(bytes)) {
+                    objOut.writeObject(copy);
+                }
+            }
+            data = bytes.toByteArray();
+        } else {
+            data = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeByte(item.getType().ordinal());
+        out.writeBoolean(isThrowable);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+}
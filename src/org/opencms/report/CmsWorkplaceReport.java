@@ -29,14 +29,11 @@ package org.opencms.report;
 
 import org.opencms.main.CmsLog;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
 import org.apache.commons.logging.Log;
 
-import com.google.common.collect.Lists;
-
 /**
  * Report class for displaying reports to the user in the workplace.<p>
  *
@@ -54,14 +51,14 @@ public class CmsWorkplaceReport extends A_CmsReport {
     @SuppressWarnings("unused")
     private static final Log LOG = CmsLog.getLog(CmsWorkplaceReport.class);
 
-    /** The list of report objects e.g. String, CmsPageLink, Exception ... */
-    private List<Object> m_content;
+    /** The report entries. */
+    private CmsReportBuffer m_buffer;
 
     /**
      * Counter to remember what is already shown,
-     * indicates the next index of the m_content list that has to be reported.
+     * indicates the next index of the report entries that has to be reported.
      */
-    private int m_indexNext;
+    private long m_indexNext;
 
     /** The log report to send output to. */
     private CmsLogReport m_logReport;
@@ -83,7 +80,7 @@ public class CmsWorkplaceReport extends A_CmsReport {
         if (logChannel != null) {
             m_logReport = new CmsLogReport(locale, logChannel);
         }
-        m_content = new ArrayList<Object>(256);
+        m_buffer = new CmsReportBuffer();
         m_transient = isTransient;
 
     }
@@ -100,6 +97,15 @@ public class CmsWorkplaceReport extends A_CmsReport {
         this(locale, siteRoot, false, logChannel);
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReport#dispose()
+     */
+    @Override
+    public void dispose() {
+
+        m_buffer.dispose();
+    }
+
     /**
      * @see org.opencms.report.I_CmsReport#getReportUpdate()
      */
@@ -115,27 +121,30 @@ public class CmsWorkplaceReport extends A_CmsReport {
     @Override
     public synchronized String getReportUpdate(I_CmsReportUpdateFormatter formatter) {
 
-        int indexEnd = m_content.size();
-        List<CmsReportUpdateItem> itemsToFormat = Lists.newArrayList();
-        for (int i = m_indexNext; i < indexEnd; i++) {
-            int pos = m_transient ? 0 : i;
-            Object obj = m_content.get(pos);
-            CmsReportUpdateItem entry = (CmsReportUpdateItem)obj;
-            itemsToFormat.add(entry);
-            if (m_transient) {
-                m_content.remove(m_indexNext);
-            }
-        }
+        long indexStart = Math.max(m_indexNext, m_buffer.getFirstAvailableIndex());
+        List<CmsReportUpdateItem> itemsToFormat = m_buffer.read(indexStart, CmsReportBuffer.MAX_UPDATE_ENTRIES);
         String result = formatter.formatReportUpdate(itemsToFormat);
-        m_indexNext = m_transient ? 0 : indexEnd;
+        m_indexNext = indexStart + itemsToFormat.size();
+        if (m_transient) {
+            m_buffer.discard(m_indexNext);
+        }
         return result;
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReport#hasPendingUpdate()
+     */
+    @Override
+    public synchronized boolean hasPendingUpdate() {
+
+        return Math.max(m_indexNext, m_buffer.getFirstAvailableIndex()) < m_buffer.size();
+    }
+
     /**
      * @see org.opencms.report.A_CmsReport#print(java.lang.String, int)
      */
     @Override
-    public synchronized void print(String value, int format) {
+    public void print(String value, int format) {
 
         if (m_logReport != null) {
             m_logReport.print(value, format);
@@ -146,7 +155,7 @@ public class CmsWorkplaceReport extends A_CmsReport {
             addWarning(value);
         }
         CmsReportUpdateItem message = new CmsReportUpdateItem(CmsReportFormatType.byId(format), value);
-        m_content.add(message);
+        m_buffer.add(message);
         setLastEntryTime(System.currentTimeMillis());
     }
 
@@ -164,13 +173,13 @@ public class CmsWorkplaceReport extends A_CmsReport {
     /**
      * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
      */
-    public synchronized void println(Throwable t) {
+    public void println(Throwable t) {
 
         if (m_logReport != null) {
             m_logReport.println(t);
         }
         addError(t.getMessage());
-        m_content.add(new CmsReportUpdateItem(CmsReportFormatType.fmtException, t));
+        m_buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtException, t));
         setLastEntryTime(System.currentTimeMillis());
     }
 
@@ -37,6 +37,12 @@ import org.opencms.i18n.I_CmsMessageBundle;
  */
 public final class Messages extends A_CmsMessageBundle {
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REPORT_READ_ERROR_1 = "LOG_REPORT_READ_ERROR_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_REPORT_SPILL_ERROR_0 = "LOG_REPORT_SPILL_ERROR_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_ARGUMENT_1 = "RPT_ARGUMENT_1";
 
@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.logging.Log;
@@ -83,6 +84,9 @@ public class CmsScheduleManager implements Job {
     /** Key for the scheduled job description in the job data map. */
     public static final String SCHEDULER_JOB_INFO = "org.opencms.scheduler.CmsScheduledJobInfo";
 
+    /** Key for the job monitor in the job data map. */
+    public static final String SCHEDULER_JOB_MONITOR = "org.opencms.scheduler.CmsScheduledJobMonitor";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsScheduleManager.class);
 
@@ -92,12 +96,21 @@ public class CmsScheduleManager implements Job {
     /** The list of job entries from the configuration. */
     private List<CmsScheduledJobInfo> m_configuredJobs;
 
+    /** The monitor controlling the concurrent job execution. */
+    private CmsScheduledJobMonitor m_jobMonitor;
+
     /** The list of scheduled jobs. */
     private List<CmsScheduledJobInfo> m_jobs;
 
+    /** The maximum number of threads for the scheduler thread pool. */
+    private int m_maxThreads;
+
     /** The initialized scheduler. */
     private Scheduler m_scheduler;
 
+    /** Indicates if the scheduler thread pool should use virtual threads if the JVM supports them. */
+    private boolean m_virtualThreads;
+
     /**
      * Default constructor for the scheduler manager,
      * used only when a new job is scheduled.<p>
@@ -116,6 +129,8 @@ public class CmsScheduleManager implements Job {
     public CmsScheduleManager(List<CmsScheduledJobInfo> configuredJobs) {
 
         m_configuredJobs = configuredJobs;
+        m_jobMonitor = new CmsScheduledJobMonitor();
+        m_maxThreads = CmsSchedulerElasticThreadPool.DEFAULT_MAX_THREAD_COUNT;
         int size = 0;
         if (m_configuredJobs != null) {
             size = m_configuredJobs.size();
@@ -153,7 +168,7 @@ public class CmsScheduleManager implements Job {
         // update the execution times in job info
         jobInfo.setPreviousFireTime(context.getFireTime());
         jobInfo.setNextFireTime(context.getNextFireTime());
-        executeJob(jobInfo);
+        executeJob(jobInfo, (CmsScheduledJobMonitor)jobData.get(SCHEDULER_JOB_MONITOR));
     }
 
     /**
@@ -202,6 +217,26 @@ public class CmsScheduleManager implements Job {
         return null;
     }
 
+    /**
+     * Returns the configured maximum number of concurrently running jobs per job class name.<p>
+     *
+     * @return the configured maximum number of concurrently running jobs per job class name
+     */
+    public Map<String, Integer> getJobClassLimits() {
+
+        return m_jobMonitor.getJobClassLimits();
+    }
+
+    /**
+     * Returns the monitor that controls the concurrent job execution and keeps the job execution statistics.<p>
+     *
+     * @return the job monitor
+     */
+    public CmsScheduledJobMonitor getJobMonitor() {
+
+        return m_jobMonitor;
+    }
+
     /**
      * Returns the currently scheduled job descriptions in an unmodifiable list.<p>
      *
@@ -214,6 +249,16 @@ public class CmsScheduleManager implements Job {
         return Collections.unmodifiableList(m_jobs);
     }
 
+    /**
+     * Returns the maximum number of threads for the scheduler thread pool.<p>
+     *
+     * @return the maximum number of threads for the scheduler thread pool
+     */
+    public int getMaxThreads() {
+
+        return m_maxThreads;
+    }
+
     /**
      * Initializes the OpenCms scheduler.<p>
      *
@@ -240,7 +285,12 @@ public class CmsScheduleManager implements Job {
         properties.put(StdSchedulerFactory.PROP_SCHED_THREAD_NAME, "OpenCms: Scheduler");
         properties.put(StdSchedulerFactory.PROP_SCHED_RMI_EXPORT, CmsStringUtil.FALSE);
         properties.put(StdSchedulerFactory.PROP_SCHED_RMI_PROXY, CmsStringUtil.FALSE);
-        properties.put(StdSchedulerFactory.PROP_THREAD_POOL_CLASS, CmsSchedulerThreadPool.class.getName());
+        properties.put(StdSchedulerFactory.PROP_THREAD_POOL_CLASS, CmsSchedulerElasticThreadPool.class.getName());
+        // the thread pool settings are set with the bean setters of the thread pool
+        properties.put(StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".maxThreadCount", String.valueOf(m_maxThreads));
+        properties.put(
+            StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".virtualThreads",
+            String.valueOf(m_virtualThreads));
         properties.put(StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.simpl.RAMJobStore");
         // this will be required in quartz versions from 1.6, but constants are not supported in earlier versions
         properties.put("org.quartz.scheduler.jmx.export", CmsStringUtil.FALSE);
@@ -417,6 +467,7 @@ public class CmsScheduleManager implements Job {
             // now set the job data
             JobDataMap jobData = new JobDataMap();
             jobData.put(CmsScheduleManager.SCHEDULER_JOB_INFO, jobInfo);
+            jobData.put(CmsScheduleManager.SCHEDULER_JOB_MONITOR, m_jobMonitor);
             jobDetail.setJobDataMap(jobData);
 
             // finally add the job to the Quartz scheduler
@@ -487,6 +538,53 @@ public class CmsScheduleManager implements Job {
 
     }
 
+    /**
+     * Returns <code>true</code> if the scheduler thread pool uses virtual threads if the JVM supports them.<p>
+     *
+     * @return <code>true</code> if the scheduler thread pool uses virtual threads if the JVM supports them
+     */
+    public boolean isVirtualThreads() {
+
+        return m_virtualThreads;
+    }
+
+    /**
+     * Sets the maximum number of concurrently running jobs of the given job class.<p>
+     *
+     * Executions of jobs of this class are skipped while the limit is reached.<p>
+     *
+     * @param className the job class name
+     * @param maxConcurrent the maximum number of concurrently running jobs, a value &lt;= 0 removes the limit
+     */
+    public void setJobClassLimit(String className, int maxConcurrent) {
+
+        m_jobMonitor.setJobClassLimit(className, maxConcurrent);
+    }
+
+    /**
+     * Sets the maximum number of threads for the scheduler thread pool.<p>
+     *
+     * This setting must be made before the scheduler is initialized.<p>
+     *
+     * @param maxThreads the maximum number of threads for the scheduler thread pool
+     */
+    public void setMaxThreads(int maxThreads) {
+
+        m_maxThreads = maxThreads;
+    }
+
+    /**
+     * Controls if the scheduler thread pool uses virtual threads if the JVM supports them.<p>
+     *
+     * This setting must be made before the scheduler is initialized.<p>
+     *
+     * @param virtualThreads if <code>true</code>, virtual threads are used if the JVM supports them
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+
+        m_virtualThreads = virtualThreads;
+    }
+
     /**
      * Shuts down this instance of the OpenCms scheduler manager.<p>
      */
@@ -568,10 +666,28 @@ public class CmsScheduleManager implements Job {
      */
     protected void executeJob(CmsScheduledJobInfo jobInfo) {
 
+        executeJob(jobInfo, m_jobMonitor);
+    }
+
+    /**
+     * Executes the given job, unless the job monitor requires the execution to be skipped.<p>
+     *
+     * @param jobInfo the job info bean
+     * @param monitor the job monitor, may be <code>null</code>
+     */
+    protected void executeJob(CmsScheduledJobInfo jobInfo, CmsScheduledJobMonitor monitor) {
+
+        if ((monitor != null) && !monitor.startJob(jobInfo)) {
+            // overlapping execution or job class limit reached, note: the log has already been written
+            return;
+        }
+
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_STARTING_1, jobInfo.getJobName()));
         }
 
+        long startTime = System.currentTimeMillis();
+        boolean success = false;
         I_CmsScheduledJob job = jobInfo.getJobInstance();
 
         if (job != null) {
@@ -590,6 +706,7 @@ public class CmsScheduleManager implements Job {
                 }
 
                 String result = job.launch(cms, jobInfo.getParameters());
+                success = true;
                 if (CmsStringUtil.isNotEmpty(result) && LOG.isInfoEnabled()) {
                     LOG.info(
                         Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTION_OK_2, jobInfo.getJobName(), result));
@@ -599,8 +716,17 @@ public class CmsScheduleManager implements Job {
             }
         }
 
+        long duration = System.currentTimeMillis() - startTime;
+        if (monitor != null) {
+            monitor.finishJob(jobInfo, duration, success);
+        }
+
         if (LOG.isDebugEnabled()) {
-            LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTED_1, jobInfo.getJobName()));
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_JOB_EXECUTED_2,
+                    jobInfo.getJobName(),
+                    new Long(duration)));
             Date nextExecution = jobInfo.getExecutionTimeNext();
             if (nextExecution != null) {
                 LOG.info(
@@ -375,6 +375,9 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
     /** Stores the next execution time. */
     private Date m_nextFireTime;
 
+    /** Indicates if the job must not be started while a previous execution is still running. */
+    private boolean m_noOverlap;
+
     /** The parameters used for this job entry. */
     private SortedMap<String, String> m_parameters;
 
@@ -491,6 +494,7 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
             result.m_jobInstance = m_jobInstance;
         }
         result.m_reuseInstance = m_reuseInstance;
+        result.m_noOverlap = m_noOverlap;
         result.m_context = (CmsContextInfo)m_context.clone();
         result.m_cronExpression = m_cronExpression;
         result.m_jobName = m_jobName;
@@ -729,6 +733,19 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         return m_active;
     }
 
+    /**
+     * Returns <code>true</code> if this job must not be started while a previous execution
+     * of the same job is still running.<p>
+     *
+     * Overlapping executions are skipped, they are not queued.<p>
+     *
+     * @return <code>true</code> if overlapping executions of this job are prevented
+     */
+    public boolean isNoOverlap() {
+
+        return m_noOverlap;
+    }
+
     /**
      * Returns true if the job instance class is reused for this job.<p>
      *
@@ -873,6 +890,17 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         m_parameters = new TreeMap<String, String>(parameters);
     }
 
+    /**
+     * Controls if this job may be started while a previous execution of the same job is still running.<p>
+     *
+     * @param noOverlap must be true if overlapping executions of this job are to be prevented
+     */
+    public void setNoOverlap(boolean noOverlap) {
+
+        checkFrozen();
+        m_noOverlap = noOverlap;
+    }
+
     /**
      * Controls if the job instance class is reused for this job,
      * of if a new instance is generated every time the job is run.<p>
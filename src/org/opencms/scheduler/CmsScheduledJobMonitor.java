@@ -0,0 +1,232 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.main.CmsLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Controls the concurrent execution of scheduled jobs and keeps their execution statistics.<p>
+ *
+ * Before a job is executed, the schedule manager checks with {@link #startJob(CmsScheduledJobInfo)} if the job may run.
+ * An execution is skipped if the job is configured with {@link CmsScheduledJobInfo#isNoOverlap()} and a previous
+ * execution of the same job is still running, or if the configured maximum number of concurrently running
+ * jobs of the job class has been reached. Skipped executions are not queued, the job will run again at the
+ * next scheduled time.<p>
+ *
+ * The job durations recorded with {@link #finishJob(CmsScheduledJobInfo, long, boolean)} are available
+ * for monitoring from {@link #getStatistics()}.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsScheduledJobMonitor {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsScheduledJobMonitor.class);
+
+    /** The maximum number of concurrently running jobs per job class name. */
+    private Map<String, Integer> m_classLimits;
+
+    /** The number of currently running jobs per job class name. */
+    private Map<String, Integer> m_runningPerClass;
+
+    /** The job statistics by job key. */
+    private Map<String, CmsScheduledJobStatistics> m_statistics;
+
+    /**
+     * Creates a new job monitor without job class limits.<p>
+     */
+    public CmsScheduledJobMonitor() {
+
+        m_classLimits = new HashMap<String, Integer>();
+        m_runningPerClass = new HashMap<String, Integer>();
+        m_statistics = new LinkedHashMap<String, CmsScheduledJobStatistics>();
+    }
+
+    /**
+     * Records the end of a job execution started with {@link #startJob(CmsScheduledJobInfo)}.<p>
+     *
+     * @param jobInfo the job
+     * @param duration the duration of the execution in milliseconds
+     * @param success <code>false</code> if the execution failed
+     */
+    public synchronized void finishJob(CmsScheduledJobInfo jobInfo, long duration, boolean success) {
+
+        Integer running = m_runningPerClass.get(jobInfo.getClassName());
+        if ((running == null) || (running.intValue() <= 1)) {
+            m_runningPerClass.remove(jobInfo.getClassName());
+        } else {
+            m_runningPerClass.put(jobInfo.getClassName(), new Integer(running.intValue() - 1));
+        }
+        getOrCreateStatistics(jobInfo).finished(duration, success);
+    }
+
+    /**
+     * Returns the maximum number of concurrently running jobs per job class name.<p>
+     *
+     * @return the maximum number of concurrently running jobs per job class name
+     */
+    public synchronized Map<String, Integer> getJobClassLimits() {
+
+        return Collections.unmodifiableMap(new HashMap<String, Integer>(m_classLimits));
+    }
+
+    /**
+     * Returns the number of currently running jobs of the given job class.<p>
+     *
+     * @param className the job class name
+     *
+     * @return the number of currently running jobs of the given job class
+     */
+    public synchronized int getRunningCount(String className) {
+
+        Integer running = m_runningPerClass.get(className);
+        return running != null ? running.intValue() : 0;
+    }
+
+    /**
+     * Returns the execution statistics of all jobs that have been started so far.<p>
+     *
+     * @return the execution statistics of all jobs that have been started so far
+     */
+    public synchronized List<CmsScheduledJobStatistics> getStatistics() {
+
+        return new ArrayList<CmsScheduledJobStatistics>(m_statistics.values());
+    }
+
+    /**
+     * Returns the execution statistics of the given job.<p>
+     *
+     * @param jobInfo the job
+     *
+     * @return the execution statistics of the given job, or <code>null</code> if the job has not been started so far
+     */
+    public synchronized CmsScheduledJobStatistics getStatistics(CmsScheduledJobInfo jobInfo) {
+
+        return m_statistics.get(getJobKey(jobInfo));
+    }
+
+    /**
+     * Sets the maximum number of concurrently running jobs of the given job class.<p>
+     *
+     * @param className the job class name
+     * @param maxConcurrent the maximum number of concurrently running jobs, a value &lt;= 0 removes the limit
+     */
+    public synchronized void setJobClassLimit(String className, int maxConcurrent) {
+
+        if (maxConcurrent > 0) {
+            m_classLimits.put(className, new Integer(maxConcurrent));
+        } else {
+            m_classLimits.remove(className);
+        }
+    }
+
+    /**
+     * Checks if the given job may be started now, and records the start if so.<p>
+     *
+     * If this method returns <code>true</code>, {@link #finishJob(CmsScheduledJobInfo, long, boolean)}
+     * must be called after the job execution.<p>
+     *
+     * @param jobInfo the job to start
+     *
+     * @return <code>true</code> if the job may be started, <code>false</code> if the execution must be skipped
+     */
+    public synchronized boolean startJob(CmsScheduledJobInfo jobInfo) {
+
+        CmsScheduledJobStatistics statistics = getOrCreateStatistics(jobInfo);
+        if (jobInfo.isNoOverlap() && (statistics.getRunningCount() > 0)) {
+            statistics.skipped();
+            if (LOG.isInfoEnabled()) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_JOB_SKIPPED_OVERLAP_2,
+                        jobInfo.getJobName(),
+                        new Long(statistics.getRunningDuration())));
+            }
+            return false;
+        }
+        String className = jobInfo.getClassName();
+        Integer limit = m_classLimits.get(className);
+        int running = getRunningCount(className);
+        if ((limit != null) && (running >= limit.intValue())) {
+            statistics.skipped();
+            if (LOG.isInfoEnabled()) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_JOB_SKIPPED_CLASS_LIMIT_3,
+                        jobInfo.getJobName(),
+                        className,
+                        limit));
+            }
+            return false;
+        }
+        m_runningPerClass.put(className, new Integer(running + 1));
+        statistics.started(System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Returns the key used to identify the given job in the statistics.<p>
+     *
+     * @param jobInfo the job
+     *
+     * @return the key used to identify the given job
+     */
+    private String getJobKey(CmsScheduledJobInfo jobInfo) {
+
+        // jobs that are executed without being scheduled may not have an id
+        return jobInfo.getId() != null ? jobInfo.getId() : jobInfo.getJobName();
+    }
+
+    /**
+     * Returns the statistics for the given job, creating them if required.<p>
+     *
+     * @param jobInfo the job
+     *
+     * @return the statistics for the given job
+     */
+    private CmsScheduledJobStatistics getOrCreateStatistics(CmsScheduledJobInfo jobInfo) {
+
+        String key = getJobKey(jobInfo);
+        CmsScheduledJobStatistics statistics = m_statistics.get(key);
+        if (statistics == null) {
+            statistics = new CmsScheduledJobStatistics(jobInfo);
+            m_statistics.put(key, statistics);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import java.util.Date;
+
+/**
+ * Execution statistics of a scheduled job, intended for monitoring.<p>
+ *
+ * Instances of this class are maintained by the {@link CmsScheduledJobMonitor}
+ * and can be read while the job is running.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsScheduledJobStatistics {
+
+    /** The number of completed executions. */
+    private long m_executionCount;
+
+    /** The number of executions that failed. */
+    private long m_failureCount;
+
+    /** The class name of the job. */
+    private String m_jobClassName;
+
+    /** The id of the job. */
+    private String m_jobId;
+
+    /** The name of the job. */
+    private String m_jobName;
+
+    /** The duration of the last completed execution in milliseconds. */
+    private long m_lastDuration;
+
+    /** The end time of the last completed execution. */
+    private long m_lastEnd;
+
+    /** The longest duration of a completed execution in milliseconds. */
+    private long m_maxDuration;
+
+    /** The number of currently running executions. */
+    private int m_runningCount;
+
+    /** The start time of the most recently started execution that is still running. */
+    private long m_runningSince;
+
+    /** The number of executions that have been skipped. */
+    private long m_skippedCount;
+
+    /** The sum of the durations of all completed executions in milliseconds. */
+    private long m_totalDuration;
+
+    /**
+     * Creates new statistics for the given job.<p>
+     *
+     * @param jobInfo the job
+     */
+    public CmsScheduledJobStatistics(CmsScheduledJobInfo jobInfo) {
+
+        m_jobId = jobInfo.getId();
+        m_jobName = jobInfo.getJobName();
+        m_jobClassName = jobInfo.getClassName();
+    }
+
+    /**
+     * Returns the average duration of the completed executions in milliseconds.<p>
+     *
+     * @return the average duration of the completed executions in milliseconds
+     */
+    public synchronized long getAverageDuration() {
+
+        return m_executionCount > 0 ? m_totalDuration / m_executionCount : 0;
+    }
+
+    /**
+     * Returns the number of completed executions, including the failed ones.<p>
+     *
+     * @return the number of completed executions
+     */
+    public synchronized long getExecutionCount() {
+
+        return m_executionCount;
+    }
+
+    /**
+     * Returns the number of executions that failed.<p>
+     *
+     * @return the number of executions that failed
+     */
+    public synchronized long getFailureCount() {
+
+        return m_failureCount;
+    }
+
+    /**
+     * Returns the class name of the job.<p>
+     *
+     * @return the class name of the job
+     */
+    public String getJobClassName() {
+
+        return m_jobClassName;
+    }
+
+    /**
+     * Returns the id of the job.<p>
+     *
+     * @return the id of the job
+     */
+    public String getJobId() {
+
+        return m_jobId;
+    }
+
+    /**
+     * Returns the name of the job.<p>
+     *
+     * @return the name of the job
+     */
+    public String getJobName() {
+
+        return m_jobName;
+    }
+
+    /**
+     * Returns the duration of the last completed execution in milliseconds.<p>
+     *
+     * @return the duration of the last completed execution in milliseconds
+     */
+    public synchronized long getLastDuration() {
+
+        return m_lastDuration;
+    }
+
+    /**
+     * Returns the end time of the last completed execution.<p>
+     *
+     * @return the end time of the last completed execution, or <code>null</code> if the job has not completed yet
+     */
+    public synchronized Date getLastEnd() {
+
+        return m_lastEnd > 0 ? new Date(m_lastEnd) : null;
+    }
+
+    /**
+     * Returns the longest duration of a completed execution in milliseconds.<p>
+     *
+     * @return the longest duration of a completed execution in milliseconds
+     */
+    public synchronized long getMaxDuration() {
+
+        return m_maxDuration;
+    }
+
+    /**
+     * Returns the number of currently running executions.<p>
+     *
+     * @return the number of currently running executions
+     */
+    public synchronized int getRunningCount() {
+
+        return m_runningCount;
+    }
+
+    /**
+     * Returns the time in milliseconds the job has been running so far,
+     * measured from the most recently started execution.<p>
+     *
+     * @return the time the job has been running so far, or 0 if the job is not running
+     */
+    public synchronized long getRunningDuration() {
+
+        return m_runningCount > 0 ? System.currentTimeMillis() - m_runningSince : 0;
+    }
+
+    /**
+     * Returns the number of executions that have been skipped,
+     * either because a previous execution was still running or because of a job class limit.<p>
+     *
+     * @return the number of executions that have been skipped
+     */
+    public synchronized long getSkippedCount() {
+
+        return m_skippedCount;
+    }
+
+    /**
+     * Returns the sum of the durations of all completed executions in milliseconds.<p>
+     *
+     * @return the sum of the durations of all completed executions in milliseconds
+     */
+    public synchronized long getTotalDuration() {
+
+        return m_totalDuration;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+
+        StringBuffer result = new StringBuffer(128);
+        result.append("[").append(getClass().getName()).append(":");
+        result.append(" job: ").append(m_jobName);
+        result.append(" running: ").append(m_runningCount);
+        result.append(" executions: ").append(m_executionCount);
+        result.append(" failures: ").append(m_failureCount);
+        result.append(" skipped: ").append(m_skippedCount);
+        result.append(" last: ").append(m_lastDuration).append("ms");
+        result.append(" avg: ").append(getAverageDuration()).append("ms");
+        result.append(" max: ").append(m_maxDuration).append("ms");
+        result.append("]");
+        return result.toString();
+    }
+
+    /**
+     * Records the end of an execution.<p>
+     *
+     * @param duration the duration of the execution in milliseconds
+     * @param success <code>false</code> if the execution failed
+     */
+    protected synchronized void finished(long duration, boolean success) {
+
+        m_runningCount--;
+        m_executionCount++;
+        if (!success) {
+            m_failureCount++;
+        }
+        m_lastDuration = duration;
+        m_lastEnd = System.currentTimeMillis();
+        m_maxDuration = Math.max(m_maxDuration, duration);
+        m_totalDuration += duration;
+    }
+
+    /**
+     * Records a skipped execution.<p>
+     */
+    protected synchronized void skipped() {
+
+        m_skippedCount++;
+    }
+
+    /**
+     * Records the start of an execution.<p>
+     *
+     * @param startTime the start time of the execution
+     */
+    protected synchronized void started(long startTime) {
+
+        m_runningCount++;
+        m_runningSince = startTime;
+    }
+}
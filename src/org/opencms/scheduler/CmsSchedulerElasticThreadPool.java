@@ -0,0 +1,445 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.main.CmsLog;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Elastic thread pool used for the Quartz scheduler in OpenCms.<p>
+ *
+ * Threads are only created when a job is started and are released again after they have been idle
+ * for a while, so the pool can be configured with a generous maximum size without keeping idle threads around.
+ * A long running job therefore does not keep the other scheduled jobs from being started
+ * as long as the maximum thread count has not been reached.<p>
+ *
+ * If configured, and if the JVM supports them, the jobs are executed in virtual threads.
+ * Otherwise (or if the JVM does not support virtual threads) daemon platform threads are used.<p>
+ *
+ * The pool settings are passed by Quartz through the bean setters of this class,
+ * see {@link CmsScheduleManager#initialize(org.opencms.file.CmsObject)}.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsSchedulerElasticThreadPool implements ThreadPool {
+
+    /** The default number of seconds idle threads are kept alive. */
+    public static final int DEFAULT_KEEP_ALIVE_SECONDS = 60;
+
+    /** The default maximum number of threads. */
+    public static final int DEFAULT_MAX_THREAD_COUNT = 50;
+
+    /** The upper bound for the maximum number of threads. */
+    public static final int MAX_THREAD_COUNT_LIMIT = 1000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSchedulerElasticThreadPool.class);
+
+    /** The number of jobs currently executed by this pool. */
+    private AtomicInteger m_busyCount;
+
+    /** The executor used to run the jobs. */
+    private ThreadPoolExecutor m_executor;
+
+    /** The instance id of the scheduler using this pool. */
+    private String m_instanceId;
+
+    /** The instance name of the scheduler using this pool. */
+    private String m_instanceName;
+
+    /** Flag indicating if the pool is shutting down. */
+    private volatile boolean m_isShutdown;
+
+    /** The number of seconds idle threads are kept alive. */
+    private int m_keepAliveSeconds;
+
+    /** The maximum thread count. */
+    private int m_maxThreadCount;
+
+    /** The lock used to wait for available threads. */
+    private Object m_threadLock;
+
+    /** The thread name prefix. */
+    private String m_threadNamePrefix;
+
+    /** The thread priority of platform threads. */
+    private int m_threadPriority;
+
+    /** Flag indicating if virtual threads should be used if available. */
+    private boolean m_virtualThreads;
+
+    /**
+     * Creates a new elastic scheduler thread pool with default values.<p>
+     */
+    public CmsSchedulerElasticThreadPool() {
+
+        m_busyCount = new AtomicInteger();
+        m_keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+        m_maxThreadCount = DEFAULT_MAX_THREAD_COUNT;
+        m_threadLock = new Object();
+        m_threadNamePrefix = "OpenCms: Scheduler Thread ";
+        m_threadPriority = Thread.NORM_PRIORITY;
+    }
+
+    /**
+     * Creates a thread factory for virtual threads using reflection,
+     * since the virtual thread API is not available in all supported JVM versions.<p>
+     *
+     * @param namePrefix the name prefix for the threads
+     *
+     * @return the thread factory, or <code>null</code> if virtual threads are not supported by the JVM
+     */
+    protected static ThreadFactory createVirtualThreadFactory(String namePrefix) {
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            builder = nameMethod.invoke(builder, namePrefix, Long.valueOf(0));
+            return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            // virtual threads not supported by this JVM
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Blocks until at least one thread is available and returns the number of available threads.<p>
+     *
+     * @see org.quartz.spi.ThreadPool#blockForAvailableThreads()
+     */
+    public int blockForAvailableThreads() {
+
+        synchronized (m_threadLock) {
+            while ((m_busyCount.get() >= m_maxThreadCount) && !m_isShutdown) {
+                try {
+                    m_threadLock.wait(500);
+                } catch (InterruptedException e) {
+                    // can be ignored
+                }
+            }
+            return Math.max(1, m_maxThreadCount - m_busyCount.get());
+        }
+    }
+
+    /**
+     * Returns the number of jobs currently executed by this pool.<p>
+     *
+     * @return the number of jobs currently executed by this pool
+     */
+    public int getBusyCount() {
+
+        return m_busyCount.get();
+    }
+
+    /**
+     * Returns the number of seconds idle threads are kept alive.<p>
+     *
+     * @return the number of seconds idle threads are kept alive
+     */
+    public int getKeepAliveSeconds() {
+
+        return m_keepAliveSeconds;
+    }
+
+    /**
+     * Returns the maximum thread count.<p>
+     *
+     * @return the maximum thread count
+     */
+    public int getMaxThreadCount() {
+
+        return m_maxThreadCount;
+    }
+
+    /**
+     * @see org.quartz.spi.ThreadPool#getPoolSize()
+     */
+    public int getPoolSize() {
+
+        return m_maxThreadCount;
+    }
+
+    /**
+     * Returns the thread priority used for platform threads.<p>
+     *
+     * @return the thread priority used for platform threads
+     */
+    public int getThreadPriority() {
+
+        return m_threadPriority;
+    }
+
+    /**
+     * @see org.quartz.spi.ThreadPool#initialize()
+     */
+    public void initialize() throws SchedulerConfigException {
+
+        if ((m_maxThreadCount <= 0) || (m_maxThreadCount > MAX_THREAD_COUNT_LIMIT)) {
+            throw new SchedulerConfigException(
+                Messages.get().getBundle().key(
+                    Messages.ERR_ELASTIC_THREAD_COUNT_BOUNDS_1,
+                    new Integer(MAX_THREAD_COUNT_LIMIT)));
+        }
+        if ((m_threadPriority <= 0) || (m_threadPriority > 9)) {
+            throw new SchedulerConfigException(
+                Messages.get().getBundle().key(Messages.ERR_SCHEDULER_PRIORITY_BOUNDS_0));
+        }
+
+        ThreadFactory threadFactory = null;
+        if (m_virtualThreads) {
+            threadFactory = createVirtualThreadFactory(m_threadNamePrefix);
+            if (threadFactory == null) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_VIRTUAL_THREADS_UNAVAILABLE_0));
+            }
+        }
+        if (threadFactory == null) {
+            threadFactory = createPlatformThreadFactory();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_ELASTIC_THREAD_POOL_INITIALIZED_2,
+                    new Integer(m_maxThreadCount),
+                    Boolean.valueOf(m_virtualThreads)));
+        }
+
+        // threads are only created on demand and released again after the keep alive time,
+        // the synchronous queue makes sure every job is handed over directly to a thread
+        // note: the maximum thread count is enforced with the busy count in blockForAvailableThreads(),
+        // so a thread that has just finished a job but is not yet idle in the executor never causes a rejection
+        m_executor = new ThreadPoolExecutor(
+            0,
+            Integer.MAX_VALUE,
+            m_keepAliveSeconds,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(),
+            threadFactory);
+    }
+
+    /**
+     * Returns <code>true</code> if virtual threads should be used if the JVM supports them.<p>
+     *
+     * @return <code>true</code> if virtual threads should be used if the JVM supports them
+     */
+    public boolean isVirtualThreads() {
+
+        return m_virtualThreads;
+    }
+
+    /**
+     * Runs the given <code>Runnable</code> in a thread of this pool.<p>
+     *
+     * If the pool is already shutting down, the Runnable is executed within a new additional thread.<p>
+     *
+     * @param runnable the <code>Runnable</code> to run
+     *
+     * @return true if the <code>Runnable</code> was run
+     *
+     * @see org.quartz.spi.ThreadPool#runInThread(java.lang.Runnable)
+     */
+    public boolean runInThread(final Runnable runnable) {
+
+        if (runnable == null) {
+            return false;
+        }
+
+        if (m_isShutdown) {
+            // execute the Runnable within a new additional thread (not from the pool)
+            Thread thread = new Thread(runnable, m_threadNamePrefix + "(final)");
+            thread.setDaemon(false);
+            thread.start();
+            return true;
+        }
+
+        m_busyCount.incrementAndGet();
+        try {
+            m_executor.execute(new Runnable() {
+
+                public void run() {
+
+                    try {
+                        runnable.run();
+                    } catch (Throwable t) {
+                        LOG.error(
+                            Messages.get().getBundle().key(
+                                Messages.LOG_THREAD_ERROR_1,
+                                Thread.currentThread().getName()),
+                            t);
+                    } finally {
+                        releaseThread();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            releaseThread();
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_THREAD_POOL_UNAVAILABLE_0), e);
+            return false;
+        }
+    }
+
+    /**
+     * @see org.quartz.spi.ThreadPool#setInstanceId(java.lang.String)
+     */
+    public void setInstanceId(String schedInstId) {
+
+        m_instanceId = schedInstId;
+    }
+
+    /**
+     * @see org.quartz.spi.ThreadPool#setInstanceName(java.lang.String)
+     */
+    public void setInstanceName(String schedName) {
+
+        m_instanceName = schedName;
+    }
+
+    /**
+     * Sets the number of seconds idle threads are kept alive.<p>
+     *
+     * @param keepAliveSeconds the number of seconds idle threads are kept alive
+     */
+    public void setKeepAliveSeconds(int keepAliveSeconds) {
+
+        m_keepAliveSeconds = Math.max(0, keepAliveSeconds);
+    }
+
+    /**
+     * Sets the maximum thread count.<p>
+     *
+     * @param maxThreadCount the maximum thread count
+     */
+    public void setMaxThreadCount(int maxThreadCount) {
+
+        m_maxThreadCount = maxThreadCount;
+    }
+
+    /**
+     * Sets the thread priority used for platform threads.<p>
+     *
+     * @param threadPriority the thread priority used for platform threads
+     */
+    public void setThreadPriority(int threadPriority) {
+
+        m_threadPriority = threadPriority;
+    }
+
+    /**
+     * Controls if virtual threads should be used if the JVM supports them.<p>
+     *
+     * @param virtualThreads if <code>true</code>, virtual threads are used if the JVM supports them
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+
+        m_virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @see org.quartz.spi.ThreadPool#shutdown(boolean)
+     */
+    public void shutdown(boolean waitForJobsToComplete) {
+
+        m_isShutdown = true;
+        synchronized (m_threadLock) {
+            m_threadLock.notifyAll();
+        }
+        if (m_executor == null) {
+            return;
+        }
+        m_executor.shutdown();
+        if (waitForJobsToComplete) {
+            try {
+                // note: waiting infinite may make the application appear to 'hang'
+                while (!m_executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    if (LOG.isInfoEnabled()) {
+                        LOG.info(
+                            Messages.get().getBundle().key(
+                                Messages.LOG_THREAD_POOL_STILL_ACTIVE_1,
+                                new Integer(m_busyCount.get())));
+                    }
+                }
+            } catch (InterruptedException e) {
+                // can be ignored
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_THREAD_POOL_SHUTDOWN_0));
+            }
+        }
+    }
+
+    /**
+     * Creates the thread factory for daemon platform threads.<p>
+     *
+     * @return the thread factory for daemon platform threads
+     */
+    private ThreadFactory createPlatformThreadFactory() {
+
+        final ThreadGroup group = Thread.currentThread().getThreadGroup();
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(group, r, m_threadNamePrefix + count.getAndIncrement());
+                thread.setDaemon(true);
+                thread.setPriority(m_threadPriority);
+                thread.setContextClassLoader(loader);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Marks a thread of this pool as available again.<p>
+     */
+    private void releaseThread() {
+
+        m_busyCount.decrementAndGet();
+        synchronized (m_threadLock) {
+            m_threadLock.notifyAll();
+        }
+    }
+}
@@ -58,6 +58,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_COULD_NOT_SCHEDULE_JOB_2 = "ERR_COULD_NOT_SCHEDULE_JOB_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_ELASTIC_THREAD_COUNT_BOUNDS_1 = "ERR_ELASTIC_THREAD_COUNT_BOUNDS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INIT_THREAD_COUNT_BOUNDS_0 = "ERR_INIT_THREAD_COUNT_BOUNDS_0";
 
@@ -109,6 +112,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLASS_NOT_FOUND_1 = "LOG_CLASS_NOT_FOUND_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ELASTIC_THREAD_POOL_INITIALIZED_2 = "LOG_ELASTIC_THREAD_POOL_INITIALIZED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ILLEGAL_ACCESS_0 = "LOG_ILLEGAL_ACCESS_0";
 
@@ -122,7 +128,7 @@ public final class Messages extends A_CmsMessageBundle {
     public static final String LOG_JOB_CREATED_1 = "LOG_JOB_CREATED_1";
 
     /** Message constant for key in the resource bundle. */
-    public static final String LOG_JOB_EXECUTED_1 = "LOG_JOB_EXECUTED_1";
+    public static final String LOG_JOB_EXECUTED_2 = "LOG_JOB_EXECUTED_2";
 
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_EXECUTION_ERROR_1 = "LOG_JOB_EXECUTION_ERROR_1";
@@ -136,6 +142,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_SCHEDULED_4 = "LOG_JOB_SCHEDULED_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOB_SKIPPED_CLASS_LIMIT_3 = "LOG_JOB_SKIPPED_CLASS_LIMIT_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOB_SKIPPED_OVERLAP_2 = "LOG_JOB_SKIPPED_OVERLAP_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_STARTING_1 = "LOG_JOB_STARTING_1";
 
@@ -181,6 +193,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Name of the used resource bundle. */
     public static final String LOG_USING_THREAD_CLASSLOADER_1 = "LOG_USING_THREAD_CLASSLOADER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_VIRTUAL_THREADS_UNAVAILABLE_0 = "LOG_VIRTUAL_THREADS_UNAVAILABLE_0";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.scheduler.messages";
 
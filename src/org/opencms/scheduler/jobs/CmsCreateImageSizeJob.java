@@ -25,6 +25,7 @@
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
+
 package org.opencms.scheduler.jobs;
 
 import org.opencms.file.CmsFile;
@@ -38,14 +39,35 @@ import org.opencms.loader.CmsImageLoader;
 import org.opencms.loader.CmsImageScaler;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsStringUtil;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
 
 /**
  * A schedulable OpenCms job to calculate image size information.<p>
@@ -53,17 +75,73 @@ import java.util.Map;
  * Image size information is stored in the <code>{@link CmsPropertyDefinition#PROPERTY_IMAGE_SIZE}</code> property
  * of an image file must have the format "h:x,w:y" with x and y being positive Integer vaulues.<p>
  *
+ * The images are read and their size is calculated by a pool of worker threads, where possible only the image
+ * header is decoded for this. The changed properties are written together for a batch of images, if this fails
+ * they are written one by one. After every batch a checkpoint is saved, so that an interrupted run continues with
+ * the next batch instead of starting all over again. The checkpoint also lists the images that could not be updated
+ * so far, e.g. because they are locked by another user, and the continuing run retries these images first. A run
+ * that reaches the last image removes the checkpoint, so the next run processes all images again.<p>
+ *
  * Job parameters:<p>
  * <dl>
  * <dt><code>downscale=true|false</code></dt>
  * <dd>Controls if images are automatically downscaled according to the configured image
  * downscale settings, by default this is <code>false</code>.</dd>
+ * <dt><code>threads={Number/Integer}</code></dt>
+ * <dd>The number of worker threads, by default the number of available processors, but at most 4.</dd>
+ * <dt><code>batchsize={Number/Integer}</code></dt>
+ * <dd>The number of images for which the properties are written together, the default is 100.</dd>
+ * <dt><code>checkpoint={path}</code></dt>
+ * <dd>The checkpoint file, relative to the WEB-INF folder, the default is "logs/imagesize.checkpoint".</dd>
  * </dl>
  *
  * @since 6.0.2
  */
 public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
 
+    /**
+     * The result of calculating the size of a single image.<p>
+     */
+    private static class CmsImageSizeResult {
+
+        /** The file, only set if the image must be downscaled. */
+        CmsFile m_file;
+
+        /** The lock of the image before the job processed it. */
+        CmsLock m_lock;
+
+        /** The current image size property, only set if the image must not be downscaled. */
+        CmsProperty m_property;
+
+        /** The image resource. */
+        CmsResource m_resource;
+
+        /** The calculated image size, or <code>null</code> if the image is locked by another user. */
+        CmsImageScaler m_scaler;
+
+        /**
+         * Creates a new result.<p>
+         *
+         * @param resource the image resource
+         */
+        CmsImageSizeResult(CmsResource resource) {
+
+            m_resource = resource;
+        }
+    }
+
+    /** The default number of images for which the properties are written together. */
+    public static final int DEFAULT_BATCHSIZE = 100;
+
+    /** The default checkpoint file, relative to the WEB-INF folder. */
+    public static final String DEFAULT_CHECKPOINT = "logs/imagesize.checkpoint";
+
+    /** This job parameter controls the number of images for which the properties are written together. */
+    public static final String PARAM_BATCHSIZE = "batchsize";
+
+    /** This job parameter controls the location of the checkpoint file, relative to the WEB-INF folder. */
+    public static final String PARAM_CHECKPOINT = "checkpoint";
+
     /**
      * This job parameter controls if images are automatically downscaled according to the configured image
      * downscale settings, by default this is <code>false</code>.
@@ -75,6 +153,12 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
      */
     public static final String PARAM_DOWNSCALE = "downscale";
 
+    /** This job parameter controls the number of worker threads. */
+    public static final String PARAM_THREADS = "threads";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsCreateImageSizeJob.class);
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(CmsObject, Map)
      */
@@ -85,8 +169,18 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
             return Messages.get().getBundle().key(Messages.LOG_IMAGE_SCALING_DISABLED_0);
         }
 
-        // read the downscale parameter
+        // read the parameters
         boolean downscale = Boolean.valueOf(parameters.get(PARAM_DOWNSCALE)).booleanValue();
+        int threads = getIntParameter(
+            parameters,
+            PARAM_THREADS,
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+        int batchSize = getIntParameter(parameters, PARAM_BATCHSIZE, DEFAULT_BATCHSIZE);
+        String checkpointPath = parameters.get(PARAM_CHECKPOINT);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(checkpointPath)) {
+            checkpointPath = DEFAULT_CHECKPOINT;
+        }
+        File checkpoint = new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(checkpointPath.trim()));
 
         I_CmsReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsCreateImageSizeJob.class);
         report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_START_0), I_CmsReport.FORMAT_HEADLINE);
@@ -103,117 +197,167 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
             report.println(e);
         }
 
+        // process the images in a stable order, so that an interrupted run can continue after the checkpoint
+        resources = new ArrayList<CmsResource>(resources);
+        Collections.sort(resources, new Comparator<CmsResource>() {
+
+            public int compare(CmsResource res1, CmsResource res2) {
+
+                return res1.getRootPath().compareTo(res2.getRootPath());
+            }
+        });
+        // the first line of the checkpoint is the last processed image, the other lines are the images to retry
+        List<String> checkpointData = readCheckpoint(checkpoint);
+        String lastProcessed = checkpointData.isEmpty() ? null : checkpointData.get(0);
+        List<CmsResource> todo = new ArrayList<CmsResource>(resources.size());
+        int start = 0;
+        if (lastProcessed != null) {
+            Set<String> retry = new HashSet<String>(checkpointData.subList(1, checkpointData.size()));
+            while ((start < resources.size()) && (resources.get(start).getRootPath().compareTo(lastProcessed) <= 0)) {
+                if (retry.contains(resources.get(start).getRootPath())) {
+                    todo.add(resources.get(start));
+                }
+                start++;
+            }
+            report.println(
+                Messages.get().container(Messages.RPT_IMAGE_SIZE_RESUME_1, lastProcessed),
+                I_CmsReport.FORMAT_NOTE);
+        }
+        // the images to retry are processed first, they are all before the last processed image
+        int retryCount = todo.size();
+        todo.addAll(resources.subList(start, resources.size()));
+
         int count = 0;
-        // now iterate through all resources
-        for (int i = 0; i < resources.size(); i++) {
+        Set<String> failedPaths = new TreeSet<String>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
 
-            try {
+            private AtomicInteger m_threadCount = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: image size " + m_threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (int i = 0; i < todo.size(); i += batchSize) {
+                int end = Math.min(i + batchSize, todo.size());
+                List<CmsResource> batch = todo.subList(i, end);
+                List<Future<CmsImageSizeResult>> futures = new ArrayList<Future<CmsImageSizeResult>>(batch.size());
+                for (CmsResource res : batch) {
+                    futures.add(executor.submit(createTask(cms, res, downscale)));
+                }
+                Set<CmsResource> failed = new HashSet<CmsResource>();
+                count += processResults(cms, report, batch, futures, i, todo.size(), failed);
+                for (CmsResource res : failed) {
+                    failedPaths.add(res.getRootPath());
+                }
+                String batchEnd = batch.get(batch.size() - 1).getRootPath();
+                if ((lastProcessed == null) || (batchEnd.compareTo(lastProcessed) > 0)) {
+                    lastProcessed = batchEnd;
+                }
+                // retry the images that could not be updated, and those that were not retried yet
+                Set<String> retry = new TreeSet<String>(failedPaths);
+                for (int j = end; j < retryCount; j++) {
+                    retry.add(todo.get(j).getRootPath());
+                }
+                writeCheckpoint(checkpoint, lastProcessed, retry);
+            }
+            // all images have been processed, the next run starts from the beginning and retries the failed images
+            if (checkpoint.exists() && !checkpoint.delete()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_CHECKPOINT_1, checkpoint));
+            }
+        } catch (InterruptedException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_END_0), I_CmsReport.FORMAT_HEADLINE);
+
+        return Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_UPDATE_COUNT_1, new Integer(count));
+    }
 
-                CmsResource res = resources.get(i);
-                report.print(
-                    Messages.get().container(
-                        Messages.RPT_IMAGE_SIZE_PROCESS_3,
-                        String.valueOf(i + 1),
-                        String.valueOf(resources.size()),
-                        res.getRootPath()),
-                    I_CmsReport.FORMAT_HEADLINE);
+    /**
+     * Creates the task that calculates the size of the given image in a worker thread.<p>
+     *
+     * @param cms the OpenCms user context
+     * @param res the image resource
+     * @param downscale if images should be downscaled
+     *
+     * @return the task
+     */
+    private Callable<CmsImageSizeResult> createTask(final CmsObject cms, final CmsResource res, final boolean downscale) {
+
+        return new Callable<CmsImageSizeResult>() {
 
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            public CmsImageSizeResult call() throws Exception {
+
+                // every worker needs its own context
+                CmsObject workerCms = OpenCms.initCmsObject(cms);
+                CmsImageSizeResult result = new CmsImageSizeResult(res);
 
                 // check if the resource is locked by another user
                 // we cannot process resources that are locked by someone else
-                CmsLock lock = cms.getLock(res);
-                if (lock.isNullLock() || lock.isOwnedBy(cms.getRequestContext().getCurrentUser())) {
-
-                    // read the file content
-                    CmsFile file = cms.readFile(res);
-                    // get the image size information
-                    CmsImageScaler scaler = new CmsImageScaler(file.getContents(), file.getRootPath());
-
-                    if (scaler.isValid()) {
-                        // the image can be scaled, width and height are known
-                        boolean updated = false;
-
-                        // check if the image must be downscaled
-                        CmsImageScaler downScaler = null;
-                        if (downscale) {
-                            // scheduled job parameter is set for downscaling
-                            downScaler = CmsResourceTypeImage.getDownScaler(cms, res.getRootPath());
-                        }
-
-                        if (scaler.isDownScaleRequired(downScaler)) {
-                            // downscaling is required - just write the file again, in this case everything is updated
-                            lockResource(cms, lock, res);
-                            cms.writeFile(file);
-                            // calculate the downscaled image size (only used for the output report)
-                            scaler = scaler.getDownScaler(downScaler);
-                            // the resource was updated
-                            updated = true;
-                        } else {
-                            // check if the "image.size" property must be updated
-                            CmsProperty prop = cms.readPropertyObject(
-                                res,
-                                CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
-                                false);
-                            // update the property if it does not exist or it is different than the newly calculated one
-                            if (prop.isNullProperty() || !prop.getValue().equals(scaler.toString())) {
-                                // lock resource
-                                lockResource(cms, lock, res);
-                                // set the shared value of the property or create a new one if required
-                                if (prop.isNullProperty()) {
-                                    prop = new CmsProperty(
-                                        CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
-                                        null,
-                                        scaler.toString());
-                                } else {
-                                    // delete any individual proprety value (just in case)
-                                    prop.setStructureValue(CmsProperty.DELETE_VALUE);
-                                    // set the calculated value as shared property
-                                    prop.setResourceValue(scaler.toString());
-                                }
-                                // write the property
-                                cms.writePropertyObject(res.getRootPath(), prop);
-                                // the resource was updated
-                                updated = true;
-                            }
-                        }
-
-                        if (updated) {
-                            // the resource was updated
-                            unlockResource(cms, lock, res);
-                            // increase counter
-                            count++;
-                            // write report information
-                            report.println(
-                                Messages.get().container(Messages.RPT_IMAGE_SIZE_UPDATE_1, scaler.toString()),
-                                I_CmsReport.FORMAT_DEFAULT);
-
-                        } else {
-                            // no changes have been made to the resource
-                            report.println(
-                                Messages.get().container(Messages.RPT_IMAGE_SIZE_SKIP_1, scaler.toString()),
-                                I_CmsReport.FORMAT_DEFAULT);
-                        }
+                result.m_lock = workerCms.getLock(res);
+                if (!result.m_lock.isNullLock()
+                    && !result.m_lock.isOwnedBy(workerCms.getRequestContext().getCurrentUser())) {
+                    return result;
+                }
+
+                // read the file content
+                CmsFile file = workerCms.readFile(res);
+                // get the image size information, this decodes only the image header where possible
+                CmsImageScaler scaler = new CmsImageScaler(file.getContents(), file.getRootPath());
+                result.m_scaler = scaler;
+                if (scaler.isValid()) {
+                    // check if the image must be downscaled
+                    CmsImageScaler downScaler = null;
+                    if (downscale) {
+                        // scheduled job parameter is set for downscaling
+                        downScaler = CmsResourceTypeImage.getDownScaler(workerCms, res.getRootPath());
+                    }
+                    if (scaler.isDownScaleRequired(downScaler)) {
+                        result.m_file = file;
+                        // calculate the downscaled image size (only used for the output report)
+                        result.m_scaler = scaler.getDownScaler(downScaler);
                     } else {
-                        // no valid image scaler
-                        report.println(
-                            Messages.get().container(Messages.RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0),
-                            I_CmsReport.FORMAT_DEFAULT);
+                        result.m_property = workerCms.readPropertyObject(
+                            res,
+                            CmsPropertyDefinition.PROPERTY_IMAGE_SIZE,
+                            false);
                     }
-                } else {
-                    // the resource is locked by someone else
-                    report.println(
-                        Messages.get().container(Messages.RPT_IMAGE_SIZE_LOCKED_0),
-                        I_CmsReport.FORMAT_DEFAULT);
                 }
-            } catch (CmsException e) {
-                report.println(e);
+                return result;
             }
-        }
+        };
+    }
 
-        report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_END_0), I_CmsReport.FORMAT_HEADLINE);
+    /**
+     * Returns the integer value of the given job parameter.<p>
+     *
+     * @param parameters the job parameters
+     * @param name the parameter name
+     * @param defaultValue the value to use if the parameter is not set or not a positive number
+     *
+     * @return the integer value of the parameter
+     */
+    private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
 
-        return Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_UPDATE_COUNT_1, new Integer(count));
+        String value = parameters.get(name);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
+            try {
+                int result = Integer.parseInt(value.trim());
+                if (result > 0) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // use the default
+            }
+        }
+        return defaultValue;
     }
 
     /**
@@ -232,6 +376,139 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Reports the results of a batch of images, and writes the changed properties of the batch together.<p>
+     *
+     * @param cms the OpenCms user context
+     * @param report the report to write to
+     * @param batch the images of the batch
+     * @param futures the pending results of the batch
+     * @param offset the index of the first image of the batch
+     * @param total the total number of images
+     * @param failed the set to which the images that could not be updated are added
+     *
+     * @return the number of updated images
+     *
+     * @throws InterruptedException if the job thread is interrupted
+     */
+    private int processResults(
+        CmsObject cms,
+        I_CmsReport report,
+        List<CmsResource> batch,
+        List<Future<CmsImageSizeResult>> futures,
+        int offset,
+        int total,
+        Set<CmsResource> failed)
+    throws InterruptedException {
+
+        int count = 0;
+        Map<CmsResource, CmsProperty> properties = new LinkedHashMap<CmsResource, CmsProperty>();
+        List<CmsResource> unlocked = new ArrayList<CmsResource>();
+        for (int i = 0; i < futures.size(); i++) {
+            CmsImageSizeResult result;
+            try {
+                result = futures.get(i).get();
+            } catch (ExecutionException e) {
+                report.println(e.getCause());
+                failed.add(batch.get(i));
+                continue;
+            }
+            CmsResource res = result.m_resource;
+            report.print(
+                Messages.get().container(
+                    Messages.RPT_IMAGE_SIZE_PROCESS_3,
+                    String.valueOf(offset + i + 1),
+                    String.valueOf(total),
+                    res.getRootPath()),
+                I_CmsReport.FORMAT_HEADLINE);
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+            CmsImageScaler scaler = result.m_scaler;
+            if (scaler == null) {
+                // the resource is locked by someone else
+                report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_LOCKED_0), I_CmsReport.FORMAT_DEFAULT);
+                failed.add(res);
+            } else if (!scaler.isValid()) {
+                // no valid image scaler
+                report.println(
+                    Messages.get().container(Messages.RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0),
+                    I_CmsReport.FORMAT_DEFAULT);
+            } else if (result.m_file != null) {
+                // downscaling is required - just write the file again, in this case everything is updated
+                try {
+                    lockResource(cms, result.m_lock, res);
+                    cms.writeFile(result.m_file);
+                    unlockResource(cms, result.m_lock, res);
+                    count++;
+                    report.println(
+                        Messages.get().container(Messages.RPT_IMAGE_SIZE_UPDATE_1, scaler.toString()),
+                        I_CmsReport.FORMAT_DEFAULT);
+                } catch (CmsException e) {
+                    report.println(e);
+                    failed.add(res);
+                }
+            } else {
+                // check if the "image.size" property must be updated
+                CmsProperty prop = result.m_property;
+                // update the property if it does not exist or it is different than the newly calculated one
+                if (prop.isNullProperty() || !prop.getValue().equals(scaler.toString())) {
+                    // set the shared value of the property or create a new one if required
+                    if (prop.isNullProperty()) {
+                        prop = new CmsProperty(CmsPropertyDefinition.PROPERTY_IMAGE_SIZE, null, scaler.toString());
+                    } else {
+                        // delete any individual proprety value (just in case)
+                        prop.setStructureValue(CmsProperty.DELETE_VALUE);
+                        // set the calculated value as shared property
+                        prop.setResourceValue(scaler.toString());
+                    }
+                    properties.put(res, prop);
+                    if (result.m_lock.isNullLock()) {
+                        unlocked.add(res);
+                    }
+                    report.println(
+                        Messages.get().container(Messages.RPT_IMAGE_SIZE_UPDATE_1, scaler.toString()),
+                        I_CmsReport.FORMAT_DEFAULT);
+                } else {
+                    // no changes have been made to the resource
+                    report.println(
+                        Messages.get().container(Messages.RPT_IMAGE_SIZE_SKIP_1, scaler.toString()),
+                        I_CmsReport.FORMAT_DEFAULT);
+                }
+            }
+        }
+        if (!properties.isEmpty()) {
+            count += writeProperties(cms, report, properties, unlocked, failed);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the root paths of the last processed image and of the images to retry from the checkpoint file.<p>
+     *
+     * @param checkpoint the checkpoint file
+     *
+     * @return the root path of the last processed image followed by the root paths of the images to retry,
+     *      or an empty list if there is no checkpoint
+     */
+    private List<String> readCheckpoint(File checkpoint) {
+
+        List<String> result = new ArrayList<String>();
+        if (!checkpoint.exists()) {
+            return result;
+        }
+        try {
+            for (String line : Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8)) {
+                if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(line)) {
+                    result.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_CHECKPOINT_1, checkpoint), e);
+            result.clear();
+        }
+        return result;
+    }
+
     /**
      * Unlocks the given resource (if required).<p>
      *
@@ -247,4 +524,92 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
             cms.unlockResource(res.getRootPath());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Saves the root paths of the last processed image and of the images to retry to the checkpoint file.<p>
+     *
+     * @param checkpoint the checkpoint file
+     * @param rootPath the root path of the last processed image
+     * @param retry the root paths of the images before the last processed image which must be retried
+     */
+    private void writeCheckpoint(File checkpoint, String rootPath, Set<String> retry) {
+
+        List<String> lines = new ArrayList<String>(retry.size() + 1);
+        lines.add(rootPath);
+        lines.addAll(retry);
+        try {
+            checkpoint.getParentFile().mkdirs();
+            Files.write(checkpoint.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_SIZE_CHECKPOINT_1, checkpoint), e);
+        }
+    }
+
+    /**
+     * Writes the changed image size properties of a batch of images together.<p>
+     *
+     * The properties of all images are written with a single call, so the caches are flushed and the
+     * modification event is fired only once. This is not a transaction: if it fails, some properties may
+     * already have been written. The properties are then written again one by one, so a single image can
+     * not prevent the update of the other images of the batch.<p>
+     *
+     * @param cms the OpenCms user context
+     * @param report the report to write to
+     * @param properties the changed properties, by image
+     * @param unlocked the images which were not locked before and must be locked for writing
+     * @param failed the set to which the images that could not be updated are added
+     *
+     * @return the number of updated images
+     */
+    private int writeProperties(
+        CmsObject cms,
+        I_CmsReport report,
+        Map<CmsResource, CmsProperty> properties,
+        List<CmsResource> unlocked,
+        Set<CmsResource> failed) {
+
+        List<CmsResource> locked = Collections.emptyList();
+        try {
+            locked = cms.lockResources(unlocked);
+            if (locked.size() < unlocked.size()) {
+                // skip the images that have been locked by another user in the meantime
+                Set<CmsResource> lockedSet = new HashSet<CmsResource>(locked);
+                for (CmsResource res : unlocked) {
+                    if (!lockedSet.contains(res)) {
+                        properties.remove(res);
+                        failed.add(res);
+                    }
+                }
+            }
+            try {
+                cms.writePropertyObjects(properties);
+                return properties.size();
+            } catch (CmsException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            int count = 0;
+            for (Map.Entry<CmsResource, CmsProperty> entry : properties.entrySet()) {
+                try {
+                    cms.writePropertyObjects(entry.getKey(), Collections.singletonList(entry.getValue()));
+                    count++;
+                } catch (CmsException e) {
+                    report.println(e);
+                    failed.add(entry.getKey());
+                }
+            }
+            return count;
+        } catch (CmsException e) {
+            report.println(e);
+            failed.addAll(properties.keySet());
+            return 0;
+        } finally {
+            for (CmsResource res : locked) {
+                try {
+                    cms.unlockResource(res);
+                } catch (CmsException e) {
+                    report.println(e);
+                }
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
+
 package org.opencms.scheduler.jobs;
 
 import org.opencms.db.CmsResourceState;
@@ -36,19 +37,34 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.loader.CmsResourceManager;
-import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.CmsMultiException;
 import org.opencms.main.OpenCms;
 import org.opencms.publish.CmsPublishManager;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
 
 /**
  * A schedulable OpenCms job to delete expired resources.<p>
@@ -67,6 +83,16 @@ import java.util.Map;
  * <dt><code>folder={csv list}</code></dt>
  * <dd>Allows to specify a comma separated list of folders in which all expired resources will be deleted. If omitted "/" will be taken as single folder
  * for this operation. </dd>
+ * <dt><code>batchsize={Number/Integer}</code></dt>
+ * <dd>The number of resources that are locked and deleted together, the default is 100.</dd>
+ * <dt><code>timebudget={Number/Integer}</code></dt>
+ * <dd>The maximum number of seconds the job may spend on selecting and deleting resources. If the time budget
+ * is exhausted, the resources deleted so far are published and the next run of the job continues where this run
+ * stopped. If omitted or 0, the job processes all expired resources in a single run.</dd>
+ * <dt><code>checkpoint={path}</code></dt>
+ * <dd>The file where the position to continue with is saved if the time budget is exhausted, relative to the
+ * WEB-INF folder, the default is "logs/deleteexpired.checkpoint". The positions of all job configurations are
+ * kept in this file, so they survive a restart of OpenCms.</dd>
  * </dl>
  * <p>
  *
@@ -85,6 +111,9 @@ import java.util.Map;
  */
 public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
 
+    /** Name of the parameter where to configure the number of resources that are locked and deleted together. */
+    public static final String PARAM_BATCHSIZE = "batchsize";
+
     /** Name of the parameter where to configure the amount of days a resource has to be expired before deletion. */
     public static final String PARAM_EXPIRATIONSDAYS = "expirationdays";
 
@@ -94,6 +123,24 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
     /** Name of the parameter where to configure the folder below which the operation will be done. */
     public static final String PARAM_FOLDER = "folder";
 
+    /** Name of the parameter where to configure the maximum number of seconds for a single run of the job. */
+    public static final String PARAM_TIMEBUDGET = "timebudget";
+
+    /** Name of the parameter where to configure the checkpoint file, relative to the WEB-INF folder. */
+    public static final String PARAM_CHECKPOINT = "checkpoint";
+
+    /** The default number of resources that are locked and deleted together. */
+    public static final int DEFAULT_BATCHSIZE = 100;
+
+    /** The default checkpoint file, relative to the WEB-INF folder. */
+    public static final String DEFAULT_CHECKPOINT = "logs/deleteexpired.checkpoint";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsDeleteExpiredResourcesJob.class);
+
+    /** Lock object to serialize the access of concurrently running jobs to the checkpoint file. */
+    private static final Object CHECKPOINT_LOCK = new Object();
+
     /** Constant for calculation. */
     private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
 
@@ -113,21 +160,31 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
             long currenttime = System.currentTimeMillis();
 
             // read the parameter for the versions to keep
-            int expirationdays = 30;
-            String expirationdaysparam = parameters.get(PARAM_EXPIRATIONSDAYS);
-            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(expirationdaysparam)) {
-                try {
-                    expirationdays = Integer.parseInt(expirationdaysparam);
-                } catch (NumberFormatException nfe) {
-                    // don't care
-                }
+            int expirationdays = getIntParameter(parameters, PARAM_EXPIRATIONSDAYS, 30);
+
+            // read the parameters for the batch size and the time budget
+            int batchSize = Math.max(1, getIntParameter(parameters, PARAM_BATCHSIZE, DEFAULT_BATCHSIZE));
+            long timeBudget = getIntParameter(parameters, PARAM_TIMEBUDGET, 0) * 1000L;
+            long deadline = timeBudget > 0 ? currenttime + timeBudget : Long.MAX_VALUE;
+            String checkpointPath = parameters.get(PARAM_CHECKPOINT);
+            if (CmsStringUtil.isEmptyOrWhitespaceOnly(checkpointPath)) {
+                checkpointPath = DEFAULT_CHECKPOINT;
             }
+            File checkpoint = new File(
+                OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(checkpointPath.trim()));
 
             // read the parameter if to clear versions of deleted resources
             String resTypes = parameters.get(PARAM_RESOURCETYPES);
-            String[] resTypesArr = null;
+            Set<Integer> typeIds = null;
+            boolean includeFolders = false;
             if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(resTypes)) {
-                resTypesArr = CmsStringUtil.splitAsArray(resTypes, ',');
+                typeIds = new HashSet<Integer>();
+                CmsResourceManager resManager = OpenCms.getResourceManager();
+                for (String typeName : CmsStringUtil.splitAsArray(resTypes, ',')) {
+                    I_CmsResourceType type = resManager.getResourceType(typeName);
+                    typeIds.add(Integer.valueOf(type.getTypeId()));
+                    includeFolders |= type.isFolder();
+                }
             }
 
             // read the optional parameter for the time range to keep versions
@@ -146,33 +203,79 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
                 CmsDeleteExpiredResourcesJob.class);
             report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_START_0), I_CmsReport.FORMAT_HEADLINE);
 
-            // collect all resources:
-            List<CmsResource> resources = Collections.emptyList();
+            // collect all resources of all configured types with a single query per top folder,
+            // the resource types are filtered in memory because the resource filter api supports only one type:
             CmsResourceFilter filter = CmsResourceFilter.ALL.addExcludeState(CmsResourceState.STATE_DELETED);
             filter = filter.addRequireExpireBefore(currenttime);
+            if (!includeFolders) {
+                filter = filter.addRequireFile();
+            }
+            List<CmsResource> resources = new ArrayList<CmsResource>();
+            Map<String, String> deleteExpiredProperties = new HashMap<String, String>();
+            for (String topFolder : getTopFolders(topFoldersArr)) {
+                resources.addAll(cms.readResources(topFolder, filter, true));
+                readDeleteExpiredProperties(cms, topFolder, deleteExpiredProperties);
+            }
+            Collections.sort(resources, new Comparator<CmsResource>() {
 
-            // if we have configured resource types reading is more complicated because inclusion of several types
-            // is not supported by resource filter api:
-            int changedFiles = 0;
-            if (resTypesArr != null) {
-                I_CmsResourceType type;
-                CmsResourceManager resManager = OpenCms.getResourceManager();
-                for (int i = resTypesArr.length - 1; i >= 0; i--) {
-                    type = resManager.getResourceType(resTypesArr[i]);
-                    filter = filter.addRequireType(type.getTypeId());
-                    for (int j = topFoldersArr.length - 1; j >= 0; j--) {
-                        resources = cms.readResources(topFoldersArr[j], filter, true);
-                        changedFiles += deleteExpiredResources(cms, report, resources, expirationdays, currenttime);
-                    }
+                public int compare(CmsResource res1, CmsResource res2) {
+
+                    return res1.getRootPath().compareTo(res2.getRootPath());
                 }
+            });
 
-            } else {
-                filter = filter.addRequireFile();
-                for (int j = topFoldersArr.length - 1; j >= 0; j--) {
-                    resources = cms.readResources(topFoldersArr[j], filter, true);
-                    changedFiles += deleteExpiredResources(cms, report, resources, expirationdays, currenttime);
+            // continue where the last run stopped if it has exhausted its time budget
+            String jobKey = cms.getRequestContext().getSiteRoot() + "|" + topfolders + "|" + resTypes;
+            String resumePosition = readResumePosition(checkpoint, jobKey);
+            int start = 0;
+            if (resumePosition != null) {
+                while ((start < resources.size())
+                    && (resources.get(start).getRootPath().compareTo(resumePosition) < 0)) {
+                    start++;
                 }
+                report.println(
+                    Messages.get().container(Messages.RPT_DELETE_EXPIRED_RESUME_1, resumePosition),
+                    I_CmsReport.FORMAT_NOTE);
+            }
+
+            int changedFiles = 0;
+            List<CmsResource> batch = new ArrayList<CmsResource>(batchSize);
+            String deletedFolder = null;
+            String nextPosition = null;
+            for (int i = start; i < resources.size(); i++) {
+                CmsResource resource = resources.get(i);
+                if (System.currentTimeMillis() > deadline) {
+                    nextPosition = resource.getRootPath();
+                    report.println(
+                        Messages.get().container(Messages.RPT_DELETE_EXPIRED_TIME_BUDGET_1, resource.getRootPath()),
+                        I_CmsReport.FORMAT_NOTE);
+                    break;
+                }
+                if ((typeIds != null) && !typeIds.contains(Integer.valueOf(resource.getTypeId()))) {
+                    continue;
+                }
+                if ((deletedFolder != null) && resource.getRootPath().startsWith(deletedFolder)) {
+                    // the resource is deleted together with its expired parent folder
+                    continue;
+                }
+                if (isDeleteable(cms, report, resource, deleteExpiredProperties, expirationdays, currenttime)) {
+                    batch.add(resource);
+                    if (resource.isFolder()) {
+                        deletedFolder = resource.getRootPath();
+                    }
+                    if (batch.size() >= batchSize) {
+                        changedFiles += deleteExpiredResources(cms, report, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                changedFiles += deleteExpiredResources(cms, report, batch);
+            }
+            if ((nextPosition != null) || (resumePosition != null)) {
+                writeResumePosition(checkpoint, jobKey, nextPosition);
             }
+
             if (changedFiles > 0) {
                 CmsPublishManager publishManager = OpenCms.getPublishManager();
                 publishManager.publishProject(cms, report);
@@ -185,105 +288,319 @@ public class CmsDeleteExpiredResourcesJob implements I_CmsScheduledJob {
     }
 
     /**
-     * Deletes the expired resources if the have been expired longer than the given amount of days. <p>
+     * Locks and deletes a batch of expired resources.<p>
      *
-     * At this level the resource type is not checked again. <p>
+     * Resources locked by another user are skipped. The caches are flushed only once for the whole batch.
+     * Locking the batch fires a single
+     * {@link org.opencms.main.I_CmsEventListener#EVENT_RESOURCES_AND_PROPERTIES_MODIFIED} event instead of
+     * one event per resource, see {@link CmsObject#lockResources(List)}.<p>
      *
-     * @param resources a <code>List</code> containing <code>CmsResource</code> instances to process.
      * @param cms needed to delete resources
      * @param report needed to print messages to
+     * @param resources the expired resources to delete
+     *
+     * @return the amount of deleted files
+     */
+    private int deleteExpiredResources(final CmsObject cms, final I_CmsReport report, final List<CmsResource> resources) {
+
+        report.println(
+            Messages.get().container(Messages.RPT_DELETE_EXPIRED_BATCH_1, Integer.valueOf(resources.size())),
+            I_CmsReport.FORMAT_NOTE);
+        List<CmsResource> locked;
+        try {
+            locked = cms.lockResources(resources);
+        } catch (CmsException e) {
+            report.println(
+                Messages.get().container(
+                    Messages.RPT_DELETE_EXPIRED_FAILED_1,
+                    new String[] {CmsException.getStackTraceAsString(e)}),
+                I_CmsReport.FORMAT_ERROR);
+            return 0;
+        }
+        if (locked.size() < resources.size()) {
+            Set<CmsResource> lockedSet = new HashSet<CmsResource>(locked);
+            for (CmsResource resource : resources) {
+                if (!lockedSet.contains(resource)) {
+                    printProcessing(cms, report, resource);
+                    report.println(
+                        Messages.get().container(Messages.RPT_DELETE_EXPIRED_LOCKED_0),
+                        I_CmsReport.FORMAT_WARNING);
+                }
+            }
+        }
+
+        int failures = 0;
+        try {
+            cms.deleteResources(locked, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        } catch (CmsException e) {
+            List<CmsException> exceptions;
+            if (e instanceof CmsMultiException) {
+                exceptions = ((CmsMultiException)e).getExceptions();
+            } else {
+                exceptions = Collections.singletonList(e);
+            }
+            for (CmsException exception : exceptions) {
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_DELETE_EXPIRED_FAILED_1,
+                        new String[] {CmsException.getStackTraceAsString(exception)}),
+                    I_CmsReport.FORMAT_ERROR);
+            }
+            failures = exceptions.size();
+        }
+        int result = Math.max(0, locked.size() - failures);
+        report.println(
+            Messages.get().container(Messages.RPT_DELETE_EXPIRED_BATCH_DONE_1, Integer.valueOf(result)),
+            I_CmsReport.FORMAT_OK);
+        return result;
+    }
+
+    /**
+     * Returns the value of the "delete.expired" property that applies to the given root path,
+     * searching the parent folders like {@link CmsObject#readPropertyObject(CmsResource, String, boolean)}.<p>
+     *
+     * @param properties the property values by root path, as read by {@link #readDeleteExpiredProperties(CmsObject, String, Map)}
+     * @param rootPath the root path of the resource
+     *
+     * @return the property value, or <code>null</code> if the property is not set
+     */
+    private String getDeleteExpiredProperty(Map<String, String> properties, String rootPath) {
+
+        String path = rootPath;
+        while (path != null) {
+            String value = properties.get(path);
+            if (value != null) {
+                return value;
+            }
+            path = CmsResource.getParentFolder(path);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the integer value of the given job parameter.<p>
+     *
+     * @param parameters the job parameters
+     * @param name the parameter name
+     * @param defaultValue the value to use if the parameter is not set or not a number
+     *
+     * @return the integer value of the parameter
+     */
+    private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+
+        String value = parameters.get(name);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException nfe) {
+                // don't care
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns the given top folders without duplicates and without folders that are contained in another top folder.<p>
+     *
+     * @param topFolders the configured top folders
+     *
+     * @return the top folders to read the expired resources from
+     */
+    private List<String> getTopFolders(String[] topFolders) {
+
+        List<String> folders = new ArrayList<String>();
+        for (String folder : topFolders) {
+            folders.add(CmsFileUtil.addTrailingSeparator(folder.trim()));
+        }
+        Collections.sort(folders);
+        List<String> result = new ArrayList<String>();
+        for (String folder : folders) {
+            if (result.isEmpty() || !folder.startsWith(result.get(result.size() - 1))) {
+                result.add(folder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the given expired resource has been expired longer than the given amount of days,
+     * and may be deleted.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param report needed to print messages to
+     * @param resource the resource to check
+     * @param properties the values of the "delete.expired" property by root path
      * @param expirationdays the amount of days a resource has to be expired before it is deleted
      * @param currenttime the current time in milliseconds since January 1st 1970
-     * @return the amount of deleted files
      *
+     * @return <code>true</code> if the resource may be deleted
      */
-    private int deleteExpiredResources(
+    private boolean isDeleteable(
         final CmsObject cms,
         final I_CmsReport report,
-        final List<CmsResource> resources,
+        final CmsResource resource,
+        final Map<String, String> properties,
         final int expirationdays,
         final long currenttime) {
 
-        int result = 0;
-        CmsResource resource;
-        CmsLock lock;
-        CmsProperty property;
-        String propertyValue;
-        long expirationdate;
-        int expirationDaysPropertyOverride;
-        Iterator<CmsResource> it = resources.iterator();
-        String resourcePath;
-        while (it.hasNext()) {
-            resource = it.next();
-            resourcePath = cms.getRequestContext().removeSiteRoot(resource.getRootPath());
-            report.print(
-                Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROCESSING_1, new String[] {resourcePath}),
-                I_CmsReport.FORMAT_DEFAULT);
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-            if (resource.getState() == CmsResourceState.STATE_UNCHANGED) {
-                expirationdate = resource.getDateExpired();
-                expirationDaysPropertyOverride = expirationdays;
+        printProcessing(cms, report, resource);
+        if (resource.getState() != CmsResourceState.STATE_UNCHANGED) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_UNPUBLISHED_0));
+            return false;
+        }
+        long expirationdate = resource.getDateExpired();
+        int expirationDaysPropertyOverride = expirationdays;
+        String propertyValue = getDeleteExpiredProperty(properties, resource.getRootPath());
+        if (propertyValue != null) {
+            if (PROPERTY_VALUE_DELETE_EXPIRED_NEVER.equals(propertyValue)
+                || PROPERTY_VALUE_DELETE_EXPIRED_NONE.equals(propertyValue)
+                || Boolean.FALSE.toString().equals(propertyValue)) {
+                report.println(
+                    Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROPERTY_NEVER_0),
+                    I_CmsReport.FORMAT_NOTE);
+                return false;
+            }
+            // true is allowed, but any other value will be treated as a configuration error and skip the
+            // resource:
+            if (!Boolean.TRUE.toString().equals(propertyValue)) {
                 try {
-                    property = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, true);
-                    propertyValue = property.getValue();
-                    if (!property.isNullProperty()) {
-                        if (PROPERTY_VALUE_DELETE_EXPIRED_NEVER.equals(propertyValue)
-                            || PROPERTY_VALUE_DELETE_EXPIRED_NONE.equals(propertyValue)
-                            || Boolean.FALSE.toString().equals(propertyValue)) {
-                            report.println(
-                                Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROPERTY_NEVER_0),
-                                I_CmsReport.FORMAT_NOTE);
-                            continue;
-                        } else {
-                            // true is allowed, but any other value will be treated as a configuration error and skip the
-                            // resource:
-
-                            if (!Boolean.TRUE.toString().equals(propertyValue)) {
-                                // NumberFormatException should skip the resource because the property value was mistyped
-                                expirationDaysPropertyOverride = Integer.parseInt(propertyValue);
-                            }
-                        }
-                    }
-
-                    // no Calendar - semantics required for simple timespan check:
-                    if ((expirationdate != Long.MAX_VALUE)
-                        && ((currenttime - expirationdate) > (expirationDaysPropertyOverride * MILLIS_PER_DAY))) {
-                        lock = cms.getLock(resource);
-                        if (lock.isNullLock()) {
-                            cms.lockResource(resourcePath);
-                        } else {
-                            if (!lock.getUserId().equals(cms.getRequestContext().getCurrentUser().getId())) {
-                                report.println(
-                                    Messages.get().container(Messages.RPT_DELETE_EXPIRED_LOCKED_0),
-                                    I_CmsReport.FORMAT_WARNING);
-                                continue;
-                            }
-                        }
-                        cms.deleteResource(resourcePath, CmsResource.DELETE_PRESERVE_SIBLINGS);
-                        result++;
-                        report.println(
-                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                            I_CmsReport.FORMAT_OK);
-
-                    } else {
-                        report.println(
-                            Messages.get().container(
-                                Messages.RPT_DELETE_EXPIRED_NOT_EXPIRED_1,
-                                new Integer[] {new Integer(expirationDaysPropertyOverride)}));
-                    }
-                } catch (Exception e) {
+                    expirationDaysPropertyOverride = Integer.parseInt(propertyValue);
+                } catch (NumberFormatException e) {
+                    // skip the resource because the property value was mistyped
                     report.println(
                         Messages.get().container(
                             Messages.RPT_DELETE_EXPIRED_FAILED_1,
                             new String[] {CmsException.getStackTraceAsString(e)}),
                         I_CmsReport.FORMAT_ERROR);
-
+                    return false;
                 }
+            }
+        }
+
+        // no Calendar - semantics required for simple timespan check:
+        if ((expirationdate != Long.MAX_VALUE)
+            && ((currenttime - expirationdate) > (expirationDaysPropertyOverride * MILLIS_PER_DAY))) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_QUEUED_0), I_CmsReport.FORMAT_OK);
+            return true;
+        }
+        report.println(
+            Messages.get().container(
+                Messages.RPT_DELETE_EXPIRED_NOT_EXPIRED_1,
+                new Integer[] {new Integer(expirationDaysPropertyOverride)}));
+        return false;
+    }
+
+    /**
+     * Prints the processing message for the given resource.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param report the report to print to
+     * @param resource the processed resource
+     */
+    private void printProcessing(final CmsObject cms, final I_CmsReport report, final CmsResource resource) {
+
+        String resourcePath = cms.getRequestContext().removeSiteRoot(resource.getRootPath());
+        report.print(
+            Messages.get().container(Messages.RPT_DELETE_EXPIRED_PROCESSING_1, new String[] {resourcePath}),
+            I_CmsReport.FORMAT_DEFAULT);
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+    }
+
+    /**
+     * Reads the values of the "delete.expired" property for the given top folder and all resources
+     * below it which have the property set, instead of searching the property for every single resource.<p>
+     *
+     * @param cms the current OpenCms context
+     * @param topFolder the top folder
+     * @param properties the map to store the property values in, by root path
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void readDeleteExpiredProperties(CmsObject cms, String topFolder, Map<String, String> properties)
+    throws CmsException {
+
+        CmsResource folder = cms.readResource(topFolder, CmsResourceFilter.ALL);
+        // the value inherited from the parent folders of the top folder
+        CmsProperty inherited = cms.readPropertyObject(folder, CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED, true);
+        if (!inherited.isNullProperty()) {
+            properties.put(folder.getRootPath(), inherited.getValue());
+        }
+        for (CmsResource resource : cms.readResourcesWithProperty(
+            topFolder,
+            CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED)) {
+            CmsProperty property = cms.readPropertyObject(
+                resource,
+                CmsPropertyDefinition.PROPERTY_DELETE_EXPIRED,
+                false);
+            if (!property.isNullProperty()) {
+                properties.put(resource.getRootPath(), property.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the root path where the given job configuration continues from the checkpoint file.<p>
+     *
+     * @param checkpoint the checkpoint file
+     * @param jobKey the key of the job configuration
+     *
+     * @return the root path to continue with, or <code>null</code> if the last run was complete
+     */
+    private String readResumePosition(File checkpoint, String jobKey) {
+
+        synchronized (CHECKPOINT_LOCK) {
+            return readCheckpoint(checkpoint).getProperty(jobKey);
+        }
+    }
+
+    /**
+     * Saves the root path where the given job configuration continues to the checkpoint file.<p>
+     *
+     * @param checkpoint the checkpoint file
+     * @param jobKey the key of the job configuration
+     * @param rootPath the root path to continue with, or <code>null</code> if the run was complete
+     */
+    private void writeResumePosition(File checkpoint, String jobKey, String rootPath) {
+
+        synchronized (CHECKPOINT_LOCK) {
+            Properties positions = readCheckpoint(checkpoint);
+            if (rootPath != null) {
+                positions.setProperty(jobKey, rootPath);
             } else {
-                report.println(Messages.get().container(Messages.RPT_DELETE_EXPIRED_UNPUBLISHED_0));
+                positions.remove(jobKey);
+            }
+            if (positions.isEmpty()) {
+                if (checkpoint.exists() && !checkpoint.delete()) {
+                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_DELETE_EXPIRED_CHECKPOINT_1, checkpoint));
+                }
+                return;
+            }
+            checkpoint.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream(checkpoint)) {
+                positions.store(out, null);
+            } catch (IOException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_DELETE_EXPIRED_CHECKPOINT_1, checkpoint), e);
             }
         }
-        return result;
+    }
+
+    /**
+     * Reads the resume positions of all job configurations from the checkpoint file.<p>
+     *
+     * @param checkpoint the checkpoint file
+     *
+     * @return the resume positions by job configuration
+     */
+    private Properties readCheckpoint(File checkpoint) {
+
+        Properties positions = new Properties();
+        if (checkpoint.exists()) {
+            try (InputStream in = new FileInputStream(checkpoint)) {
+                positions.load(in);
+            } catch (IOException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_DELETE_EXPIRED_CHECKPOINT_1, checkpoint), e);
+            }
+        }
+        return positions;
     }
 }
@@ -40,12 +40,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_EXPIRED_UNPUBLISHED_0 = "RPT_DELETE_EXPIRED_UNPUBLISHED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_BATCH_1 = "RPT_DELETE_EXPIRED_BATCH_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_BATCH_DONE_1 = "RPT_DELETE_EXPIRED_BATCH_DONE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_EXPIRED_END_0 = "RPT_DELETE_EXPIRED_END_0";
 
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMAGE_CACHE_BAD_MAXAGE_2 = "LOG_IMAGE_CACHE_BAD_MAXAGE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DELETE_EXPIRED_CHECKPOINT_1 = "LOG_DELETE_EXPIRED_CHECKPOINT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMAGE_CACHE_CLEANUP_COUNT_1 = "LOG_IMAGE_CACHE_CLEANUP_COUNT_1";
 
@@ -55,6 +64,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMAGE_SCALING_DISABLED_0 = "LOG_IMAGE_SCALING_DISABLED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMAGE_SIZE_CHECKPOINT_1 = "LOG_IMAGE_SIZE_CHECKPOINT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMAGE_SIZE_UPDATE_COUNT_1 = "LOG_IMAGE_SIZE_UPDATE_COUNT_1";
 
@@ -79,6 +91,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMAGE_SIZE_PROCESS_3 = "RPT_IMAGE_SIZE_PROCESS_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_IMAGE_SIZE_RESUME_1 = "RPT_IMAGE_SIZE_RESUME_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMAGE_SIZE_SKIP_1 = "RPT_IMAGE_SIZE_SKIP_1";
 
@@ -100,6 +115,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_EXPIRED_NOT_EXPIRED_1 = "RPT_DELETE_EXPIRED_NOT_EXPIRED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_QUEUED_0 = "RPT_DELETE_EXPIRED_QUEUED_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_RESUME_1 = "RPT_DELETE_EXPIRED_RESUME_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_EXPIRED_TIME_BUDGET_1 = "RPT_DELETE_EXPIRED_TIME_BUDGET_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0 = "RPT_IMAGE_SIZE_UNABLE_TO_CALCULATE_0";
 
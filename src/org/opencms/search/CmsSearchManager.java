@@ -636,6 +636,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default value used for keeping the extraction results in the cache (672 hours = 4 weeks). */
     public static final float DEFAULT_EXTRACTION_CACHE_MAX_AGE = 672.0f;
 
+    /** The default maximum size of the extraction result cache (1024 megabytes). */
+    public static final long DEFAULT_EXTRACTION_CACHE_MAX_SIZE = 1024L;
+
     /** Default for the maximum number of modifications before a commit in the search index is triggered (500). */
     public static final int DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT = 500;
 
@@ -687,6 +690,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The max age for extraction results to remain in the cache. */
     private float m_extractionCacheMaxAge;
 
+    /** The max size of the extraction result cache in megabytes. */
+    private long m_extractionCacheMaxSize;
+
     /** The cache for the extraction results. */
     private CmsExtractionResultCache m_extractionResultCache;
 
@@ -744,6 +750,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_indexSources = new TreeMap<String, CmsSearchIndexSource>();
         m_offlineHandler = new CmsSearchOfflineHandler();
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
+        m_extractionCacheMaxSize = DEFAULT_EXTRACTION_CACHE_MAX_SIZE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
         m_maxIndexWaitTime = DEFAULT_MAX_INDEX_WAITTIME;
@@ -1193,6 +1200,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_extractionCacheMaxAge;
     }
 
+    /**
+     * Returns the maximum total size of the text extraction results in the cache (in megabytes).<p>
+     *
+     * @return the maximum total size of the text extraction results in the cache (in megabytes)
+     */
+    public long getExtractionCacheMaxSize() {
+
+        return m_extractionCacheMaxSize;
+    }
+
     /**
      * Returns the search field configuration with the given name.<p>
      *
@@ -1498,7 +1515,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         // create the extraction result cache
         m_extractionResultCache = new CmsExtractionResultCache(
             OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(getDirectory()),
-            "/extractCache");
+            "/extractCache",
+            m_extractionCacheMaxSize * 1024L * 1024L);
         initializeFieldConfigurations();
         initializeIndexes();
         initOfflineIndexes();
@@ -2077,6 +2095,36 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the maximum total size of the text extraction results in the cache (in megabytes).<p>
+     *
+     * @param extractionCacheMaxSize the maximum size of the extraction result cache to set
+     */
+    public void setExtractionCacheMaxSize(long extractionCacheMaxSize) {
+
+        m_extractionCacheMaxSize = extractionCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum total size of the text extraction results in the cache (in megabytes) as a String.<p>
+     *
+     * @param extractionCacheMaxSize the maximum size of the extraction result cache to set
+     */
+    public void setExtractionCacheMaxSize(String extractionCacheMaxSize) {
+
+        try {
+            setExtractionCacheMaxSize(Long.parseLong(extractionCacheMaxSize.trim()));
+        } catch (NumberFormatException e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_EXTRACTION_CACHE_SIZE_FAILED_2,
+                    extractionCacheMaxSize,
+                    new Long(DEFAULT_EXTRACTION_CACHE_MAX_SIZE)),
+                e);
+            setExtractionCacheMaxSize(DEFAULT_EXTRACTION_CACHE_MAX_SIZE);
+        }
+    }
+
     /**
      * Sets the unlock mode during indexing.<p>
      *
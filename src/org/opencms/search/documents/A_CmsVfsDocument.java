@@ -112,33 +112,40 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
         if (index.isExtractingContent()) {
             // do full text content extraction only if required
 
+            // use the currently indexed content, if it is still up to date
+            content = index.getContentIfUnchanged(resource);
+
             // check if caching is enabled for this document type
             CmsExtractionResultCache cache = getCache();
+            CmsResource extractResource = resource;
             String cacheName = null;
-            if ((cache != null) && (resource.getSiblingCount() > 1)) {
-                // hard drive based caching only makes sense for resources that have siblings,
-                // because the index will also store the content as a blob
-                cacheName = cache.getCacheName(
-                    resource,
-                    isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
-                    getName());
-                content = cache.getCacheObject(cacheName);
-            }
-
-            if (content == null) {
-                // extraction result has not been found in the cache
-                // use the currently indexed content, if it is still up to date.
-                content = index.getContentIfUnchanged(resource);
+            if ((content == null) && (cache != null) && (!isLocaleDependend() || (resource.getSiblingCount() > 1))) {
+                // the cache is keyed by the content, so all resources with the same content share the extraction
+                // result, but the extraction of XML based documents may depend on other resources as well
+                try {
+                    CmsFile file = readFile(cms, resource);
+                    // the extraction reuses the file content read here
+                    extractResource = file;
+                    cacheName = cache.getCacheName(
+                        file.getContents(),
+                        isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
+                        getName());
+                    content = cache.getCacheObject(cacheName);
+                } catch (@SuppressWarnings("unused") CmsIndexNoContentException e) {
+                    // handled by the text extraction below
+                } catch (CmsException e) {
+                    LOG.warn(e.getLocalizedMessage(), e);
+                }
             }
 
             if (content == null) {
                 // extraction result has not been attached to the resource
                 try {
-                    content = extractContent(cms, resource, index);
+                    content = extractContent(cms, extractResource, index);
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Extracting content for '" + resource.getRootPath() + "' successful.");
                     }
-                    if ((cache != null) && (resource.getSiblingCount() > 1)) {
+                    if (cacheName != null) {
                         // save extracted content to the cache
                         cache.saveCacheObject(cacheName, content);
                     }
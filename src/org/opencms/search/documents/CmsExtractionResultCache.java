@@ -27,97 +27,193 @@
 
 package org.opencms.search.documents;
 
-import org.opencms.cache.CmsVfsDiskCache;
 import org.opencms.file.CmsResource;
 import org.opencms.main.CmsLog;
 import org.opencms.search.extractors.CmsExtractionResult;
 import org.opencms.search.extractors.I_CmsExtractionResult;
 import org.opencms.util.CmsFileUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.hash.Hashing;
+
 /**
  * Implements a disk cache that stores text extraction results in the RFS.<p>
  *
- * This cache operates on resource file names, plus a hash code calculated from
- * {@link org.opencms.file.CmsResource#getDateLastModified()}
- * and {@link org.opencms.file.CmsResource#getLength()}. Optional a locale can be appended to this name.<p>
+ * This cache operates on a hash of the resource content, plus the name of the search document type.
+ * Optional a locale can be appended to this name. Since text extraction is done only on the content of a
+ * resource, all resources with the same content share a single cache entry, no matter if they are siblings,
+ * copies in different folders or the same resource in the online and the offline project.
+ * The most problematic contents to extract for the search are in fact the MS Office and PDF formats,
+ * for these documents the content alone determines the text extraction result.<p>
  *
- * Since text extraction is done only on the content of a resource, all siblings must have the same content.
- * The difference can be only by the locale setting in case of an XML content or XML page. However,
- * the most problematic contents to extract for the search are in fact the MS Office and PDF formats.
- * For these documents, all siblings must produce the exact same text extraction result.<p>
+ * The entries are stored GZIP compressed in sub folders named after the first two characters of the hash.
+ * An in memory index of all entries, ordered by their last access, is kept to enforce the maximum
+ * total size of the cache by removing the least recently used entries, and to find expired entries
+ * without listing the cache folders. The index is read from the cache folders on first use, while other
+ * threads can already use the cache.<p>
  *
- * This cache is usable for resources from the online AND the offline project at the same time,
- * because any change to a resource will result in a changed hash code. This means a resource changed in the offline
- * project will have a new hash code compared to the online project. If the resource is identical in the online and
- * the offline project, the generated hash codes will be the same.<p>
+ * All methods of this cache can be used by concurrent indexing threads.<p>
  *
  * @since 6.2.0
  */
 public class CmsExtractionResultCache {
 
+    /**
+     * The index information of a cache entry.<p>
+     */
+    private static class CmsCacheEntryInfo {
+
+        /** The time of the last access to the entry. */
+        long m_lastAccess;
+
+        /** The size of the entry file in bytes. */
+        long m_size;
+
+        /**
+         * Creates new entry information.<p>
+         *
+         * @param size the size of the entry file in bytes
+         * @param lastAccess the time of the last access to the entry
+         */
+        CmsCacheEntryInfo(long size, long lastAccess) {
+
+            m_size = size;
+            m_lastAccess = lastAccess;
+        }
+    }
+
+    /** The default maximum size of the cache in bytes. */
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
+    /** The file suffix of the cache entries. */
+    public static final String ENTRY_SUFFIX = ".ext";
+
+    /** The interval in which the modification date of a cache file is updated when it is read. */
+    private static final long TOUCH_INTERVAL = 3600000;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExtractionResultCache.class);
 
+    /** The index of all cache entries by RFS name, in access order. */
+    private LinkedHashMap<String, CmsCacheEntryInfo> m_index;
+
+    /** Indicates if the index has already been read from the RFS, or is currently being read. */
+    private final AtomicBoolean m_indexInitialized = new AtomicBoolean();
+
+    /** The maximum size of the cache in bytes. */
+    private long m_maxSize;
+
     /** The name of the cache base repository folder in the RFS. */
     private String m_rfsRepository;
 
+    /** The total size of all cache entries in bytes. */
+    private long m_totalSize;
+
     /**
-     * Creates a new disk cache.<p>
+     * Creates a new disk cache with the default maximum size.<p>
      *
      * @param basepath the base path for the cache in the RFS
      * @param foldername the folder name for this cache, to be used a subfolder for the base folder
      */
     public CmsExtractionResultCache(String basepath, String foldername) {
 
+        this(basepath, foldername, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new disk cache.<p>
+     *
+     * @param basepath the base path for the cache in the RFS
+     * @param foldername the folder name for this cache, to be used a subfolder for the base folder
+     * @param maxSize the maximum total size of the cache entries in bytes
+     */
+    public CmsExtractionResultCache(String basepath, String foldername, long maxSize) {
+
         // normalize the given folder name
         m_rfsRepository = CmsFileUtil.normalizePath(basepath + foldername + File.separatorChar);
+        if (!m_rfsRepository.endsWith(File.separator)) {
+            m_rfsRepository += File.separator;
+        }
+        m_maxSize = maxSize;
+        m_index = new LinkedHashMap<String, CmsCacheEntryInfo>(256, 0.75f, true);
     }
 
     /**
      * Removes all expired extraction result cache entries from the RFS cache.<p>
      *
+     * The entries to remove are looked up in the index, so the cache folders are not listed.<p>
+     *
      * @param maxAge the maximum age of the extraction result cache files in hours (or fractions of hours)
      *
      * @return the total number of deleted resources
      */
-    public synchronized int cleanCache(float maxAge) {
+    public int cleanCache(float maxAge) {
 
         // calculate oldest possible date for the cache files
         long expireDate = System.currentTimeMillis() - (long)(maxAge * 60.0f * 60.0f * 1000.0f);
-        File basedir = new File(m_rfsRepository);
-        // perform the cache cleanup
-        int count = 0;
-        if (basedir.canRead() && basedir.isDirectory()) {
-            File[] files = basedir.listFiles();
-            if (files != null) {
-                for (int i = 0; i < files.length; i++) {
-                    File f = files[i];
-                    if (f.canWrite()) {
-                        if (f.lastModified() < expireDate) {
-                            try {
-                                f.delete();
-                                count++;
-                            } catch (Exception e) {
-                                if (LOG.isWarnEnabled()) {
-                                    LOG.warn(
-                                        Messages.get().getBundle().key(
-                                            Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
-                                            f.getAbsolutePath()),
-                                        e);
-                                }
-                            }
-                        }
-                    }
+        List<String> expired = new ArrayList<String>();
+        initIndex();
+        synchronized (m_index) {
+            // the index is in access order, so the expired entries are at the beginning
+            Iterator<Map.Entry<String, CmsCacheEntryInfo>> it = m_index.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, CmsCacheEntryInfo> entry = it.next();
+                if (entry.getValue().m_lastAccess >= expireDate) {
+                    break;
                 }
+                m_totalSize -= entry.getValue().m_size;
+                expired.add(entry.getKey());
+                it.remove();
             }
         }
-        return count;
+        return deleteFiles(expired);
+    }
+
+    /**
+     * Returns the RFS name used for caching the text extraction result
+     * of the given content and locale.<p>
+     *
+     * @param content the content of the resource to generate the cache name for
+     * @param locale the locale to generate the cache name for (may be <code>null</code>)
+     * @param docTypeName the name of the search document type
+     *
+     * @return the RFS name to use for caching the text extraction result of the given content
+     */
+    public String getCacheName(byte[] content, Locale locale, String docTypeName) {
+
+        String hash = Hashing.sha256().hashBytes(content).toString();
+        StringBuffer buf = new StringBuffer(m_rfsRepository.length() + 96);
+        buf.append(m_rfsRepository);
+        buf.append(hash.substring(0, 2));
+        buf.append(File.separatorChar);
+        buf.append(hash);
+        if (docTypeName != null) {
+            buf.append('_');
+            buf.append(docTypeName);
+        }
+        if (locale != null) {
+            buf.append('_');
+            buf.append(locale.toString());
+        }
+        buf.append(ENTRY_SUFFIX);
+        return buf.toString();
     }
 
     /**
@@ -129,13 +225,15 @@ public class CmsExtractionResultCache {
      * @param docTypeName the name of the search document type
      *
      * @return the RFS name to use for caching the given VFS resource with parameters
+     *
+     * @deprecated use {@link #getCacheName(byte[], Locale, String)} so resources with the same content share an entry
      */
+    @Deprecated
     public String getCacheName(CmsResource resource, Locale locale, String docTypeName) {
 
         // create a StringBuffer for the result
         StringBuffer buf = new StringBuffer(m_rfsRepository.length() + 36);
         buf.append(m_rfsRepository);
-        buf.append('/');
         buf.append(resource.getResourceId().toString());
 
         if (docTypeName != null) {
@@ -155,7 +253,7 @@ public class CmsExtractionResultCache {
         buf.append(resource.getDateContent());
 
         // finally append the extension
-        buf.append(".ext");
+        buf.append(ENTRY_SUFFIX);
         return buf.toString();
     }
 
@@ -169,24 +267,53 @@ public class CmsExtractionResultCache {
      */
     public CmsExtractionResult getCacheObject(String rfsName) {
 
-        try {
-            File f = new File(rfsName);
-            if (f.exists()) {
-                long age = f.lastModified();
-                if ((System.currentTimeMillis() - age) > 3600000) {
-                    // file has not been touched for 1 hour, touch the file with the current date
-                    f.setLastModified(System.currentTimeMillis());
+        File f = new File(rfsName);
+        long now = System.currentTimeMillis();
+        initIndex();
+        synchronized (m_index) {
+            CmsCacheEntryInfo info = m_index.get(rfsName);
+            if (info == null) {
+                if (!f.exists()) {
+                    return null;
                 }
-                byte[] byteContent = CmsFileUtil.readFile(f);
-                return CmsExtractionResult.fromBytes(byteContent);
+                // the file was written by another process, e.g. another server sharing the cache folder
+                info = new CmsCacheEntryInfo(f.length(), now);
+                m_index.put(rfsName, info);
+                m_totalSize += info.m_size;
             }
+            info.m_lastAccess = now;
+        }
+        try {
+            if ((now - f.lastModified()) > TOUCH_INTERVAL) {
+                // file has not been touched for 1 hour, touch the file with the current date,
+                // so the access order survives a restart
+                f.setLastModified(now);
+            }
+            return CmsExtractionResult.fromBytes(uncompress(CmsFileUtil.readFile(f)));
         } catch (IOException e) {
-            // unable to read content
+            // unable to read content, may happen if the entry has just been removed
+            LOG.debug(e.getLocalizedMessage(), e);
+            synchronized (m_index) {
+                CmsCacheEntryInfo info = m_index.remove(rfsName);
+                if (info != null) {
+                    m_totalSize -= info.m_size;
+                }
+            }
         }
         // this code can be reached only in case of an error
         return null;
     }
 
+    /**
+     * Returns the maximum total size of the cache entries in bytes.<p>
+     *
+     * @return the maximum total size of the cache entries in bytes
+     */
+    public long getMaxSize() {
+
+        return m_maxSize;
+    }
+
     /**
      * Returns the absolute path of the cache repository in the RFS.<p>
      *
@@ -198,7 +325,22 @@ public class CmsExtractionResultCache {
     }
 
     /**
-     * Serializes the given extraction result and saves it in the disk cache.<p>
+     * Returns the total size of the cache entries in bytes.<p>
+     *
+     * @return the total size of the cache entries in bytes
+     */
+    public long getTotalSize() {
+
+        initIndex();
+        synchronized (m_index) {
+            return m_totalSize;
+        }
+    }
+
+    /**
+     * Serializes the given extraction result and saves it compressed in the disk cache.<p>
+     *
+     * If the cache grows larger than the maximum size, the least recently used entries are removed.<p>
      *
      * @param rfsName the RFS name of the file to save the extraction result in
      * @param content the extraction result to serialize and save
@@ -208,8 +350,145 @@ public class CmsExtractionResultCache {
     public void saveCacheObject(String rfsName, I_CmsExtractionResult content) throws IOException {
 
         byte[] byteContent = content.getBytes();
-        if (byteContent != null) {
-            CmsVfsDiskCache.saveFile(rfsName, byteContent);
+        if (byteContent == null) {
+            return;
+        }
+        byte[] compressed = compress(byteContent);
+        File f = new File(rfsName);
+        File folder = f.getParentFile();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        // concurrent threads may save the same entry, the atomic write ensures readers never see a partial file
+        CmsFileUtil.writeFileAtomically(f, compressed);
+        List<String> evicted = new ArrayList<String>();
+        initIndex();
+        synchronized (m_index) {
+            CmsCacheEntryInfo old = m_index.put(
+                rfsName,
+                new CmsCacheEntryInfo(compressed.length, System.currentTimeMillis()));
+            m_totalSize += compressed.length - (old != null ? old.m_size : 0);
+            Iterator<Map.Entry<String, CmsCacheEntryInfo>> it = m_index.entrySet().iterator();
+            while ((m_totalSize > m_maxSize) && it.hasNext()) {
+                Map.Entry<String, CmsCacheEntryInfo> entry = it.next();
+                if (entry.getKey().equals(rfsName)) {
+                    // never remove the entry just written
+                    continue;
+                }
+                m_totalSize -= entry.getValue().m_size;
+                evicted.add(entry.getKey());
+                it.remove();
+            }
         }
+        deleteFiles(evicted);
+    }
+
+    /**
+     * Collects the cache entries in the given folder and its sub folders.<p>
+     *
+     * @param folder the folder to collect the entries from
+     * @param path the RFS path of the folder, ending with a separator
+     * @param result the map to add the entries to, with their RFS names as keys
+     */
+    private void collectEntries(File folder, String path, Map<String, CmsCacheEntryInfo> result) {
+
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File f : files) {
+            if (f.isDirectory()) {
+                collectEntries(f, path + f.getName() + File.separatorChar, result);
+            } else if (f.getName().endsWith(ENTRY_SUFFIX)) {
+                result.put(path + f.getName(), new CmsCacheEntryInfo(f.length(), f.lastModified()));
+            }
+        }
+    }
+
+    /**
+     * Compresses the given bytes with GZIP.<p>
+     *
+     * @param content the bytes to compress
+     *
+     * @return the compressed bytes
+     *
+     * @throws IOException should never happen
+     */
+    private byte[] compress(byte[] content) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write(content);
+        gzip.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Deletes the given cache files.<p>
+     *
+     * @param rfsNames the RFS names of the files to delete
+     *
+     * @return the number of deleted files
+     */
+    private int deleteFiles(List<String> rfsNames) {
+
+        int count = 0;
+        for (String rfsName : rfsNames) {
+            File f = new File(rfsName);
+            if (f.delete() || !f.exists()) {
+                count++;
+            } else if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1, rfsName));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the index of the cache entries from the RFS, if this has not been done yet.<p>
+     *
+     * Only the first caller lists the cache folders, without holding the lock on the index. Other threads
+     * use the cache with the entries known so far in the meantime, the entries read from the RFS are merged
+     * into the index afterwards.<p>
+     */
+    private void initIndex() {
+
+        if (m_indexInitialized.get() || !m_indexInitialized.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, CmsCacheEntryInfo> entries = new HashMap<String, CmsCacheEntryInfo>();
+        collectEntries(new File(m_rfsRepository), m_rfsRepository, entries);
+        // the last modification date of the files reflects the last access up to one hour
+        List<Map.Entry<String, CmsCacheEntryInfo>> sorted = new ArrayList<Map.Entry<String, CmsCacheEntryInfo>>(
+            entries.entrySet());
+        Collections.sort(
+            sorted,
+            (a, b) -> Long.compare(a.getValue().m_lastAccess, b.getValue().m_lastAccess));
+        synchronized (m_index) {
+            // entries used while the folders were listed have been accessed after all entries read from the RFS
+            Map<String, CmsCacheEntryInfo> used = new LinkedHashMap<String, CmsCacheEntryInfo>(m_index);
+            m_index.clear();
+            for (Map.Entry<String, CmsCacheEntryInfo> entry : sorted) {
+                if (!used.containsKey(entry.getKey())) {
+                    m_index.put(entry.getKey(), entry.getValue());
+                    m_totalSize += entry.getValue().m_size;
+                }
+            }
+            m_index.putAll(used);
+        }
+    }
+
+    /**
+     * Uncompresses the given GZIP compressed bytes.<p>
+     *
+     * @param content the bytes read from a cache file
+     *
+     * @return the uncompressed bytes
+     *
+     * @throws IOException if the content can not be uncompressed
+     */
+    private byte[] uncompress(byte[] content) throws IOException {
+
+        return CmsFileUtil.readFully(new GZIPInputStream(new ByteArrayInputStream(content)));
     }
-}
\ No newline at end of file
+}
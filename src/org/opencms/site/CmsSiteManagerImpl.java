@@ -120,8 +120,8 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
      */
     public static final String PATH_SYSTEM_SHARED_FOLDER = "/system/shared/";
 
-    /** A list of additional site roots, that is site roots that are not below the "/sites/" folder. */
-    private List<String> m_additionalSiteRoots;
+    /** Index of the additional site roots, that is site roots that are not directly below the "/sites/" folder. */
+    private CmsSitePathIndex m_additionalSiteRoots;
 
     /**
      * The list of aliases for the site that is configured at the moment,
@@ -143,12 +143,12 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
     /** The shared folder name. */
     private String m_sharedFolder;
 
-    /** Contains all configured site matchers in a list for direct access. */
-    private List<CmsSiteMatcher> m_siteMatchers;
-
     /** Maps site matchers to sites. */
     private Map<CmsSiteMatcher, CmsSite> m_siteMatcherSites;
 
+    /** Maps the keys built by {@link #getMatcherKey(CmsSiteMatcher)} to the configured site matchers. */
+    private Map<String, CmsSiteMatcher> m_siteMatcherIndex;
+
     /** Maps site matchers to sites. */
     private Map<CmsSiteMatcher, Boolean> m_siteMatcherRedirect;
 
@@ -185,11 +185,10 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
      */
     public CmsSiteManagerImpl() {
 
-        m_siteMatcherSites = new HashMap<CmsSiteMatcher, CmsSite>();
-        m_siteRootSites = new HashMap<String, CmsSite>();
+        setSiteMatcherSites(new HashMap<CmsSiteMatcher, CmsSite>());
+        setSiteRootSites(new HashMap<String, CmsSite>());
         m_aliases = new ArrayList<CmsSiteMatcher>();
         m_siteParams = new TreeMap<String, String>();
-        m_additionalSiteRoots = new ArrayList<String>();
         m_workplaceServers = new LinkedHashMap<String, CmsSSLMode>();
         m_workplaceMatchers = new ArrayList<CmsSiteMatcher>();
         m_oldStyleSecureServer = true;
@@ -376,8 +375,9 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         m_aliases = new ArrayList<CmsSiteMatcher>();
         site.setParameters(m_siteParams);
         m_siteParams = new TreeMap<String, String>();
-        m_siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
-        m_siteRootSites.put(site.getSiteRoot(), site);
+        Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
+        siteRootSites.put(site.getSiteRoot(), site);
+        setSiteRootSites(siteRootSites);
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SITE_ROOT_ADDED_1, site.toString()));
         }
@@ -1171,13 +1171,6 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
             // set site lists to unmodifiable
             setSiteMatcherSites(m_siteMatcherSites);
 
-            // store additional site roots to optimize lookups later
-            for (String root : m_siteRootSites.keySet()) {
-                if (!root.startsWith(SITES_FOLDER) || (root.split("/").length >= 4)) {
-                    m_additionalSiteRoots.add(root);
-                }
-            }
-
             if (m_sharedFolder == null) {
                 m_sharedFolder = DEFAULT_SHARED_FOLDER;
             }
@@ -1431,7 +1424,7 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         // remove the site from the map holding the site roots as keys and the sites as values
         Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
         siteRootSites.remove(site.getSiteRoot());
-        m_siteRootSites = Collections.unmodifiableMap(siteRootSites);
+        setSiteRootSites(siteRootSites);
 
         // re-initialize, will freeze the state when finished
         initialize(cms);
@@ -1697,6 +1690,24 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
         return null;
     }
 
+    /**
+     * Returns the key of the given site matcher in the site matcher index.<p>
+     *
+     * Two site matchers which are equal have the same key, since the server name is compared case insensitive.<p>
+     *
+     * @param matcher the site matcher
+     *
+     * @return the key of the site matcher
+     */
+    private String getMatcherKey(CmsSiteMatcher matcher) {
+
+        return matcher.getServerProtocol()
+            + "://"
+            + matcher.getServerName().toLowerCase()
+            + ":"
+            + matcher.getServerPort();
+    }
+
     /**
      * Returns the site matcher for the given request.<p>
      *
@@ -1708,11 +1719,11 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
 
         CmsSiteMatcher matcher = new CmsSiteMatcher(req.getScheme(), req.getServerName(), req.getServerPort());
         // this is required to get the right configured time offset
-        int index = m_siteMatchers.indexOf(matcher);
-        if (index < 0) {
+        CmsSiteMatcher configured = m_siteMatcherIndex.get(getMatcherKey(matcher));
+        if (configured == null) {
             return matcher;
         }
-        return m_siteMatchers.get(index);
+        return configured;
     }
 
     /**
@@ -1765,13 +1776,7 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
      */
     private String lookupAdditionalSite(String rootPath) {
 
-        for (int i = 0, size = m_additionalSiteRoots.size(); i < size; i++) {
-            String siteRoot = m_additionalSiteRoots.get(i);
-            if (rootPath.startsWith(siteRoot + "/")) {
-                return siteRoot;
-            }
-        }
-        return null;
+        return m_additionalSiteRoots.getSiteRoot(rootPath);
     }
 
     /**
@@ -1795,14 +1800,36 @@ public final class CmsSiteManagerImpl implements I_CmsEventListener {
     }
 
     /**
-     * Sets the class member variables {@link #m_siteMatcherSites} and  {@link #m_siteMatchers}
+     * Sets the class member variables {@link #m_siteMatcherSites} and {@link #m_siteMatcherIndex}
      * from the provided map of configured site matchers.<p>
      *
      * @param siteMatcherSites the site matches to set
      */
     private void setSiteMatcherSites(Map<CmsSiteMatcher, CmsSite> siteMatcherSites) {
 
+        Map<String, CmsSiteMatcher> siteMatcherIndex = new HashMap<String, CmsSiteMatcher>();
+        for (CmsSiteMatcher matcher : siteMatcherSites.keySet()) {
+            siteMatcherIndex.put(getMatcherKey(matcher), matcher);
+        }
+        m_siteMatcherIndex = Collections.unmodifiableMap(siteMatcherIndex);
         m_siteMatcherSites = Collections.unmodifiableMap(siteMatcherSites);
-        m_siteMatchers = Collections.unmodifiableList(new ArrayList<CmsSiteMatcher>(m_siteMatcherSites.keySet()));
+    }
+
+    /**
+     * Sets the class member variables {@link #m_siteRootSites} and {@link #m_additionalSiteRoots}
+     * from the provided map of configured site roots.<p>
+     *
+     * @param siteRootSites the site roots to set
+     */
+    private void setSiteRootSites(Map<String, CmsSite> siteRootSites) {
+
+        List<String> additionalSiteRoots = new ArrayList<String>();
+        for (String root : siteRootSites.keySet()) {
+            if (!root.startsWith(SITES_FOLDER) || (root.split("/").length >= 4)) {
+                additionalSiteRoots.add(root);
+            }
+        }
+        m_additionalSiteRoots = new CmsSitePathIndex(additionalSiteRoots);
+        m_siteRootSites = Collections.unmodifiableMap(siteRootSites);
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.site;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index for looking up the site root which contains a given root path.<p>
+ *
+ * The site roots are stored in a trie of folder names, so a lookup only depends on the depth of
+ * the root path and not on the number of indexed site roots. If several site roots contain a
+ * root path, the longest one is returned.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsSitePathIndex {
+
+    /**
+     * A node of the trie, representing one folder.<p>
+     */
+    private static class Node {
+
+        /** The child nodes, by folder name. */
+        private Map<String, Node> m_children = new HashMap<String, Node>(4);
+
+        /** The site root of this folder, or null if the folder is no indexed site root. */
+        private String m_siteRoot;
+    }
+
+    /** The root node of the trie. */
+    private final Node m_root = new Node();
+
+    /**
+     * Creates a new index for the given site roots.<p>
+     *
+     * Site roots must have the form <code>/sites/default</code>, with a leading, but no trailing slash.
+     * The empty site root of a site mapped to "/" contains all root paths.
+     * Other values can never contain a root path and are ignored.<p>
+     *
+     * @param siteRoots the site roots to index
+     */
+    public CmsSitePathIndex(Collection<String> siteRoots) {
+
+        for (String siteRoot : siteRoots) {
+            add(siteRoot);
+        }
+    }
+
+    /**
+     * Returns the longest indexed site root which contains the given root path.<p>
+     *
+     * A site root contains the root path if the root path starts with the site root followed by a slash.
+     * So the root path of a site root folder itself has to end with a slash to be found.<p>
+     *
+     * @param rootPath the root path to look up
+     *
+     * @return the site root, or <code>null</code> if no indexed site root contains the root path
+     */
+    public String getSiteRoot(String rootPath) {
+
+        if (!rootPath.startsWith("/")) {
+            return null;
+        }
+        Node node = m_root;
+        String result = node.m_siteRoot;
+        int start = 1;
+        int end = rootPath.indexOf('/', start);
+        while (end > start) {
+            node = node.m_children.get(rootPath.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.m_siteRoot != null) {
+                result = node.m_siteRoot;
+            }
+            start = end + 1;
+            end = rootPath.indexOf('/', start);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a site root to the trie.<p>
+     *
+     * @param siteRoot the site root to add
+     */
+    private void add(String siteRoot) {
+
+        if ("".equals(siteRoot)) {
+            m_root.m_siteRoot = siteRoot;
+            return;
+        }
+        if ((siteRoot == null) || !siteRoot.startsWith("/") || siteRoot.endsWith("/")) {
+            return;
+        }
+        String[] names = siteRoot.substring(1).split("/");
+        for (String name : names) {
+            if (name.length() == 0) {
+                return;
+            }
+        }
+        Node node = m_root;
+        for (String name : names) {
+            Node child = node.m_children.get(name);
+            if (child == null) {
+                child = new Node();
+                node.m_children.put(name, child);
+            }
+            node = child;
+        }
+        node.m_siteRoot = siteRoot;
+    }
+}
@@ -77,13 +77,8 @@ public class CmsUpdateXmlSitemapCacheJob implements I_CmsScheduledJob {
                 }
                 CmsXmlSeoConfiguration config = new CmsXmlSeoConfiguration();
                 config.load(cms, res);
-                CmsXmlSitemapGenerator generator = null;
-                if (config.usesCache()) {
-                    generator = CmsXmlSitemapActionElement.prepareSitemapGenerator(res, config);
-                }
-                if (generator != null) {
-                    String xml = generator.renderSitemap();
-                    CmsXmlSitemapCache.INSTANCE.put(res.getRootPath(), xml);
+                if (config.usesCache() && config.isXmlSitemapMode()) {
+                    CmsXmlSitemapActionElement.updateCache(cms, res, config);
                 } else {
                     LOG.info("Ignoring file " + res.getRootPath());
                 }
@@ -38,6 +38,8 @@ import org.opencms.main.OpenCms;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.util.List;
 
@@ -52,6 +54,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsXmlSitemapActionElement extends CmsJspActionElement {
 
+    /** Request parameter name for the page of a sitemap split into multiple files. */
+    public static final String PARAM_PAGE = "page";
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlSitemapActionElement.class);
 
@@ -141,6 +146,44 @@ public class CmsXmlSitemapActionElement extends CmsJspActionElement {
         return null;
     }
 
+    /**
+     * Generates the sitemap for the given configuration file and stores it in the cache.<p>
+     *
+     * If the sitemap has more than {@link CmsXmlSitemapGenerator#MAX_ENTRIES_PER_SITEMAP} entries,
+     * the sitemap index and every page are stored as separate cache entries.<p>
+     *
+     * @param cms the current CMS context
+     * @param seoFile the sitemap configuration file
+     * @param config the parsed configuration
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public static void updateCache(CmsObject cms, CmsResource seoFile, CmsXmlSeoConfiguration config)
+    throws CmsException {
+
+        CmsXmlSitemapGenerator generator = prepareSitemapGenerator(seoFile, config);
+        if (generator == null) {
+            return;
+        }
+        List<CmsXmlSitemapUrlBean> urlBeans = generator.generateSitemapBeans();
+        String sitemapLink = getSitemapLink(cms, seoFile, config);
+        int pageCount = CmsXmlSitemapGenerator.getSitemapPageCount(urlBeans.size());
+        // page 0 is the complete sitemap or the sitemap index, the other pages only exist for split sitemaps
+        int lastPage = pageCount > 1 ? pageCount : 0;
+        for (int page = 0; page <= lastPage; page++) {
+            StringWriter writer = new StringWriter();
+            try {
+                generator.writeSitemap(writer, urlBeans, page, sitemapLink);
+            } catch (IOException e) {
+                // can not happen when writing to a string
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            CmsXmlSitemapCache.INSTANCE.put(CmsXmlSitemapCache.getKey(seoFile.getRootPath(), page), writer.toString());
+        }
+        // remove the pages of the previous version if the sitemap got smaller
+        CmsXmlSitemapCache.INSTANCE.removePages(seoFile.getRootPath(), lastPage + 1);
+    }
+
     /**
      * Displays either the generated sitemap.xml or the generated robots.txt, depending on the configuration.<p>
      *
@@ -158,34 +201,66 @@ public class CmsXmlSitemapActionElement extends CmsJspActionElement {
             showRobotsTxt();
         } else {
             boolean updateCache = Boolean.parseBoolean(getRequest().getParameter("updateCache"));
+            int page = 0;
+            String pageParam = getRequest().getParameter(PARAM_PAGE);
+            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(pageParam)) {
+                try {
+                    page = Integer.parseInt(pageParam.trim());
+                } catch (NumberFormatException e) {
+                    LOG.info("Invalid sitemap page " + pageParam);
+                }
+            }
+            String cacheKey = CmsXmlSitemapCache.getKey(seoFile.getRootPath(), page);
             String value = "";
             if (updateCache && m_configuration.usesCache()) {
                 // update request, and caching is configured -> update the cache
-                CmsXmlSitemapGenerator generator = prepareSitemapGenerator(seoFile, m_configuration);
-                value = generator.renderSitemap();
-                CmsXmlSitemapCache.INSTANCE.put(seoFile.getRootPath(), value);
+                updateCache(cms, seoFile, m_configuration);
+                value = CmsXmlSitemapCache.INSTANCE.get(cacheKey);
             } else if (!updateCache && m_configuration.usesCache()) {
                 // normal request, and caching is configured -> look in the cache first, and if not found, calculate sitemap and store it in cache
-                String cachedValue = CmsXmlSitemapCache.INSTANCE.get(seoFile.getRootPath());
-                if (cachedValue != null) {
-                    value = cachedValue;
-                } else {
-                    CmsXmlSitemapGenerator generator = prepareSitemapGenerator(seoFile, m_configuration);
-                    value = generator.renderSitemap();
-                    CmsXmlSitemapCache.INSTANCE.put(seoFile.getRootPath(), value);
+                value = CmsXmlSitemapCache.INSTANCE.get(cacheKey);
+                if (value == null) {
+                    updateCache(cms, seoFile, m_configuration);
+                    value = CmsXmlSitemapCache.INSTANCE.get(cacheKey);
                 }
             } else if (!updateCache && !m_configuration.usesCache()) {
-                // normal request, caching is not configured -> always generate a fresh sitemap
+                // normal request, caching is not configured -> always generate a fresh sitemap, directly to the response
                 CmsXmlSitemapGenerator generator = prepareSitemapGenerator(seoFile, m_configuration);
-                value = generator.renderSitemap();
+                generator.writeSitemap(
+                    getResponse().getWriter(),
+                    generator.generateSitemapBeans(),
+                    page,
+                    getSitemapLink(cms, seoFile, m_configuration));
             } else if (updateCache && !m_configuration.usesCache()) {
                 // update request with no caching configured -> ignore
             }
-            getResponse().getWriter().print(value);
+            if ((value == null) && (page > 0)) {
+                // page does not exist (anymore), show the sitemap index instead
+                value = CmsXmlSitemapCache.INSTANCE.get(CmsXmlSitemapCache.getKey(seoFile.getRootPath(), 0));
+            }
+            if (value != null) {
+                getResponse().getWriter().print(value);
+            }
         }
 
     }
 
+    /**
+     * Gets the public link to the given sitemap configuration file.<p>
+     *
+     * @param cms the current CMS context
+     * @param seoFile the sitemap configuration file
+     * @param config the parsed configuration
+     *
+     * @return the link to the sitemap
+     */
+    private static String getSitemapLink(CmsObject cms, CmsResource seoFile, CmsXmlSeoConfiguration config) {
+
+        return CmsXmlSitemapGenerator.replaceServerUri(
+            OpenCms.getLinkManager().getOnlineLink(cms, cms.getSitePath(seoFile)),
+            config.getServerUrl());
+    }
+
     /**
      * Renders the robots.txt data containing the sitemaps automatically.<p>
      *
@@ -28,31 +28,101 @@
 package org.opencms.site.xmlsitemap;
 
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsFileUtil;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+
 /**
  * Cache for XML sitemaps.<p>
+ *
+ * Cached sitemaps are stored in the RFS, so they survive a restart and do not need to be kept in memory.
+ * Only the most recently used sitemaps are additionally kept in memory, up to a maximum total size.<p>
  */
 public class CmsXmlSitemapCache {
 
+    /** The maximum total number of characters of the sitemaps kept in memory. */
+    public static final long MAX_MEMORY_CHARS = 16 * 1024 * 1024;
+
+    /** The name of the RFS folder (relative to WEB-INF) in which the cached sitemaps are stored. */
+    public static final String RFS_FOLDER = "xmlsitemapcache";
+
     /** The logger for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlSitemapCache.class);
 
     /** Static instance for this class. */
     public static final CmsXmlSitemapCache INSTANCE = new CmsXmlSitemapCache();
 
-    /** The map for storing the cached sitemaps. */
-    private ConcurrentHashMap<String, String> m_cache = new ConcurrentHashMap<String, String>();
+    /** The in-memory cache for the most recently used sitemaps. */
+    private Cache<String, String> m_cache = CacheBuilder.newBuilder().maximumWeight(MAX_MEMORY_CHARS).weigher(
+        new Weigher<String, String>() {
+
+            public int weigh(String key, String value) {
+
+                return value.length();
+            }
+        }).build();
+
+    /** The RFS folder for the cached sitemaps, lazily initialized. */
+    private File m_rfsFolder;
+
+    /**
+     * Creates a new cache which stores the sitemaps in the RFS folder of the OpenCms installation.<p>
+     */
+    public CmsXmlSitemapCache() {
+
+        // the RFS folder is initialized when it is first used
+    }
+
+    /**
+     * Creates a new cache which stores the sitemaps in the given RFS folder.<p>
+     *
+     * @param rfsFolder the RFS folder for the cached sitemaps
+     */
+    CmsXmlSitemapCache(File rfsFolder) {
+
+        m_rfsFolder = rfsFolder;
+    }
+
+    /**
+     * Gets the cache key for a page of a sitemap.<p>
+     *
+     * @param rootPath the root path of the sitemap.xml file
+     * @param page the page of the sitemap, or 0 for the complete sitemap / the sitemap index
+     *
+     * @return the cache key
+     */
+    public static String getKey(String rootPath, int page) {
+
+        return page > 0 ? rootPath + "?" + CmsXmlSitemapActionElement.PARAM_PAGE + "=" + page : rootPath;
+    }
 
     /**
      * Clears the cache.<p>
      */
     public void clear() {
 
-        m_cache.clear();
+        m_cache.invalidateAll();
+        File folder = getRfsFolder();
+        if (folder != null) {
+            File[] files = folder.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (!file.delete()) {
+                        LOG.warn("Could not delete cached sitemap " + file.getAbsolutePath());
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -63,7 +133,48 @@ public class CmsXmlSitemapCache {
      */
     public String get(String key) {
 
-        return m_cache.get(key);
+        String value = m_cache.getIfPresent(key);
+        if (value == null) {
+            File file = getRfsFile(key);
+            if ((file != null) && file.exists()) {
+                try {
+                    value = new String(CmsFileUtil.readFile(file), StandardCharsets.UTF_8);
+                    m_cache.put(key, value);
+                } catch (IOException e) {
+                    LOG.warn("Could not read cached sitemap " + file.getAbsolutePath(), e);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the pages of a split sitemap starting with the given page, from memory and from the RFS.<p>
+     *
+     * This is used when a sitemap has fewer pages than before, so pages which don't exist anymore are not served.
+     * The pages of a sitemap are numbered without gaps, so the pages are removed until a page is not found.<p>
+     *
+     * @param rootPath the root path of the sitemap.xml file
+     * @param firstPage the first page to remove
+     */
+    public void removePages(String rootPath, int firstPage) {
+
+        for (int page = Math.max(firstPage, 1);; page++) {
+            String key = getKey(rootPath, page);
+            boolean found = m_cache.getIfPresent(key) != null;
+            m_cache.invalidate(key);
+            File file = getRfsFile(key);
+            if ((file != null) && file.exists()) {
+                found = true;
+                if (!file.delete()) {
+                    LOG.warn("Could not delete cached sitemap " + file.getAbsolutePath());
+                }
+            }
+            if (!found) {
+                break;
+            }
+            LOG.info("Removed cached sitemap for key " + key);
+        }
     }
 
     /**
@@ -76,6 +187,49 @@ public class CmsXmlSitemapCache {
 
         LOG.info("Caching sitemap for key " + key + ", size = " + value.length());
         m_cache.put(key, value);
+        File file = getRfsFile(key);
+        if (file != null) {
+            try {
+                // readers never see a partially written sitemap, and concurrent writers use separate temporary files
+                CmsFileUtil.writeFileAtomically(file, value.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                LOG.warn("Could not write cached sitemap " + file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Gets the RFS file for the given cache key.<p>
+     *
+     * @param key the cache key
+     *
+     * @return the RFS file, or null if the RFS folder is not available
+     */
+    private File getRfsFile(String key) {
+
+        File folder = getRfsFolder();
+        if (folder == null) {
+            return null;
+        }
+        return new File(folder, Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + ".xml");
+    }
+
+    /**
+     * Gets the RFS folder for the cached sitemaps, creating it if necessary.<p>
+     *
+     * @return the RFS folder, or null if it is not available
+     */
+    private synchronized File getRfsFolder() {
+
+        if ((m_rfsFolder == null) && (OpenCms.getSystemInfo() != null)) {
+            File folder = new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(RFS_FOLDER));
+            if (folder.isDirectory() || folder.mkdirs()) {
+                m_rfsFolder = folder;
+            } else {
+                LOG.warn("Could not create sitemap cache folder " + folder.getAbsolutePath());
+            }
+        }
+        return m_rfsFolder;
     }
 
 }
@@ -39,6 +39,7 @@ import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.gwt.shared.alias.CmsAliasMode;
+import org.opencms.i18n.CmsEncoder;
 import org.opencms.jsp.CmsJspNavBuilder;
 import org.opencms.jsp.CmsJspNavElement;
 import org.opencms.loader.CmsLoaderException;
@@ -54,6 +55,9 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -133,6 +137,9 @@ public class CmsXmlSitemapGenerator {
     /** The default priority. */
     public static final double DEFAULT_PRIORITY = 0.5;
 
+    /** The maximum number of URL entries in a single sitemap file, as defined by the sitemap protocol. */
+    public static final int MAX_ENTRIES_PER_SITEMAP = 50000;
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsXmlSitemapGenerator.class);
 
@@ -232,6 +239,18 @@ public class CmsXmlSitemapGenerator {
 
     }
 
+    /**
+     * Gets the number of sitemap files needed for the given number of entries.<p>
+     *
+     * @param entryCount the number of URL entries
+     *
+     * @return the number of sitemap files
+     */
+    public static int getSitemapPageCount(int entryCount) {
+
+        return Math.max(1, ((entryCount + MAX_ENTRIES_PER_SITEMAP) - 1) / MAX_ENTRIES_PER_SITEMAP);
+    }
+
     /**
      * Gets the change frequency for a sitemap entry from a list of properties.<p>
      *
@@ -357,16 +376,45 @@ public class CmsXmlSitemapGenerator {
      */
     public String renderSitemap() throws CmsException {
 
-        StringBuffer buffer = new StringBuffer();
-        List<CmsXmlSitemapUrlBean> urlBeans = generateSitemapBeans();
-        buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        buffer.append(getUrlSetOpenTag() + "\n");
-        for (CmsXmlSitemapUrlBean bean : urlBeans) {
-            buffer.append(getXmlForEntry(bean));
-            buffer.append("\n");
+        StringWriter writer = new StringWriter();
+        try {
+            writeUrlSet(writer, generateSitemapBeans());
+        } catch (IOException e) {
+            // can not happen when writing to a string
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes a part of the sitemap for the given URL beans to a writer.<p>
+     *
+     * If there are no more than {@link #MAX_ENTRIES_PER_SITEMAP} entries, the complete sitemap is written and the page is ignored.
+     * Otherwise, page 0 writes a sitemap index referencing the individual pages as <code>sitemapLink?page=N</code>,
+     * and the pages 1 to N write the entries of the corresponding slice.<p>
+     *
+     * The entries are written directly to the writer, so no string containing the whole sitemap needs to be built.<p>
+     *
+     * @param out the writer to write to
+     * @param urlBeans the URL beans, as returned by {@link #generateSitemapBeans()}
+     * @param page the page to write, or 0 for the sitemap index
+     * @param sitemapLink the link to the sitemap, used for the sitemap index
+     *
+     * @throws IOException if writing fails
+     */
+    public void writeSitemap(Writer out, List<CmsXmlSitemapUrlBean> urlBeans, int page, String sitemapLink)
+    throws IOException {
+
+        int pageCount = getSitemapPageCount(urlBeans.size());
+        if (pageCount == 1) {
+            writeUrlSet(out, urlBeans);
+        } else if ((page < 1) || (page > pageCount)) {
+            writeSitemapIndex(out, sitemapLink, pageCount);
+        } else {
+            int start = (page - 1) * MAX_ENTRIES_PER_SITEMAP;
+            int end = Math.min(urlBeans.size(), start + MAX_ENTRIES_PER_SITEMAP);
+            writeUrlSet(out, urlBeans.subList(start, end));
         }
-        buffer.append("</urlset>");
-        return buffer.toString();
     }
 
     /**
@@ -662,6 +710,47 @@ public class CmsXmlSitemapGenerator {
         return buffer.toString();
     }
 
+    /**
+     * Writes a sitemap index referencing the given number of sitemap pages.<p>
+     *
+     * @param out the writer to write to
+     * @param sitemapLink the link to the sitemap
+     * @param pageCount the number of sitemap pages
+     *
+     * @throws IOException if writing fails
+     */
+    protected void writeSitemapIndex(Writer out, String sitemapLink, int pageCount) throws IOException {
+
+        String separator = sitemapLink.contains("?") ? "&" : "?";
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        for (int i = 1; i <= pageCount; i++) {
+            out.write("<sitemap><loc>");
+            out.write(CmsEncoder.escapeXml(sitemapLink + separator + CmsXmlSitemapActionElement.PARAM_PAGE + "=" + i));
+            out.write("</loc></sitemap>\n");
+        }
+        out.write("</sitemapindex>");
+    }
+
+    /**
+     * Writes an urlset element containing the given entries.<p>
+     *
+     * @param out the writer to write to
+     * @param urlBeans the entries to write
+     *
+     * @throws IOException if writing fails
+     */
+    protected void writeUrlSet(Writer out, List<CmsXmlSitemapUrlBean> urlBeans) throws IOException {
+
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write(getUrlSetOpenTag() + "\n");
+        for (CmsXmlSitemapUrlBean bean : urlBeans) {
+            out.write(getXmlForEntry(bean));
+            out.write("\n");
+        }
+        out.write("</urlset>");
+    }
+
     /**
      * Checks whether the given alias is below the base folder.<p>
      *
@@ -51,17 +51,38 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 
 /**
  * Implementation for the <code>{@link I_CmsStaticExportHandler}</code> interface.<p>
@@ -74,6 +95,49 @@ import org.apache.commons.logging.Log;
  */
 public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler {
 
+    /**
+     * Task exporting a template resource together with its detail pages.<p>
+     *
+     * The result of the task is the status of the last request as <code>Integer</code>,
+     * or the <code>IOException</code> the export failed with.<p>
+     */
+    private class CmsTemplateExportTask implements Callable<Object> {
+
+        /** The HTTP client to use. */
+        private CloseableHttpClient m_client;
+
+        /** The export data, the resource itself comes last. */
+        private List<CmsStaticExportData> m_exportData;
+
+        /**
+         * Creates a new export task.<p>
+         *
+         * @param client the HTTP client to use
+         * @param exportData the export data, the resource itself comes last
+         */
+        CmsTemplateExportTask(CloseableHttpClient client, List<CmsStaticExportData> exportData) {
+
+            m_client = client;
+            m_exportData = exportData;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Object call() {
+
+            Integer status = null;
+            try {
+                for (CmsStaticExportData data : m_exportData) {
+                    status = Integer.valueOf(exportTemplateResource(m_client, data));
+                }
+            } catch (IOException e) {
+                return e;
+            }
+            return status;
+        }
+    }
+
     /** Header field set-cookie constant. */
     private static final String HEADER_FIELD_SET_COOKIE = "Set-Cookie";
 
@@ -232,6 +296,26 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
         }
     }
 
+    /**
+     * Creates the HTTP client used for requesting template resources from the server.<p>
+     *
+     * The client keeps up to the given number of connections alive for reuse, does not follow redirects and
+     * shares the cookies, and thereby the session, between all requests.<p>
+     *
+     * @param connections the maximum number of concurrent connections
+     *
+     * @return the HTTP client, to be closed by the caller
+     */
+    protected CloseableHttpClient createExportClient(int connections) {
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        return HttpClients.custom().setConnectionManager(connectionManager).setDefaultCookieStore(
+            new BasicCookieStore()).setDefaultRequestConfig(
+                RequestConfig.custom().setRedirectsEnabled(false).build()).build();
+    }
+
     /**
      * Starts the static export on publish.<p>
      *
@@ -499,6 +583,67 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     //        return HttpServletResponse.SC_SEE_OTHER;
     //    }
 
+    /**
+     * Exports a single (template) resource specified by its export data using the given HTTP client.<p>
+     *
+     * The response is consumed completely, so the connection is returned to the pool of the client and kept alive
+     * for the next request.<p>
+     *
+     * @param client the HTTP client to use
+     * @param data the export data
+     *
+     * @return the status of the http request used to perform the export
+     *
+     * @throws IOException if the http request fails
+     */
+    protected int exportTemplateResource(CloseableHttpClient client, CmsStaticExportData data) throws IOException {
+
+        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        String rfsName = data.getRfsName();
+        String exportUrlStr = getTemplateExportUrl(data);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_SENDING_REQUEST_2, rfsName, exportUrlStr));
+        }
+        HttpGet request = new HttpGet(exportUrlStr);
+        // add special export header
+        request.setHeader(CmsRequestUtil.HEADER_OPENCMS_EXPORT, CmsStringUtil.TRUE);
+        // add additional headers if available
+        if (manager.getAcceptLanguageHeader() != null) {
+            request.setHeader(CmsRequestUtil.HEADER_ACCEPT_LANGUAGE, manager.getAcceptLanguageHeader());
+        } else {
+            request.setHeader(CmsRequestUtil.HEADER_ACCEPT_LANGUAGE, manager.getDefaultAcceptLanguageHeader());
+        }
+        if (manager.getAcceptCharsetHeader() != null) {
+            request.setHeader(CmsRequestUtil.HEADER_ACCEPT_CHARSET, manager.getAcceptCharsetHeader());
+        } else {
+            request.setHeader(CmsRequestUtil.HEADER_ACCEPT_CHARSET, manager.getDefaultAcceptCharsetHeader());
+        }
+        // get the last modified date and add it to the request
+        long dateLastModified = getTemplateExportDateLastModified(data);
+        if (dateLastModified > 0) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(new Date(dateLastModified)));
+        }
+
+        // now perform the request, the cookie store of the client keeps the session
+        CloseableHttpResponse response = client.execute(request);
+        int status;
+        try {
+            status = response.getStatusLine().getStatusCode();
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            response.close();
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(
+                Messages.get().getBundle().key(
+                    Messages.LOG_REQUEST_RESULT_3,
+                    rfsName,
+                    exportUrlStr,
+                    new Integer(status)));
+        }
+        return status;
+    }
+
     /**
      * Exports a single (template) resource specified by its export data.<p>
      *
@@ -508,20 +653,16 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
      * @return the status of the http request used to perform the export
      *
      * @throws IOException if the http request fails
+     *
+     * @deprecated use {@link #exportTemplateResource(CloseableHttpClient, CmsStaticExportData)} with a pooled client instead
      */
+    @Deprecated
     protected int exportTemplateResource(CmsStaticExportData data, StringBuffer cookies) throws IOException {
 
-        String vfsName = data.getVfsName();
         String rfsName = data.getRfsName();
         CmsStaticExportManager manager = OpenCms.getStaticExportManager();
 
-        String exportUrlStr;
-        if (rfsName.contains(manager.getRfsPrefix(vfsName))) {
-            LOG.info("rfsName " + rfsName + " contains rfsPrefix " + manager.getRfsPrefix(vfsName));
-            exportUrlStr = manager.getExportUrl() + rfsName;
-        } else {
-            exportUrlStr = manager.getExportUrl() + manager.getRfsPrefix(vfsName) + rfsName;
-        }
+        String exportUrlStr = getTemplateExportUrl(data);
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_SENDING_REQUEST_2, rfsName, exportUrlStr));
         }
@@ -546,32 +687,7 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
         }
 
         // get the last modified date and add it to the request
-        String exportFileName = CmsFileUtil.normalizePath(manager.getExportPath(vfsName) + rfsName);
-        File exportFile = new File(exportFileName);
-        long dateLastModified = exportFile.lastModified();
-        // system folder case
-        if (vfsName.startsWith(CmsWorkplace.VFS_PATH_SYSTEM) || OpenCms.getSiteManager().startsWithShared(vfsName)) {
-            // iterate over all rules
-            Iterator<CmsStaticExportRfsRule> it = manager.getRfsRules().iterator();
-            while (it.hasNext()) {
-                CmsStaticExportRfsRule rule = it.next();
-                if (rule.match(vfsName)) {
-                    exportFileName = CmsFileUtil.normalizePath(rule.getExportPath() + rfsName);
-                    exportFile = new File(exportFileName);
-                    if (dateLastModified > exportFile.lastModified()) {
-                        dateLastModified = exportFile.lastModified();
-                    }
-                }
-            }
-        }
-        urlcon.setIfModifiedSince(dateLastModified);
-        if (LOG.isDebugEnabled()) {
-            LOG.debug(
-                Messages.get().getBundle().key(
-                    Messages.LOG_IF_MODIFIED_SINCE_SET_2,
-                    exportFile.getName(),
-                    new Long((dateLastModified / 1000) * 1000)));
-        }
+        urlcon.setIfModifiedSince(getTemplateExportDateLastModified(data));
         if (cookies.length() > 0) {
             // set the cookies, included the session id to keep the same session
             urlcon.setRequestProperty(REQUEST_PROPERTY_COOKIE, cookies.toString());
@@ -603,6 +719,11 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     /**
      * Exports all template resources found in a list of published resources.<p>
      *
+     * The resources are requested from the server by a pool of worker threads, see
+     * {@link CmsStaticExportManager#getExportThreads()}, sharing a HTTP client with keep-alive connections.
+     * Every RFS name is requested only once, even if it is reached both directly and as detail page.
+     * The first request is performed alone, so that all following requests share its session.<p>
+     *
      * @param cms the cms context, in the root site as Export user
      * @param publishedTemplateResources list of potential candidates to export
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file
@@ -611,7 +732,6 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         CmsStaticExportManager manager = OpenCms.getStaticExportManager();
         int size = publishedTemplateResources.size();
-        int count = 1;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_EXPORT_TEMPLATES_1, new Integer(size)));
@@ -620,92 +740,103 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
-        StringBuffer cookies = new StringBuffer();
-        // now loop through all of them and request them from the server
-        Iterator<String> i = publishedTemplateResources.iterator();
-        while (i.hasNext()) {
-            String rfsName = i.next();
-            CmsStaticExportData data = null;
-            try {
-                data = manager.getVfsNameInternal(cms, rfsName);
-            } catch (CmsVfsResourceNotFoundException e) {
-                String rfsBaseName = rfsName;
-                int pos = rfsName.lastIndexOf('_');
-                if (pos >= 0) {
-                    rfsBaseName = rfsName.substring(0, pos);
-                }
-                try {
-                    data = manager.getVfsNameInternal(cms, rfsBaseName);
-                } catch (CmsVfsResourceNotFoundException e2) {
-                    if (LOG.isInfoEnabled()) {
-                        LOG.info(
-                            Messages.get().getBundle().key(
-                                Messages.LOG_NO_INTERNAL_VFS_RESOURCE_FOUND_1,
-                                new String[] {rfsName}));
-                    }
-                }
+        // collect the export data first, since the cms context must not be shared with the worker threads
+        Map<String, List<CmsStaticExportData>> exports = new LinkedHashMap<String, List<CmsStaticExportData>>();
+        Set<String> scheduledRfsNames = new HashSet<String>();
+        for (String rfsName : publishedTemplateResources) {
+            if (!scheduledRfsNames.add(rfsName)) {
+                // already exported as detail page of another resource
+                continue;
             }
-            if (data != null) {
-                data.setRfsName(rfsName);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        new Integer(count++),
-                        new Integer(size)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-                report.print(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, rfsName));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            } else {
+            CmsStaticExportData data = readTemplateExportData(cms, manager, rfsName);
+            if (data == null) {
                 // no valid resource found for rfs name (already deleted), skip it
                 continue;
             }
-
+            data.setRfsName(rfsName);
+            List<CmsStaticExportData> dataList = new ArrayList<CmsStaticExportData>();
             try {
-                CmsResource resource = data.getResource();
-                try {
-                    Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
-                    for (String detailPageUri : detailPages) {
-                        String altRfsName = manager.getRfsName(cms, detailPageUri);
-                        CmsStaticExportData detailData = new CmsStaticExportData(
-                            data.getVfsName(),
-                            altRfsName,
-                            data.getResource(),
-                            data.getParameters());
-                        exportTemplateResource(detailData, cookies);
+                Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(
+                    cms,
+                    data.getResource());
+                for (String detailPageUri : detailPages) {
+                    String altRfsName = manager.getRfsName(cms, detailPageUri);
+                    if (scheduledRfsNames.add(altRfsName)) {
+                        dataList.add(
+                            new CmsStaticExportData(
+                                data.getVfsName(),
+                                altRfsName,
+                                data.getResource(),
+                                data.getParameters()));
                     }
-                } catch (CmsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
                 }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            // the resource itself is exported last, its status is written to the report
+            dataList.add(data);
+            exports.put(rfsName, dataList);
+        }
 
-                int status = exportTemplateResource(data, cookies);
-
-                // write the report
-                if (status == HttpServletResponse.SC_OK) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else if (status == HttpServletResponse.SC_SEE_OTHER) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else {
-                    report.println(
-                        org.opencms.report.Messages.get().container(
-                            org.opencms.report.Messages.RPT_ARGUMENT_1,
-                            new Integer(status)),
-                        I_CmsReport.FORMAT_OK);
+        int threads = Math.max(1, Math.min(manager.getExportThreads().intValue(), exports.size()));
+        CloseableHttpClient client = createExportClient(threads);
+        ExecutorService executor = null;
+        try {
+            int count = 1;
+            Iterator<Map.Entry<String, List<CmsStaticExportData>>> it = exports.entrySet().iterator();
+            if (it.hasNext()) {
+                // export the first resource alone to establish the session cookie for all other requests
+                Map.Entry<String, List<CmsStaticExportData>> first = it.next();
+                printTemplateExportResult(
+                    report,
+                    count++,
+                    size,
+                    first.getKey(),
+                    new CmsTemplateExportTask(client, first.getValue()).call());
+            }
+            if (it.hasNext()) {
+                executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                    private AtomicInteger m_threadCount = new AtomicInteger();
+
+                    public Thread newThread(Runnable r) {
+
+                        Thread thread = new Thread(r, "OpenCms: static export " + m_threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                CompletionService<Object> completion = new ExecutorCompletionService<Object>(executor);
+                Map<Future<Object>, String> pending = new HashMap<Future<Object>, String>();
+                while (it.hasNext()) {
+                    Map.Entry<String, List<CmsStaticExportData>> entry = it.next();
+                    pending.put(completion.submit(new CmsTemplateExportTask(client, entry.getValue())), entry.getKey());
                 }
+                // write the report in the order the exports finish
+                while (!pending.isEmpty()) {
+                    Future<Object> future = completion.take();
+                    String rfsName = pending.remove(future);
+                    Object result;
+                    try {
+                        result = future.get();
+                    } catch (ExecutionException e) {
+                        result = e.getCause();
+                    }
+                    printTemplateExportResult(report, count++, size, rfsName, result);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            Thread.currentThread().interrupt();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            try {
+                client.close();
             } catch (IOException e) {
-                report.println(e);
+                LOG.error(e.getLocalizedMessage(), e);
             }
-            //don't lock up the CPU exclusively - allow other Threads to run as well
-            Thread.yield();
         }
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_END_0),
@@ -898,4 +1029,153 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         return templatesFound;
     }
+
+    /**
+     * Returns the last modification date to send with the request for the given template resource.<p>
+     *
+     * This is the date of the exported file, or the oldest date of the exported files for resources
+     * exported to several rfs rules.<p>
+     *
+     * @param data the export data
+     *
+     * @return the last modification date, or <code>0</code> if not exported yet
+     */
+    private long getTemplateExportDateLastModified(CmsStaticExportData data) {
+
+        String vfsName = data.getVfsName();
+        String rfsName = data.getRfsName();
+        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        String exportFileName = CmsFileUtil.normalizePath(manager.getExportPath(vfsName) + rfsName);
+        File exportFile = new File(exportFileName);
+        long dateLastModified = exportFile.lastModified();
+        // system folder case
+        if (vfsName.startsWith(CmsWorkplace.VFS_PATH_SYSTEM) || OpenCms.getSiteManager().startsWithShared(vfsName)) {
+            // iterate over all rules
+            Iterator<CmsStaticExportRfsRule> it = manager.getRfsRules().iterator();
+            while (it.hasNext()) {
+                CmsStaticExportRfsRule rule = it.next();
+                if (rule.match(vfsName)) {
+                    exportFileName = CmsFileUtil.normalizePath(rule.getExportPath() + rfsName);
+                    exportFile = new File(exportFileName);
+                    if (dateLastModified > exportFile.lastModified()) {
+                        dateLastModified = exportFile.lastModified();
+                    }
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_IF_MODIFIED_SINCE_SET_2,
+                    exportFile.getName(),
+                    new Long((dateLastModified / 1000) * 1000)));
+        }
+        return dateLastModified;
+    }
+
+    /**
+     * Returns the URL to request the given template resource from.<p>
+     *
+     * @param data the export data
+     *
+     * @return the export URL
+     */
+    private String getTemplateExportUrl(CmsStaticExportData data) {
+
+        String vfsName = data.getVfsName();
+        String rfsName = data.getRfsName();
+        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        if (rfsName.contains(manager.getRfsPrefix(vfsName))) {
+            LOG.info("rfsName " + rfsName + " contains rfsPrefix " + manager.getRfsPrefix(vfsName));
+            return manager.getExportUrl() + rfsName;
+        }
+        return manager.getExportUrl() + manager.getRfsPrefix(vfsName) + rfsName;
+    }
+
+    /**
+     * Writes the result of exporting a template resource to the report.<p>
+     *
+     * @param report the report to write to
+     * @param count the number of the resource
+     * @param size the total number of resources
+     * @param rfsName the rfs name of the resource
+     * @param result the http status as <code>Integer</code>, or the exception the export failed with
+     */
+    private void printTemplateExportResult(I_CmsReport report, int count, int size, String rfsName, Object result) {
+
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_2,
+                new Integer(count),
+                new Integer(size)),
+            I_CmsReport.FORMAT_NOTE);
+        report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, rfsName));
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        if (!(result instanceof Integer)) {
+            if (result instanceof Throwable) {
+                report.println((Throwable)result);
+            } else {
+                report.println();
+            }
+            return;
+        }
+        int status = ((Integer)result).intValue();
+        if (status == HttpServletResponse.SC_OK) {
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+        } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
+                I_CmsReport.FORMAT_NOTE);
+        } else if (status == HttpServletResponse.SC_SEE_OTHER) {
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                I_CmsReport.FORMAT_NOTE);
+        } else {
+            report.println(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    new Integer(status)),
+                I_CmsReport.FORMAT_OK);
+        }
+    }
+
+    /**
+     * Reads the export data for the given rfs name of a template resource.<p>
+     *
+     * If no resource is found for the rfs name, the name without the trailing parameter suffix is tried.<p>
+     *
+     * @param cms the cms context
+     * @param manager the static export manager
+     * @param rfsName the rfs name
+     *
+     * @return the export data, or <code>null</code> if no resource was found
+     */
+    private CmsStaticExportData readTemplateExportData(CmsObject cms, CmsStaticExportManager manager, String rfsName) {
+
+        CmsStaticExportData data = null;
+        try {
+            data = manager.getVfsNameInternal(cms, rfsName);
+        } catch (CmsVfsResourceNotFoundException e) {
+            String rfsBaseName = rfsName;
+            int pos = rfsName.lastIndexOf('_');
+            if (pos >= 0) {
+                rfsBaseName = rfsName.substring(0, pos);
+            }
+            try {
+                data = manager.getVfsNameInternal(cms, rfsBaseName);
+            } catch (CmsVfsResourceNotFoundException e2) {
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_NO_INTERNAL_VFS_RESOURCE_FOUND_1,
+                            new String[] {rfsName}));
+                }
+            }
+        }
+        return data;
+    }
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import com.google.common.base.Functions;
+
 /**
  * This class provides a file name matcher to find out those resources which must be part of
  * a static export.<p>
@@ -41,8 +43,8 @@ import java.util.regex.Pattern;
  */
 public class CmsExportFolderMatcher {
 
-    /** Internal array containing the vfs folders that should be exported. */
-    private List<Pattern> m_vfsFolders;
+    /** The matcher for the patterns of the vfs folders that should be exported. */
+    private CmsStaticExportRuleMatcher<Pattern> m_vfsFolders;
 
     /**
      * Creates a new CmsExportFolderMatcher.<p>
@@ -52,11 +54,13 @@ public class CmsExportFolderMatcher {
      */
     public CmsExportFolderMatcher(List<String> vfsFolders, String checkResource) {
 
-        m_vfsFolders = new ArrayList<Pattern>();
+        List<Pattern> patterns = new ArrayList<Pattern>();
         for (String patternAsString : vfsFolders) {
-            m_vfsFolders.add(Pattern.compile(patternAsString));
+            patterns.add(Pattern.compile(patternAsString));
         }
-        m_vfsFolders.add(Pattern.compile(CmsStringUtil.escapePattern(checkResource)));
+        patterns.add(Pattern.compile(CmsStringUtil.escapePattern(checkResource)));
+        // every resource is checked only once during an export, so the results are not cached
+        m_vfsFolders = new CmsStaticExportRuleMatcher<Pattern>(patterns, Functions.<Pattern> identity(), 0);
     }
 
     /**
@@ -67,15 +71,6 @@ public class CmsExportFolderMatcher {
      */
     public boolean match(String vfsName) {
 
-        boolean match = false;
-
-        for (int j = 0; j < m_vfsFolders.size(); j++) {
-            Pattern pattern = m_vfsFolders.get(j);
-            match = pattern.matcher(vfsName).matches();
-            if (match) {
-                break;
-            }
-        }
-        return match;
+        return m_vfsFolders.getFirstMatch(vfsName) != null;
     }
 }
@@ -74,6 +74,9 @@ public class CmsLinkProcessor extends CmsHtmlParser {
     /** HTML start. */
     public static final String HTML_START = "<html><body>";
 
+    /** Runtime property name to use the {@link CmsStreamingLinkProcessor} for XML contents and pages. */
+    public static final String PARAM_STREAMING = "link.processor.streaming";
+
     /** Constant for the tag name. */
     public static final String TAG_AREA = "AREA";
 
@@ -178,6 +181,31 @@ public class CmsLinkProcessor extends CmsHtmlParser {
         return new String(result);
     }
 
+    /**
+     * Creates a new link processor.<p>
+     *
+     * Returns a {@link CmsStreamingLinkProcessor} if the runtime property {@link #PARAM_STREAMING}
+     * is set to <code>true</code>, and a link processor based on the node tree of the HTML parser otherwise.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param linkTable the link table to use
+     * @param encoding the encoding to use for parsing the HTML content
+     * @param relativePath additional path for links with relative path (only used in "replace" mode)
+     *
+     * @return the new link processor
+     */
+    public static CmsLinkProcessor newInstance(
+        CmsObject cms,
+        CmsLinkTable linkTable,
+        String encoding,
+        String relativePath) {
+
+        if (Boolean.parseBoolean((String)OpenCms.getRuntimeProperty(PARAM_STREAMING))) {
+            return new CmsStreamingLinkProcessor(cms, linkTable, encoding, relativePath);
+        }
+        return new CmsLinkProcessor(cms, linkTable, encoding, relativePath);
+    }
+
     /**
      * Unescapes all <code>&amp;amp;</code>, that is replaces them with a <code>&</code>.<p>
      *
@@ -388,15 +416,7 @@ public class CmsLinkProcessor extends CmsHtmlParser {
      */
     protected void processObjectTag(ObjectTag tag) {
 
-        CmsRelationType type = CmsRelationType.valueOf(tag.getTagName());
-        for (int i = 0; i < OBJECT_TAG_LINKED_ATTRIBS.length; i++) {
-            String attr = OBJECT_TAG_LINKED_ATTRIBS[i];
-            processLink(tag, attr, type);
-            if ((i == 0) && (tag.getAttribute(attr) != null)) {
-                // if code base is available, the other attributes are relative to it, so do not process them
-                break;
-            }
-        }
+        CmsRelationType type = processObjectTagAttributes(tag);
         SimpleNodeIterator itChildren = tag.children();
         while (itChildren.hasMoreNodes()) {
             Node node = itChildren.nextNode();
@@ -409,6 +429,27 @@ public class CmsLinkProcessor extends CmsHtmlParser {
         }
     }
 
+    /**
+     * Processes the attributes of an object tag, without the parameters of the object.<p>
+     *
+     * @param tag the object tag to process
+     *
+     * @return the link type of the object
+     */
+    protected CmsRelationType processObjectTagAttributes(Tag tag) {
+
+        CmsRelationType type = CmsRelationType.valueOf(tag.getTagName());
+        for (int i = 0; i < OBJECT_TAG_LINKED_ATTRIBS.length; i++) {
+            String attr = OBJECT_TAG_LINKED_ATTRIBS[i];
+            processLink(tag, attr, type);
+            if ((i == 0) && (tag.getAttribute(attr) != null)) {
+                // if code base is available, the other attributes are relative to it, so do not process them
+                break;
+            }
+        }
+        return type;
+    }
+
     /**
      * Ensures that the given tag has the "alt" attribute set.<p>
      *
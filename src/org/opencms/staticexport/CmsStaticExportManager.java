@@ -64,7 +64,6 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -80,6 +79,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -87,6 +87,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.base.Function;
+
 /**
  * Provides the functionality to export resources from the OpenCms VFS
  * to the file system.<p>
@@ -119,6 +121,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Name for the folder default index file. */
     public static final String EXPORT_DEFAULT_FILE = "index_export.html";
 
+    /** Default number of worker threads used for exporting template resources after publishing. */
+    public static final Integer EXPORT_DEFAULT_THREADS = Integer.valueOf(4);
+
     /** Name for the default work path. */
     public static final String EXPORT_DEFAULT_WORKPATH = CmsSystemInfo.FOLDER_WEBINF + "temp";
 
@@ -245,6 +250,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Prefix to use for exported files with unsubstituted context values. */
     private String m_rfsPrefixConfigured;
 
+    /** The matcher for the source patterns of the configured rfs rules, created on demand. */
+    private CmsStaticExportRuleMatcher<CmsStaticExportRfsRule> m_rfsRuleMatcher;
+
     /** List of configured rfs rules. */
     private List<CmsStaticExportRfsRule> m_rfsRules;
 
@@ -257,6 +265,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Indicates if the static export is enabled or disabled. */
     private boolean m_staticExportEnabled;
 
+    /** The number of worker threads used for exporting template resources after publishing. */
+    private Integer m_staticExportThreads;
+
     /** The path to where the static export will be written. */
     private String m_staticExportPath;
 
@@ -448,6 +459,8 @@ public class CmsStaticExportManager implements I_CmsEventListener {
                 relativeLinks,
                 m_rfsTmpRule.getRelatedSystemResources()));
         m_rfsTmpRule = new CmsStaticExportRfsRule("", "", "", "", "", "", null, null);
+        // the rules have changed, so the matcher has to be created again
+        m_rfsRuleMatcher = null;
     }
 
     /**
@@ -647,12 +660,13 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         List<Locale> locales = OpenCms.getLocaleManager().getDefaultLocales(exportCms, vfsName);
         boolean exported = false;
         boolean matched = false;
+        List<CmsStaticExportRfsRule> matchingRules = getRfsRuleMatcher().getMatches(siteRoot + vfsName);
         // iterate over all rules
         Iterator<CmsStaticExportRfsRule> it = getRfsRules().iterator();
         while (it.hasNext()) {
             CmsStaticExportRfsRule rule = it.next();
             // normal case
-            boolean export = rule.getSource().matcher(siteRoot + vfsName).matches();
+            boolean export = matchingRules.contains(rule);
             matched |= export;
             // system folder case
             export |= ((OpenCms.getSiteManager().startsWithShared(vfsName)
@@ -1037,12 +1051,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     public String getExportPath(String vfsName) {
 
         if (vfsName != null) {
-            Iterator<CmsStaticExportRfsRule> it = m_rfsRules.iterator();
-            while (it.hasNext()) {
-                CmsStaticExportRfsRule rule = it.next();
-                if (rule.getSource().matcher(vfsName).matches()) {
-                    return rule.getExportPath();
-                }
+            CmsStaticExportRfsRule rule = getRfsRuleMatcher().getFirstMatch(vfsName);
+            if (rule != null) {
+                return rule.getExportPath();
             }
         }
         if (m_useTempDirs && isFullStaticExport()) {
@@ -1111,6 +1122,30 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_exportSuffixes;
     }
 
+    /**
+     * Returns the number of worker threads used for exporting template resources after publishing.<p>
+     *
+     * @return the number of export threads
+     */
+    public Integer getExportThreads() {
+
+        if (m_staticExportThreads != null) {
+            return m_staticExportThreads;
+        }
+        // if threads not configured set to default value
+        return EXPORT_DEFAULT_THREADS;
+    }
+
+    /**
+     * Returns the configured number of export threads, or <code>null</code> if not configured.<p>
+     *
+     * @return the configured number of export threads
+     */
+    public Integer getExportThreadsForConfiguration() {
+
+        return m_staticExportThreads;
+    }
+
     /**
      * Returns the export URL used for internal requests for exporting resources that require a
      * request / response (like JSP).<p>
@@ -1418,10 +1453,8 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         } else {
             // check if we are generating a link to a related resource in the same rfs rule
             String source = cms.getRequestContext().addSiteRoot(cms.getRequestContext().getUri());
-            Iterator<CmsStaticExportRfsRule> it = getRfsRules().iterator();
-            while (it.hasNext()) {
-                CmsStaticExportRfsRule rule = it.next();
-                if (rule.getSource().matcher(source).matches() && rule.match(vfsName)) {
+            for (CmsStaticExportRfsRule rule : getRfsRuleMatcher().getMatches(source)) {
+                if (rule.match(vfsName)) {
                     return rule.getRfsPrefix().concat(rfsName);
                 }
             }
@@ -1453,12 +1486,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     public String getRfsPrefix(String vfsName) {
 
         if (vfsName != null) {
-            Iterator<CmsStaticExportRfsRule> it = m_rfsRules.iterator();
-            while (it.hasNext()) {
-                CmsStaticExportRfsRule rule = it.next();
-                if (rule.getSource().matcher(vfsName).matches()) {
-                    return rule.getRfsPrefix();
-                }
+            CmsStaticExportRfsRule rule = getRfsRuleMatcher().getFirstMatch(vfsName);
+            if (rule != null) {
+                return rule.getRfsPrefix();
             }
         }
         return m_rfsPrefix;
@@ -2087,14 +2117,11 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     public boolean relativeLinksInExport(String vfsName) {
 
         if (vfsName != null) {
-            Iterator<CmsStaticExportRfsRule> it = m_rfsRules.iterator();
-            while (it.hasNext()) {
-                CmsStaticExportRfsRule rule = it.next();
-                if (rule.getSource().matcher(vfsName).matches()) {
-                    return rule.getUseRelativeLinks() != null
-                    ? rule.getUseRelativeLinks().booleanValue()
-                    : m_exportRelativeLinks;
-                }
+            CmsStaticExportRfsRule rule = getRfsRuleMatcher().getFirstMatch(vfsName);
+            if (rule != null) {
+                return rule.getUseRelativeLinks() != null
+                ? rule.getUseRelativeLinks().booleanValue()
+                : m_exportRelativeLinks;
             }
         }
         return m_exportRelativeLinks;
@@ -2201,6 +2228,27 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportSuffixes.add(suffix.toLowerCase());
     }
 
+    /**
+     * Sets the number of worker threads used for exporting template resources after publishing.<p>
+     *
+     * @param threads the number of export threads, invalid values and values smaller than 1 are ignored
+     */
+    public void setExportThreads(String threads) {
+
+        int value;
+        try {
+            value = Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            value = 0;
+        }
+        if (value > 0) {
+            m_staticExportThreads = Integer.valueOf(value);
+        } else {
+            LOG.warn(
+                Messages.get().getBundle().key(Messages.LOG_INVALID_EXPORT_THREADS_2, threads, getExportThreads()));
+        }
+    }
+
     /**
      * Sets the export url.<p>
      *
@@ -2662,6 +2710,32 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return retVal;
     }
 
+    /**
+     * Returns the matcher for the source patterns of the configured rfs rules.<p>
+     *
+     * The matcher memoizes the matching rules per path. It is created again after the rfs rules have changed.<p>
+     *
+     * @return the matcher for the rfs rules
+     */
+    protected CmsStaticExportRuleMatcher<CmsStaticExportRfsRule> getRfsRuleMatcher() {
+
+        CmsStaticExportRuleMatcher<CmsStaticExportRfsRule> matcher = m_rfsRuleMatcher;
+        if (matcher == null) {
+            matcher = new CmsStaticExportRuleMatcher<CmsStaticExportRfsRule>(
+                m_rfsRules,
+                new Function<CmsStaticExportRfsRule, Pattern>() {
+
+                    public Pattern apply(CmsStaticExportRfsRule rule) {
+
+                        return rule.getSource();
+                    }
+                },
+                2048);
+            m_rfsRuleMatcher = matcher;
+        }
+        return matcher;
+    }
+
     /**
      * Substitutes the ${CONTEXT_NAME} and ${SERVLET_NAME} in a path with the real values.<p>
      *
@@ -2921,11 +2995,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         createExportFolder(exportPath, rfsName);
         // generate export file instance and output stream
         File exportFile = new File(exportFileName);
-        // write new exported file content
+        // write new exported file content, replacing the file atomically so concurrent requests never see partial content
         try {
-            FileOutputStream exportStream = new FileOutputStream(exportFile);
-            exportStream.write(content);
-            exportStream.close();
+            CmsFileUtil.writeFileAtomically(exportFile, content);
 
             // log export success
             if (LOG.isInfoEnabled()) {
@@ -0,0 +1,283 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import org.opencms.monitor.CmsMemoryMonitor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Function;
+
+/**
+ * Matches paths against the source patterns of an ordered list of rules, e.g. the rfs rules of the static export.<p>
+ *
+ * All patterns are compiled into one prefix trie of their literal prefixes. For a path, only the rules whose
+ * literal prefix is a prefix of the path, or which have no literal prefix at all, are checked with their regular
+ * expression. The matching rules are returned in the configured order, so the first of them is the rule that
+ * a linear scan over all rules would have found.<p>
+ *
+ * The result for a path is memoized in a bounded cache. Since the rules are fixed, a new matcher has to be
+ * created if the configuration changes.<p>
+ *
+ * @param <R> the rule type
+ *
+ * @since 11.0.0
+ */
+public class CmsStaticExportRuleMatcher<R> {
+
+    /**
+     * A node of the prefix trie.<p>
+     */
+    private static class Node {
+
+        /** The child nodes, by the next character of the prefix. */
+        private Map<Character, Node> m_children = new HashMap<Character, Node>(4);
+
+        /** The indexes of the rules with a literal prefix ending at this node. */
+        private List<Integer> m_rules = new ArrayList<Integer>(1);
+    }
+
+    /** The characters with a special meaning in a regular expression. */
+    private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+
+    /** The characters which make the preceding character optional. */
+    private static final String OPTIONAL_QUANTIFIERS = "*?{";
+
+    /** The memoized matching rules by path, or <code>null</code> if results are not cached. */
+    private final Map<String, List<R>> m_cache;
+
+    /** The compiled source patterns, in the order of the rules. */
+    private final Pattern[] m_patterns;
+
+    /** The root node of the prefix trie. */
+    private final Node m_root;
+
+    /** The rules. */
+    private final List<R> m_rules;
+
+    /** The indexes of the rules without a literal prefix, which have to be checked for every path. */
+    private final List<Integer> m_unprefixedRules;
+
+    /**
+     * Creates a new matcher.<p>
+     *
+     * @param rules the rules, in the order in which they are to be checked
+     * @param source the function returning the source pattern of a rule
+     * @param cacheSize the maximum number of memoized paths, if <code>0</code>, no results are memoized
+     */
+    public CmsStaticExportRuleMatcher(List<R> rules, Function<R, Pattern> source, int cacheSize) {
+
+        m_rules = Collections.unmodifiableList(new ArrayList<R>(rules));
+        m_patterns = new Pattern[m_rules.size()];
+        m_root = new Node();
+        m_unprefixedRules = new ArrayList<Integer>();
+        for (int i = 0; i < m_patterns.length; i++) {
+            m_patterns[i] = source.apply(m_rules.get(i));
+            // flags like CASE_INSENSITIVE change the meaning of the literal characters
+            String prefix = m_patterns[i].flags() == 0 ? getLiteralPrefix(m_patterns[i].pattern()) : "";
+            if (prefix.length() == 0) {
+                m_unprefixedRules.add(Integer.valueOf(i));
+            } else {
+                Node node = m_root;
+                for (int j = 0; j < prefix.length(); j++) {
+                    Character c = Character.valueOf(prefix.charAt(j));
+                    Node child = node.m_children.get(c);
+                    if (child == null) {
+                        child = new Node();
+                        node.m_children.put(c, child);
+                    }
+                    node = child;
+                }
+                node.m_rules.add(Integer.valueOf(i));
+            }
+        }
+        m_cache = cacheSize > 0 ? CmsMemoryMonitor.<String, List<R>> createLRUCacheMap(cacheSize) : null;
+    }
+
+    /**
+     * Returns the literal prefix every string matched by the given regular expression starts with.<p>
+     *
+     * The prefix is computed conservatively: if the expression can not be analyzed, the empty prefix is returned.<p>
+     *
+     * @param regex the regular expression
+     *
+     * @return the literal prefix, may be empty
+     */
+    protected static String getLiteralPrefix(String regex) {
+
+        if ((regex.indexOf('|') >= 0) && hasTopLevelAlternative(regex)) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(regex.length());
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (META_CHARACTERS.indexOf(c) < 0) {
+                result.append(c);
+                i++;
+            } else if ((c == '\\') && ((i + 1) < regex.length()) && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                // escaped character without a special meaning, e.g. "\."
+                result.append(regex.charAt(i + 1));
+                i += 2;
+            } else {
+                if ((OPTIONAL_QUANTIFIERS.indexOf(c) >= 0) && (result.length() > 0)) {
+                    // the last character is optional or may be repeated zero times
+                    result.setLength(result.length() - 1);
+                }
+                break;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks if the given regular expression contains an alternative outside of a group.<p>
+     *
+     * Returns <code>true</code> for all expressions which contain character classes or quoted sections,
+     * since these are not analyzed.<p>
+     *
+     * @param regex the regular expression
+     *
+     * @return <code>true</code> if the expression may contain an alternative outside of a group
+     */
+    private static boolean hasTopLevelAlternative(String regex) {
+
+        if ((regex.indexOf('[') >= 0) || (regex.indexOf("\\Q") >= 0)) {
+            return true;
+        }
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                // skip the escaped character
+                i++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if ((c == '|') && (depth <= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all memoized results.<p>
+     */
+    public void clearCache() {
+
+        if (m_cache != null) {
+            m_cache.clear();
+        }
+    }
+
+    /**
+     * Returns the first rule with a source pattern matching the given path.<p>
+     *
+     * @param path the path to match
+     *
+     * @return the first matching rule, or <code>null</code> if no rule matches
+     */
+    public R getFirstMatch(String path) {
+
+        List<R> matches = getMatches(path);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Returns all rules with a source pattern matching the given path, in the configured order.<p>
+     *
+     * @param path the path to match
+     *
+     * @return the unmodifiable list of matching rules, may be empty
+     */
+    public List<R> getMatches(String path) {
+
+        List<R> result = m_cache != null ? m_cache.get(path) : null;
+        if (result == null) {
+            result = computeMatches(path);
+            if (m_cache != null) {
+                m_cache.put(path, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rules.<p>
+     *
+     * @return the unmodifiable list of rules
+     */
+    public List<R> getRules() {
+
+        return m_rules;
+    }
+
+    /**
+     * Checks the candidate rules for the given path with their regular expression.<p>
+     *
+     * @param path the path to match
+     *
+     * @return the unmodifiable list of matching rules
+     */
+    private List<R> computeMatches(String path) {
+
+        BitSet candidates = new BitSet(m_patterns.length);
+        for (Integer index : m_unprefixedRules) {
+            candidates.set(index.intValue());
+        }
+        Node node = m_root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.m_children.get(Character.valueOf(path.charAt(i)));
+            if (node == null) {
+                break;
+            }
+            for (Integer index : node.m_rules) {
+                candidates.set(index.intValue());
+            }
+        }
+        List<R> result = null;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (m_patterns[i].matcher(path).matches()) {
+                if (result == null) {
+                    result = new ArrayList<R>(2);
+                }
+                result.add(m_rules.get(i));
+            }
+        }
+        return result == null ? Collections.<R> emptyList() : Collections.unmodifiableList(result);
+    }
+}
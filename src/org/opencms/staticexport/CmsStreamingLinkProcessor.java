@@ -0,0 +1,171 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.relations.CmsRelationType;
+
+import org.htmlparser.Node;
+import org.htmlparser.Tag;
+import org.htmlparser.lexer.Lexer;
+import org.htmlparser.lexer.Page;
+import org.htmlparser.util.ParserException;
+
+/**
+ * Link processor which rewrites the links in a single pass over the tokens of the HTML,
+ * without building the node tree of the HTML parser.<p>
+ *
+ * Only the tags which may contain links are parsed into tag objects and processed with the same rules as in
+ * {@link CmsLinkProcessor}. All other content, like text, comments, other tags and the contents of script
+ * and style elements, is copied from the input unchanged.<p>
+ *
+ * The result is the same as the one of {@link CmsLinkProcessor} for well formed HTML. Unlike the node tree
+ * of the HTML parser, this processor does not add missing end tags.<p>
+ *
+ * The streaming link processor is used for XML contents and pages if the runtime property
+ * {@link CmsLinkProcessor#PARAM_STREAMING} is set to <code>true</code>.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsStreamingLinkProcessor extends CmsLinkProcessor {
+
+    /** Constant for the tag name. */
+    private static final String TAG_A = "A";
+
+    /** Constant for the tag name. */
+    private static final String TAG_IMG = "IMG";
+
+    /** Constant for the tag name. */
+    private static final String TAG_OBJECT = "OBJECT";
+
+    /** Constant for the tag name. */
+    private static final String TAG_SCRIPT = "SCRIPT";
+
+    /** Constant for the tag name. */
+    private static final String TAG_STYLE = "STYLE";
+
+    /**
+     * Creates a new streaming link processor.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param linkTable the link table to use
+     * @param encoding the encoding to use for parsing the HTML content
+     * @param relativePath additional path for links with relative path (only used in "replace" mode)
+     */
+    public CmsStreamingLinkProcessor(CmsObject cms, CmsLinkTable linkTable, String encoding, String relativePath) {
+
+        super(cms, linkTable, encoding, relativePath);
+    }
+
+    /**
+     * @see org.opencms.util.CmsHtmlParser#process(java.lang.String, java.lang.String)
+     */
+    @Override
+    public String process(String html, String encoding) throws ParserException {
+
+        m_result = new StringBuffer(html.length() + 256);
+        Lexer lexer = new Lexer(new Page(html, encoding));
+        // the number of open object tags, parameters of objects may contain links
+        int objects = 0;
+        Node node;
+        while ((node = lexer.nextNode()) != null) {
+            if (!(node instanceof Tag)) {
+                // text or remark
+                appendUnchanged(html, node);
+                continue;
+            }
+            Tag tag = (Tag)node;
+            String tagName = tag.getTagName();
+            if (tag.isEndTag()) {
+                if (TAG_OBJECT.equals(tagName) && (objects > 0)) {
+                    objects--;
+                }
+                appendUnchanged(html, node);
+            } else {
+                if (processTag(tag, objects > 0)) {
+                    m_result.append(getTagHtml(tag));
+                } else {
+                    appendUnchanged(html, node);
+                }
+                if (!tag.isEmptyXmlTag()) {
+                    if (TAG_OBJECT.equals(tagName)) {
+                        objects++;
+                    } else if (TAG_SCRIPT.equals(tagName) || TAG_STYLE.equals(tagName)) {
+                        // the contents of scripts and styles are no HTML
+                        Node content = lexer.parseCDATA();
+                        if (content != null) {
+                            appendUnchanged(html, content);
+                        }
+                    }
+                }
+            }
+        }
+        return getResult();
+    }
+
+    /**
+     * Processes the links of a start tag.<p>
+     *
+     * @param tag the tag to process
+     * @param inObject if the tag is contained in an object tag
+     *
+     * @return <code>true</code> if the tag may contain links and has been processed
+     */
+    protected boolean processTag(Tag tag, boolean inObject) {
+
+        String tagName = tag.getTagName();
+        if (TAG_A.equals(tagName)) {
+            processLink(tag, ATTRIBUTE_HREF, CmsRelationType.valueOf(tagName));
+        } else if (TAG_IMG.equals(tagName)) {
+            processLink(tag, ATTRIBUTE_SRC, CmsRelationType.valueOf(tagName));
+        } else if (TAG_OBJECT.equals(tagName)) {
+            processObjectTagAttributes(tag);
+        } else if (TAG_EMBED.equals(tagName)) {
+            processEmbedTag(tag);
+        } else if (TAG_AREA.equals(tagName)) {
+            processAreaTag(tag);
+        } else if (inObject && TAG_PARAM.equals(tagName)) {
+            processLink(tag, ATTRIBUTE_VALUE, CmsRelationType.valueOf(TAG_OBJECT));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the source of the given node to the result.<p>
+     *
+     * @param html the HTML being processed
+     * @param node the node to append
+     */
+    private void appendUnchanged(String html, Node node) {
+
+        m_result.append(html, node.getStartPosition(), node.getEndPosition());
+    }
+}
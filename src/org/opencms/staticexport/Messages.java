@@ -208,6 +208,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INIT_FAILED_0 = "LOG_INIT_FAILED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_EXPORT_THREADS_2 = "LOG_INVALID_EXPORT_THREADS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INVALID_PARAM_1 = "LOG_INVALID_PARAM_1";
 
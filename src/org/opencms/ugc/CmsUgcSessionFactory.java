@@ -35,6 +35,8 @@ import org.opencms.ugc.shared.CmsUgcConstants;
 import org.opencms.ugc.shared.CmsUgcException;
 import org.opencms.util.CmsUUID;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.http.HttpServletRequest;
@@ -147,6 +149,16 @@ public class CmsUgcSessionFactory {
         return session;
     }
 
+    /**
+     * Returns the session queues by form configuration id, e.g. to read their admission statistics.<p>
+     *
+     * @return the session queues
+     */
+    public Map<CmsUUID, CmsUgcSessionQueue> getQueues() {
+
+        return Collections.unmodifiableMap(m_queues);
+    }
+
     /**
      * Returns the session, if already initialized.<p>
      *
@@ -172,7 +184,8 @@ public class CmsUgcSessionFactory {
      */
     private CmsUgcSession createSession(CmsObject cms, CmsUgcConfiguration config) throws CmsUgcException {
 
-        if (getQueue(config).waitForSlot()) {
+        long retryAfter = getQueue(config).tryAcquire();
+        if (retryAfter == 0) {
             try {
                 return new CmsUgcSession(CmsUgcModuleAction.getAdminCms(), cms, config);
             } catch (CmsException e) {
@@ -182,7 +195,11 @@ public class CmsUgcSessionFactory {
         } else {
             String message = Messages.get().container(Messages.ERR_WAIT_QUEUE_EXCEEDED_0).key(
                 cms.getRequestContext().getLocale());
-            throw new CmsUgcException(CmsUgcConstants.ErrorCode.errMaxQueueLengthExceeded, message);
+            CmsUgcException exception = new CmsUgcException(
+                CmsUgcConstants.ErrorCode.errMaxQueueLengthExceeded,
+                message);
+            exception.setRetryAfter(retryAfter);
+            throw exception;
         }
     }
 
@@ -197,8 +214,11 @@ public class CmsUgcSessionFactory {
 
         CmsUgcSessionQueue queue = m_queues.get(config.getId());
         if (queue == null) {
-            queue = CmsUgcSessionQueue.createQueue(config);
-            m_queues.put(config.getId(), queue);
+            CmsUgcSessionQueue newQueue = CmsUgcSessionQueue.createQueue(config);
+            queue = m_queues.putIfAbsent(config.getId(), newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
         } else {
             queue.updateFromConfiguration(config);
         }
@@ -27,25 +27,39 @@
 
 package org.opencms.ugc;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * A queue used to enforce a certain wait time between requests for sessions for the same form configuration.<p>
+ * Token bucket based admission control for session requests for the same form configuration.<p>
+ *
+ * The bucket is refilled with one token per configured interval and holds at most 1 + maxLength tokens, so
+ * the first request and up to maxLength further requests in quick succession are admitted. Requests exceeding
+ * that are rejected right away together with the time after which a new token will be available, instead of
+ * parking the request thread until a slot becomes free. If only an interval is configured, at most
+ * {@link #DEFAULT_MAX_LENGTH} further requests are admitted in a burst, so the requests are still spaced out.<p>
  */
 public class CmsUgcSessionQueue {
 
+    /** The maximum queue length used if only an interval is configured. */
+    public static final int DEFAULT_MAX_LENGTH = 1;
+
+    /** The number of admitted session requests. */
+    private final AtomicLong m_admittedCount = new AtomicLong();
+
     /** True if the session queue is enabled. */
     private boolean m_enabled;
 
-    /** The wait time between multiple session requests for the same configuration. */
+    /** The time between two tokens being added to the bucket. */
     private long m_interval;
 
-    /** The maximum number of threads waiting in the queue for the same configuration. */
+    /** The number of tokens in addition to the first one which may be consumed in a burst. */
     private int m_maxLength;
 
-    /** The time at which the next thread should be scheduled to run. */
+    /** The theoretical time at which the bucket is full again. */
     private long m_nextScheduleTime;
 
-    /** The number of threads waiting on this queue. */
-    private int m_waitCount;
+    /** The number of rejected session requests. */
+    private final AtomicLong m_rejectedCount = new AtomicLong();
 
     /**
      * Creates a new instance.<p>
@@ -79,10 +93,54 @@ public class CmsUgcSessionQueue {
         CmsUgcSessionQueue queue = new CmsUgcSessionQueue(
             config.needsQueue(),
             config.getQueueInterval().isPresent() ? config.getQueueInterval().get().longValue() : 0,
-            config.getMaxQueueLength().isPresent() ? config.getMaxQueueLength().get().intValue() : Integer.MAX_VALUE);
+            getMaxLength(config));
         return queue;
     }
 
+    /**
+     * Gets the maximum queue length from the configuration, or {@link #DEFAULT_MAX_LENGTH} if none is configured.<p>
+     *
+     * @param config the form configuration
+     *
+     * @return the maximum queue length
+     */
+    private static int getMaxLength(CmsUgcConfiguration config) {
+
+        return config.getMaxQueueLength().isPresent()
+        ? config.getMaxQueueLength().get().intValue()
+        : DEFAULT_MAX_LENGTH;
+    }
+
+    /**
+     * Returns the number of session requests admitted by this queue.<p>
+     *
+     * @return the number of admitted session requests
+     */
+    public long getAdmittedCount() {
+
+        return m_admittedCount.get();
+    }
+
+    /**
+     * Returns the number of session requests rejected by this queue.<p>
+     *
+     * @return the number of rejected session requests
+     */
+    public long getRejectedCount() {
+
+        return m_rejectedCount.get();
+    }
+
+    /**
+     * Tries to take a token from the bucket without blocking.<p>
+     *
+     * @return 0 if the request was admitted, otherwise the number of milliseconds after which the request may be retried
+     */
+    public long tryAcquire() {
+
+        return tryAcquire(System.currentTimeMillis());
+    }
+
     /**
      * Updates the queue parameters from the configuration object.<p>
      *
@@ -92,47 +150,56 @@ public class CmsUgcSessionQueue {
 
         m_enabled = config.needsQueue();
         m_interval = config.getQueueInterval().isPresent() ? config.getQueueInterval().get().longValue() : 0;
-        m_maxLength = config.getMaxQueueLength().isPresent()
-        ? config.getMaxQueueLength().get().intValue()
-        : Integer.MAX_VALUE;
+        m_maxLength = getMaxLength(config);
+    }
+
+    /**
+     * Checks whether a session request is admitted.<p>
+     *
+     * This method does not block anymore; use {@link #tryAcquire()} to also get the retry delay.<p>
+     *
+     * @return false if the request was rejected, true otherwise
+     *
+     * @deprecated use {@link #tryAcquire()} instead
+     */
+    @Deprecated
+    public boolean waitForSlot() {
+
+        return tryAcquire() == 0;
     }
 
     /**
-     * If there are currently any threads waiting on this queue, wait for the interval given on construction after the currenly last thread stops waiting.<p>
+     * Tries to take a token from the bucket at the given time.<p>
+     *
+     * @param now the current time
      *
-     * @return false if the queue was too long to wait, true otherwise
+     * @return 0 if the request was admitted, otherwise the number of milliseconds after which the request may be retried
      */
-    public synchronized boolean waitForSlot() {
+    long tryAcquire(long now) {
 
-        if (!m_enabled) {
-            return true;
-        } else {
-            long now = System.currentTimeMillis();
-            long timeToWait = m_nextScheduleTime - now;
-            if (timeToWait <= 0) {
-                // This happens either if this method is called for the first time,
-                // or if the wait interval for the last thread to enter the queue has
-                // already fully elapsed
-                m_nextScheduleTime = now + m_interval;
-                return true;
-            } else if (m_waitCount >= m_maxLength) {
-                return false;
+        long retryAfter;
+        synchronized (this) {
+            if (!m_enabled) {
+                retryAfter = 0;
             } else {
-                m_nextScheduleTime = m_nextScheduleTime + m_interval;
-                m_waitCount += 1;
-                try {
-                    // use wait here instead of sleep because it releases the object monitor
-
-                    // note that timeToWait can't be 0 here, because this case is handled in the first if() branch,
-                    // so wait() always returns after the given period
-                    wait(timeToWait);
-                } catch (InterruptedException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
+                long scheduleTime = Math.max(m_nextScheduleTime, now);
+                long burst = (m_maxLength == 0) || (m_interval <= (Long.MAX_VALUE / m_maxLength))
+                ? m_interval * m_maxLength
+                : Long.MAX_VALUE;
+                long backlog = scheduleTime - now;
+                if (backlog <= burst) {
+                    m_nextScheduleTime = scheduleTime + m_interval;
+                    retryAfter = 0;
+                } else {
+                    retryAfter = backlog - burst;
                 }
-                m_waitCount -= 1;
-                return true;
             }
         }
+        if (retryAfter == 0) {
+            m_admittedCount.incrementAndGet();
+        } else {
+            m_rejectedCount.incrementAndGet();
+        }
+        return retryAfter;
     }
-}
\ No newline at end of file
+}
@@ -45,6 +45,9 @@ public class CmsUgcException extends CmsRpcException {
     /** The human-readable error message. */
     private String m_message;
 
+    /** The number of milliseconds after which the request may be retried, or 0 if unknown. */
+    private long m_retryAfter;
+
     /**
      * Creates a new instance.<p>
      *
@@ -101,6 +104,16 @@ public class CmsUgcException extends CmsRpcException {
         return m_errorCode;
     }
 
+    /**
+     * Returns the number of milliseconds after which the failed request may be retried.<p>
+     *
+     * @return the retry delay in milliseconds, or 0 if unknown
+     */
+    public long getRetryAfter() {
+
+        return m_retryAfter;
+    }
+
     /**
      * Gets the human-readable message.<p>
      *
@@ -121,4 +134,14 @@ public class CmsUgcException extends CmsRpcException {
         m_errorCode = errorCode;
     }
 
+    /**
+     * Sets the number of milliseconds after which the failed request may be retried.<p>
+     *
+     * @param retryAfter the retry delay in milliseconds
+     */
+    public void setRetryAfter(long retryAfter) {
+
+        m_retryAfter = retryAfter;
+    }
+
 }
@@ -404,6 +404,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String GUI_CACHE_REINI_TOOL_NAME_HELP_0 = "GUI_CACHE_REINI_TOOL_NAME_HELP_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_CACHE_REQUEST_STATISTICS_0 = "GUI_CACHE_REQUEST_STATISTICS_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_CACHE_REQUEST_STATISTICS_TEXT_5 = "GUI_CACHE_REQUEST_STATISTICS_TEXT_5";
+
     /** Message constant for key in the resource bundle. */
     public static final String GUI_CACHE_STATISTICS_TOOL_HELP_0 = "GUI_CACHE_STATISTICS_TOOL_HELP_0";
 
@@ -27,6 +27,8 @@
 
 package org.opencms.ui.apps.cacheadmin;
 
+import org.opencms.monitor.CmsRequestStatistics;
+import org.opencms.monitor.CmsRequestStatisticsAggregate;
 import org.opencms.ui.CmsVaadinUtils;
 import org.opencms.ui.apps.A_CmsWorkplaceApp;
 import org.opencms.ui.apps.Messages;
@@ -38,6 +40,8 @@ import java.util.List;
 import com.vaadin.ui.Component;
 import com.vaadin.v7.ui.HorizontalLayout;
 import com.vaadin.ui.Panel;
+import com.vaadin.v7.shared.ui.label.ContentMode;
+import com.vaadin.v7.ui.Label;
 import com.vaadin.v7.ui.VerticalLayout;
 import com.vaadin.ui.themes.ValoTheme;
 
@@ -94,6 +98,32 @@ public class CmsCacheAdminApp extends A_CmsWorkplaceApp {
 
     }
 
+    /**
+     * Creates the component showing the aggregated request statistics.<p>
+     *
+     * @return a vaadin vertical layout component
+     */
+    private Component getRequestStatisticsComponent() {
+
+        CmsRequestStatisticsAggregate stats = CmsRequestStatistics.getAggregate();
+        Label summary = new Label(
+            CmsVaadinUtils.getMessageText(
+                Messages.GUI_CACHE_REQUEST_STATISTICS_TEXT_5,
+                String.valueOf(stats.getRequestCount()),
+                String.format("%.1f", Double.valueOf(stats.getAverageRequestTime())),
+                String.format("%.1f", Double.valueOf(stats.getAverageSqlCount())),
+                String.format("%.1f", Double.valueOf(stats.getAverageSqlTime())),
+                stats.getDurationHistogram()));
+        summary.setContentMode(ContentMode.PREFORMATTED);
+        Label caches = new Label(stats.getCacheStatistics());
+        caches.setContentMode(ContentMode.PREFORMATTED);
+        VerticalLayout layout = new VerticalLayout();
+        layout.setMargin(true);
+        layout.addComponent(summary);
+        layout.addComponent(caches);
+        return layout;
+    }
+
     /**
      * Creates the component to be shown on accessing the app with some statistical information about the caches.<p>
      *
@@ -131,6 +161,12 @@ public class CmsCacheAdminApp extends A_CmsWorkplaceApp {
 
         layout.addComponent(flex);
 
+        Panel requests = new Panel();
+        requests.setContent(getRequestStatisticsComponent());
+        requests.setCaption(CmsVaadinUtils.getMessageText(Messages.GUI_CACHE_REQUEST_STATISTICS_0));
+
+        layout.addComponent(requests);
+
         outer.addComponent(flush);
         outer.addComponent(layout);
         outerouter.addStyleName("o-center");
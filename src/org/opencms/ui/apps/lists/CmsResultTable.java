@@ -184,7 +184,7 @@ public class CmsResultTable extends CmsFileTable {
             if (resourceItem == null) {
                 resourceItem = m_container.addItem(itemId);
             }
-            fillItemDefault(resourceItem, cms, resource, locale);
+            fillItemData(itemId, resourceItem, cms, resource, locale);
             for (I_ResourcePropertyProvider provider : m_propertyProviders) {
                 provider.addItemProperties(resourceItem, cms, resource, locale);
             }
@@ -71,12 +71,14 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplaceMessages;
 import org.opencms.workplace.explorer.CmsResourceUtil;
+import org.opencms.workplace.explorer.CmsResourceUtilBatch;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -89,7 +91,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.vaadin.event.dd.DropHandler;
 import com.vaadin.ui.CustomComponent;
+import com.vaadin.v7.data.Container.Filter;
 import com.vaadin.v7.data.Item;
+import com.vaadin.v7.data.Property;
 import com.vaadin.v7.data.util.IndexedContainer;
 import com.vaadin.v7.shared.ui.label.ContentMode;
 import com.vaadin.v7.ui.Label;
@@ -262,12 +266,71 @@ public class CmsResourceTable extends CustomComponent {
 
     /**
      * Extending the indexed container to make the number of un-filtered items available.<p>
+     *
+     * The container also loads the detail properties of its items on demand, see {@link CmsResourceTable#DETAIL_PROPERTIES}.
+     * Items added with {@link #addPending(Object, CmsResource)} only have their basic properties set. As soon as the table
+     * accesses one of them, the detail properties of a whole page of items following it are loaded at once using a
+     * {@link CmsResourceUtilBatch}, and the page after that is prefetched in the background.<p>
      */
     protected static class ItemContainer extends IndexedContainer {
 
+        /** The number of items for which the detail properties are loaded at once. */
+        public static final int PAGE_SIZE = 100;
+
         /** The serial version id. */
         private static final long serialVersionUID = -2033722658471550506L;
 
+        /** The batch used to look up the detail data. */
+        private transient CmsResourceUtilBatch m_batch;
+
+        /** The cms context used to load the detail properties. */
+        private transient CmsObject m_cms;
+
+        /** The resources of the items whose detail properties have not been loaded yet, by item id. */
+        private Map<Object, CmsResource> m_pending = new HashMap<Object, CmsResource>();
+
+        /** Flag indicating a sort is in progress, during which no detail properties need to be loaded. */
+        private boolean m_sorting;
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#addContainerFilter(com.vaadin.v7.data.Container.Filter)
+         */
+        @Override
+        public void addContainerFilter(Filter filter) {
+
+            for (CmsResourceTableProperty prop : DETAIL_PROPERTIES) {
+                if (filter.appliesToProperty(prop)) {
+                    loadAllDetails();
+                    break;
+                }
+            }
+            super.addContainerFilter(filter);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#getContainerProperty(java.lang.Object, java.lang.Object)
+         */
+        @Override
+        public Property<?> getContainerProperty(Object itemId, Object propertyId) {
+
+            if (DETAIL_PROPERTIES.contains(propertyId)) {
+                loadDetails(itemId);
+            }
+            return super.getContainerProperty(itemId, propertyId);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.AbstractInMemoryContainer#getItem(java.lang.Object)
+         */
+        @Override
+        public Item getItem(Object itemId) {
+
+            if (!m_sorting) {
+                loadDetails(itemId);
+            }
+            return super.getItem(itemId);
+        }
+
         /**
          * @see com.vaadin.v7.data.util.IndexedContainer#getSortableContainerPropertyIds()
          */
@@ -281,6 +344,74 @@ public class CmsResourceTable extends CustomComponent {
             }
         }
 
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#removeAllItems()
+         */
+        @Override
+        public boolean removeAllItems() {
+
+            m_pending.clear();
+            // a prefetch may still be running on the old batch, so it is replaced instead of cleared
+            m_batch = null;
+            return super.removeAllItems();
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#removeItem(java.lang.Object)
+         */
+        @Override
+        public boolean removeItem(Object itemId) {
+
+            m_pending.remove(itemId);
+            return super.removeItem(itemId);
+        }
+
+        /**
+         * @see com.vaadin.v7.data.util.IndexedContainer#sort(java.lang.Object[], boolean[])
+         */
+        @Override
+        public void sort(Object[] propertyId, boolean[] ascending) {
+
+            for (Object id : propertyId) {
+                if (DETAIL_PROPERTIES.contains(id)
+                    && !(PROPERTY_TYPE_ICON.equals(id)
+                        && getContainerPropertyIds().contains(PROPERTY_NAVIGATION_POSITION))) {
+                    // sorting by the type icon column uses the navigation position if available
+                    loadAllDetails();
+                    break;
+                }
+            }
+            m_sorting = true;
+            try {
+                super.sort(propertyId, ascending);
+            } finally {
+                m_sorting = false;
+            }
+        }
+
+        /**
+         * Adds an item whose detail properties should be loaded on demand.<p>
+         *
+         * @param cms the cms context to use for loading the detail properties
+         * @param itemId the item id
+         * @param resource the resource of the item
+         */
+        protected void addPending(CmsObject cms, Object itemId, CmsResource resource) {
+
+            m_cms = cms;
+            m_pending.put(itemId, resource);
+        }
+
+        /**
+         * Removes an item from the items whose detail properties should be loaded on demand.<p>
+         *
+         * @param itemId the item id
+         */
+        protected void removePending(Object itemId) {
+
+            m_pending.remove(itemId);
+        }
+
         /**
          * Returns the number of items in the container, not considering any filters.<p>
          *
@@ -290,11 +421,127 @@ public class CmsResourceTable extends CustomComponent {
 
             return getAllItemIds().size();
         }
+
+        /**
+         * Loads the detail properties of all pending items.<p>
+         */
+        protected void loadAllDetails() {
+
+            if (m_pending.isEmpty()) {
+                return;
+            }
+            List<Object> ids = new ArrayList<Object>(m_pending.keySet());
+            for (int i = 0; i < ids.size(); i += PAGE_SIZE) {
+                loadPage(ids.subList(i, Math.min(i + PAGE_SIZE, ids.size())));
+            }
+        }
+
+        /**
+         * Loads the detail properties of the page of items starting with the given item, if it is pending.<p>
+         *
+         * The detail data of the following page is prefetched in the background.<p>
+         *
+         * @param itemId the item id
+         */
+        protected void loadDetails(Object itemId) {
+
+            if (m_pending.isEmpty() || !m_pending.containsKey(itemId)) {
+                return;
+            }
+            List<Object> page = new ArrayList<Object>(PAGE_SIZE);
+            Object id = itemId;
+            while ((id != null) && (page.size() < PAGE_SIZE)) {
+                if (m_pending.containsKey(id)) {
+                    page.add(id);
+                }
+                id = nextItemId(id);
+            }
+            if (page.isEmpty()) {
+                // the item is not visible with the current filters
+                page.add(itemId);
+            }
+            loadPage(page);
+            List<CmsResource> next = new ArrayList<CmsResource>(PAGE_SIZE);
+            while ((id != null) && (next.size() < PAGE_SIZE)) {
+                CmsResource resource = m_pending.get(id);
+                if (resource != null) {
+                    next.add(resource);
+                }
+                id = nextItemId(id);
+            }
+            if (!next.isEmpty()) {
+                getBatch().prefetch(getCms(), next);
+            }
+        }
+
+        /**
+         * Returns the batch used to look up the detail data.<p>
+         *
+         * @return the batch
+         */
+        private CmsResourceUtilBatch getBatch() {
+
+            if (m_batch == null) {
+                m_batch = new CmsResourceUtilBatch();
+            }
+            return m_batch;
+        }
+
+        /**
+         * Returns the cms context used to load the detail properties.<p>
+         *
+         * @return the cms context
+         */
+        private CmsObject getCms() {
+
+            if (m_cms == null) {
+                m_cms = A_CmsUI.getCmsObject();
+            }
+            return m_cms;
+        }
+
+        /**
+         * Loads the detail properties of the given pending items.<p>
+         *
+         * @param itemIds the item ids
+         */
+        private void loadPage(List<Object> itemIds) {
+
+            Map<Object, CmsResource> resources = new LinkedHashMap<Object, CmsResource>();
+            for (Object id : itemIds) {
+                CmsResource resource = m_pending.remove(id);
+                if (resource != null) {
+                    resources.put(id, resource);
+                }
+            }
+            CmsObject cms = getCms();
+            CmsResourceUtilBatch batch = getBatch();
+            batch.load(cms, resources.values());
+            for (Map.Entry<Object, CmsResource> entry : resources.entrySet()) {
+                Item item = getUnfilteredItem(entry.getKey());
+                if (item != null) {
+                    CmsResourceUtil resUtil = new CmsResourceUtil(cms, entry.getValue());
+                    resUtil.setBatch(batch);
+                    fillItemDetails(item, resUtil);
+                }
+            }
+        }
     }
 
     /** Flag to mark columns as initially collapsed.*/
     public static final int COLLAPSED = 1;
 
+    /** The properties which are loaded on demand, since they require lock, principal, project or permission lookups. */
+    public static final Set<CmsResourceTableProperty> DETAIL_PROPERTIES = Collections.unmodifiableSet(
+        Sets.newHashSet(
+            PROPERTY_TYPE_ICON,
+            PROPERTY_PROJECT,
+            PROPERTY_INSIDE_PROJECT,
+            PROPERTY_PERMISSIONS,
+            PROPERTY_USER_MODIFIED,
+            PROPERTY_USER_CREATED,
+            PROPERTY_USER_LOCKED));
+
     /** Flag to mark columns as invisible. */
     public static final int INVISIBLE = 2;
 
@@ -313,6 +560,9 @@ public class CmsResourceTable extends CustomComponent {
     /** Property provider for additional columns. */
     protected List<I_ResourcePropertyProvider> m_propertyProviders;
 
+    /** Flag indicating the table is being filled, so detail properties are loaded on demand. */
+    private boolean m_lazyFill;
+
     /**
      * Creates a new instance.<p>
      *
@@ -349,20 +599,24 @@ public class CmsResourceTable extends CustomComponent {
             LOG.warn("CmsObject was 'null', using thread local CmsObject");
         }
         CmsResourceUtil resUtil = new CmsResourceUtil(cms, resource);
-        Map<String, CmsProperty> resourceProps = null;
-        try {
-            List<CmsProperty> props = cms.readPropertyObjects(resource, false);
-            resourceProps = new HashMap<String, CmsProperty>();
-            for (CmsProperty prop : props) {
-                resourceProps.put(prop.getName(), prop);
-            }
-        } catch (CmsException e1) {
-            LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
-        }
-        I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+        fillItemBasic(resourceItem, cms, resource, locale, resUtil);
+        fillItemDetails(resourceItem, resUtil);
+    }
+
+    /**
+     * Static helper method to initialize the properties of a data item which require lock, principal, project
+     * or permission lookups.<p>
+     *
+     * These are the properties loaded on demand by the table, see {@link #DETAIL_PROPERTIES}.<p>
+     *
+     * @param resourceItem the resource item to fill
+     * @param resUtil the resource utility of the resource
+     */
+    public static void fillItemDetails(Item resourceItem, CmsResourceUtil resUtil) {
+
         if (resourceItem.getItemProperty(PROPERTY_TYPE_ICON) != null) {
             resourceItem.getItemProperty(PROPERTY_TYPE_ICON).setValue(
-                new CmsResourceIcon(resUtil, resource.getState(), true));
+                new CmsResourceIcon(resUtil, resUtil.getResource().getState(), true));
         }
 
         if (resourceItem.getItemProperty(PROPERTY_PROJECT) != null) {
@@ -392,128 +646,18 @@ public class CmsResourceTable extends CustomComponent {
             resourceItem.getItemProperty(PROPERTY_INSIDE_PROJECT).setValue(Boolean.valueOf(resUtil.isInsideProject()));
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_RELEASED_NOT_EXPIRED) != null) {
-            resourceItem.getItemProperty(PROPERTY_RELEASED_NOT_EXPIRED).setValue(
-                Boolean.valueOf(resUtil.isReleasedAndNotExpired()));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME) != null) {
-            resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME).setValue(resource.getName());
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_SITE_PATH) != null) {
-            resourceItem.getItemProperty(PROPERTY_SITE_PATH).setValue(cms.getSitePath(resource));
-        }
-
-        if ((resourceItem.getItemProperty(PROPERTY_TITLE) != null) && (resourceProps != null)) {
-            resourceItem.getItemProperty(PROPERTY_TITLE).setValue(
-                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_TITLE)
-                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_TITLE).getValue()
-                : "");
-        }
-        boolean inNavigation = false;
-        if ((resourceItem.getItemProperty(PROPERTY_NAVIGATION_TEXT) != null) && (resourceProps != null)) {
-            resourceItem.getItemProperty(PROPERTY_NAVIGATION_TEXT).setValue(
-                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVTEXT)
-                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVTEXT).getValue()
-                : "");
-            inNavigation = resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVTEXT);
-        }
-
-        if ((resourceItem.getItemProperty(PROPERTY_NAVIGATION_POSITION) != null) && (resourceProps != null)) {
-            try {
-                Float navPos = resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVPOS)
-                ? Float.valueOf(resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVPOS).getValue())
-                : (inNavigation ? Float.valueOf(Float.MAX_VALUE) : null);
-                resourceItem.getItemProperty(PROPERTY_NAVIGATION_POSITION).setValue(navPos);
-                inNavigation = navPos != null;
-            } catch (Exception e) {
-                LOG.debug("Error evaluating navPos property", e);
-            }
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_IN_NAVIGATION) != null) {
-            if (inNavigation
-                && (resourceProps != null)
-                && resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVINFO)
-                && CmsClientSitemapEntry.HIDDEN_NAVIGATION_ENTRY.equals(
-                    resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVINFO).getValue())) {
-                inNavigation = false;
-            }
-            resourceItem.getItemProperty(PROPERTY_IN_NAVIGATION).setValue(Boolean.valueOf(inNavigation));
-        }
-
-        if ((resourceItem.getItemProperty(PROPERTY_COPYRIGHT) != null) && (resourceProps != null)) {
-            resourceItem.getItemProperty(PROPERTY_COPYRIGHT).setValue(
-                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_COPYRIGHT)
-                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_COPYRIGHT).getValue()
-                : "");
-        }
-
-        if ((resourceItem.getItemProperty(PROPERTY_CACHE) != null) && (resourceProps != null)) {
-            resourceItem.getItemProperty(PROPERTY_CACHE).setValue(
-                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_CACHE)
-                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_CACHE).getValue()
-                : "");
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE) != null) {
-            resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE).setValue(
-                CmsWorkplaceMessages.getResourceTypeName(locale, type.getTypeName()));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_IS_FOLDER) != null) {
-            resourceItem.getItemProperty(PROPERTY_IS_FOLDER).setValue(Boolean.valueOf(resource.isFolder()));
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_SIZE) != null) {
-            if (resource.isFile()) {
-                resourceItem.getItemProperty(PROPERTY_SIZE).setValue(Integer.valueOf(resource.getLength()));
-            }
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_PERMISSIONS) != null) {
             resourceItem.getItemProperty(PROPERTY_PERMISSIONS).setValue(resUtil.getPermissionString());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED) != null) {
-            resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_MODIFIED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_MODIFIED).setValue(resUtil.getUserLastModified());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_CREATED) != null) {
-            resourceItem.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_CREATED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_CREATED).setValue(resUtil.getUserCreated());
         }
 
-        if (resourceItem.getItemProperty(PROPERTY_DATE_RELEASED) != null) {
-            long release = resource.getDateReleased();
-            if (release != CmsResource.DATE_RELEASED_DEFAULT) {
-                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(Long.valueOf(release));
-            }
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED) != null) {
-            long expire = resource.getDateExpired();
-            if (expire != CmsResource.DATE_EXPIRED_DEFAULT) {
-                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(Long.valueOf(expire));
-            }
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_STATE_NAME) != null) {
-            resourceItem.getItemProperty(PROPERTY_STATE_NAME).setValue(resUtil.getStateName());
-        }
-
-        if (resourceItem.getItemProperty(PROPERTY_STATE) != null) {
-            resourceItem.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
-        }
-
         if (resourceItem.getItemProperty(PROPERTY_USER_LOCKED) != null) {
             resourceItem.getItemProperty(PROPERTY_USER_LOCKED).setValue(resUtil.getLockedByName());
         }
@@ -596,8 +740,13 @@ public class CmsResourceTable extends CustomComponent {
         if (clearFilter) {
             m_container.removeAllContainerFilters();
         }
-        for (CmsResource resource : resources) {
-            fillItem(cms, resource, wpLocale);
+        m_lazyFill = true;
+        try {
+            for (CmsResource resource : resources) {
+                fillItem(cms, resource, wpLocale);
+            }
+        } finally {
+            m_lazyFill = false;
         }
         if (sort) {
             m_fileTable.sort();
@@ -728,12 +877,36 @@ public class CmsResourceTable extends CustomComponent {
         if (resourceItem == null) {
             resourceItem = m_container.addItem(resource.getStructureId().toString());
         }
-        fillItemDefault(resourceItem, cms, resource, locale);
+        fillItemData(resource.getStructureId().toString(), resourceItem, cms, resource, locale);
         for (I_ResourcePropertyProvider provider : m_propertyProviders) {
             provider.addItemProperties(resourceItem, cms, resource, locale);
         }
     }
 
+    /**
+     * Initializes the 'standard' properties of a data item.<p>
+     *
+     * While the table is filled, only the basic properties are set and the detail properties are left
+     * to be loaded on demand by the container. Otherwise this is the same as {@link #fillItemDefault(Item, CmsObject, CmsResource, Locale)}.<p>
+     *
+     * @param itemId the item id
+     * @param resourceItem the resource item to fill
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param locale the locale
+     */
+    protected void fillItemData(Object itemId, Item resourceItem, CmsObject cms, CmsResource resource, Locale locale) {
+
+        if (m_lazyFill && (resource != null) && (resourceItem != null) && (cms != null)) {
+            fillItemBasic(resourceItem, cms, resource, locale, new CmsResourceUtil(cms, resource));
+            m_container.addPending(cms, itemId, resource);
+        } else {
+            // the item may still be pending from an earlier lazy fill, which must not overwrite the new data
+            m_container.removePending(itemId);
+            fillItemDefault(resourceItem, cms, resource, locale);
+        }
+    }
+
     /**
      * Transforms the given item ids into UUIDs.<p>
      *
@@ -750,4 +923,143 @@ public class CmsResourceTable extends CustomComponent {
         return ids;
     }
 
+    /**
+     * Initializes the properties of a data item which can be read from the resource and its properties alone.<p>
+     *
+     * @param resourceItem the resource item to fill
+     * @param cms the CMS context
+     * @param resource the resource
+     * @param locale the locale
+     * @param resUtil the resource utility of the resource
+     */
+    private static void fillItemBasic(
+        Item resourceItem,
+        CmsObject cms,
+        CmsResource resource,
+        Locale locale,
+        CmsResourceUtil resUtil) {
+
+        Map<String, CmsProperty> resourceProps = null;
+        try {
+            List<CmsProperty> props = cms.readPropertyObjects(resource, false);
+            resourceProps = new HashMap<String, CmsProperty>();
+            for (CmsProperty prop : props) {
+                resourceProps.put(prop.getName(), prop);
+            }
+        } catch (CmsException e1) {
+            LOG.debug("Unable to read properties for resource '" + resource.getRootPath() + "'.", e1);
+        }
+        I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+
+        if (resourceItem.getItemProperty(PROPERTY_RELEASED_NOT_EXPIRED) != null) {
+            resourceItem.getItemProperty(PROPERTY_RELEASED_NOT_EXPIRED).setValue(
+                Boolean.valueOf(resUtil.isReleasedAndNotExpired()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME) != null) {
+            resourceItem.getItemProperty(PROPERTY_RESOURCE_NAME).setValue(resource.getName());
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_SITE_PATH) != null) {
+            resourceItem.getItemProperty(PROPERTY_SITE_PATH).setValue(cms.getSitePath(resource));
+        }
+
+        if ((resourceItem.getItemProperty(PROPERTY_TITLE) != null) && (resourceProps != null)) {
+            resourceItem.getItemProperty(PROPERTY_TITLE).setValue(
+                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_TITLE)
+                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_TITLE).getValue()
+                : "");
+        }
+        boolean inNavigation = false;
+        if ((resourceItem.getItemProperty(PROPERTY_NAVIGATION_TEXT) != null) && (resourceProps != null)) {
+            resourceItem.getItemProperty(PROPERTY_NAVIGATION_TEXT).setValue(
+                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVTEXT)
+                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVTEXT).getValue()
+                : "");
+            inNavigation = resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVTEXT);
+        }
+
+        if ((resourceItem.getItemProperty(PROPERTY_NAVIGATION_POSITION) != null) && (resourceProps != null)) {
+            try {
+                Float navPos = resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVPOS)
+                ? Float.valueOf(resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVPOS).getValue())
+                : (inNavigation ? Float.valueOf(Float.MAX_VALUE) : null);
+                resourceItem.getItemProperty(PROPERTY_NAVIGATION_POSITION).setValue(navPos);
+                inNavigation = navPos != null;
+            } catch (Exception e) {
+                LOG.debug("Error evaluating navPos property", e);
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_IN_NAVIGATION) != null) {
+            if (inNavigation
+                && (resourceProps != null)
+                && resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_NAVINFO)
+                && CmsClientSitemapEntry.HIDDEN_NAVIGATION_ENTRY.equals(
+                    resourceProps.get(CmsPropertyDefinition.PROPERTY_NAVINFO).getValue())) {
+                inNavigation = false;
+            }
+            resourceItem.getItemProperty(PROPERTY_IN_NAVIGATION).setValue(Boolean.valueOf(inNavigation));
+        }
+
+        if ((resourceItem.getItemProperty(PROPERTY_COPYRIGHT) != null) && (resourceProps != null)) {
+            resourceItem.getItemProperty(PROPERTY_COPYRIGHT).setValue(
+                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_COPYRIGHT)
+                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_COPYRIGHT).getValue()
+                : "");
+        }
+
+        if ((resourceItem.getItemProperty(PROPERTY_CACHE) != null) && (resourceProps != null)) {
+            resourceItem.getItemProperty(PROPERTY_CACHE).setValue(
+                resourceProps.containsKey(CmsPropertyDefinition.PROPERTY_CACHE)
+                ? resourceProps.get(CmsPropertyDefinition.PROPERTY_CACHE).getValue()
+                : "");
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE) != null) {
+            resourceItem.getItemProperty(PROPERTY_RESOURCE_TYPE).setValue(
+                CmsWorkplaceMessages.getResourceTypeName(locale, type.getTypeName()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_IS_FOLDER) != null) {
+            resourceItem.getItemProperty(PROPERTY_IS_FOLDER).setValue(Boolean.valueOf(resource.isFolder()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_SIZE) != null) {
+            if (resource.isFile()) {
+                resourceItem.getItemProperty(PROPERTY_SIZE).setValue(Integer.valueOf(resource.getLength()));
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED) != null) {
+            resourceItem.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_CREATED) != null) {
+            resourceItem.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_RELEASED) != null) {
+            long release = resource.getDateReleased();
+            if (release != CmsResource.DATE_RELEASED_DEFAULT) {
+                resourceItem.getItemProperty(PROPERTY_DATE_RELEASED).setValue(Long.valueOf(release));
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED) != null) {
+            long expire = resource.getDateExpired();
+            if (expire != CmsResource.DATE_EXPIRED_DEFAULT) {
+                resourceItem.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(Long.valueOf(expire));
+            }
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_STATE_NAME) != null) {
+            resourceItem.getItemProperty(PROPERTY_STATE_NAME).setValue(resUtil.getStateName());
+        }
+
+        if (resourceItem.getItemProperty(PROPERTY_STATE) != null) {
+            resourceItem.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
+        }
+    }
+
 }
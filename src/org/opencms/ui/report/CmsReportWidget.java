@@ -111,7 +111,7 @@ public class CmsReportWidget extends AbstractComponent implements I_CmsReportSer
         if (!m_threadFinished && (m_thread != null)) {
             // if thread is not alive at this point, there may still be report updates
             reportUpdate = m_thread.getReportUpdate(m_formatter);
-            if (!m_thread.isAlive()) {
+            if (!m_thread.isAlive() && !m_thread.hasPendingReportUpdate()) {
                 m_threadFinished = true;
                 for (Runnable handler : m_reportFinishedHandlers) {
                     handler.run();
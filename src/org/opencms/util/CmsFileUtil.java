@@ -52,6 +52,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -954,6 +957,46 @@ public final class CmsFileUtil {
         }
     }
 
+    /**
+     * Writes the given content to a file, replacing it atomically.<p>
+     *
+     * The content is first written to a temporary file in the same folder, which is then moved to the target name.
+     * Concurrent readers therefore either see the old or the new file content, but never a partially written file.
+     * If the file system does not support atomic moves, the file is replaced with a regular move.<p>
+     *
+     * @param file the file to write
+     * @param content the content to write
+     *
+     * @throws IOException if writing the file fails
+     */
+    public static void writeFileAtomically(File file, byte[] content) throws IOException {
+
+        File folder = file.getAbsoluteFile().getParentFile();
+        // the prefix must have at least three characters, also for very short file names
+        File tempFile = File.createTempFile("." + file.getName() + ".", ".tmp", folder);
+        try {
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(content);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(
+                    tempFile.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
     /**
      * Helper method for creating a FileWalkState object from a File object.<p>
      *
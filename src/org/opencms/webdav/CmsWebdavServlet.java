@@ -59,6 +59,7 @@ import org.opencms.repository.I_CmsRepositoryItem;
 import org.opencms.repository.I_CmsRepositorySession;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsRequestUtil;
+import org.opencms.util.CmsXmlSaxWriter;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -78,16 +79,17 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Date;
+import java.util.Deque;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.Vector;
@@ -111,7 +113,10 @@ import org.dom4j.Namespace;
 import org.dom4j.Node;
 import org.dom4j.QName;
 import org.dom4j.io.SAXReader;
+import org.dom4j.io.SAXWriter;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Servlet which adds support for WebDAV level 2.<p>
@@ -252,6 +257,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the init parameter in the web.xml to allow listing. */
     private static final String INIT_PARAM_LIST = "listings";
 
+    /** The name of the init parameter in the web.xml for the depth used for PROPFIND requests with depth infinity. */
+    private static final String INIT_PARAM_MAXDEPTH = "maxdepth";
+
     /** The name of the init parameter in the web.xml to set read only. */
     private static final String INIT_PARAM_READONLY = "readonly";
 
@@ -360,6 +368,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The output buffer size to use when serving resources. */
     protected int m_output = 2048;
 
+    /** The depth used for PROPFIND requests with depth infinity. */
+    private int m_depthInfinity = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+
     /** Should we generate directory listings? */
     private boolean m_listings;
 
@@ -466,6 +477,28 @@ public class CmsWebdavServlet extends HttpServlet {
                     Boolean.valueOf(m_readOnly)));
         }
 
+        // init parameter: max depth
+        try {
+            value = getServletConfig().getInitParameter(INIT_PARAM_MAXDEPTH);
+            if (value != null) {
+                m_depthInfinity = Integer.parseInt(value.trim());
+            }
+        } catch (Exception e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error(
+                    Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_ERROR_2, INIT_PARAM_MAXDEPTH, value),
+                    e);
+            }
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(
+                Messages.get().getBundle().key(
+                    Messages.LOG_READ_INIT_PARAM_2,
+                    INIT_PARAM_MAXDEPTH,
+                    Integer.valueOf(m_depthInfinity)));
+        }
+
         // Load the MD5 helper used to calculate signatures.
         try {
             m_md5Helper = MessageDigest.getInstance("MD5");
@@ -1801,7 +1834,7 @@ public class CmsWebdavServlet extends HttpServlet {
         List<String> properties = new Vector<String>();
 
         // Propfind depth
-        int depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+        int depth = m_depthInfinity;
 
         // Propfind type
         int type = FIND_ALL_PROP;
@@ -1809,14 +1842,14 @@ public class CmsWebdavServlet extends HttpServlet {
         String depthStr = req.getHeader(HEADER_DEPTH);
 
         if (depthStr == null) {
-            depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+            depth = m_depthInfinity;
         } else {
             if (depthStr.equals("0")) {
                 depth = 0;
             } else if (depthStr.equals("1")) {
                 depth = 1;
             } else if (depthStr.equalsIgnoreCase(DEPTH_INFINITY)) {
-                depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+                depth = m_depthInfinity;
             }
         }
 
@@ -1903,62 +1936,83 @@ public class CmsWebdavServlet extends HttpServlet {
             return;
         }
 
-        resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
-        resp.setContentType("text/xml; charset=UTF-8");
-
-        // Create multistatus object
-        Document doc = DocumentHelper.createDocument();
-        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
-
-        if (depth == 0) {
-            parseProperties(req, multiStatusElem, item, type, properties);
-        } else {
-            // The stack always contains the object of the current level
-            Stack<I_CmsRepositoryItem> stack = new Stack<I_CmsRepositoryItem>();
-            stack.push(item);
-
-            // Stack of the objects one level below
-            Stack<I_CmsRepositoryItem> stackBelow = new Stack<I_CmsRepositoryItem>();
-
-            while ((!stack.isEmpty()) && (depth >= 0)) {
+        // list the children of the requested collection before anything is written,
+        // so that an error can still be reported with a proper status code
+        List<I_CmsRepositoryItem> children = null;
+        if (item.isCollection() && (depth > 0)) {
+            try {
+                children = m_session.list(item.getName());
+            } catch (CmsException e) {
 
-                I_CmsRepositoryItem currentItem = stack.pop();
-                parseProperties(req, multiStatusElem, currentItem, type, properties);
+                resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 
-                if ((currentItem.isCollection()) && (depth > 0)) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, item.getName()), e);
+                }
 
-                    try {
-                        List<I_CmsRepositoryItem> list = m_session.list(currentItem.getName());
-                        Iterator<I_CmsRepositoryItem> iter = list.iterator();
-                        while (iter.hasNext()) {
-                            I_CmsRepositoryItem element = iter.next();
-                            stackBelow.push(element);
-                        }
+                return;
+            }
+        }
 
-                    } catch (CmsException e) {
+        resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
+        resp.setContentType("text/xml; charset=UTF-8");
 
-                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        // the multistatus element only serves as parent for one response element at a time,
+        // every response is written to the client as soon as its properties are collected
+        Document doc = DocumentHelper.createDocument();
+        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
 
-                        if (LOG.isErrorEnabled()) {
-                            LOG.error(
-                                Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, currentItem.getName()),
-                                e);
+        Writer writer = resp.getWriter();
+        CmsXmlSaxWriter saxHandler = new CmsXmlSaxWriter(writer, CmsEncoder.ENCODING_UTF_8);
+        saxHandler.setEscapeXml(true);
+        saxHandler.setEscapeUnknownChars(false);
+        SAXWriter saxWriter = new SAXWriter(saxHandler, saxHandler);
+        try {
+            saxHandler.startDocument();
+            AttributesImpl namespaceAttributes = new AttributesImpl();
+            namespaceAttributes.addAttribute("", "", "xmlns:D", "CDATA", DEFAULT_NAMESPACE);
+            saxHandler.startElement(
+                DEFAULT_NAMESPACE,
+                TAG_MULTISTATUS,
+                multiStatusElem.getQualifiedName(),
+                namespaceAttributes);
+
+            writePropfindResponse(saxWriter, req, multiStatusElem, item, type, properties);
+
+            if (children != null) {
+                // depth first traversal, so only the listings of the folders on the current path are kept in memory
+                Deque<Iterator<I_CmsRepositoryItem>> levels = new ArrayDeque<Iterator<I_CmsRepositoryItem>>();
+                levels.push(children.iterator());
+                while (!levels.isEmpty()) {
+                    Iterator<I_CmsRepositoryItem> level = levels.peek();
+                    if (!level.hasNext()) {
+                        levels.pop();
+                        continue;
+                    }
+                    I_CmsRepositoryItem currentItem = level.next();
+                    writePropfindResponse(saxWriter, req, multiStatusElem, currentItem, type, properties);
+                    if (currentItem.isCollection() && (levels.size() < depth)) {
+                        try {
+                            levels.push(m_session.list(currentItem.getName()).iterator());
+                        } catch (CmsException e) {
+                            // the response is already committed, so just leave out the children of this folder
+                            if (LOG.isErrorEnabled()) {
+                                LOG.error(
+                                    Messages.get().getBundle().key(
+                                        Messages.LOG_LIST_ITEMS_ERROR_1,
+                                        currentItem.getName()),
+                                    e);
+                            }
                         }
-
-                        return;
                     }
                 }
-
-                if (stack.isEmpty()) {
-                    depth--;
-                    stack = stackBelow;
-                    stackBelow = new Stack<I_CmsRepositoryItem>();
-                }
             }
-        }
 
-        Writer writer = resp.getWriter();
-        doc.write(writer);
+            saxHandler.endElement(DEFAULT_NAMESPACE, TAG_MULTISTATUS, multiStatusElem.getQualifiedName());
+            saxHandler.endDocument();
+        } catch (SAXException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        }
         writer.close();
     }
 
@@ -3613,4 +3667,32 @@ public class CmsWebdavServlet extends HttpServlet {
         doc.write(writer);
         writer.close();
     }
+
+    /**
+     * Writes the PROPFIND response element for a single item to the client.<p>
+     *
+     * @param saxWriter the writer for the response
+     * @param req the servlet request we are processing
+     * @param multiStatusElem the multistatus element used as temporary parent of the response element
+     * @param item the current repository item
+     * @param type the propfind type
+     * @param properties if the propfind type is find properties by name, then this List contains those properties
+     *
+     * @throws SAXException if writing the response element fails
+     */
+    private void writePropfindResponse(
+        SAXWriter saxWriter,
+        HttpServletRequest req,
+        Element multiStatusElem,
+        I_CmsRepositoryItem item,
+        int type,
+        List<String> properties)
+    throws SAXException {
+
+        parseProperties(req, multiStatusElem, item, type, properties);
+        for (Element responseElem : multiStatusElem.elements()) {
+            saxWriter.write(responseElem);
+        }
+        multiStatusElem.clearContent();
+    }
 }
\ No newline at end of file
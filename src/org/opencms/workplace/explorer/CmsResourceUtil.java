@@ -204,6 +204,9 @@ public final class CmsResourceUtil {
     /** If greater than zero, the path will be formatted to this number of chars. */
     private int m_abbrevLength;
 
+    /** The optional batch providing pre-loaded lock, principal, project and permission data. */
+    private CmsResourceUtilBatch m_batch;
+
     /** The current cms context. */
     private CmsObject m_cms;
 
@@ -587,6 +590,9 @@ public final class CmsResourceUtil {
      */
     public CmsLock getLock() {
 
+        if ((m_lock == null) && (m_batch != null)) {
+            m_lock = m_batch.getLock(m_resource);
+        }
         if (m_lock == null) {
             try {
                 m_lock = getCms().getLock(m_resource);
@@ -610,8 +616,7 @@ public final class CmsResourceUtil {
             // user
             lockedBy = getLock().getUserId().toString();
             try {
-                lockedBy = getCurrentOuRelativeName(
-                    CmsPrincipal.readPrincipalIncludingHistory(getCms(), getLock().getUserId()).getName());
+                lockedBy = getCurrentOuRelativeName(readPrincipalName(getLock().getUserId()));
             } catch (Throwable e) {
                 lockedBy = e.getMessage();
             }
@@ -653,6 +658,10 @@ public final class CmsResourceUtil {
                 // the resource is unlocked and unchanged
                 return "";
             }
+            String name = m_batch != null ? m_batch.getProjectName(pId) : null;
+            if (name != null) {
+                return getCurrentOuRelativeName(name);
+            }
             try {
                 return getCurrentOuRelativeName(getCms().readProject(pId).getName());
             } catch (CmsDbEntryNotFoundException e) {
@@ -816,6 +825,12 @@ public final class CmsResourceUtil {
      */
     public CmsPermissionSet getPermissionSet() {
 
+        if (m_batch != null) {
+            CmsPermissionSet cached = m_batch.getPermissionSet(m_resource);
+            if (cached != null) {
+                return cached;
+            }
+        }
         CmsPermissionSetCustom pset = new CmsPermissionSetCustom();
         CmsResource resource = getResource();
         try {
@@ -1272,8 +1287,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserCreated().toString();
         try {
-            user = getCurrentOuRelativeName(
-                CmsPrincipal.readPrincipalIncludingHistory(getCms(), m_resource.getUserCreated()).getName());
+            user = getCurrentOuRelativeName(readPrincipalName(m_resource.getUserCreated()));
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1289,8 +1303,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserLastModified().toString();
         try {
-            user = getCurrentOuRelativeName(
-                CmsPrincipal.readPrincipalIncludingHistory(getCms(), m_resource.getUserLastModified()).getName());
+            user = getCurrentOuRelativeName(readPrincipalName(m_resource.getUserLastModified()));
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1374,6 +1387,18 @@ public final class CmsResourceUtil {
         m_abbrevLength = abbrevLength;
     }
 
+    /**
+     * Sets the batch to take pre-loaded lock, principal, project and permission data from.<p>
+     *
+     * Everything not found in the batch is still read from the cms context.<p>
+     *
+     * @param batch the batch, may be <code>null</code>
+     */
+    public void setBatch(CmsResourceUtilBatch batch) {
+
+        m_batch = batch;
+    }
+
     /**
      * Sets the cms context.<p>
      *
@@ -1490,7 +1515,9 @@ public final class CmsResourceUtil {
 
         if (m_projectResources == null) {
             try {
-                m_projectResources = getCms().readProjectResources(getReferenceProject());
+                m_projectResources = m_batch != null
+                ? m_batch.getProjectResources(getCms(), getReferenceProject())
+                : getCms().readProjectResources(getReferenceProject());
             } catch (Throwable e) {
                 LOG.error(e.getLocalizedMessage(), e);
                 // use an empty list (all resources are "outside")
@@ -1499,4 +1526,22 @@ public final class CmsResourceUtil {
         }
         return m_projectResources;
     }
+
+    /**
+     * Reads the fully qualified name of the given principal, preferring the batch if available.<p>
+     *
+     * @param principalId the principal id
+     *
+     * @return the principal name
+     *
+     * @throws CmsException if reading the principal fails
+     */
+    private String readPrincipalName(CmsUUID principalId) throws CmsException {
+
+        String name = m_batch != null ? m_batch.getPrincipalName(principalId) : null;
+        if (name == null) {
+            name = CmsPrincipal.readPrincipalIncludingHistory(getCms(), principalId).getName();
+        }
+        return name;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,349 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.workplace.explorer;
+
+import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
+import org.opencms.lock.CmsLock;
+import org.opencms.lock.CmsLockFilter;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsPrincipal;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Bulk lookup cache for the per resource information shown in explorer lists.<p>
+ *
+ * Displaying a resource with {@link CmsResourceUtil} requires the lock of the resource, the names of the
+ * lock owner, creator and last modifier, the name of the project the resource is locked or modified in and
+ * the permission set of the current user. Reading these one row at a time results in many redundant lookups,
+ * since most resources of a folder share the same few users and projects.<p>
+ *
+ * This class loads the information for a whole page of resources at once, reading every distinct principal and
+ * project only a single time. Locks are looked up once per parent folder: if neither the folder, nor one of its
+ * parents or children is locked, all resources of the folder without siblings get the null lock without a
+ * further lookup. Permission sets are still checked per resource, since they also depend on the resource type
+ * and the access control entries of the resource itself, but these checks are answered from the permission cache
+ * of the memory monitor after the first page.<p>
+ *
+ * Resource utility objects using the batch (see {@link CmsResourceUtil#setBatch(CmsResourceUtilBatch)})
+ * take the values from here and fall back to their own lookups for everything not loaded.<p>
+ *
+ * The caches are safe for concurrent use, so the next page can be loaded in the background
+ * with {@link #prefetch(CmsObject, Collection)} while the current page is displayed.<p>
+ *
+ * @since 11.0.0
+ */
+public class CmsResourceUtilBatch {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsResourceUtilBatch.class);
+
+    /** The structure ids of the resources loaded so far. */
+    private Set<CmsUUID> m_loaded = Collections.newSetFromMap(new ConcurrentHashMap<CmsUUID, Boolean>());
+
+    /** The locks by structure id. */
+    private Map<CmsUUID, CmsLock> m_locks = new ConcurrentHashMap<CmsUUID, CmsLock>();
+
+    /** The permission sets by structure id. */
+    private Map<CmsUUID, CmsPermissionSet> m_permissions = new ConcurrentHashMap<CmsUUID, CmsPermissionSet>();
+
+    /** The fully qualified principal names by principal id. */
+    private Map<CmsUUID, String> m_principalNames = new ConcurrentHashMap<CmsUUID, String>();
+
+    /** The project names by project id. */
+    private Map<CmsUUID, String> m_projectNames = new ConcurrentHashMap<CmsUUID, String>();
+
+    /** The project resources by project id. */
+    private Map<CmsUUID, List<String>> m_projectResources = new ConcurrentHashMap<CmsUUID, List<String>>();
+
+    /**
+     * Clears all cached data.<p>
+     */
+    public void clear() {
+
+        m_loaded.clear();
+        m_locks.clear();
+        m_permissions.clear();
+        m_principalNames.clear();
+        m_projectNames.clear();
+        m_projectResources.clear();
+    }
+
+    /**
+     * Returns the cached lock of the given resource.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the lock, or <code>null</code> if not loaded
+     */
+    public CmsLock getLock(CmsResource resource) {
+
+        return m_locks.get(resource.getStructureId());
+    }
+
+    /**
+     * Returns the cached permission set of the given resource.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the permission set, or <code>null</code> if not loaded
+     */
+    public CmsPermissionSet getPermissionSet(CmsResource resource) {
+
+        return m_permissions.get(resource.getStructureId());
+    }
+
+    /**
+     * Returns the cached fully qualified name of the given principal.<p>
+     *
+     * @param principalId the principal id
+     *
+     * @return the principal name, or <code>null</code> if not loaded
+     */
+    public String getPrincipalName(CmsUUID principalId) {
+
+        return principalId != null ? m_principalNames.get(principalId) : null;
+    }
+
+    /**
+     * Returns the cached name of the given project.<p>
+     *
+     * @param projectId the project id
+     *
+     * @return the project name, or <code>null</code> if not loaded
+     */
+    public String getProjectName(CmsUUID projectId) {
+
+        return projectId != null ? m_projectNames.get(projectId) : null;
+    }
+
+    /**
+     * Returns the resources of the given project, reading them once per batch.<p>
+     *
+     * @param cms the cms context
+     * @param project the project
+     *
+     * @return the project resources
+     *
+     * @throws CmsException if reading the project resources fails
+     */
+    public List<String> getProjectResources(CmsObject cms, CmsProject project) throws CmsException {
+
+        List<String> result = m_projectResources.get(project.getUuid());
+        if (result == null) {
+            result = Collections.unmodifiableList(new ArrayList<String>(cms.readProjectResources(project)));
+            m_projectResources.put(project.getUuid(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the given resource has already been loaded.<p>
+     *
+     * @param resource the resource
+     *
+     * @return <code>true</code> if the resource has been loaded
+     */
+    public boolean isLoaded(CmsResource resource) {
+
+        return m_loaded.contains(resource.getStructureId());
+    }
+
+    /**
+     * Loads the information of all given resources not loaded yet.<p>
+     *
+     * Every distinct principal and project is read only once, no matter how many of the resources refer to it.<p>
+     *
+     * @param cms the cms context
+     * @param resources the resources to load
+     */
+    public void load(CmsObject cms, Collection<CmsResource> resources) {
+
+        List<CmsResource> toLoad = new ArrayList<CmsResource>(resources.size());
+        for (CmsResource resource : resources) {
+            if (!m_loaded.contains(resource.getStructureId())) {
+                toLoad.add(resource);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return;
+        }
+        Set<CmsUUID> principalIds = new HashSet<CmsUUID>();
+        Set<CmsUUID> projectIds = new HashSet<CmsUUID>();
+        Map<String, Boolean> unlockedFolders = new HashMap<String, Boolean>();
+        for (CmsResource resource : toLoad) {
+            CmsResourceUtil resUtil = new CmsResourceUtil(cms, resource);
+            CmsLock lock;
+            if ((resource.getSiblingCount() <= 1) && isUnlockedFolder(cms, resource, unlockedFolders)) {
+                lock = CmsLock.getNullLock();
+                m_locks.put(resource.getStructureId(), lock);
+                resUtil.setBatch(this);
+            } else {
+                lock = resUtil.getLock();
+                m_locks.put(resource.getStructureId(), lock);
+            }
+            if (!lock.isNullLock()) {
+                principalIds.add(lock.getUserId());
+            }
+            principalIds.add(resource.getUserCreated());
+            principalIds.add(resource.getUserLastModified());
+            CmsUUID projectId = resUtil.getLockedInProjectId();
+            if ((projectId != null) && !projectId.isNullUUID()) {
+                projectIds.add(projectId);
+            }
+            m_permissions.put(resource.getStructureId(), resUtil.getPermissionSet());
+        }
+        for (CmsUUID principalId : principalIds) {
+            if ((principalId != null) && !m_principalNames.containsKey(principalId)) {
+                try {
+                    m_principalNames.put(
+                        principalId,
+                        CmsPrincipal.readPrincipalIncludingHistory(cms, principalId).getName());
+                } catch (CmsException e) {
+                    // leave it to the resource utility to handle the missing principal
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+        for (CmsUUID projectId : projectIds) {
+            if (!m_projectNames.containsKey(projectId)) {
+                try {
+                    String name;
+                    try {
+                        name = cms.readProject(projectId).getName();
+                    } catch (CmsDbEntryNotFoundException e) {
+                        name = cms.readHistoryProject(projectId).getName();
+                    }
+                    m_projectNames.put(projectId, name);
+                } catch (CmsException e) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+        for (CmsResource resource : toLoad) {
+            m_loaded.add(resource.getStructureId());
+        }
+    }
+
+    /**
+     * Loads the information of the given resources in the background.<p>
+     *
+     * The lookups use a copy of the given context, so the caller can keep using it while the prefetch is running.<p>
+     *
+     * @param cms the cms context
+     * @param resources the resources to load
+     *
+     * @return the future of the background task, or <code>null</code> if nothing needs to be loaded
+     */
+    public Future<?> prefetch(CmsObject cms, Collection<CmsResource> resources) {
+
+        final List<CmsResource> toLoad = new ArrayList<CmsResource>(resources.size());
+        for (CmsResource resource : resources) {
+            if (!m_loaded.contains(resource.getStructureId())) {
+                toLoad.add(resource);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return null;
+        }
+        final CmsObject prefetchCms;
+        try {
+            prefetchCms = OpenCms.initCmsObject(cms);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return null;
+        }
+        return OpenCms.getExecutor().submit(new Runnable() {
+
+            public void run() {
+
+                try {
+                    load(prefetchCms, toLoad);
+                } catch (Throwable t) {
+                    LOG.error(t.getLocalizedMessage(), t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks whether the parent folder of the given resource is free of locks, reading the locks once per folder.<p>
+     *
+     * @param cms the cms context
+     * @param resource the resource
+     * @param unlockedFolders the results per parent folder root path
+     *
+     * @return <code>true</code> if neither the parent folder, nor one of its parents or children is locked
+     */
+    private boolean isUnlockedFolder(CmsObject cms, CmsResource resource, Map<String, Boolean> unlockedFolders) {
+
+        String folder = CmsResource.getParentFolder(resource.getRootPath());
+        if (folder == null) {
+            return false;
+        }
+        Boolean unlocked = unlockedFolders.get(folder);
+        if (unlocked == null) {
+            if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+                // resources are never locked in the online project
+                unlocked = Boolean.TRUE;
+            } else {
+                try {
+                    unlocked = Boolean.valueOf(
+                        cms.getLockedResources(
+                            cms.getRequestContext().removeSiteRoot(folder),
+                            CmsLockFilter.FILTER_ALL).isEmpty());
+                } catch (CmsException e) {
+                    // fall back to reading the locks per resource
+                    LOG.debug(e.getLocalizedMessage(), e);
+                    unlocked = Boolean.FALSE;
+                }
+            }
+            unlockedFolders.put(folder, unlocked);
+        }
+        return unlocked.booleanValue();
+    }
+}
@@ -111,6 +111,22 @@ public class CmsModuleReplaceThread extends A_CmsReportThread {
         return "";
     }
 
+    /**
+     * @see org.opencms.report.A_CmsReportThread#hasPendingReportUpdate()
+     */
+    @Override
+    public boolean hasPendingReportUpdate() {
+
+        switch (m_phase) {
+            case 1:
+                return m_deleteThread.hasPendingReportUpdate();
+            case 2:
+                return (m_reportContent != null) || m_importThread.hasPendingReportUpdate();
+            default:
+                return false;
+        }
+    }
+
     /**
      * @see java.lang.Runnable#run()
      */
@@ -134,8 +150,12 @@ public class CmsModuleReplaceThread extends A_CmsReportThread {
                     LOG.error(e.getLocalizedMessage(), e);
                 }
             }
-            // get remaining report contents
-            m_reportContent = m_deleteThread.getReportUpdate();
+            // get remaining report contents, report updates are bounded so read until nothing is left
+            StringBuffer content = new StringBuffer(m_deleteThread.getReportUpdate());
+            while (m_deleteThread.hasPendingReportUpdate()) {
+                content.append(m_deleteThread.getReportUpdate());
+            }
+            m_reportContent = content.toString();
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_REPLACE_THREAD_START_IMPORT_0));
             }
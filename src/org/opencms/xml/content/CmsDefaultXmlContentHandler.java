@@ -112,6 +112,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import javax.servlet.ServletRequest;
@@ -643,6 +644,9 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
     /** The validation rules that cause a warning (as defined in the annotations). */
     protected Map<String, String> m_validationWarningRules;
 
+    /** The compiled validation patterns, keyed by the regular expression they were compiled from. */
+    protected Map<String, Pattern> m_validationPatterns;
+
     /** The container page only flag, indicating if this XML content should be indexed on container pages only. */
     private boolean m_containerPageOnly;
 
@@ -1999,6 +2003,13 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
                 m_validationErrorMessages.put(elementName, message);
             }
         }
+        try {
+            // compile the pattern once here, so it does not need to be compiled again for every validated value
+            getValidationPattern(regex.charAt(0) == '!' ? regex.substring(1) : regex);
+        } catch (RuntimeException e) {
+            // invalid pattern, the error will be reported when a value is validated
+            LOG.warn(e.getLocalizedMessage(), e);
+        }
     }
 
     /**
@@ -2165,6 +2176,26 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
         return resolver.resolveMacros(message);
     }
 
+    /**
+     * Returns the compiled pattern for the given validation rule regular expression.<p>
+     *
+     * Patterns are compiled only once per content handler, and since the content handler is cached together
+     * with its content definition, the compiled patterns are reused for all validations of that definition.<p>
+     *
+     * @param regex the regular expression of the validation rule, without the negation prefix
+     *
+     * @return the compiled pattern
+     */
+    protected Pattern getValidationPattern(String regex) {
+
+        Pattern pattern = m_validationPatterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            m_validationPatterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
     /**
      * Called when this content handler is initialized.<p>
      */
@@ -2176,6 +2207,7 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
         m_validationErrorMessages = new HashMap<String, String>();
         m_validationWarningRules = new HashMap<String, String>();
         m_validationWarningMessages = new HashMap<String, String>();
+        m_validationPatterns = new ConcurrentHashMap<String, Pattern>();
         m_defaultValues = new HashMap<String, String>();
         m_configurationValues = new HashMap<String, String>();
         m_searchSettings = new HashMap<String, Boolean>();
@@ -3409,7 +3441,7 @@ public class CmsDefaultXmlContentHandler implements I_CmsXmlContentHandler, I_Cm
         }
 
         // use the custom validation pattern
-        if (matchResult != Pattern.matches(regex, matchValue)) {
+        if (matchResult != getValidationPattern(regex).matcher(matchValue).matches()) {
             // generate the message
             String message = getValidationMessage(cms, value, regex, valueStr, matchResult, isWarning);
             if (isWarning) {
@@ -524,7 +524,7 @@ public class CmsXmlContent extends A_CmsXmlDocument {
         if (m_file != null) {
             relativeRoot = CmsResource.getParentFolder(cms.getSitePath(m_file));
         }
-        return new CmsLinkProcessor(cms, linkTable, getEncoding(), relativeRoot);
+        return CmsLinkProcessor.newInstance(cms, linkTable, getEncoding(), relativeRoot);
     }
 
     /**
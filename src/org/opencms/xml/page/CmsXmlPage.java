@@ -282,7 +282,7 @@ public class CmsXmlPage extends A_CmsXmlDocument {
         if ((!m_allowRelativeLinks) && (m_file != null)) {
             relativeRoot = CmsResource.getParentFolder(cms.getSitePath(m_file));
         }
-        return new CmsLinkProcessor(cms, linkTable, getEncoding(), relativeRoot);
+        return CmsLinkProcessor.newInstance(cms, linkTable, getEncoding(), relativeRoot);
     }
 
     /**
@@ -0,0 +1,200 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cache;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link CmsLruCache}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsLruCacheBenchmark {
+
+    /**
+     * Simple cache object used as fixture.<p>
+     */
+    static class CacheObject implements I_CmsLruCacheObject {
+
+        /** The cache costs. */
+        private int m_costs;
+
+        /** The next object. */
+        private I_CmsLruCacheObject m_next;
+
+        /** The previous object. */
+        private I_CmsLruCacheObject m_previous;
+
+        /**
+         * Creates a new cache object.<p>
+         *
+         * @param costs the cache costs
+         */
+        CacheObject(int costs) {
+
+            m_costs = costs;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#addToLruCache()
+         */
+        public void addToLruCache() {
+
+            // nothing to do
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
+         */
+        public int getLruCacheCosts() {
+
+            return m_costs;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getNextLruObject()
+         */
+        public I_CmsLruCacheObject getNextLruObject() {
+
+            return m_next;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getPreviousLruObject()
+         */
+        public I_CmsLruCacheObject getPreviousLruObject() {
+
+            return m_previous;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getValue()
+         */
+        public Object getValue() {
+
+            return this;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#removeFromLruCache()
+         */
+        public void removeFromLruCache() {
+
+            // nothing to do
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setNextLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setNextLruObject(I_CmsLruCacheObject theNextObject) {
+
+            m_next = theNextObject;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setPreviousLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setPreviousLruObject(I_CmsLruCacheObject thePreviousObject) {
+
+            m_previous = thePreviousObject;
+        }
+    }
+
+    /** The number of fixture objects. */
+    private static final int COUNT = 10000;
+
+    /** The cache. */
+    private CmsLruCache m_cache;
+
+    /** The current position in the fixture data. */
+    private int m_index;
+
+    /** The fixture objects. */
+    private CacheObject[] m_objects;
+
+    /**
+     * Adds objects, so that the least recently used objects are removed from the cache.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public boolean add() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_cache.add(m_objects[m_index]);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(4711L);
+        m_objects = new CacheObject[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            m_objects[i] = new CacheObject(100 + random.nextInt(1000));
+        }
+        // the cache can hold about half of the objects
+        m_cache = new CmsLruCache(COUNT * 300L, COUNT * 250L, 2000);
+        for (int i = 0; i < COUNT; i++) {
+            m_cache.add(m_objects[i]);
+        }
+    }
+
+    /**
+     * Touches objects from 4 threads concurrently.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean touchConcurrent() {
+
+        // not synchronized, the index is only used to spread the accesses
+        m_index = (m_index + 7) % COUNT;
+        return m_cache.touch(m_objects[m_index]);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsRequestContext;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsUser;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.CmsBenchmarkFixtures;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the permission cache key generation in {@link CmsCacheKey}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsCacheKeyBenchmark {
+
+    /** The number of fixture resources. */
+    private static final int COUNT = 1024;
+
+    /** The database context. */
+    private CmsDbContext m_dbc;
+
+    /** The current position in the fixture data. */
+    private int m_index;
+
+    /** The cache key generator. */
+    private CmsCacheKey m_keyGenerator;
+
+    /** The fixture resources. */
+    private CmsResource[] m_resources;
+
+    /**
+     * Generates a permission cache key.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String permissionKey() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_keyGenerator.getCacheKeyForUserPermissions(
+            "p",
+            m_dbc,
+            m_resources[m_index],
+            CmsPermissionSet.ACCESS_READ);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_keyGenerator = new CmsCacheKey();
+        CmsUser user = new CmsUser(
+            CmsUUID.getConstantUUID("benchmark"),
+            "Guest",
+            "",
+            "",
+            "",
+            "",
+            0,
+            I_CmsPrincipal.FLAG_ENABLED,
+            0,
+            Collections.<String, Object> emptyMap());
+        CmsProject project = new CmsProject(
+            CmsProject.ONLINE_PROJECT_ID,
+            CmsProject.ONLINE_PROJECT_NAME,
+            "",
+            CmsUUID.getNullUUID(),
+            CmsUUID.getNullUUID(),
+            CmsUUID.getNullUUID(),
+            0,
+            0,
+            CmsProject.PROJECT_TYPE_NORMAL);
+        CmsRequestContext context = new CmsRequestContext(
+            user,
+            project,
+            "/index.html",
+            null,
+            "/sites/default",
+            false,
+            Locale.ENGLISH,
+            "UTF-8",
+            "127.0.0.1",
+            0,
+            null,
+            null,
+            "");
+        m_dbc = new CmsDbContext(context);
+        List<String> ids = CmsBenchmarkFixtures.generateUuidStrings(2 * COUNT);
+        m_resources = new CmsResource[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            m_resources[i] = new CmsResource(
+                new CmsUUID(ids.get(2 * i)),
+                new CmsUUID(ids.get((2 * i) + 1)),
+                "/sites/default/benchmark/file" + i + ".html",
+                1,
+                false,
+                0,
+                CmsProject.ONLINE_PROJECT_ID,
+                CmsResource.STATE_UNCHANGED,
+                0,
+                CmsUUID.getNullUUID(),
+                0,
+                CmsUUID.getNullUUID(),
+                CmsResource.DATE_RELEASED_DEFAULT,
+                CmsResource.DATE_EXPIRED_DEFAULT,
+                1,
+                100,
+                0,
+                1);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link CmsFlexCacheKey#matchRequestKey(CmsFlexRequestKey)}.<p>
+ *
+ * Since the key matching runs for every cached element of a page, the allocation per match matters
+ * as much as the time, run with <code>-PjmhProfiler=gc</code> to see it.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsFlexCacheKeyBenchmark {
+
+    /**
+     * Request key with fixed values, which does not need a request or a running OpenCms instance.<p>
+     */
+    static class FixedRequestKey extends CmsFlexRequestKey {
+
+        /** The request parameters. */
+        private Map<String, String[]> m_params;
+
+        /**
+         * Creates a new request key.<p>
+         */
+        FixedRequestKey() {
+
+            m_params = new HashMap<String, String[]>();
+            m_params.put("page", new String[] {"2"});
+            m_params.put("category", new String[] {"news"});
+            m_params.put("__locale", new String[] {"en"});
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getAttributes()
+         */
+        @Override
+        public Map<String, Object> getAttributes() {
+
+            return Collections.emptyMap();
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getContainerElement()
+         */
+        @Override
+        public String getContainerElement() {
+
+            return "1234567_tc_";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getDevice()
+         */
+        @Override
+        public String getDevice() {
+
+            return "desktop";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getElement()
+         */
+        @Override
+        public String getElement() {
+
+            return null;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getEncoding()
+         */
+        @Override
+        public String getEncoding() {
+
+            return "UTF-8";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getIp()
+         */
+        @Override
+        public String getIp() {
+
+            return "127.0.0.1";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getLocale()
+         */
+        @Override
+        public String getLocale() {
+
+            return "en";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getParams()
+         */
+        @Override
+        public Map<String, String[]> getParams() {
+
+            return m_params;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getSite()
+         */
+        @Override
+        public String getSite() {
+
+            return "/sites/default";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getUri()
+         */
+        @Override
+        public String getUri() {
+
+            return "/sites/default/news/index.html";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getUser()
+         */
+        @Override
+        public String getUser() {
+
+            return "Guest";
+        }
+    }
+
+    /** Cache key with the directive "always". */
+    private CmsFlexCacheKey m_alwaysKey;
+
+    /** Cache key with several directives, as used for typical template elements. */
+    private CmsFlexCacheKey m_complexKey;
+
+    /** Cache key with the directive "params". */
+    private CmsFlexCacheKey m_paramsKey;
+
+    /** The request key. */
+    private CmsFlexRequestKey m_requestKey;
+
+    /** Cache key with the directive "uri". */
+    private CmsFlexCacheKey m_uriKey;
+
+    /**
+     * Matches a key with the directive "always".<p>
+     *
+     * @return the variation
+     */
+    @Benchmark
+    public String matchAlways() {
+
+        return m_alwaysKey.matchRequestKey(m_requestKey);
+    }
+
+    /**
+     * Matches a key with several directives.<p>
+     *
+     * @return the variation
+     */
+    @Benchmark
+    public String matchComplex() {
+
+        return m_complexKey.matchRequestKey(m_requestKey);
+    }
+
+    /**
+     * Matches a key with the directive "params".<p>
+     *
+     * @return the variation
+     */
+    @Benchmark
+    public String matchParams() {
+
+        return m_paramsKey.matchRequestKey(m_requestKey);
+    }
+
+    /**
+     * Matches a key with the directive "uri".<p>
+     *
+     * @return the variation
+     */
+    @Benchmark
+    public String matchUri() {
+
+        return m_uriKey.matchRequestKey(m_requestKey);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_requestKey = new FixedRequestKey();
+        String resource = "/system/modules/org.opencms.benchmark/elements/teaser.jsp";
+        m_alwaysKey = new CmsFlexCacheKey(resource, "always", true);
+        m_uriKey = new CmsFlexCacheKey(resource, "uri", true);
+        m_paramsKey = new CmsFlexCacheKey(resource, "uri;params=(page,category)", true);
+        m_complexKey = new CmsFlexCacheKey(
+            resource,
+            "uri;site;locale;device;container-element;user;params=(page,category)",
+            true);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.site;
+
+import org.opencms.test.CmsBenchmarkFixtures;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the request and root path lookups of {@link CmsSiteManagerImpl}.<p>
+ *
+ * Every fifth site is configured outside of the "/sites/" folder, so these sites are found
+ * with the index of additional site roots.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsSiteManagerBenchmark {
+
+    /** The number of lookup fixtures. */
+    private static final int COUNT = 1024;
+
+    /** The number of configured sites. */
+    @Param({"10", "1000"})
+    public int m_sites;
+
+    /** The current position in the fixture data. */
+    private int m_index;
+
+    /** The root paths to look up. */
+    private String[] m_rootPaths;
+
+    /** The requests to match. */
+    private HttpServletRequest[] m_requests;
+
+    /** The site manager. */
+    private CmsSiteManagerImpl m_siteManager;
+
+    /**
+     * Creates a request for the given server.<p>
+     *
+     * @param scheme the scheme
+     * @param serverName the server name
+     * @param port the port
+     *
+     * @return the request
+     */
+    private static HttpServletRequest createRequest(final String scheme, final String serverName, final int port) {
+
+        return (HttpServletRequest)Proxy.newProxyInstance(
+            CmsSiteManagerBenchmark.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) {
+
+                    String name = method.getName();
+                    if ("getScheme".equals(name)) {
+                        return scheme;
+                    } else if ("getServerName".equals(name)) {
+                        return serverName;
+                    } else if ("getServerPort".equals(name)) {
+                        return Integer.valueOf(port);
+                    }
+                    return null;
+                }
+            });
+    }
+
+    /**
+     * Returns the site root for the site with the given number.<p>
+     *
+     * @param site the site number
+     *
+     * @return the site root
+     */
+    private static String getSiteRoot(int site) {
+
+        return (site % 5) == 0 ? "/customers/group" + (site % 7) + "/site" + site : "/sites/site" + site;
+    }
+
+    /**
+     * Looks up sites by resource root paths.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public CmsSite getSiteForRootPath() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_siteManager.getSiteForRootPath(m_rootPaths[m_index]);
+    }
+
+    /**
+     * Looks up site roots by resource root paths.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String getSiteRoot() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_siteManager.getSiteRoot(m_rootPaths[m_index]);
+    }
+
+    /**
+     * Matches requests to sites.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public CmsSite matchRequest() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_siteManager.matchRequest(m_requests[m_index]);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        m_siteManager = new CmsSiteManagerImpl();
+        for (int i = 0; i < m_sites; i++) {
+            m_siteManager.addAliasToConfigSite("http://alias" + i + ".example.org", "false", "0");
+            m_siteManager.addSite(
+                "http://www.site" + i + ".example.org",
+                getSiteRoot(i),
+                "Site " + i,
+                null,
+                null,
+                "false",
+                null,
+                "https://www.site" + i + ".example.org",
+                "false",
+                "false",
+                "false");
+        }
+        Random random = new Random(CmsBenchmarkFixtures.SEED);
+        m_rootPaths = new String[COUNT];
+        m_requests = new HttpServletRequest[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            int site = random.nextInt(m_sites);
+            m_rootPaths[i] = getSiteRoot(site) + "/folder" + random.nextInt(10) + "/index.html";
+            switch (random.nextInt(3)) {
+                case 0:
+                    m_requests[i] = createRequest("http", "alias" + site + ".example.org", 80);
+                    break;
+                case 1:
+                    m_requests[i] = createRequest("https", "WWW.SITE" + site + ".EXAMPLE.ORG", 443);
+                    break;
+                default:
+                    m_requests[i] = createRequest("http", "www.site" + site + ".example.org", 80);
+                    break;
+            }
+        }
+    }
+}
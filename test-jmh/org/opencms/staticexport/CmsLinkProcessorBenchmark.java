@@ -0,0 +1,117 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.relations.CmsRelationType;
+import org.opencms.test.CmsBenchmarkFixtures;
+
+import java.util.concurrent.TimeUnit;
+
+import org.htmlparser.util.ParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link CmsLinkProcessor#processLinks(String)} and the {@link CmsStreamingLinkProcessor}.<p>
+ *
+ * The link processors are used without a CMS context, so the links of the link table are inserted unchanged.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsLinkProcessorBenchmark {
+
+    /** The number of paragraphs in the HTML. */
+    @Param({"10", "500"})
+    public int m_paragraphs;
+
+    /** The HTML to process. */
+    private String m_html;
+
+    /** The link table. */
+    private CmsLinkTable m_linkTable;
+
+    /**
+     * Processes the links of the HTML.<p>
+     *
+     * @return the result
+     *
+     * @throws ParserException if parsing fails
+     */
+    @Benchmark
+    public String processLinks() throws ParserException {
+
+        CmsLinkProcessor processor = new CmsLinkProcessor(null, m_linkTable, CmsEncoder.ENCODING_UTF_8, null);
+        return processor.processLinks(m_html);
+    }
+
+    /**
+     * Processes the links of the HTML with the streaming link processor.<p>
+     *
+     * @return the result
+     *
+     * @throws ParserException if parsing fails
+     */
+    @Benchmark
+    public String processLinksStreaming() throws ParserException {
+
+        CmsLinkProcessor processor = new CmsStreamingLinkProcessor(
+            null,
+            m_linkTable,
+            CmsEncoder.ENCODING_UTF_8,
+            null);
+        return processor.processLinks(m_html);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_html = CmsBenchmarkFixtures.generateHtmlWithLinkMacros(m_paragraphs);
+        m_linkTable = new CmsLinkTable();
+        for (int i = 0; i < m_paragraphs; i++) {
+            m_linkTable.addLink(CmsRelationType.HYPERLINK, "http://www.example.org/page" + i + ".html", false);
+            m_linkTable.addLink(CmsRelationType.EMBEDDED_IMAGE, "http://www.example.org/image" + i + ".png", false);
+        }
+    }
+}
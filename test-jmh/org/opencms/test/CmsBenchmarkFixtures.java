@@ -0,0 +1,232 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generators for the fixture data used by the JMH benchmarks.<p>
+ *
+ * All generators use a fixed random seed, so the same data is generated for every benchmark run
+ * and the results of different releases can be compared.<p>
+ */
+public final class CmsBenchmarkFixtures {
+
+    /** The random seed used by all generators. */
+    public static final long SEED = 4711L;
+
+    /** Some words used to generate text. */
+    private static final String[] WORDS = {
+        "lorem",
+        "ipsum",
+        "dolor",
+        "sit",
+        "amet",
+        "consectetur",
+        "adipiscing",
+        "elit",
+        "sed",
+        "do",
+        "eiusmod",
+        "tempor"};
+
+    /**
+     * Hide constructor to prevent generation of class instances.<p>
+     */
+    private CmsBenchmarkFixtures() {
+
+        // empty
+    }
+
+    /**
+     * Generates a HTML fragment with the given number of paragraphs, each containing a link and an image.<p>
+     *
+     * The links and images use the link macros <code>%(link0)</code>, <code>%(link1)</code>, ...
+     * as they are stored in XML content, so they can be processed with a link table
+     * containing <code>2 * paragraphs</code> links.<p>
+     *
+     * @param paragraphs the number of paragraphs
+     *
+     * @return the HTML fragment
+     */
+    public static String generateHtmlWithLinkMacros(int paragraphs) {
+
+        Random random = new Random(SEED);
+        StringBuffer result = new StringBuffer(paragraphs * 200);
+        int link = 0;
+        for (int i = 0; i < paragraphs; i++) {
+            result.append("<p class=\"para\">");
+            result.append(generateText(random, 20));
+            result.append(" <a href=\"%(link").append(link++).append(")\">");
+            result.append(generateText(random, 3));
+            result.append("</a> ");
+            result.append("<img src=\"%(link").append(link++).append(")\" alt=\"image\" />");
+            result.append(generateText(random, 10));
+            result.append("</p>\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Generates a text containing the given number of macros, separated by some words.<p>
+     *
+     * @param macros the number of macros
+     *
+     * @return the text
+     */
+    public static String generateMacroText(int macros) {
+
+        Random random = new Random(SEED);
+        StringBuffer result = new StringBuffer(macros * 60);
+        for (int i = 0; i < macros; i++) {
+            result.append(generateText(random, 5));
+            result.append(" %(key").append(i % 10).append(") ");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Generates a map of macro values for the macros used in {@link #generateMacroText(int)}.<p>
+     *
+     * @return the macro values
+     */
+    public static Map<String, String> generateMacroValues() {
+
+        Map<String, String> result = new HashMap<String, String>();
+        for (int i = 0; i < 10; i++) {
+            result.put("key" + i, "value" + i);
+        }
+        return result;
+    }
+
+    /**
+     * Generates a text with the given number of words.<p>
+     *
+     * @param words the number of words
+     *
+     * @return the text
+     */
+    public static String generateText(int words) {
+
+        return generateText(new Random(SEED), words);
+    }
+
+    /**
+     * Generates UUID strings.<p>
+     *
+     * @param count the number of UUID strings to generate
+     *
+     * @return the UUID strings
+     */
+    public static List<String> generateUuidStrings(int count) {
+
+        Random random = new Random(SEED);
+        List<String> result = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new java.util.UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        return result;
+    }
+
+    /**
+     * Generates an XML content for the schema returned by {@link #generateXmlContentSchema()}.<p>
+     *
+     * @param schemaSystemId the system id of the schema
+     * @param entries the number of nested entries
+     *
+     * @return the XML content
+     */
+    public static String generateXmlContent(String schemaSystemId, int entries) {
+
+        Random random = new Random(SEED);
+        StringBuffer result = new StringBuffer(entries * 300);
+        result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        result.append("<BenchmarkContents xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ");
+        result.append("xsi:noNamespaceSchemaLocation=\"").append(schemaSystemId).append("\">\n");
+        result.append("<BenchmarkContent language=\"en\">\n");
+        for (int i = 0; i < entries; i++) {
+            result.append("<Title><![CDATA[").append(generateText(random, 5)).append("]]></Title>\n");
+            result.append("<Date>").append(1500000000000L + (i * 1000L)).append("</Date>\n");
+            result.append("<Text><links/><content><![CDATA[<p>");
+            result.append(generateText(random, 40));
+            result.append("</p>]]></content></Text>\n");
+        }
+        result.append("</BenchmarkContent>\n");
+        result.append("</BenchmarkContents>\n");
+        return result.toString();
+    }
+
+    /**
+     * Generates the XML schema used for the XML content benchmarks.<p>
+     *
+     * @return the XML schema
+     */
+    public static String generateXmlContentSchema() {
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" elementFormDefault=\"qualified\">\n"
+            + "<xsd:include schemaLocation=\"opencms://opencms-xmlcontent.xsd\"/>\n"
+            + "<xsd:element name=\"BenchmarkContents\" type=\"OpenCmsBenchmarkContents\"/>\n"
+            + "<xsd:complexType name=\"OpenCmsBenchmarkContents\"><xsd:sequence>\n"
+            + "<xsd:element name=\"BenchmarkContent\" type=\"OpenCmsBenchmarkContent\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>\n"
+            + "</xsd:sequence></xsd:complexType>\n"
+            + "<xsd:complexType name=\"OpenCmsBenchmarkContent\"><xsd:sequence>\n"
+            + "<xsd:element name=\"Title\" type=\"OpenCmsString\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>\n"
+            + "<xsd:element name=\"Date\" type=\"OpenCmsDateTime\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>\n"
+            + "<xsd:element name=\"Text\" type=\"OpenCmsHtml\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>\n"
+            + "</xsd:sequence>\n"
+            + "<xsd:attribute name=\"language\" type=\"OpenCmsLocale\" use=\"required\"/>\n"
+            + "</xsd:complexType>\n"
+            + "<xsd:annotation><xsd:appinfo/></xsd:annotation>\n"
+            + "</xsd:schema>\n";
+    }
+
+    /**
+     * Generates a text with the given number of words using the given random number generator.<p>
+     *
+     * @param random the random number generator
+     * @param words the number of words
+     *
+     * @return the text
+     */
+    private static String generateText(Random random, int words) {
+
+        StringBuffer result = new StringBuffer(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                result.append(' ');
+            }
+            result.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return result.toString();
+    }
+}
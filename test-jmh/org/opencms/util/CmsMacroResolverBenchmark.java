@@ -0,0 +1,102 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import org.opencms.test.CmsBenchmarkFixtures;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link CmsMacroResolver#resolveMacros(String)}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsMacroResolverBenchmark {
+
+    /** The number of macros in the text. */
+    @Param({"10", "1000"})
+    public int m_macros;
+
+    /** The macro resolver. */
+    private CmsMacroResolver m_resolver;
+
+    /** The text containing the macros. */
+    private String m_text;
+
+    /** A text without macros. */
+    private String m_textWithoutMacros;
+
+    /**
+     * Resolves a text containing macros.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String resolveMacros() {
+
+        return m_resolver.resolveMacros(m_text);
+    }
+
+    /**
+     * Resolves a text not containing any macros.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String resolveNoMacros() {
+
+        return m_resolver.resolveMacros(m_textWithoutMacros);
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_text = CmsBenchmarkFixtures.generateMacroText(m_macros);
+        m_textWithoutMacros = CmsBenchmarkFixtures.generateText(m_macros * 6);
+        m_resolver = CmsMacroResolver.newInstance().setAdditionalMacros(CmsBenchmarkFixtures.generateMacroValues());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.util;
+
+import org.opencms.test.CmsBenchmarkFixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for parsing and formatting {@link CmsUUID}s.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsUUIDBenchmark {
+
+    /** The number of UUIDs used. */
+    private static final int COUNT = 1024;
+
+    /** The current position in the fixture data. */
+    private int m_index;
+
+    /** The UUID strings. */
+    private List<String> m_strings;
+
+    /** The parsed UUIDs. */
+    private CmsUUID[] m_uuids;
+
+    /**
+     * Formats a UUID as string.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String format() {
+
+        m_index = (m_index + 1) % COUNT;
+        return m_uuids[m_index].toString();
+    }
+
+    /**
+     * Parses a UUID from a string.<p>
+     *
+     * @return the result
+     */
+    @Benchmark
+    public CmsUUID parse() {
+
+        m_index = (m_index + 1) % COUNT;
+        return new CmsUUID(m_strings.get(m_index));
+    }
+
+    /**
+     * Generates the fixture data.<p>
+     */
+    @Setup
+    public void setUp() {
+
+        m_strings = CmsBenchmarkFixtures.generateUuidStrings(COUNT);
+        m_uuids = new CmsUUID[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            m_uuids[i] = new CmsUUID(m_strings.get(i));
+        }
+    }
+}
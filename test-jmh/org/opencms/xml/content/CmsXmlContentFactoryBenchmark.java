@@ -0,0 +1,105 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.content;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.test.CmsBenchmarkFixtures;
+import org.opencms.xml.CmsXmlContentDefinition;
+import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.CmsXmlException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link CmsXmlContentFactory#unmarshal(String, String, org.xml.sax.EntityResolver)}.<p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CmsXmlContentFactoryBenchmark {
+
+    /** The schema id. */
+    private static final String SCHEMA_SYSTEM_ID = "http://www.opencms.org/benchmark.xsd";
+
+    /** The number of nested entries in the XML content. */
+    @Param({"10", "300"})
+    public int m_entries;
+
+    /** The XML content. */
+    private String m_content;
+
+    /** The entity resolver. */
+    private CmsXmlEntityResolver m_resolver;
+
+    /**
+     * Generates the fixture data.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Setup
+    public void setUp() throws Exception {
+
+        m_resolver = new CmsXmlEntityResolver(null);
+        CmsXmlContentDefinition definition = CmsXmlContentDefinition.unmarshal(
+            CmsBenchmarkFixtures.generateXmlContentSchema(),
+            SCHEMA_SYSTEM_ID,
+            m_resolver);
+        CmsXmlEntityResolver.cacheSystemId(
+            SCHEMA_SYSTEM_ID,
+            definition.getSchema().asXML().getBytes(CmsEncoder.ENCODING_UTF_8));
+        m_content = CmsBenchmarkFixtures.generateXmlContent(SCHEMA_SYSTEM_ID, m_entries);
+    }
+
+    /**
+     * Unmarshals the XML content.<p>
+     *
+     * @return the result
+     *
+     * @throws CmsXmlException if something goes wrong
+     */
+    @Benchmark
+    public CmsXmlContent unmarshal() throws CmsXmlException {
+
+        return CmsXmlContentFactory.unmarshal(m_content, CmsEncoder.ENCODING_UTF_8, m_resolver);
+    }
+}
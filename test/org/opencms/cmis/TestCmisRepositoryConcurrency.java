@@ -0,0 +1,366 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cmis;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ObjectInFolderList;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyStringImpl;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests concurrent access to a CMIS repository.<p>
+ */
+public class TestCmisRepositoryConcurrency extends OpenCmsTestCase {
+
+    /** The number of reads per test run. */
+    private static final int READS = 320;
+
+    /** The number of threads used for the parallel reads. */
+    private static final int THREADS = 16;
+
+    /**
+     * Call context for the CMIS repository which uses the given user name and password.<p>
+     */
+    static class TestCallContext extends CmsCmisCallContext {
+
+        /** The password. */
+        private String m_password;
+
+        /** The user name. */
+        private String m_username;
+
+        /**
+         * Creates a new call context.<p>
+         *
+         * @param username the user name
+         * @param password the password
+         */
+        TestCallContext(String username, String password) {
+
+            super(null, null);
+            m_username = username;
+            m_password = password;
+        }
+
+        /**
+         * @see org.opencms.cmis.CmsCmisCallContext#getPassword()
+         */
+        @Override
+        public String getPassword() {
+
+            return m_password;
+        }
+
+        /**
+         * @see org.opencms.cmis.CmsCmisCallContext#getUsername()
+         */
+        @Override
+        public String getUsername() {
+
+            return m_username;
+        }
+
+        /**
+         * @see org.opencms.cmis.CmsCmisCallContext#isObjectInfoRequired()
+         */
+        @Override
+        public boolean isObjectInfoRequired() {
+
+            return false;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmisRepositoryConcurrency(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmisRepositoryConcurrency.class.getName());
+        suite.addTest(new TestCmisRepositoryConcurrency("testNoRepositoryMonitor"));
+        suite.addTest(new TestCmisRepositoryConcurrency("testParallelReads"));
+        suite.addTest(new TestCmisRepositoryConcurrency("testParallelWrites"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+        return wrapper;
+    }
+
+    /**
+     * Tests that no public repository operation synchronizes on the whole repository.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testNoRepositoryMonitor() throws Exception {
+
+        for (Class<?> cls : new Class<?>[] {
+            CmsCmisRepository.class,
+            A_CmsCmisRepository.class,
+            CmsCmisResourceHelper.class,
+            CmsCmisRelationHelper.class}) {
+            for (Method method : cls.getDeclaredMethods()) {
+                if (Modifier.isPublic(method.getModifiers())) {
+                    assertFalse(
+                        cls.getSimpleName() + "." + method.getName() + " must not be synchronized",
+                        Modifier.isSynchronized(method.getModifiers()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that parallel reads of a folder return the same result as sequential reads.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testParallelReads() throws Exception {
+
+        final CmsCmisRepository repository = new CmsCmisRepository();
+        repository.setName("concurrency-test");
+        repository.addConfigurationParameter(CmsCmisRepository.PARAM_PROJECT, CmsProject.ONLINE_PROJECT_NAME);
+        repository.initConfiguration();
+        repository.initializeCms(getCmsObject());
+        final String rootId = repository.getRepositoryInfo().getRootFolderId();
+
+        final int expected = readChildren(repository, rootId);
+        assertTrue("root folder should have children", expected > 0);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < READS; i++) {
+            assertEquals(expected, readChildren(repository, rootId));
+        }
+        long sequential = System.currentTimeMillis() - start;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            start = System.currentTimeMillis();
+            for (int i = 0; i < READS; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+
+                    public Integer call() {
+
+                        return Integer.valueOf(readChildren(repository, rootId));
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(expected, result.get().intValue());
+            }
+            long parallel = System.currentTimeMillis() - start;
+            echo(
+                "CMIS getChildren: "
+                    + READS
+                    + " reads sequential "
+                    + sequential
+                    + " ms, with "
+                    + THREADS
+                    + " threads "
+                    + parallel
+                    + " ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that parallel writes to the same folder and the same document neither fail nor lose updates.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testParallelWrites() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing parallel CMIS writes to the same folder and document");
+
+        String folderPath = "/cmis-concurrency/";
+        CmsResource folder = cms.createResource(folderPath, CmsResourceTypeFolder.getStaticTypeId());
+        cms.unlockResource(folderPath);
+        String sharedPath = folderPath + "shared.txt";
+        final CmsResource shared = cms.createResource(sharedPath, CmsResourceTypePlain.getStaticTypeId());
+        cms.unlockResource(sharedPath);
+
+        final CmsCmisRepository repository = new CmsCmisRepository();
+        repository.setName("concurrency-write-test");
+        repository.addConfigurationParameter(
+            CmsCmisRepository.PARAM_PROJECT,
+            cms.getRequestContext().getCurrentProject().getName());
+        repository.initConfiguration();
+        repository.initializeCms(cms);
+        final String folderId = folder.getStructureId().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < THREADS; i++) {
+                final String title = "title-" + i;
+                final String name = "doc" + i + ".txt";
+                results.add(executor.submit(new Callable<String>() {
+
+                    public String call() {
+
+                        TestCallContext context = new TestCallContext("Admin", "admin");
+                        PropertiesImpl docProperties = new PropertiesImpl();
+                        docProperties.addProperty(new PropertyStringImpl(PropertyIds.NAME, name));
+                        byte[] content = title.getBytes();
+                        String id = repository.createDocument(
+                            context,
+                            docProperties,
+                            folderId,
+                            new ContentStreamImpl(
+                                name,
+                                BigInteger.valueOf(content.length),
+                                "text/plain",
+                                new ByteArrayInputStream(content)),
+                            null,
+                            null,
+                            null,
+                            null);
+                        PropertiesImpl titleProperties = new PropertiesImpl();
+                        titleProperties.addProperty(
+                            new PropertyStringImpl(
+                                CmsCmisTypeManager.PROPERTY_PREFIX + CmsPropertyDefinition.PROPERTY_TITLE,
+                                title));
+                        repository.updateProperties(context, new Holder<String>(id), null, titleProperties);
+                        repository.updateProperties(
+                            context,
+                            new Holder<String>(shared.getStructureId().toString()),
+                            null,
+                            titleProperties);
+                        return id;
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (Throwable failure : failures) {
+            echo("Parallel CMIS write failed: " + failure);
+        }
+        assertTrue(failures.size() + " parallel CMIS writes failed", failures.isEmpty());
+
+        // every created document must exist with its own title, and nothing may remain locked
+        assertEquals(THREADS + 1, cms.getFilesInFolder(folderPath).size());
+        for (int i = 0; i < THREADS; i++) {
+            String path = folderPath + "doc" + i + ".txt";
+            CmsProperty title = cms.readPropertyObject(path, CmsPropertyDefinition.PROPERTY_TITLE, false);
+            assertEquals("title-" + i, title.getValue());
+            assertTrue(cms.getLock(path).isUnlocked());
+        }
+        String sharedTitle = cms.readPropertyObject(sharedPath, CmsPropertyDefinition.PROPERTY_TITLE, false).getValue();
+        assertTrue(sharedTitle.startsWith("title-"));
+        assertTrue(cms.getLock(sharedPath).isUnlocked());
+    }
+
+    /**
+     * Reads the children of a folder as guest and returns their number.<p>
+     *
+     * @param repository the repository
+     * @param folderId the id of the folder
+     *
+     * @return the number of children
+     */
+    int readChildren(CmsCmisRepository repository, String folderId) {
+
+        ObjectInFolderList children = repository.getChildren(
+            new TestCallContext(null, null),
+            folderId,
+            null,
+            null,
+            false,
+            IncludeRelationships.NONE,
+            null,
+            false,
+            BigInteger.valueOf(1000),
+            BigInteger.ZERO);
+        return children.getObjects().size();
+    }
+}
@@ -61,6 +61,8 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         // $JUnit-BEGIN$
         suite.addTest(TestQueryProperties.suite());
+        suite.addTest(new TestSuite(TestCmsReadPool.class));
+        suite.addTest(new TestSuite(TestCmsUrlNameMappingCache.class));
         suite.addTest(TestPublishHistory.suite());
         suite.addTest(TestSubscriptionManager.suite());
         suite.addTest(TestAliases.suite());
@@ -0,0 +1,242 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import org.opencms.db.generic.CmsSqlManager;
+import org.opencms.file.CmsProject;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Tests the routing of read-only online project queries to a read replica,
+ * with two in-memory HSQLDB databases as primary and replica.<p>
+ */
+public class TestCmsReadPool extends OpenCmsTestCase {
+
+    /**
+     * SQL manager that gets its connections from the test pools.<p>
+     */
+    static class CmsTestSqlManager extends CmsSqlManager {
+
+        /** The test pools by pool URL. */
+        private Map<String, HikariDataSource> m_pools;
+
+        /**
+         * Creates a new SQL manager for the test pools.<p>
+         *
+         * @param pools the test pools by pool URL
+         * @param lag the replica lag in milliseconds
+         */
+        CmsTestSqlManager(Map<String, HikariDataSource> pools, long lag) {
+
+            m_pools = pools;
+            m_queries.put("C_TEST_READ", "SELECT NAME FROM TEST_${PROJECT}_NAMES WHERE ID=?");
+            init(0, POOL_PRIMARY, POOL_REPLICA, lag);
+        }
+
+        /**
+         * @see org.opencms.db.CmsSqlManager#getConnectionByUrl(java.lang.String)
+         */
+        @Override
+        public Connection getConnectionByUrl(String dbPoolUrl) throws SQLException {
+
+            return m_pools.get(dbPoolUrl).getConnection();
+        }
+
+        /**
+         * @see org.opencms.db.generic.CmsSqlManager#isReadPoolAllowed(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID)
+         */
+        @Override
+        protected boolean isReadPoolAllowed(CmsDbContext dbc, CmsUUID projectId) {
+
+            // there is no request context in this test, so only the project is checked
+            return CmsProject.ONLINE_PROJECT_ID.equals(projectId);
+        }
+    }
+
+    /** The replica lag used in the tests. */
+    private static final long LAG = 1000;
+
+    /** The URL of the primary pool. */
+    private static final String POOL_PRIMARY = "test:primary";
+
+    /** The URL of the replica pool. */
+    private static final String POOL_REPLICA = "test:replica";
+
+    /** Counter to create new databases for each test. */
+    private static int m_dbCount;
+
+    /** The test pools by pool URL. */
+    private Map<String, HikariDataSource> m_pools;
+
+    /** The SQL manager. */
+    private CmsTestSqlManager m_sqlManager;
+
+    /**
+     * Tests that the primary database is used if no replica connection can be obtained.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFallbackToPrimary() throws Exception {
+
+        assertEquals("replica", readName(CmsProject.ONLINE_PROJECT_ID));
+        m_pools.get(POOL_REPLICA).close();
+        assertEquals("primary", readName(CmsProject.ONLINE_PROJECT_ID));
+    }
+
+    /**
+     * Tests that only online project reads are sent to the replica.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testOnlineReadsUseReplica() throws Exception {
+
+        assertEquals("replica", readName(CmsProject.ONLINE_PROJECT_ID));
+        assertEquals("primary offline", readName(new CmsUUID()));
+    }
+
+    /**
+     * Tests that the primary database is used while a publish job runs, and for the lag time after it.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPrimaryDuringAndAfterPublish() throws Exception {
+
+        assertEquals("replica", readName(CmsProject.ONLINE_PROJECT_ID));
+
+        org.opencms.db.CmsSqlManager.publishStarted();
+        try {
+            assertEquals("primary", readName(CmsProject.ONLINE_PROJECT_ID));
+            // a publish that runs longer than the lag must not make the replica available
+            Thread.sleep(LAG + 200);
+            assertEquals("primary", readName(CmsProject.ONLINE_PROJECT_ID));
+        } finally {
+            org.opencms.db.CmsSqlManager.publishFinished();
+        }
+
+        // the lag is measured from the end of the publish job
+        assertEquals("primary", readName(CmsProject.ONLINE_PROJECT_ID));
+        Thread.sleep(LAG / 2);
+        assertEquals("primary", readName(CmsProject.ONLINE_PROJECT_ID));
+        Thread.sleep(LAG);
+        assertEquals("replica", readName(CmsProject.ONLINE_PROJECT_ID));
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_pools = new HashMap<String, HikariDataSource>();
+        m_pools.put(POOL_PRIMARY, createDatabase("primary"));
+        m_pools.put(POOL_REPLICA, createDatabase("replica"));
+        m_sqlManager = new CmsTestSqlManager(m_pools, LAG);
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        for (HikariDataSource pool : m_pools.values()) {
+            pool.close();
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Creates a new in-memory database with a pool, the names in the database start with the given name.<p>
+     *
+     * @param name the name of the database
+     *
+     * @return the pool for the database
+     *
+     * @throws SQLException if something goes wrong
+     */
+    private HikariDataSource createDatabase(String name) throws SQLException {
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:hsqldb:mem:readpool" + name + (m_dbCount++));
+        config.setUsername("SA");
+        config.setPassword("");
+        config.setMaximumPoolSize(2);
+        HikariDataSource pool = new HikariDataSource(config);
+        Connection con = pool.getConnection();
+        try {
+            Statement stmnt = con.createStatement();
+            stmnt.execute("CREATE TABLE TEST_ONLINE_NAMES (ID INT PRIMARY KEY, NAME VARCHAR(32))");
+            stmnt.execute("CREATE TABLE TEST_OFFLINE_NAMES (ID INT PRIMARY KEY, NAME VARCHAR(32))");
+            stmnt.execute("INSERT INTO TEST_ONLINE_NAMES VALUES (1, '" + name + "')");
+            stmnt.execute("INSERT INTO TEST_OFFLINE_NAMES VALUES (1, '" + name + " offline')");
+            stmnt.close();
+        } finally {
+            con.close();
+        }
+        return pool;
+    }
+
+    /**
+     * Reads the test name in the given project with a read connection of the SQL manager.<p>
+     *
+     * @param projectId the project to read the name in
+     *
+     * @return the name
+     *
+     * @throws SQLException if something goes wrong
+     */
+    private String readName(CmsUUID projectId) throws SQLException {
+
+        CmsDbContext dbc = new CmsDbContext();
+        Connection con = m_sqlManager.getReadConnection(dbc, projectId);
+        PreparedStatement stmnt = null;
+        ResultSet res = null;
+        try {
+            stmnt = m_sqlManager.getPreparedStatement(con, projectId, "C_TEST_READ");
+            stmnt.setInt(1, 1);
+            res = stmnt.executeQuery();
+            return res.next() ? res.getString(1) : null;
+        } finally {
+            m_sqlManager.closeAll(dbc, con, stmnt, res);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import org.opencms.db.urlname.CmsUrlNameMappingCache;
+import org.opencms.db.urlname.CmsUrlNameMappingEntry;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests the {@link CmsUrlNameMappingCache}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsUrlNameMappingCache extends OpenCmsTestCase {
+
+    /**
+     * Tests that values read before an invalidation are not cached.<p>
+     */
+    public void testGeneration() {
+
+        CmsUrlNameMappingCache cache = new CmsUrlNameMappingCache(100);
+        CmsUUID id = new CmsUUID();
+        long generation = cache.getGeneration();
+        cache.invalidateName(true, "news");
+        cache.putId(true, "news", id, generation);
+        cache.putLatestEntries(true, id, Collections.singletonList(entry("news", id, "en")), generation);
+        assertNull(cache.getId(true, "news"));
+        assertNull(cache.getLatestEntries(true, id));
+
+        generation = cache.getGeneration();
+        cache.putId(true, "news", id, generation);
+        cache.putId(true, "unknown", null, generation);
+        assertEquals(id, cache.getId(true, "news"));
+        assertEquals(CmsUUID.getNullUUID(), cache.getId(true, "unknown"));
+        assertNull(cache.getId(false, "news"));
+    }
+
+    /**
+     * Tests that invalidating a name removes exactly the entries containing the name.<p>
+     */
+    public void testInvalidateName() {
+
+        CmsUrlNameMappingCache cache = new CmsUrlNameMappingCache(100);
+        CmsUUID id1 = new CmsUUID();
+        CmsUUID id2 = new CmsUUID();
+        CmsUUID id3 = new CmsUUID();
+        long generation = cache.getGeneration();
+        cache.putLatestEntries(
+            true,
+            id1,
+            Arrays.asList(entry("news", id1, "en"), entry("nachrichten", id1, "de")),
+            generation);
+        cache.putLatestEntries(true, id2, Collections.singletonList(entry("news", id2, "fr")), generation);
+        cache.putLatestEntries(true, id3, Collections.singletonList(entry("events", id3, "en")), generation);
+        cache.putLatestEntries(false, id1, Collections.singletonList(entry("news", id1, "en")), generation);
+
+        cache.invalidateName(true, "news");
+        assertNull(cache.getLatestEntries(true, id1));
+        assertNull(cache.getLatestEntries(true, id2));
+        assertEquals(1, cache.getLatestEntries(true, id3).size());
+        assertEquals(1, cache.getLatestEntries(false, id1).size());
+
+        // entries cached again are found with their new names
+        generation = cache.getGeneration();
+        cache.putLatestEntries(true, id1, Collections.singletonList(entry("nachrichten", id1, "de")), generation);
+        cache.invalidateName(true, "news");
+        assertEquals(1, cache.getLatestEntries(true, id1).size());
+        cache.invalidateName(true, "nachrichten");
+        assertNull(cache.getLatestEntries(true, id1));
+    }
+
+    /**
+     * Tests that invalidating a name also works for entries which were replaced or removed in the meantime.<p>
+     */
+    public void testInvalidateNameAfterRemoval() {
+
+        CmsUrlNameMappingCache cache = new CmsUrlNameMappingCache(100);
+        CmsUUID id = new CmsUUID();
+        long generation = cache.getGeneration();
+        cache.putLatestEntries(true, id, Collections.singletonList(entry("old", id, "en")), generation);
+        cache.putLatestEntries(true, id, Collections.singletonList(entry("new", id, "en")), generation);
+
+        // the replaced entry is not indexed by its old name anymore
+        cache.invalidateName(true, "old");
+        assertEquals("new", cache.getLatestEntries(true, id).get(0).getName());
+        cache.invalidateName(true, "new");
+        assertNull(cache.getLatestEntries(true, id));
+
+        generation = cache.getGeneration();
+        cache.putLatestEntries(true, id, Collections.singletonList(entry("new", id, "en")), generation);
+        cache.invalidateStructureId(true, id);
+        assertNull(cache.getLatestEntries(true, id));
+        generation = cache.getGeneration();
+        cache.putLatestEntries(true, id, Collections.singletonList(entry("new", id, "en")), generation);
+        cache.invalidateName(true, "new");
+        assertNull(cache.getLatestEntries(true, id));
+    }
+
+    /**
+     * Creates a mapping entry.<p>
+     *
+     * @param name the URL name
+     * @param structureId the structure id
+     * @param locale the locale
+     *
+     * @return the mapping entry
+     */
+    private CmsUrlNameMappingEntry entry(String name, CmsUUID structureId, String locale) {
+
+        return new CmsUrlNameMappingEntry(
+            name,
+            structureId,
+            CmsUrlNameMappingEntry.MAPPING_STATUS_PUBLISHED,
+            System.currentTimeMillis(),
+            locale);
+    }
+}
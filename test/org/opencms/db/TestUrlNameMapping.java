@@ -43,7 +43,10 @@ import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import junit.framework.Test;
 
@@ -314,6 +317,44 @@ public class TestUrlNameMapping extends OpenCmsTestCase {
         assertEquals(res.getStructureId(), onlineCms.readIdForUrlName(baseName));
     }
 
+    /**
+     * Tests reading the URL names of multiple resources at once, before and after publishing.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testReadBestUrlNames() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        CmsObject onlineCms = getOnlineCmsObject();
+        String baseName = "testReadBestUrlNames";
+        CmsResource res1 = createFile();
+        CmsResource res2 = createFile();
+        CmsResource res3 = createFile();
+        String name1 = addMapping(baseName + 1, res1);
+        String name2 = addMapping(baseName + 2, res2);
+        // read one of the names individually first, so both cached and uncached ids are requested
+        assertEquals(name1, readBestUrlName(cms, res1.getStructureId()));
+        List<CmsUUID> ids = Arrays.asList(res1.getStructureId(), res2.getStructureId(), res3.getStructureId());
+        Map<CmsUUID, String> names = readBestUrlNames(cms, ids);
+        assertEquals(2, names.size());
+        assertEquals(name1, names.get(res1.getStructureId()));
+        assertEquals(name2, names.get(res2.getStructureId()));
+        assertFalse(names.containsKey(res3.getStructureId()));
+        assertTrue(readBestUrlNames(onlineCms, ids).isEmpty());
+
+        publish();
+        names = readBestUrlNames(onlineCms, ids);
+        assertEquals(name1, names.get(res1.getStructureId()));
+        assertEquals(name2, names.get(res2.getStructureId()));
+
+        String changedName2 = addMapping(baseName + "2changed", res2);
+        assertEquals(changedName2, readBestUrlNames(cms, ids).get(res2.getStructureId()));
+        assertEquals(name2, readBestUrlNames(onlineCms, ids).get(res2.getStructureId()));
+        publish();
+        assertEquals(changedName2, readBestUrlNames(onlineCms, ids).get(res2.getStructureId()));
+        assertEquals(name1, readBestUrlNames(onlineCms, ids).get(res1.getStructureId()));
+    }
+
     /**
      * Tests that the urlname.replace property mapping is handled correctly, and that the urlname.replace property works the way it should.<p>
      *
@@ -514,4 +555,22 @@ public class TestUrlNameMapping extends OpenCmsTestCase {
             OpenCms.getLocaleManager().getDefaultLocales());
     }
 
+    /**
+     * Reads the best URL names for the given structure ids.<p>
+     *
+     * @param cms the current CMS context
+     * @param structureIds the structure IDs of the resources
+     *
+     * @return the best URL names by structure id
+     *
+     * @throws CmsException
+     */
+    Map<CmsUUID, String> readBestUrlNames(CmsObject cms, List<CmsUUID> structureIds) throws CmsException {
+
+        return cms.readBestUrlNames(
+            structureIds,
+            cms.getRequestContext().getLocale(),
+            OpenCms.getLocaleManager().getDefaultLocales());
+    }
+
 }
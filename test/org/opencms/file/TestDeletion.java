@@ -31,6 +31,8 @@ import org.opencms.db.CmsResourceState;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.lock.CmsLockType;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsPermissionViolationException;
@@ -39,6 +41,7 @@ import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -83,6 +86,7 @@ public class TestDeletion extends OpenCmsTestCase {
         suite.addTest(new TestDeletion("testDeleteFolderWithLockedSiblings"));
         suite.addTest(new TestDeletion("testDeleteFolderWithLockedResources"));
         suite.addTest(new TestDeletion("testDeleteWithoutWritePermissions"));
+        suite.addTest(new TestDeletion("testLockAndDeleteResources"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -451,6 +455,60 @@ public class TestDeletion extends OpenCmsTestCase {
             cms.readResources(folder, CmsResourceFilter.ALL, true).size());
     }
 
+    /**
+     * Tests locking and deleting a list of resources at once.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLockAndDeleteResources() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing locking and deleting a list of resources at once");
+
+        String folder = "/mytestfolder4/";
+        cms.createResource(folder, CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        for (int i = 0; i < 3; i++) {
+            resources.add(cms.createResource(folder + "file" + i + ".txt", CmsResourceTypePlain.getStaticTypeId()));
+        }
+        // the files have been created with an inherited lock only
+        cms.unlockResource(folder);
+
+        // lock one of the files as another user
+        cms.loginUser("test1", "test1");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        cms.lockResource(folder + "file1.txt");
+        cms = getCmsObject();
+
+        List<CmsResource> locked = cms.lockResources(resources);
+        assertEquals(2, locked.size());
+        assertFalse(locked.contains(resources.get(1)));
+        assertLock(cms, folder + "file0.txt", CmsLockType.EXCLUSIVE);
+        assertLock(cms, folder + "file2.txt", CmsLockType.EXCLUSIVE);
+
+        final List<CmsEvent> events = new ArrayList<CmsEvent>();
+        I_CmsEventListener listener = new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                events.add(event);
+            }
+        };
+        OpenCms.addCmsEventListener(listener, new int[] {I_CmsEventListener.EVENT_RESOURCE_DELETED});
+        try {
+            cms.deleteResources(locked, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        } finally {
+            OpenCms.removeCmsEventListener(listener);
+        }
+
+        // the new resources are removed, and the event is fired only once
+        assertFalse(cms.existsResource(folder + "file0.txt", CmsResourceFilter.ALL));
+        assertTrue(cms.existsResource(folder + "file1.txt", CmsResourceFilter.ALL));
+        assertFalse(cms.existsResource(folder + "file2.txt", CmsResourceFilter.ALL));
+        assertEquals(1, events.size());
+        assertEquals(2, ((List<?>)events.get(0).getData().get(I_CmsEventListener.KEY_RESOURCES)).size());
+    }
+
     /**
      * Tests user group deletion.<p>
      *
@@ -0,0 +1,345 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpSession;
+
+/**
+ * Tests for the variations generated by the CmsFlexCacheKey.<p>
+ */
+public class TestCmsFlexCacheKey extends OpenCmsTestCase {
+
+    /** The resource name used for the cache keys. */
+    private static final String RESOURCE = "/system/modules/org.opencms.test/elements/teaser.jsp";
+
+    /** The URI of the test request. */
+    private static final String URI = "/sites/default/news/index.html";
+
+    /**
+     * Request key with configurable values, which does not need a request or a running OpenCms instance.<p>
+     */
+    static class TestRequestKey extends CmsFlexRequestKey {
+
+        /** The request attributes. */
+        Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+        /** The request parameters. */
+        Map<String, String[]> m_params = new HashMap<String, String[]>();
+
+        /** The server port. */
+        int m_port = 443;
+
+        /** The scheme. */
+        String m_scheme = "https";
+
+        /** The session, or <code>null</code> if there is no session. */
+        HttpSession m_session;
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getAttributes()
+         */
+        @Override
+        public Map<String, Object> getAttributes() {
+
+            return m_attributes;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getContainerElement()
+         */
+        @Override
+        public String getContainerElement() {
+
+            return "1234567_tc_";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getDevice()
+         */
+        @Override
+        public String getDevice() {
+
+            return "desktop";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getElement()
+         */
+        @Override
+        public String getElement() {
+
+            return null;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getEncoding()
+         */
+        @Override
+        public String getEncoding() {
+
+            return "UTF-8";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getIp()
+         */
+        @Override
+        public String getIp() {
+
+            return "127.0.0.1";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getLocale()
+         */
+        @Override
+        public String getLocale() {
+
+            return "en";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getParams()
+         */
+        @Override
+        public Map<String, String[]> getParams() {
+
+            return m_params;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getPort()
+         */
+        @Override
+        public Integer getPort() {
+
+            return Integer.valueOf(m_port);
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getScheme()
+         */
+        @Override
+        public String getScheme() {
+
+            return m_scheme;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getSession()
+         */
+        @Override
+        public HttpSession getSession() {
+
+            return m_session;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getSite()
+         */
+        @Override
+        public String getSite() {
+
+            return "/sites/default";
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getUri()
+         */
+        @Override
+        public String getUri() {
+
+            return URI;
+        }
+
+        /**
+         * @see org.opencms.flex.CmsFlexRequestKey#getUser()
+         */
+        @Override
+        public String getUser() {
+
+            return "Guest";
+        }
+    }
+
+    /**
+     * Creates a session which only supports reading the given attributes.<p>
+     *
+     * @param attributes the session attributes
+     *
+     * @return the session
+     */
+    private static HttpSession createSession(final Map<String, Object> attributes) {
+
+        return (HttpSession)Proxy.newProxyInstance(
+            HttpSession.class.getClassLoader(),
+            new Class<?>[] {HttpSession.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) {
+
+                    if ("getAttribute".equals(method.getName())) {
+                        return attributes.get(args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * Tests the variations for the directives "always" and "never".<p>
+     */
+    public void testAlwaysAndNever() {
+
+        TestRequestKey key = new TestRequestKey();
+        assertEquals("always", match("always", key));
+        assertEquals("always", match("true", key));
+        assertNull(match("never", key));
+        assertNull(match("always;never", key));
+        assertNull(match("unknown-directive", key));
+    }
+
+    /**
+     * Tests the variations for request attributes.<p>
+     */
+    public void testAttrs() {
+
+        TestRequestKey key = new TestRequestKey();
+        key.m_attributes.put("color", "blue");
+        assertEquals("attrs=(color=blue);", match("attrs=(color)", key));
+        assertEquals("uri=(" + URI + ");attrs=();", match("uri;attrs=(shape)", key));
+        assertNull(match("uri;no-attrs=(color)", key));
+        assertNull(match("uri;no-attrs", key));
+        assertEquals("uri=(" + URI + ");", match("uri;no-attrs=(shape)", key));
+        key.m_attributes.clear();
+        assertEquals("uri=(" + URI + ");", match("uri;no-attrs", key));
+    }
+
+    /**
+     * Tests the variations for request parameters.<p>
+     */
+    public void testParams() {
+
+        TestRequestKey key = new TestRequestKey();
+        key.m_params.put("page", new String[] {"2", "3"});
+        assertEquals("uri=(" + URI + ");params=(page=2);", match("uri;params=(page)", key));
+        assertEquals("params=(page=2);", match("params", key));
+        assertEquals("uri=(" + URI + ");params=();", match("uri;params=(category)", key));
+        assertNull(match("uri;no-params=(page)", key));
+        assertNull(match("uri;no-params", key));
+        assertEquals("uri=(" + URI + ");", match("uri;no-params=(category)", key));
+        key.m_params = Collections.emptyMap();
+        assertEquals("uri=(" + URI + ");", match("uri;no-params", key));
+        assertEquals("params=();", match("params", key));
+    }
+
+    /**
+     * Tests the variations for schemes and ports.<p>
+     */
+    public void testSchemesAndPorts() {
+
+        TestRequestKey key = new TestRequestKey();
+        String directives = "uri;schemes=(https);ports=(443)";
+        assertEquals("uri=(" + URI + ");schemes=(https);ports=(443);", match(directives, key));
+        key.m_port = 80;
+        assertNull(match(directives, key));
+        key.m_port = 443;
+        key.m_scheme = "http";
+        assertNull(match(directives, key));
+        assertEquals("schemes=(http);ports=(443);", match("schemes=(http,https);ports=(80,443)", key));
+    }
+
+    /**
+     * Tests the variations for session attributes, with and without a matching attribute in the session.<p>
+     */
+    public void testSession() {
+
+        TestRequestKey key = new TestRequestKey();
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("cart", "42");
+        key.m_session = createSession(attributes);
+        assertEquals("uri=(" + URI + ");session=(cart=42);", match("uri;session=(cart)", key));
+        // the session part is left out if no listed attribute is found
+        assertEquals("uri=(" + URI + ");", match("uri;session=(wishlist)", key));
+        assertNull(match("session=(wishlist)", key));
+        key.m_session = null;
+        assertEquals("uri=(" + URI + ");", match("uri;session=(cart)", key));
+    }
+
+    /**
+     * Tests the variations for the directives which use a single value of the request.<p>
+     */
+    public void testSimpleValues() {
+
+        TestRequestKey key = new TestRequestKey();
+        assertEquals("uri=(" + URI + ");", match("uri", key));
+        // the order of the parts does not depend on the order of the directives
+        assertEquals(
+            "uri=("
+                + URI
+                + ");site=(/sites/default);device=(desktop);container-element=(1234567_tc_);"
+                + "locale=(en);encoding=(UTF-8);ip=(127.0.0.1);user=(Guest);",
+            match("user;ip;encoding;locale;container-element;device;site;uri", key));
+    }
+
+    /**
+     * Tests the timeout part of the variation.<p>
+     */
+    public void testTimeout() {
+
+        TestRequestKey key = new TestRequestKey();
+        assertEquals("uri=(" + URI + ");timeout=(60);", match("uri;timeout=60", key));
+        assertEquals("timeout=(60);", match("timeout=60", key));
+        assertEquals(
+            "uri=(" + URI + ");params=();schemes=(https);timeout=(5);",
+            match("timeout=5;schemes=(https);params=(page);uri", key));
+    }
+
+    /**
+     * Matches the request key against a cache key with the given directives.<p>
+     *
+     * @param directives the cache directives
+     * @param key the request key
+     *
+     * @return the variation, or <code>null</code> if the request must not be cached
+     */
+    private String match(String directives, CmsFlexRequestKey key) {
+
+        return new CmsFlexCacheKey(RESOURCE, directives, true).matchRequestKey(key);
+    }
+}
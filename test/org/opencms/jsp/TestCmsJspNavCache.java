@@ -0,0 +1,333 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.jsp;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the {@link CmsJspNavCache} and the navigation built from it by the {@link CmsJspNavBuilder}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsJspNavCache extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspNavCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspNavCache.class.getName());
+
+        suite.addTest(new TestCmsJspNavCache("testCacheHit"));
+        suite.addTest(new TestCmsJspNavCache("testInvalidateOnPublish"));
+        suite.addTest(new TestCmsJspNavCache("testPermissionFilter"));
+        suite.addTest(new TestCmsJspNavCache("testReleaseAndExpirationFilter"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the navigation data of a folder is read only once.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCacheHit() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the navigation data of a folder is cached");
+        createNavFolder(cms, "/navcache_hit/", "a.txt", "b.txt");
+        CmsObject online = getOnlineCmsObject(cms);
+
+        CmsJspNavCache cache = OpenCms.getNavigationCache();
+        List<CmsJspNavCache.CmsNavEntry> entries = cache.getEntries(online, "/navcache_hit/");
+        assertEquals(2, entries.size());
+        assertSame(entries, cache.getEntries(online, "/navcache_hit/"));
+        assertSame(entries, cache.getEntries(online, "/navcache_hit"));
+        assertSame(entries, cache.getEntries(getGuestCmsObject(), "/navcache_hit/"));
+
+        assertEquals(
+            Arrays.asList("/navcache_hit/a.txt", "/navcache_hit/b.txt"),
+            getNavigation(online, "/navcache_hit/"));
+    }
+
+    /**
+     * Tests that the navigation data of a folder is read again after a resource in it was published.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidateOnPublish() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached navigation data is removed when a resource is published");
+        createNavFolder(cms, "/navcache_publish/", "a.txt", "b.txt");
+        createNavFolder(cms, "/navcache_other/", "a.txt");
+        CmsObject online = getOnlineCmsObject(cms);
+
+        CmsJspNavCache cache = OpenCms.getNavigationCache();
+        List<CmsJspNavCache.CmsNavEntry> entries = cache.getEntries(online, "/navcache_publish/");
+        List<CmsJspNavCache.CmsNavEntry> otherEntries = cache.getEntries(online, "/navcache_other/");
+        assertEquals(
+            Arrays.asList("/navcache_publish/a.txt", "/navcache_publish/b.txt"),
+            getNavigation(online, "/navcache_publish/"));
+
+        createNavFile(cms, "/navcache_publish/c.txt", 3);
+        publish(cms, "/navcache_publish/c.txt");
+
+        List<CmsJspNavCache.CmsNavEntry> newEntries = cache.getEntries(online, "/navcache_publish/");
+        assertNotSame(entries, newEntries);
+        assertEquals(3, newEntries.size());
+        assertEquals(
+            Arrays.asList("/navcache_publish/a.txt", "/navcache_publish/b.txt", "/navcache_publish/c.txt"),
+            getNavigation(online, "/navcache_publish/"));
+        // folders not affected by the publish stay in the cache
+        assertSame(otherEntries, cache.getEntries(online, "/navcache_other/"));
+
+        // changed navigation properties are published, too
+        cms.lockResource("/navcache_publish/a.txt");
+        cms.writePropertyObject(
+            "/navcache_publish/a.txt",
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, "4", null));
+        publish(cms, "/navcache_publish/a.txt");
+        assertEquals(
+            Arrays.asList("/navcache_publish/b.txt", "/navcache_publish/c.txt", "/navcache_publish/a.txt"),
+            getNavigation(online, "/navcache_publish/"));
+    }
+
+    /**
+     * Tests that the cached navigation is filtered by the permissions of the current user.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilter() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached navigation is filtered by the permissions of the current user");
+        createNavFolder(cms, "/navcache_permissions/", "a.txt", "b.txt", "c.txt");
+        cms.lockResource("/navcache_permissions/b.txt");
+        cms.chacc(
+            "/navcache_permissions/b.txt",
+            I_CmsPrincipal.PRINCIPAL_USER,
+            OpenCms.getDefaultUsers().getUserGuest(),
+            0,
+            CmsPermissionSet.PERMISSION_READ,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE);
+        publish(cms, "/navcache_permissions/b.txt");
+        CmsObject online = getOnlineCmsObject(cms);
+        CmsObject guest = getGuestCmsObject();
+
+        // the guest reads the folder first, so the cached data must not depend on the user who read it
+        assertEquals(
+            Arrays.asList("/navcache_permissions/a.txt", "/navcache_permissions/c.txt"),
+            getNavigation(guest, "/navcache_permissions/"));
+        assertEquals(
+            Arrays.asList(
+                "/navcache_permissions/a.txt",
+                "/navcache_permissions/b.txt",
+                "/navcache_permissions/c.txt"),
+            getNavigation(online, "/navcache_permissions/"));
+        assertEquals(
+            Arrays.asList("/navcache_permissions/a.txt", "/navcache_permissions/c.txt"),
+            getNavigation(guest, "/navcache_permissions/"));
+    }
+
+    /**
+     * Tests that the cached navigation is filtered by the release and expiration dates.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReleaseAndExpirationFilter() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the cached navigation is filtered by the release and expiration dates");
+        createNavFolder(cms, "/navcache_dates/", "a.txt", "b.txt", "c.txt");
+        long now = System.currentTimeMillis();
+        cms.lockResource("/navcache_dates/b.txt");
+        cms.setDateReleased("/navcache_dates/b.txt", now + (24 * 60 * 60 * 1000), false);
+        cms.lockResource("/navcache_dates/c.txt");
+        cms.setDateExpired("/navcache_dates/c.txt", now - (60 * 1000), false);
+        publish(cms, "/navcache_dates/");
+        CmsObject online = getOnlineCmsObject(cms);
+
+        // the cache contains all resources, the dates are checked when the navigation is built
+        assertEquals(3, OpenCms.getNavigationCache().getEntries(online, "/navcache_dates/").size());
+        assertEquals(Arrays.asList("/navcache_dates/a.txt"), getNavigation(online, "/navcache_dates/"));
+        assertEquals(Arrays.asList("/navcache_dates/a.txt"), getNavigation(getGuestCmsObject(), "/navcache_dates/"));
+    }
+
+    /**
+     * Creates a file with navigation properties.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the file
+     * @param navPos the navigation position
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createNavFile(CmsObject cms, String path, int navPos) throws Exception {
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, path, null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, String.valueOf(navPos), null));
+        cms.createResource(
+            path,
+            OpenCms.getResourceManager().getResourceType(CmsResourceTypePlain.getStaticTypeName()),
+            "test".getBytes(),
+            properties);
+    }
+
+    /**
+     * Creates and publishes a folder with files in the navigation.<p>
+     *
+     * @param cms the CMS context
+     * @param folder the path of the folder
+     * @param names the names of the files, in navigation order
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createNavFolder(CmsObject cms, String folder, String... names) throws Exception {
+
+        cms.createResource(
+            folder,
+            OpenCms.getResourceManager().getResourceType(CmsResourceTypeFolder.getStaticTypeName()));
+        for (int i = 0; i < names.length; i++) {
+            createNavFile(cms, folder + names[i], i + 1);
+        }
+        publish(cms, folder);
+    }
+
+    /**
+     * Returns a CMS context of the guest user in the Online project.<p>
+     *
+     * @return the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getGuestCmsObject() throws Exception {
+
+        CmsObject guest = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        guest.getRequestContext().setSiteRoot("/sites/default/");
+        return guest;
+    }
+
+    /**
+     * Returns the site paths of the navigation elements of a folder.<p>
+     *
+     * @param cms the CMS context
+     * @param folder the folder
+     *
+     * @return the site paths of the navigation elements
+     */
+    private List<String> getNavigation(CmsObject cms, String folder) {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsJspNavElement element : new CmsJspNavBuilder(cms).getNavigationForFolder(folder)) {
+            result.add(element.getResourceName());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the given CMS context in the Online project.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @return the CMS context in the Online project
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getOnlineCmsObject(CmsObject cms) throws Exception {
+
+        CmsObject online = OpenCms.initCmsObject(cms);
+        online.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return online;
+    }
+
+    /**
+     * Publishes a resource and waits until the publish job is finished.<p>
+     *
+     * @param cms the CMS context
+     * @param path the path of the resource
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms, String path) throws Exception {
+
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
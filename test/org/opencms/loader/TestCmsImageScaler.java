@@ -110,6 +110,26 @@ public class TestCmsImageScaler extends OpenCmsTestCase {
         assertTrue(image.isDownScaleRequired(downScaler));
     }
 
+    /**
+     * Tests reading the image size from the image header.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testReadImageSize() throws Exception {
+
+        int[] size = CmsImageScaler.readImageSize(CmsFileUtil.readFile("org/opencms/loader/img_01.jpg"));
+        assertEquals(800, size[0]);
+        assertEquals(600, size[1]);
+
+        size = CmsImageScaler.readImageSize(CmsFileUtil.readFile("org/opencms/loader/img_02.gif"));
+        assertEquals(480, size[0]);
+        assertEquals(643, size[1]);
+
+        // no image reader available, the scaler has to decode the content
+        assertNull(CmsImageScaler.readImageSize("no image".getBytes()));
+        assertFalse(new CmsImageScaler("no image".getBytes(), "/noimage.txt").isValid());
+    }
+
     /**
      * Tests the image scaling type 5.<p>
      *
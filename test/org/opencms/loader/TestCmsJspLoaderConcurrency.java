@@ -0,0 +1,356 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.loader;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypeJsp;
+import org.opencms.flex.CmsFlexController;
+import org.opencms.flex.CmsFlexRequest;
+import org.opencms.flex.CmsFlexResponse;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsTestServletRequest;
+import org.opencms.test.OpenCmsTestServletResponse;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests concurrent updates of the JSP repository by the {@link CmsJspLoader}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsJspLoaderConcurrency extends OpenCmsTestCase {
+
+    /**
+     * Request which only supports request attributes, as needed to create a flex request.<p>
+     */
+    private static class CmsTestRequest extends OpenCmsTestServletRequest {
+
+        /** The request attributes. */
+        private Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getAttribute(java.lang.String)
+         */
+        @Override
+        public Object getAttribute(String name) {
+
+            return m_attributes.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getAttributeNames()
+         */
+        @Override
+        public Enumeration<String> getAttributeNames() {
+
+            return Collections.enumeration(m_attributes.keySet());
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getParameterMap()
+         */
+        @Override
+        public Map<String, String[]> getParameterMap() {
+
+            return Collections.emptyMap();
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getParameterValues(java.lang.String)
+         */
+        @Override
+        public String[] getParameterValues(String name) {
+
+            return null;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#removeAttribute(java.lang.String)
+         */
+        @Override
+        public void removeAttribute(String name) {
+
+            m_attributes.remove(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#setAttribute(java.lang.String, java.lang.Object)
+         */
+        @Override
+        public void setAttribute(String name, Object value) {
+
+            m_attributes.put(name, value);
+        }
+    }
+
+    /** The marker at the end of every test JSP. */
+    private static final String END_MARKER = "<%-- end of ";
+
+    /** The VFS folder of the test JSPs. */
+    private static final String FOLDER = "/jsploadertest/";
+
+    /** The JSPs included by each test JSP, the graphs of "a.jsp" and "b.jsp" share "d.jsp" and "e.jsp". */
+    private static final Map<String, String[]> INCLUDES = new LinkedHashMap<String, String[]>();
+
+    /** The number of updates per thread. */
+    private static final int ITERATIONS = 25;
+
+    /** The number of concurrent threads. */
+    private static final int THREADS = 8;
+
+    static {
+        INCLUDES.put("a.jsp", new String[] {"c.jsp", "d.jsp"});
+        INCLUDES.put("b.jsp", new String[] {"d.jsp", "e.jsp"});
+        INCLUDES.put("c.jsp", new String[] {"e.jsp"});
+        INCLUDES.put("d.jsp", new String[] {"e.jsp"});
+        INCLUDES.put("e.jsp", new String[] {});
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspLoaderConcurrency(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspLoaderConcurrency.class.getName());
+
+        suite.addTest(new TestCmsJspLoaderConcurrency("testConcurrentUpdates"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Creates the content of a test JSP.<p>
+     *
+     * @param name the name of the JSP
+     * @param version the version number to write into the content
+     *
+     * @return the JSP content
+     */
+    private static String createContent(String name, int version) {
+
+        StringBuffer result = new StringBuffer();
+        for (String include : INCLUDES.get(name)) {
+            result.append("<%@ include file=\"").append(FOLDER).append(include).append("\" %>\n");
+        }
+        // make the file large enough that a partially written file can not go unnoticed
+        for (int i = 0; i < 200; i++) {
+            result.append("<p>").append(name).append(" version ").append(version).append(" line ").append(i);
+            result.append("</p>\n");
+        }
+        result.append(END_MARKER).append(name).append(" --%>");
+        return result.toString();
+    }
+
+    /**
+     * Tests updating the JSP repository from many threads, for JSPs which include overlapping sets of JSPs,
+     * while the JSPs are changed in the VFS.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentUpdates() throws Throwable {
+
+        final CmsObject cms = getCmsObject();
+        echo("Testing concurrent updates of JSPs with overlapping includes");
+
+        cms.createResource(FOLDER, CmsResourceTypeFolder.getStaticTypeId());
+        for (String name : INCLUDES.keySet()) {
+            cms.createResource(
+                FOLDER + name,
+                CmsResourceTypeJsp.getJSPTypeId(),
+                createContent(name, 0).getBytes("UTF-8"),
+                new ArrayList<CmsProperty>());
+        }
+
+        final CmsJspLoader loader = (CmsJspLoader)OpenCms.getResourceManager().getLoader(
+            CmsJspLoader.RESOURCE_LOADER_ID);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < THREADS; t++) {
+            final String root = (t % 2) == 0 ? "a.jsp" : "b.jsp";
+            // the first thread also changes the JSPs in the VFS, so the repository files are written again
+            final boolean modify = t == 0;
+            threads.add(new Thread(new Runnable() {
+
+                public void run() {
+
+                    try {
+                        CmsObject threadCms = OpenCms.initCmsObject(cms);
+                        startSignal.await();
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            if (modify) {
+                                List<String> names = new ArrayList<String>(INCLUDES.keySet());
+                                String name = names.get(i % names.size());
+                                threadCms.lockResource(FOLDER + name);
+                                CmsFile file = threadCms.readFile(FOLDER + name);
+                                file.setContents(createContent(name, i + 1).getBytes("UTF-8"));
+                                threadCms.writeFile(file);
+                                threadCms.unlockResource(FOLDER + name);
+                            }
+                            CmsResource resource = threadCms.readResource(FOLDER + root);
+                            loader.updateJsp(resource, createController(threadCms, resource), new HashSet<String>());
+                            for (String name : getIncludeGraph(root)) {
+                                checkRepositoryFile(loader, name);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join(120000);
+            assertFalse("Thread did not finish, the JSP loader may be deadlocked", thread.isAlive());
+        }
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+        for (String name : INCLUDES.keySet()) {
+            checkRepositoryFile(loader, name);
+        }
+    }
+
+    /**
+     * Checks that the repository file of a test JSP is complete and that its includes point to the repository.<p>
+     *
+     * @param loader the JSP loader
+     * @param name the name of the test JSP
+     *
+     * @throws Exception if something goes wrong
+     */
+    void checkRepositoryFile(CmsJspLoader loader, String name) throws Exception {
+
+        File file = new File(CmsFileUtil.getRepositoryName(loader.getJspRepository(), FOLDER + name, false));
+        assertTrue("Missing repository file " + file, file.exists());
+        String content = new String(CmsFileUtil.readFile(file), "UTF-8");
+        assertTrue("Incomplete repository file " + file, content.endsWith(END_MARKER + name + " --%>"));
+        assertFalse(
+            "Unresolved include in repository file " + file,
+            content.contains("file=\"" + FOLDER));
+    }
+
+    /**
+     * Creates a flex controller for updating a JSP.<p>
+     *
+     * @param cms the current CMS context
+     * @param resource the JSP resource
+     *
+     * @return the flex controller
+     */
+    CmsFlexController createController(CmsObject cms, CmsResource resource) {
+
+        CmsTestRequest req = new CmsTestRequest();
+        OpenCmsTestServletResponse res = new OpenCmsTestServletResponse();
+        CmsFlexController controller = new CmsFlexController(
+            cms,
+            resource,
+            OpenCms.getFlexCache(),
+            req,
+            res,
+            false,
+            true);
+        CmsFlexController.setController(req, controller);
+        controller.push(new CmsFlexRequest(req, controller), new CmsFlexResponse(res, controller, false, true));
+        return controller;
+    }
+
+    /**
+     * Returns the names of a test JSP and of all JSPs it includes directly or indirectly.<p>
+     *
+     * @param name the name of the test JSP
+     *
+     * @return the names of the JSPs in the include graph
+     */
+    Set<String> getIncludeGraph(String name) {
+
+        Set<String> result = new LinkedHashSet<String>();
+        result.add(name);
+        for (String include : INCLUDES.get(name)) {
+            result.addAll(getIncludeGraph(include));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Tests that the request statistics header is delivered with the response.<p>
+ */
+public class TestCmsRequestStatisticsResponse extends OpenCmsTestCase {
+
+    /**
+     * Response which is committed with the first output, like a servlet container response without buffer.<p>
+     */
+    static class TestResponse extends OpenCmsTestServletResponse {
+
+        /** The content written to the response. */
+        ByteArrayOutputStream m_content = new ByteArrayOutputStream();
+
+        /** The headers sent with the response. */
+        Map<String, String> m_headers = new HashMap<String, String>();
+
+        /** Flag indicating the response is committed. */
+        boolean m_committed;
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#flushBuffer()
+         */
+        @Override
+        public void flushBuffer() {
+
+            m_committed = true;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#getHeader(java.lang.String)
+         */
+        @Override
+        public String getHeader(String name) {
+
+            return m_headers.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#getOutputStream()
+         */
+        @Override
+        public ServletOutputStream getOutputStream() {
+
+            return new ServletOutputStream() {
+
+                @Override
+                public boolean isReady() {
+
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+
+                    // not needed
+                }
+
+                @Override
+                public void write(int b) {
+
+                    m_committed = true;
+                    m_content.write(b);
+                }
+            };
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#getWriter()
+         */
+        @Override
+        public PrintWriter getWriter() {
+
+            return new PrintWriter(new OutputStreamWriter(getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#isCommitted()
+         */
+        @Override
+        public boolean isCommitted() {
+
+            return m_committed;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setHeader(java.lang.String, java.lang.String)
+         */
+        @Override
+        public void setHeader(String name, String value) {
+
+            // like a servlet container, headers are ignored once the response is committed
+            if (!m_committed) {
+                m_headers.put(name, value);
+            }
+        }
+    }
+
+    /**
+     * Tests that the header is sent before the first output written to the output stream.<p>
+     *
+     * @throws IOException if something goes wrong
+     */
+    public void testHeaderBeforeOutputStream() throws IOException {
+
+        TestResponse response = new TestResponse();
+        CmsRequestStatisticsResponse res = startRequest(response, true);
+        CmsRequestStatistics.recordFlexInclude();
+        res.getOutputStream().write("page".getBytes(StandardCharsets.UTF_8));
+        CmsRequestStatistics.recordFlexInclude();
+        CmsRequestStatistics.finish(res);
+
+        assertEquals("page", response.m_content.toString("UTF-8"));
+        String header = response.getHeader(CmsRequestStatistics.HEADER_REQUEST_STATISTICS);
+        assertNotNull(header);
+        // the header contains the statistics collected until the response was committed
+        assertTrue(header, header.contains("flexIncludes=1;"));
+    }
+
+    /**
+     * Tests that the header is sent before the first output written to the writer.<p>
+     *
+     * @throws IOException if something goes wrong
+     */
+    public void testHeaderBeforeWriter() throws IOException {
+
+        TestResponse response = new TestResponse();
+        CmsRequestStatisticsResponse res = startRequest(response, true);
+        PrintWriter writer = res.getWriter();
+        writer.print("page");
+        writer.flush();
+        CmsRequestStatistics.finish(res);
+
+        assertEquals("page", response.m_content.toString("UTF-8"));
+        assertNotNull(response.getHeader(CmsRequestStatistics.HEADER_REQUEST_STATISTICS));
+    }
+
+    /**
+     * Tests that the header is only sent if it is allowed.<p>
+     *
+     * @throws IOException if something goes wrong
+     */
+    public void testHeaderNotAllowed() throws IOException {
+
+        TestResponse response = new TestResponse();
+        CmsRequestStatisticsResponse res = startRequest(response, false);
+        res.getOutputStream().write("page".getBytes(StandardCharsets.UTF_8));
+        CmsRequestStatistics.finish(res);
+
+        assertNull(response.getHeader(CmsRequestStatistics.HEADER_REQUEST_STATISTICS));
+    }
+
+    /**
+     * Tests that the header is sent when the request is finished, if the response has no output.<p>
+     */
+    public void testHeaderWithoutOutput() {
+
+        TestResponse response = new TestResponse();
+        CmsRequestStatisticsResponse res = startRequest(response, true);
+        CmsRequestStatistics.recordFlexInclude();
+        CmsRequestStatistics.finish(res);
+
+        String header = response.getHeader(CmsRequestStatistics.HEADER_REQUEST_STATISTICS);
+        assertNotNull(header);
+        assertTrue(header, header.contains("flexIncludes=1;"));
+    }
+
+    /**
+     * Starts the statistics of a request and wraps the response.<p>
+     *
+     * @param response the response to wrap
+     * @param headerAllowed if the header may be written
+     *
+     * @return the wrapped response
+     */
+    private CmsRequestStatisticsResponse startRequest(TestResponse response, boolean headerAllowed) {
+
+        CmsRequestStatistics stats = CmsRequestStatistics.start("/test.html");
+        stats.setHeaderAllowed(headerAllowed);
+        return new CmsRequestStatisticsResponse(response, stats);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.relations;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for the concurrent external link checker, using a local stub HTTP server.<p>
+ */
+public class TestCmsExternalLinkChecker extends OpenCmsTestCase {
+
+    /** The number of requests currently being served. */
+    AtomicInteger m_active = new AtomicInteger();
+
+    /** The maximum number of requests served at the same time. */
+    AtomicInteger m_maxActive = new AtomicInteger();
+
+    /** The request methods received, by path. */
+    Map<String, List<String>> m_methods = Collections.synchronizedMap(new HashMap<String, List<String>>());
+
+    /** The stub server. */
+    private HttpServer m_server;
+
+    /**
+     * Tests that the checker uses HEAD first, falls back to GET and caches the results.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testHeadWithGetFallback() throws Exception {
+
+        CmsExternalLinkChecker checker = new CmsExternalLinkChecker(4, 2, 5000, 60000);
+        assertTrue(checker.isReachable(url("/ok")));
+        assertEquals(Arrays.asList("HEAD"), m_methods.get("/ok"));
+
+        assertTrue(checker.isReachable(url("/nohead")));
+        assertEquals(Arrays.asList("HEAD", "GET"), m_methods.get("/nohead"));
+
+        assertTrue(checker.isReachable(url("/redirect")));
+        assertFalse(checker.isReachable(url("/missing")));
+
+        // cached results are not requested again
+        assertTrue(checker.isReachable(url("/ok")));
+        assertEquals(1, m_methods.get("/ok").size());
+        checker.clearCache();
+        assertTrue(checker.isReachable(url("/ok")));
+        assertEquals(2, m_methods.get("/ok").size());
+
+        // other protocols are not checked
+        assertTrue(checker.isReachable("ftp://example.org/file"));
+    }
+
+    /**
+     * Tests that all URLs are checked once and the number of concurrent requests per host is limited.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCheckAllWithHostLimit() throws Exception {
+
+        CmsExternalLinkChecker checker = new CmsExternalLinkChecker(8, 2, 5000, 60000);
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            urls.add(url("/slow/" + i));
+        }
+        // duplicates are checked only once
+        urls.add(url("/slow/0"));
+        urls.add(url("/missing"));
+        final Map<String, Boolean> results = new HashMap<String, Boolean>();
+        checker.checkAll(urls, new CmsExternalLinkChecker.I_CmsResultHandler() {
+
+            public void handleResult(String url, boolean reachable) {
+
+                assertNull("url reported twice: " + url, results.put(url, Boolean.valueOf(reachable)));
+            }
+        });
+        assertEquals(11, results.size());
+        assertEquals(Boolean.FALSE, results.get(url("/missing")));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Boolean.TRUE, results.get(url("/slow/" + i)));
+            assertEquals(1, m_methods.get("/slow/" + i).size());
+        }
+        assertTrue("too many concurrent requests: " + m_maxActive.get(), m_maxActive.get() <= 2);
+        assertTrue("requests were not concurrent", m_maxActive.get() == 2);
+    }
+
+    /**
+     * Tests that the URLs of a slow host do not keep the workers from checking other hosts.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSlowHostDoesNotBlockOtherHosts() throws Exception {
+
+        CmsExternalLinkChecker checker = new CmsExternalLinkChecker(2, 1, 5000, 60000);
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            urls.add(url("/slow/" + i));
+        }
+        // same server, but a different host name
+        final String otherHost = "http://localhost:" + m_server.getAddress().getPort() + "/ok";
+        urls.add(otherHost);
+        final List<String> order = new ArrayList<String>();
+        checker.checkAll(urls, new CmsExternalLinkChecker.I_CmsResultHandler() {
+
+            public void handleResult(String url, boolean reachable) {
+
+                assertTrue(url, reachable);
+                order.add(url);
+            }
+        });
+        assertEquals(6, order.size());
+        // the other host is checked by the second worker while the first one works off the slow host
+        assertTrue("other host was blocked: " + order, order.indexOf(otherHost) < 2);
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        m_server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        m_server.createContext("/", new HttpHandler() {
+
+            public void handle(HttpExchange exchange) throws IOException {
+
+                String path = exchange.getRequestURI().getPath();
+                String method = exchange.getRequestMethod();
+                synchronized (m_methods) {
+                    List<String> methods = m_methods.get(path);
+                    if (methods == null) {
+                        methods = new ArrayList<String>();
+                        m_methods.put(path, methods);
+                    }
+                    methods.add(method);
+                }
+                int active = m_active.incrementAndGet();
+                try {
+                    int max = m_maxActive.get();
+                    while ((active > max) && !m_maxActive.compareAndSet(max, active)) {
+                        max = m_maxActive.get();
+                    }
+                    int status;
+                    if (path.startsWith("/slow/")) {
+                        Thread.sleep(100);
+                        status = 200;
+                    } else if (path.equals("/ok")) {
+                        status = 200;
+                    } else if (path.equals("/nohead")) {
+                        status = "HEAD".equals(method) ? 405 : 200;
+                    } else if (path.equals("/redirect")) {
+                        exchange.getResponseHeaders().add("Location", "/ok");
+                        status = 302;
+                    } else {
+                        status = 404;
+                    }
+                    exchange.sendResponseHeaders(status, -1);
+                    OutputStream out = exchange.getResponseBody();
+                    out.close();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    m_active.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        m_server.start();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_server.stop(0);
+        super.tearDown();
+    }
+
+    /**
+     * Returns the URL of the stub server for the given path.<p>
+     *
+     * @param path the path
+     *
+     * @return the URL
+     */
+    private String url(String path) {
+
+        return "http://127.0.0.1:" + m_server.getAddress().getPort() + path;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.report;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tests for the bounded report buffer.<p>
+ */
+public class TestCmsReportBuffer extends OpenCmsTestCase {
+
+    /**
+     * Tests that entries moved to disk can be read again, in order and including exceptions.<p>
+     */
+    public void testReadSpilledEntries() {
+
+        CmsReportBuffer buffer = new CmsReportBuffer(CmsReportBuffer.PAGE_SIZE);
+        int count = 10 * CmsReportBuffer.PAGE_SIZE;
+        for (int i = 0; i < count; i++) {
+            if ((i % 100) == 0) {
+                buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtException, new Exception("e" + i)));
+            } else {
+                buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtDefault, "m" + i));
+            }
+        }
+        try {
+            assertEquals(count, buffer.size());
+            List<CmsReportUpdateItem> items = buffer.read(0, Integer.MAX_VALUE);
+            assertEquals(count, items.size());
+            for (int i = 0; i < count; i++) {
+                CmsReportUpdateItem item = items.get(i);
+                if ((i % 100) == 0) {
+                    assertEquals(CmsReportFormatType.fmtException, item.getType());
+                    assertEquals("e" + i, ((Throwable)item.getMessage()).getMessage());
+                } else {
+                    assertEquals(CmsReportFormatType.fmtDefault, item.getType());
+                    assertEquals("m" + i, item.getMessage());
+                }
+            }
+            List<CmsReportUpdateItem> page = buffer.read(3 * CmsReportBuffer.PAGE_SIZE, CmsReportBuffer.PAGE_SIZE);
+            assertEquals(CmsReportBuffer.PAGE_SIZE, page.size());
+            assertEquals("m" + ((3 * CmsReportBuffer.PAGE_SIZE) + 1), page.get(1).getMessage());
+            assertEquals("m" + (count - 1), buffer.read(count - 1, 10).get(0).getMessage());
+        } finally {
+            buffer.dispose();
+        }
+    }
+
+    /**
+     * Tests that a transient report buffer drops entries once they have been read.<p>
+     */
+    public void testDiscard() {
+
+        CmsReportBuffer buffer = new CmsReportBuffer(CmsReportBuffer.PAGE_SIZE);
+        for (int i = 0; i < (5 * CmsReportBuffer.PAGE_SIZE); i++) {
+            buffer.add(new CmsReportUpdateItem(CmsReportFormatType.fmtDefault, "m" + i));
+        }
+        try {
+            buffer.discard(3 * CmsReportBuffer.PAGE_SIZE);
+            assertEquals(3 * CmsReportBuffer.PAGE_SIZE, buffer.getFirstAvailableIndex());
+            List<CmsReportUpdateItem> items = buffer.read(0, Integer.MAX_VALUE);
+            assertEquals(2 * CmsReportBuffer.PAGE_SIZE, items.size());
+            assertEquals("m" + (3 * CmsReportBuffer.PAGE_SIZE), items.get(0).getMessage());
+        } finally {
+            buffer.dispose();
+        }
+    }
+
+    /**
+     * Tests that a report update returns a bounded number of entries and signals the remaining output.<p>
+     */
+    public void testBoundedReportUpdate() {
+
+        CmsWorkplaceReport report = new CmsWorkplaceReport(Locale.ENGLISH, null, null);
+        int count = (2 * CmsReportBuffer.MAX_UPDATE_ENTRIES) + 1;
+        for (int i = 0; i < count; i++) {
+            report.print("m" + i, I_CmsReport.FORMAT_DEFAULT);
+        }
+        final List<CmsReportUpdateItem> received = new ArrayList<CmsReportUpdateItem>();
+        I_CmsReportUpdateFormatter formatter = new I_CmsReportUpdateFormatter() {
+
+            public String formatReportUpdate(List<CmsReportUpdateItem> updateItems) {
+
+                assertTrue(updateItems.size() <= CmsReportBuffer.MAX_UPDATE_ENTRIES);
+                received.addAll(updateItems);
+                return "";
+            }
+        };
+        try {
+            int updates = 0;
+            while (report.hasPendingUpdate()) {
+                report.getReportUpdate(formatter);
+                updates++;
+            }
+            assertEquals(3, updates);
+            assertEquals(count, received.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals("m" + i, received.get(i).getMessage());
+            }
+        } finally {
+            report.dispose();
+        }
+    }
+}
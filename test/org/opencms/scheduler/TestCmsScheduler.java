@@ -38,6 +38,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.quartz.CronScheduleBuilder;
 import org.quartz.JobBuilder;
@@ -474,6 +476,76 @@ public class TestCmsScheduler extends OpenCmsTestCase {
         scheduler.shutDown();
     }
 
+    /**
+     * Tests that overlapping executions and the job class limit are enforced with long running jobs,
+     * while other jobs are still executed.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testNoOverlapAndJobClassLimit() throws Exception {
+
+        System.out.println("Trying to run long running jobs with no overlap and job class limit in the OpenCms scheduler.");
+        TestScheduledJob.m_runCount = 0;
+        TestSleepingScheduledJob.reset();
+        // also make sure CmsUUID is initialized
+        CmsUUID.init(CmsUUID.getDummyEthernetAddress());
+
+        SortedMap<String, String> parameters = new TreeMap<String, String>();
+        parameters.put(TestSleepingScheduledJob.PARAM_SLEEP, "2500");
+
+        List<CmsScheduledJobInfo> jobs = new ArrayList<CmsScheduledJobInfo>();
+        for (int i = 0; i < 3; i++) {
+            CmsScheduledJobInfo jobInfo = new CmsScheduledJobInfo();
+            CmsContextInfo contextInfo = new CmsContextInfo();
+            contextInfo.setUserName(OpenCms.getDefaultUsers().getUserAdmin());
+            jobInfo.setContextInfo(contextInfo);
+            jobInfo.setJobName("Test job " + i);
+            jobInfo.setCronExpression("* * * * * ?");
+            if (i < 2) {
+                // two long running jobs of the same class, no overlap for the first one only
+                jobInfo.setClassName(TestSleepingScheduledJob.class.getName());
+                jobInfo.setParameters(parameters);
+                jobInfo.setNoOverlap(i == 0);
+            } else {
+                // a short running job that must not be blocked by the long running jobs
+                jobInfo.setClassName(TestScheduledJob.class.getName());
+            }
+            jobs.add(jobInfo);
+        }
+
+        // create the scheduler with the test jobs, allowing two concurrently running sleeping jobs
+        CmsScheduleManager scheduler = new CmsScheduleManager(jobs);
+        scheduler.setJobClassLimit(TestSleepingScheduledJob.class.getName(), 2);
+        scheduler.setMaxThreads(5);
+        scheduler.initialize(null);
+
+        Thread.sleep(6500);
+        scheduler.shutDown();
+
+        // at most the limit of sleeping jobs was running at the same time
+        assertTrue(TestSleepingScheduledJob.m_runCount.get() > 1);
+        assertEquals(2, TestSleepingScheduledJob.m_maxRunning.get());
+        // the short running job was not blocked
+        assertTrue(
+            "Test job run only " + TestScheduledJob.m_runCount + " times",
+            TestScheduledJob.m_runCount >= 4);
+
+        CmsScheduledJobMonitor monitor = scheduler.getJobMonitor();
+        CmsScheduledJobStatistics noOverlap = monitor.getStatistics(jobs.get(0));
+        CmsScheduledJobStatistics overlap = monitor.getStatistics(jobs.get(1));
+        System.out.println(noOverlap);
+        System.out.println(overlap);
+        // the job without overlap was never running twice and has been skipped while running
+        assertTrue(noOverlap.getExecutionCount() + noOverlap.getRunningCount() >= 2);
+        assertTrue(noOverlap.getSkippedCount() > 0);
+        assertTrue(noOverlap.getRunningCount() <= 1);
+        assertTrue(noOverlap.getLastDuration() >= 2500);
+        // the other job was skipped because of the job class limit
+        assertTrue(overlap.getSkippedCount() > 0);
+        assertEquals(0, monitor.getStatistics(jobs.get(2)).getSkippedCount());
+        assertEquals(0, monitor.getStatistics(jobs.get(2)).getFailureCount());
+    }
+
     /**
      * Tests launching of a persistent OpenCms job with the OpenCms schedule manager.<p>
      *
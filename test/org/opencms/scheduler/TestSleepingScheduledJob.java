@@ -0,0 +1,80 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.file.CmsObject;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for OpenCms scheduled jobs that sleeps for the time given in the "sleep" parameter.<p>
+ */
+public class TestSleepingScheduledJob implements I_CmsScheduledJob {
+
+    /** The parameter for the time to sleep in milliseconds. */
+    public static final String PARAM_SLEEP = "sleep";
+
+    /** The maximum number of concurrently running instances. */
+    static AtomicInteger m_maxRunning = new AtomicInteger();
+
+    /** The number of executions. */
+    static AtomicInteger m_runCount = new AtomicInteger();
+
+    /** The number of currently running instances. */
+    static AtomicInteger m_running = new AtomicInteger();
+
+    /**
+     * Resets the counters.<p>
+     */
+    static void reset() {
+
+        m_maxRunning.set(0);
+        m_runCount.set(0);
+        m_running.set(0);
+    }
+
+    /**
+     * @see org.opencms.scheduler.I_CmsScheduledJob#launch(CmsObject, Map)
+     */
+    public String launch(CmsObject cms, Map<String, String> parameters) throws Exception {
+
+        int running = m_running.incrementAndGet();
+        synchronized (m_maxRunning) {
+            m_maxRunning.set(Math.max(m_maxRunning.get(), running));
+        }
+        m_runCount.incrementAndGet();
+        try {
+            Thread.sleep(Long.parseLong(parameters.get(PARAM_SLEEP)));
+        } finally {
+            m_running.decrementAndGet();
+        }
+        return "OpenCms scheduler sleeping test job was run.";
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler.jobs;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeImage;
+import org.opencms.loader.CmsImageScaler;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the batches and the checkpoint of the {@link CmsCreateImageSizeJob}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsCreateImageSizeJob extends OpenCmsTestCase {
+
+    /** The checkpoint file used by the tests, relative to the WEB-INF folder. */
+    private static final String CHECKPOINT = "logs/imagesize-test.checkpoint";
+
+    /** The wrong image size written to the images before the job runs. */
+    private static final String WRONG_SIZE = "w:1,h:1";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsCreateImageSizeJob(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsCreateImageSizeJob.class.getName());
+
+        suite.addTest(new TestCmsCreateImageSizeJob("testBatches"));
+        suite.addTest(new TestCmsCreateImageSizeJob("testResume"));
+        suite.addTest(new TestCmsCreateImageSizeJob("testLockedImage"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that all images are updated when they are processed in several batches.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBatches() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the image size job with several batches");
+        List<CmsResource> images = prepareImages(cms);
+        assertTrue(images.size() > 3);
+
+        runJob(cms, 3);
+
+        for (CmsResource image : images) {
+            assertImageSize(cms, image, true);
+        }
+        assertFalse(getCheckpointFile().exists());
+    }
+
+    /**
+     * Tests that an image that could not be updated does not prevent later runs from processing all images.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLockedImage() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that an image locked by another user does not block the image size job");
+        List<CmsResource> images = prepareImages(cms);
+        assertTrue(images.size() > 5);
+
+        cms.createUser("imagesizeuser", "Imagesize123", "Image size job test user", null);
+        cms.addUserToGroup("imagesizeuser", OpenCms.getDefaultUsers().getGroupAdministrators());
+        CmsObject other = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        other.loginUser("imagesizeuser", "Imagesize123");
+        other.getRequestContext().setCurrentProject(other.readProject("Offline"));
+        other.getRequestContext().setSiteRoot("/sites/default/");
+        CmsResource locked = images.get(4);
+        other.lockResource(other.getSitePath(locked));
+
+        // the locked image is the second image of the second batch
+        runJob(cms, 3);
+
+        for (int i = 0; i < images.size(); i++) {
+            assertImageSize(cms, images.get(i), i != 4);
+        }
+        // the run has reached the last image, so the next run processes all images again
+        assertFalse(getCheckpointFile().exists());
+
+        other.unlockResource(other.getSitePath(locked));
+        CmsResource first = images.get(0);
+        cms.lockResource(cms.getSitePath(first));
+        cms.writePropertyObject(
+            cms.getSitePath(first),
+            new CmsProperty(CmsPropertyDefinition.PROPERTY_IMAGE_SIZE, WRONG_SIZE, null));
+        cms.unlockResource(cms.getSitePath(first));
+
+        runJob(cms, 3);
+
+        assertImageSize(cms, locked, true);
+        assertImageSize(cms, first, true);
+        assertFalse(getCheckpointFile().exists());
+    }
+
+    /**
+     * Tests that an interrupted run is continued after the checkpoint, and that the images
+     * which could not be updated before the checkpoint are retried.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testResume() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that the image size job continues after the checkpoint");
+        List<CmsResource> images = prepareImages(cms);
+        assertTrue(images.size() > 3);
+        File checkpoint = getCheckpointFile();
+        checkpoint.getParentFile().mkdirs();
+        Files.write(
+            checkpoint.toPath(),
+            Arrays.asList(images.get(2).getRootPath(), images.get(1).getRootPath()),
+            StandardCharsets.UTF_8);
+
+        runJob(cms, 2);
+
+        for (int i = 0; i < images.size(); i++) {
+            assertImageSize(cms, images.get(i), (i == 1) || (i > 2));
+        }
+        assertFalse(checkpoint.exists());
+    }
+
+    /**
+     * Checks the image size property of an image.<p>
+     *
+     * @param cms the CMS context
+     * @param image the image
+     * @param updated <code>true</code> if the image size must have been updated by the job
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void assertImageSize(CmsObject cms, CmsResource image, boolean updated) throws Exception {
+
+        String value = cms.readPropertyObject(image, CmsPropertyDefinition.PROPERTY_IMAGE_SIZE, false).getValue();
+        if (updated) {
+            CmsImageScaler scaler = new CmsImageScaler(cms.readFile(image).getContents(), image.getRootPath());
+            assertEquals(image.getRootPath(), scaler.toString(), value);
+        } else {
+            assertEquals(image.getRootPath(), WRONG_SIZE, value);
+        }
+    }
+
+    /**
+     * Returns the checkpoint file used by the tests.<p>
+     *
+     * @return the checkpoint file
+     */
+    private File getCheckpointFile() {
+
+        return new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(CHECKPOINT));
+    }
+
+    /**
+     * Writes a wrong image size to all images, and removes the checkpoint file.<p>
+     *
+     * The size is written as individual value, so siblings of an image keep their own value.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @return the images, in the order in which they are processed by the job
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<CmsResource> prepareImages(CmsObject cms) throws Exception {
+
+        List<CmsResource> images = new ArrayList<CmsResource>(
+            cms.readResources(
+                "/",
+                CmsResourceFilter.IGNORE_EXPIRATION.addRequireType(
+                    OpenCms.getResourceManager().getResourceType(
+                        CmsResourceTypeImage.getStaticTypeName()).getTypeId())));
+        Collections.sort(images, new Comparator<CmsResource>() {
+
+            public int compare(CmsResource res1, CmsResource res2) {
+
+                return res1.getRootPath().compareTo(res2.getRootPath());
+            }
+        });
+        for (CmsResource image : images) {
+            String sitePath = cms.getSitePath(image);
+            cms.lockResource(sitePath);
+            cms.writePropertyObject(
+                sitePath,
+                new CmsProperty(CmsPropertyDefinition.PROPERTY_IMAGE_SIZE, WRONG_SIZE, null));
+            cms.unlockResource(sitePath);
+        }
+        File checkpoint = getCheckpointFile();
+        if (checkpoint.exists()) {
+            assertTrue(checkpoint.delete());
+        }
+        return images;
+    }
+
+    /**
+     * Runs the image size job.<p>
+     *
+     * @param cms the CMS context
+     * @param batchSize the batch size
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void runJob(CmsObject cms, int batchSize) throws Exception {
+
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(CmsCreateImageSizeJob.PARAM_BATCHSIZE, String.valueOf(batchSize));
+        parameters.put(CmsCreateImageSizeJob.PARAM_THREADS, "2");
+        parameters.put(CmsCreateImageSizeJob.PARAM_CHECKPOINT, CHECKPOINT);
+        new CmsCreateImageSizeJob().launch(cms, parameters);
+    }
+}
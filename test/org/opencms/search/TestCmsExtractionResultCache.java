@@ -0,0 +1,157 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.search.documents.CmsExtractionResultCache;
+import org.opencms.search.extractors.CmsExtractionResult;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Tests the content addressed text extraction result cache, which does not require an OpenCms context.<p>
+ */
+public class TestCmsExtractionResultCache extends OpenCmsTestCase {
+
+    /** The temporary folder used for the cache. */
+    private File m_folder;
+
+    /**
+     * Tests that the cache names depend on the content, the locale and the document type only.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testCacheNames() throws Exception {
+
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(m_folder.getAbsolutePath(), "/cache");
+        byte[] content = "some pdf content".getBytes("UTF-8");
+        String name = cache.getCacheName(content, null, "pdf");
+        assertEquals(name, cache.getCacheName("some pdf content".getBytes("UTF-8"), null, "pdf"));
+        assertFalse(name.equals(cache.getCacheName("other pdf content".getBytes("UTF-8"), null, "pdf")));
+        assertFalse(name.equals(cache.getCacheName(content, null, "text")));
+        assertFalse(name.equals(cache.getCacheName(content, Locale.GERMAN, "pdf")));
+        assertTrue(name.startsWith(cache.getRepositoryPath()));
+    }
+
+    /**
+     * Tests that expired entries are removed using the index.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testCleanCache() throws Exception {
+
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(m_folder.getAbsolutePath(), "/cache");
+        String name = cache.getCacheName("content".getBytes("UTF-8"), null, "pdf");
+        cache.saveCacheObject(name, new CmsExtractionResult("extracted text"));
+        assertEquals(0, cache.cleanCache(1.0f));
+        assertNotNull(cache.getCacheObject(name));
+
+        Thread.sleep(10);
+        assertEquals(1, cache.cleanCache(0.0f));
+        assertFalse(new File(name).exists());
+        assertNull(cache.getCacheObject(name));
+        assertEquals(0, cache.getTotalSize());
+    }
+
+    /**
+     * Tests that the least recently used entries are removed if the cache exceeds its maximum size.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testMaxSize() throws Exception {
+
+        CmsExtractionResultCache probe = new CmsExtractionResultCache(m_folder.getAbsolutePath(), "/probe");
+        String probeName = probe.getCacheName("probe".getBytes("UTF-8"), null, "pdf");
+        probe.saveCacheObject(probeName, new CmsExtractionResult("extracted text 0"));
+        long entrySize = probe.getTotalSize();
+
+        // the cache has room for two entries
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(
+            m_folder.getAbsolutePath(),
+            "/cache",
+            (2 * entrySize) + (entrySize / 2));
+        String name1 = cache.getCacheName("content 1".getBytes("UTF-8"), null, "pdf");
+        String name2 = cache.getCacheName("content 2".getBytes("UTF-8"), null, "pdf");
+        String name3 = cache.getCacheName("content 3".getBytes("UTF-8"), null, "pdf");
+        cache.saveCacheObject(name1, new CmsExtractionResult("extracted text 1"));
+        cache.saveCacheObject(name2, new CmsExtractionResult("extracted text 2"));
+        // access the first entry, so the second one is the least recently used
+        assertNotNull(cache.getCacheObject(name1));
+        cache.saveCacheObject(name3, new CmsExtractionResult("extracted text 3"));
+
+        assertNotNull(cache.getCacheObject(name1));
+        assertNull(cache.getCacheObject(name2));
+        assertFalse(new File(name2).exists());
+        assertNotNull(cache.getCacheObject(name3));
+        assertTrue(cache.getTotalSize() <= cache.getMaxSize());
+    }
+
+    /**
+     * Tests saving and reading an extraction result, also with a new cache instance that reads its index from the RFS.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testSaveAndRead() throws Exception {
+
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(m_folder.getAbsolutePath(), "/cache");
+        String name = cache.getCacheName("content".getBytes("UTF-8"), null, "pdf");
+        assertNull(cache.getCacheObject(name));
+
+        cache.saveCacheObject(name, new CmsExtractionResult("extracted text"));
+        assertEquals("extracted text", cache.getCacheObject(name).getContent());
+        assertEquals(new File(name).length(), cache.getTotalSize());
+
+        CmsExtractionResultCache restarted = new CmsExtractionResultCache(m_folder.getAbsolutePath(), "/cache");
+        assertEquals(cache.getTotalSize(), restarted.getTotalSize());
+        assertEquals("extracted text", restarted.getCacheObject(name).getContent());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_folder = Files.createTempDirectory("opencms-test").toFile();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        CmsFileUtil.purgeDirectory(m_folder);
+        super.tearDown();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.site;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.Arrays;
+
+/**
+ * Tests the {@link CmsSitePathIndex}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsSitePathIndex extends OpenCmsTestCase {
+
+    /**
+     * Tests that the longest matching site root is found.<p>
+     */
+    public void testLongestSiteRoot() {
+
+        CmsSitePathIndex index = new CmsSitePathIndex(
+            Arrays.asList("/shared/customers", "/shared/customers/acme", "/sites/default/sub/site"));
+
+        assertEquals("/shared/customers", index.getSiteRoot("/shared/customers/"));
+        assertEquals("/shared/customers", index.getSiteRoot("/shared/customers/other/index.html"));
+        assertEquals("/shared/customers/acme", index.getSiteRoot("/shared/customers/acme/"));
+        assertEquals("/shared/customers/acme", index.getSiteRoot("/shared/customers/acme/news/index.html"));
+        assertEquals("/sites/default/sub/site", index.getSiteRoot("/sites/default/sub/site/index.html"));
+    }
+
+    /**
+     * Tests that the empty site root of a site mapped to "/" contains all paths not belonging to another site.<p>
+     */
+    public void testEmptySiteRoot() {
+
+        CmsSitePathIndex index = new CmsSitePathIndex(Arrays.asList("", "/shared/customers"));
+
+        assertEquals("", index.getSiteRoot("/"));
+        assertEquals("", index.getSiteRoot("/system/modules/"));
+        assertEquals("", index.getSiteRoot("/shared/customers"));
+        assertEquals("/shared/customers", index.getSiteRoot("/shared/customers/index.html"));
+        assertNull(index.getSiteRoot(""));
+    }
+
+    /**
+     * Tests paths which do not belong to any of the indexed site roots.<p>
+     */
+    public void testNoSiteRoot() {
+
+        CmsSitePathIndex index = new CmsSitePathIndex(
+            Arrays.asList("/shared/customers", "/", "/invalid/", "/empty//folder"));
+
+        // the site root folder itself has to be given with a trailing slash
+        assertNull(index.getSiteRoot("/shared/customers"));
+        assertNull(index.getSiteRoot("/shared/customersX/"));
+        assertNull(index.getSiteRoot("/shared/"));
+        assertNull(index.getSiteRoot("shared/customers/"));
+        assertNull(index.getSiteRoot("/"));
+        assertNull(index.getSiteRoot(""));
+        assertNull(index.getSiteRoot("/invalid/index.html"));
+        assertNull(index.getSiteRoot("/empty//folder/index.html"));
+    }
+}
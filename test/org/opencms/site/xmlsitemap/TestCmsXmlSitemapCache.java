@@ -0,0 +1,162 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.site.xmlsitemap;
+
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the {@link CmsXmlSitemapCache}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsXmlSitemapCache extends OpenCmsTestCase {
+
+    /** The root path of the test sitemap. */
+    private static final String SITEMAP = "/sites/default/sitemap.xml";
+
+    /** The RFS folder of the cache. */
+    private File m_folder;
+
+    /**
+     * Tests that concurrent writers of the same sitemap neither fail nor leave temporary files behind.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testConcurrentPut() throws Exception {
+
+        final CmsXmlSitemapCache cache = new CmsXmlSitemapCache(m_folder);
+        final String key = CmsXmlSitemapCache.getKey(SITEMAP, 0);
+        final StringBuffer content = new StringBuffer();
+        for (int i = 0; i < 10000; i++) {
+            content.append("<url>").append(i).append("</url>");
+        }
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final String value = "writer " + t + content;
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    for (int i = 0; i < 20; i++) {
+                        cache.put(key, value);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, m_folder.listFiles().length);
+        String value = new CmsXmlSitemapCache(m_folder).get(key);
+        assertEquals(("writer 0" + content).length(), value.length());
+        assertTrue(value.startsWith("writer "));
+        assertTrue(value.endsWith(content.toString()));
+    }
+
+    /**
+     * Tests that the cached sitemaps are read from the RFS by a new cache instance.<p>
+     */
+    public void testReadFromRfs() {
+
+        CmsXmlSitemapCache cache = new CmsXmlSitemapCache(m_folder);
+        cache.put(CmsXmlSitemapCache.getKey(SITEMAP, 0), "index");
+        cache.put(CmsXmlSitemapCache.getKey(SITEMAP, 1), "page 1");
+
+        CmsXmlSitemapCache restarted = new CmsXmlSitemapCache(m_folder);
+        assertEquals("index", restarted.get(CmsXmlSitemapCache.getKey(SITEMAP, 0)));
+        assertEquals("page 1", restarted.get(CmsXmlSitemapCache.getKey(SITEMAP, 1)));
+        assertNull(restarted.get(CmsXmlSitemapCache.getKey(SITEMAP, 2)));
+    }
+
+    /**
+     * Tests that the pages of a split sitemap which got smaller are removed from memory and from the RFS.<p>
+     */
+    public void testShrinkingSitemap() {
+
+        CmsXmlSitemapCache cache = new CmsXmlSitemapCache(m_folder);
+        for (int page = 0; page <= 4; page++) {
+            cache.put(CmsXmlSitemapCache.getKey(SITEMAP, page), "old " + page);
+        }
+        cache.put(CmsXmlSitemapCache.getKey("/sites/other/sitemap.xml", 3), "other 3");
+        assertEquals(6, m_folder.listFiles().length);
+
+        // the sitemap now only has two pages
+        for (int page = 0; page <= 2; page++) {
+            cache.put(CmsXmlSitemapCache.getKey(SITEMAP, page), "new " + page);
+        }
+        cache.removePages(SITEMAP, 3);
+
+        assertEquals("new 2", cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 2)));
+        assertNull(cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 3)));
+        assertNull(cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 4)));
+        assertEquals(4, m_folder.listFiles().length);
+
+        CmsXmlSitemapCache restarted = new CmsXmlSitemapCache(m_folder);
+        assertNull(restarted.get(CmsXmlSitemapCache.getKey(SITEMAP, 3)));
+        assertNull(restarted.get(CmsXmlSitemapCache.getKey(SITEMAP, 4)));
+        assertEquals("other 3", restarted.get(CmsXmlSitemapCache.getKey("/sites/other/sitemap.xml", 3)));
+
+        // the sitemap is not split anymore
+        cache.put(CmsXmlSitemapCache.getKey(SITEMAP, 0), "complete");
+        cache.removePages(SITEMAP, 1);
+        assertNull(cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 1)));
+        assertNull(cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 2)));
+        assertEquals("complete", cache.get(CmsXmlSitemapCache.getKey(SITEMAP, 0)));
+        assertEquals(2, m_folder.listFiles().length);
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        m_folder = Files.createTempDirectory("xmlsitemapcache").toFile();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        CmsFileUtil.purgeDirectory(m_folder);
+        super.tearDown();
+    }
+}
@@ -59,10 +59,13 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(TestCmsLinkManager.suite());
+        suite.addTest(TestCmsAfterPublishStaticExportHandler.suite());
         suite.addTest(TestCmsStaticExportManager.suite());
         suite.addTest(TestExportFile.suite());
         suite.addTest(TestSecure.suite());
         suite.addTest(TestCmsExternalLinksValidator.suite());
+        suite.addTest(new TestSuite(TestCmsStaticExportRuleMatcher.class));
+        suite.addTest(TestCmsStreamingLinkProcessor.suite());
         //$JUnit-END$
         return suite;
     }
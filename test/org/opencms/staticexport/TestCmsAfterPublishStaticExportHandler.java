@@ -0,0 +1,209 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the parallel export of template resources after publishing.<p>
+ */
+public class TestCmsAfterPublishStaticExportHandler extends OpenCmsTestCase {
+
+    /**
+     * After publish handler that records the exports instead of requesting the resources from the server.<p>
+     */
+    static class CmsRecordingExportHandler extends CmsAfterPublishStaticExportHandler {
+
+        /** The number of exports currently running. */
+        AtomicInteger m_active = new AtomicInteger();
+
+        /** The start and end events of the exports, in the order they occurred. */
+        List<String> m_events = Collections.synchronizedList(new ArrayList<String>());
+
+        /** The maximum number of exports running at the same time. */
+        AtomicInteger m_maxActive = new AtomicInteger();
+
+        /** The threads the exports ran in. */
+        List<Thread> m_threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        /**
+         * @see org.opencms.staticexport.CmsAfterPublishStaticExportHandler#exportTemplateResource(org.apache.http.impl.client.CloseableHttpClient, org.opencms.staticexport.CmsStaticExportData)
+         */
+        @Override
+        protected int exportTemplateResource(CloseableHttpClient client, CmsStaticExportData data)
+        throws IOException {
+
+            m_events.add("start:" + data.getRfsName());
+            m_threads.add(Thread.currentThread());
+            int active = m_active.incrementAndGet();
+            try {
+                int max = m_maxActive.get();
+                while ((active > max) && !m_maxActive.compareAndSet(max, active)) {
+                    max = m_maxActive.get();
+                }
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                m_active.decrementAndGet();
+                m_events.add("end:" + data.getRfsName());
+            }
+            return 200;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsAfterPublishStaticExportHandler(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsAfterPublishStaticExportHandler.class.getName());
+
+        suite.addTest(new TestCmsAfterPublishStaticExportHandler("testExportThreadsConfiguration"));
+        suite.addTest(new TestCmsAfterPublishStaticExportHandler("testParallelTemplateExport"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that invalid numbers of export threads are ignored.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testExportThreadsConfiguration() throws Exception {
+
+        echo("Testing the configuration of the number of export threads");
+        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        Integer threads = manager.getExportThreads();
+
+        manager.setExportThreads("many");
+        assertEquals(threads, manager.getExportThreads());
+        manager.setExportThreads("0");
+        assertEquals(threads, manager.getExportThreads());
+        manager.setExportThreads(" 3 ");
+        assertEquals(Integer.valueOf(3), manager.getExportThreads());
+    }
+
+    /**
+     * Tests that template resources are exported once each by the configured number of worker threads,
+     * after the first resource has been exported alone.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testParallelTemplateExport() throws Exception {
+
+        echo("Testing the parallel export of template resources");
+        CmsObject cms = OpenCms.initCmsObject(getCmsObject());
+        cms.getRequestContext().setCurrentProject(cms.readProject("Online"));
+        cms.getRequestContext().setSiteRoot("/");
+        OpenCms.getStaticExportManager().setExportThreads("3");
+
+        List<String> rfsNames = new ArrayList<String>();
+        for (CmsResource resource : cms.readResources("/sites/default/", CmsResourceFilter.DEFAULT_FILES, true)) {
+            rfsNames.add(resource.getRootPath());
+        }
+        assertTrue("not enough resources to export", rfsNames.size() > 6);
+        List<String> published = new ArrayList<String>(rfsNames);
+        // duplicates are exported only once, missing resources are skipped
+        published.add(rfsNames.get(1));
+        published.add("/sites/default/does-not-exist.html");
+
+        CmsRecordingExportHandler handler = new CmsRecordingExportHandler();
+        handler.exportTemplateResources(cms, published, new CmsShellReport(Locale.ENGLISH));
+
+        // the first resource is exported alone, so the other requests can share its session
+        assertEquals("start:" + rfsNames.get(0), handler.m_events.get(0));
+        assertEquals("end:" + rfsNames.get(0), handler.m_events.get(1));
+
+        // every resource is exported exactly once
+        List<String> exported = new ArrayList<String>();
+        for (String event : handler.m_events) {
+            if (event.startsWith("start:")) {
+                exported.add(event.substring("start:".length()));
+            }
+        }
+        Collections.sort(exported);
+        Collections.sort(rfsNames);
+        assertEquals(rfsNames, exported);
+
+        // the other resources are exported concurrently, but by not more than the configured threads
+        assertTrue("too many concurrent exports: " + handler.m_maxActive.get(), handler.m_maxActive.get() <= 3);
+        assertTrue("exports were not concurrent", handler.m_maxActive.get() > 1);
+        assertTrue(handler.m_threads.contains(Thread.currentThread()));
+    }
+}
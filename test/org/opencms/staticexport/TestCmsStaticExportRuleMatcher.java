@@ -0,0 +1,166 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * Tests the {@link CmsStaticExportRuleMatcher} against a linear scan over the rules.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsStaticExportRuleMatcher extends OpenCmsTestCase {
+
+    /** The source patterns used for the tests. */
+    private static final String[] PATTERNS = {
+        "/sites/default/en/.*",
+        "/sites/default/de/.*",
+        "/sites/default/.*",
+        "/sites/default/de/news/.*\\.html",
+        "/sites/defaulx?/.*",
+        "/sites/(default|other)/.*",
+        "/sites/other/.*|/shared/.*",
+        "/system/modules/[a-z.]+/resources/.*",
+        "(?i)/SITES/DEFAULT/EN/.*",
+        ".*\\.pdf",
+        "/sites/default/en/news/",
+        "/sites/o+ther/en/.*",
+        "/sites/\\Qother\\E/.*",
+        "/sites/default/e{1,2}n/.*"};
+
+    /** The folder names used to generate paths. */
+    private static final String[] SEGMENTS = {
+        "sites",
+        "default",
+        "defaul",
+        "other",
+        "oother",
+        "en",
+        "de",
+        "een",
+        "news",
+        "shared",
+        "system",
+        "modules",
+        "org.opencms",
+        "resources",
+        "SITES",
+        "EN"};
+
+    /** The file names used to generate paths. */
+    private static final String[] FILES = {"", "index.html", "doc.pdf", "image.png"};
+
+    /**
+     * Compares the results of the matcher with a linear scan for random paths.<p>
+     */
+    public void testDifferential() {
+
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        for (String pattern : PATTERNS) {
+            patterns.add(Pattern.compile(pattern));
+        }
+        patterns.add(Pattern.compile("/sites/OTHER/.*", Pattern.CASE_INSENSITIVE));
+        CmsStaticExportRuleMatcher<Pattern> matcher = new CmsStaticExportRuleMatcher<Pattern>(
+            patterns,
+            Functions.<Pattern> identity(),
+            100);
+
+        Random random = new Random(4711L);
+        for (int i = 0; i < 20000; i++) {
+            StringBuffer path = new StringBuffer();
+            int depth = random.nextInt(5);
+            for (int j = 0; j < depth; j++) {
+                path.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            path.append('/').append(FILES[random.nextInt(FILES.length)]);
+            String vfsName = path.toString();
+
+            List<Pattern> expected = new ArrayList<Pattern>();
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(vfsName).matches()) {
+                    expected.add(pattern);
+                }
+            }
+            assertEquals(vfsName, expected, matcher.getMatches(vfsName));
+            assertSame(vfsName, expected.isEmpty() ? null : expected.get(0), matcher.getFirstMatch(vfsName));
+        }
+    }
+
+    /**
+     * Tests the literal prefixes computed for regular expressions.<p>
+     */
+    public void testLiteralPrefix() {
+
+        assertEquals("/sites/default/", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default/.*"));
+        assertEquals("/sites/default.html", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default\\.html"));
+        assertEquals("/sites/default", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/defaultx?/.*"));
+        assertEquals("/sites/defaul", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default*"));
+        assertEquals("/sites/default", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default+"));
+        assertEquals("/sites/defaul", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default{0,2}"));
+        assertEquals("/sites/", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/(default|other)/.*"));
+        assertEquals("/sites/", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/\\Qdefault\\E/.*"));
+        assertEquals("/sites/", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/\\d+/.*"));
+        assertEquals("", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/default/.*|/shared/.*"));
+        assertEquals("", CmsStaticExportRuleMatcher.getLiteralPrefix("/sites/[a|b]/.*"));
+        assertEquals("", CmsStaticExportRuleMatcher.getLiteralPrefix("(?i)/sites/.*"));
+        assertEquals("", CmsStaticExportRuleMatcher.getLiteralPrefix("^/sites/.*"));
+        assertEquals("", CmsStaticExportRuleMatcher.getLiteralPrefix(".*\\.pdf"));
+    }
+
+    /**
+     * Tests that the rules are returned in the configured order.<p>
+     */
+    public void testRuleOrder() {
+
+        List<String> rules = Arrays.asList("/sites/.*", "/sites/default/.*", ".*", "/sites/default/index.html");
+        CmsStaticExportRuleMatcher<String> matcher = new CmsStaticExportRuleMatcher<String>(
+            rules,
+            new Function<String, Pattern>() {
+
+                public Pattern apply(String rule) {
+
+                    return Pattern.compile(rule);
+                }
+            },
+            10);
+        assertEquals(rules, matcher.getMatches("/sites/default/index.html"));
+        assertEquals("/sites/.*", matcher.getFirstMatch("/sites/default/index.html"));
+        assertEquals(".*", matcher.getFirstMatch("/shared/index.html"));
+        assertEquals(Arrays.asList(".*"), matcher.getMatches("/shared/index.html"));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH & Co. KG (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH & Co. KG, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.staticexport;
+
+import org.opencms.file.CmsObject;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.main.OpenCms;
+import org.opencms.relations.CmsLink;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.Iterator;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the results of the {@link CmsStreamingLinkProcessor} with the {@link CmsLinkProcessor}.<p>
+ *
+ * @since 11.0.0
+ */
+public class TestCmsStreamingLinkProcessor extends OpenCmsTestCase {
+
+    /** The HTML snippets used for the comparison. */
+    private static final String[] CORPUS = {
+        "<p>Text with a <a href=\"/folder1/page1.html\">link</a>.</p>",
+        "<p><img src=\"/folder1/image1.gif\" alt=\"Image\" /> and <img src=\"/folder1/image2.gif\"></p>",
+        "<p><a href=\"/folder1/page1.html?a=1&amp;b=2#anchor\" target=\"_blank\">query</a></p>",
+        "<p><a href=\"http://www.example.org/?a=1&amp;b=2\">external</a> <a name=\"top\"></a><a href=\"#top\">top</a></p>",
+        "<A HREF='/folder1/page1.html' class=link>upper case</A><img src=/folder1/image1.gif>",
+        "<script type=\"text/javascript\">var s = '<a href=\"/folder1/page1.html\">x</a>'; if (a < b) {}</script>",
+        "<style type=\"text/css\">a > b { background: url(/folder1/image1.gif); }</style><p>after</p>",
+        "<!-- <img src=\"/folder1/image1.gif\"> --><p>text &auml; &lt;not a tag&gt; \u00fc</p>",
+        "<object data=\"/folder1/image1.gif\" type=\"image/gif\"><param name=\"movie\" value=\"/folder1/image2.gif\" />"
+            + "<embed src=\"/folder1/image1.gif\" pluginspage=\"http://www.example.org/\"></embed></object>",
+        "<object codebase=\"/folder1/\" data=\"image1.gif\"><param name=\"src\" value=\"/folder1/page1.html?\"></object>",
+        "<map name=\"map\"><area shape=\"rect\" coords=\"0,0,10,10\" href=\"/folder1/page1.html\" /></map>",
+        "<table border=\"0\">\r\n<tr><td><a href=\"/index.html\">\r\n  <img\r\n  src=\"/folder1/image2.gif\"\r\n  title=\"t\"/></a></td></tr>\r\n</table>",
+        "<p>A &lt; B and <br/> <b>bold</b> <a href=\"\">empty</a> <a>no href</a></p>",
+        "<div><p>nested <span><a href=\"/folder1/page1.html\">one</a></span></p><p><a href=\"/folder1/page1.html\">two</a></p></div>"};
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsStreamingLinkProcessor(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsStreamingLinkProcessor.class.getName());
+
+        suite.addTest(new TestCmsStreamingLinkProcessor("testCorpus"));
+        suite.addTest(new TestCmsStreamingLinkProcessor("testNewInstance"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Replaces and processes the links of the test corpus with both link processors and compares the results.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCorpus() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Comparing the streaming link processor with the link processor");
+
+        for (String html : CORPUS) {
+            CmsLinkTable expectedTable = new CmsLinkTable();
+            CmsLinkTable actualTable = new CmsLinkTable();
+            String expected = new CmsLinkProcessor(cms, expectedTable, CmsEncoder.ENCODING_UTF_8, null).replaceLinks(
+                html);
+            String actual = new CmsStreamingLinkProcessor(
+                cms,
+                actualTable,
+                CmsEncoder.ENCODING_UTF_8,
+                null).replaceLinks(html);
+            assertEquals(html, expected, actual);
+            assertLinkTablesEqual(html, expectedTable, actualTable);
+
+            expected = new CmsLinkProcessor(cms, expectedTable, CmsEncoder.ENCODING_UTF_8, null).processLinks(expected);
+            actual = new CmsStreamingLinkProcessor(cms, actualTable, CmsEncoder.ENCODING_UTF_8, null).processLinks(
+                actual);
+            assertEquals(html, expected, actual);
+        }
+    }
+
+    /**
+     * Tests that the streaming link processor is selected with the runtime property.<p>
+     */
+    public void testNewInstance() {
+
+        CmsObject cms = getCmsObject();
+        try {
+            OpenCms.setRuntimeProperty(CmsLinkProcessor.PARAM_STREAMING, "true");
+            assertTrue(
+                CmsLinkProcessor.newInstance(
+                    cms,
+                    new CmsLinkTable(),
+                    CmsEncoder.ENCODING_UTF_8,
+                    null) instanceof CmsStreamingLinkProcessor);
+        } finally {
+            OpenCms.setRuntimeProperty(CmsLinkProcessor.PARAM_STREAMING, "false");
+        }
+        assertFalse(
+            CmsLinkProcessor.newInstance(
+                cms,
+                new CmsLinkTable(),
+                CmsEncoder.ENCODING_UTF_8,
+                null) instanceof CmsStreamingLinkProcessor);
+    }
+
+    /**
+     * Asserts that two link tables contain the same links.<p>
+     *
+     * @param message the message for failures
+     * @param expected the expected link table
+     * @param actual the actual link table
+     */
+    private void assertLinkTablesEqual(String message, CmsLinkTable expected, CmsLinkTable actual) {
+
+        assertEquals(message, expected.size(), actual.size());
+        Iterator<CmsLink> it = expected.iterator();
+        while (it.hasNext()) {
+            CmsLink expectedLink = it.next();
+            CmsLink actualLink = actual.getLink(expectedLink.getName());
+            assertNotNull(message, actualLink);
+            assertEquals(message, expectedLink.getUri(), actualLink.getUri());
+            assertEquals(message, expectedLink.getType(), actualLink.getType());
+            assertEquals(message, expectedLink.isInternal(), actualLink.isInternal());
+        }
+    }
+}
@@ -443,7 +443,7 @@ public class TestFormSession extends OpenCmsTestCase {
     }
 
     /**
-     * Tests that the session queue does not allow more than maxLength waiting entries.<p>
+     * Tests that the session queue does not admit more than maxLength requests in addition to the first one.<p>
      *
      * @throws Exception if something goes wrong
      */
@@ -454,6 +454,7 @@ public class TestFormSession extends OpenCmsTestCase {
         int numThreads = 30;
         final AtomicInteger okCount = new AtomicInteger();
         final CountDownLatch countdown = new CountDownLatch(numThreads);
+        final long now = System.currentTimeMillis();
         for (int i = 0; i < numThreads; i++) {
             Thread thread = new Thread() {
 
@@ -463,7 +464,7 @@ public class TestFormSession extends OpenCmsTestCase {
                 @Override
                 public void run() {
 
-                    if (queue.waitForSlot()) {
+                    if (queue.tryAcquire(now) == 0) {
                         okCount.incrementAndGet();
                     }
                     countdown.countDown();
@@ -473,42 +474,62 @@ public class TestFormSession extends OpenCmsTestCase {
         }
         countdown.await(); // wait until all threads have finished
         assertEquals(1 + maxLength, okCount.get());
-
+        assertEquals(1 + maxLength, queue.getAdmittedCount());
+        assertEquals(numThreads - 1 - maxLength, queue.getRejectedCount());
     }
 
     /**
-     * Tests the wait time for queue is observed.<p>
+     * Tests that rejected requests are told when to retry, and that tokens are refilled after the wait time.<p>
      *
      * @throws Exception -
      */
     public void testQueueWaitTime() throws Exception {
 
         int waitTime = 500;
-        final CmsUgcSessionQueue queue = new CmsUgcSessionQueue(true, waitTime, Integer.MAX_VALUE);
-        int numThreads = 10;
-        final CountDownLatch countdown = new CountDownLatch(numThreads);
-        long t1 = System.currentTimeMillis();
-        for (int i = 0; i < numThreads; i++) {
-            Thread thread = new Thread() {
-
-                /**
-                 * @see java.lang.Thread#run()
-                 */
-                @Override
-                public void run() {
-
-                    queue.waitForSlot();
-                    countdown.countDown();
-
-                }
-            };
+        CmsUgcSessionQueue queue = new CmsUgcSessionQueue(true, waitTime, 1);
+        long now = 1000000;
+        assertEquals(0, queue.tryAcquire(now));
+        assertEquals(0, queue.tryAcquire(now + 10));
+        assertEquals(waitTime - 10 - 10, queue.tryAcquire(now + 20));
+        assertEquals(0, queue.tryAcquire(now + waitTime));
+        assertEquals(waitTime, queue.tryAcquire(now + waitTime));
+        assertEquals(0, queue.tryAcquire(now + (10 * waitTime)));
+        assertEquals(0, queue.tryAcquire(now + (10 * waitTime)));
+        assertEquals(5, queue.getAdmittedCount());
+        assertEquals(2, queue.getRejectedCount());
+
+        CmsUgcSessionQueue disabled = new CmsUgcSessionQueue(false, waitTime, 0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, disabled.tryAcquire(now));
+        }
 
-            thread.start();
+        // with only an interval configured, requests are still spaced out
+        CmsUgcConfiguration config = new CmsUgcConfiguration(
+            new CmsUUID(),
+            Optional.<CmsUser> absent(),
+            null,
+            "xmlcontent",
+            null,
+            "n_%(number)",
+            Locale.ENGLISH,
+            Optional.<CmsResource> absent(),
+            Optional.<Long> absent(),
+            Optional.<Integer> absent(),
+            Optional.of(Long.valueOf(waitTime)),
+            Optional.<Integer> absent(),
+            false,
+            Optional.<List<String>> absent());
+        CmsUgcSessionQueue intervalOnly = CmsUgcSessionQueue.createQueue(config);
+        for (int i = 0; i < 10; i++) {
+            intervalOnly.tryAcquire(now);
         }
-        countdown.await(); // wait until all threads have finished
-        long t2 = System.currentTimeMillis();
-        System.out.println("delta-t=" + (t2 - t1) + ", expected=" + (waitTime * (numThreads - 1)));
-        assertTrue("The elapsed time is below expected wait time", (t2 - t1) >= ((numThreads - 1) * waitTime));
+        assertEquals(1 + CmsUgcSessionQueue.DEFAULT_MAX_LENGTH, intervalOnly.getAdmittedCount());
+        assertEquals(waitTime, intervalOnly.tryAcquire(now));
+        assertEquals(0, intervalOnly.tryAcquire(now + waitTime));
+        assertEquals(waitTime, intervalOnly.tryAcquire(now + waitTime));
+
+        intervalOnly.updateFromConfiguration(config);
+        assertEquals(waitTime - 10, intervalOnly.tryAcquire(now + waitTime + 10));
     }
 
     /**
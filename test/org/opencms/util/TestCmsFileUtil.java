@@ -30,9 +30,13 @@ package org.opencms.util;
 import org.opencms.test.OpenCmsTestCase;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @since 6.2.2
@@ -161,4 +165,84 @@ public class TestCmsFileUtil extends OpenCmsTestCase {
 
         assertTrue("input stream was closed", is.isClosed());
     }
+
+    /**
+     * Tests {@link CmsFileUtil#writeFileAtomically(File, byte[])}.<p>
+     *
+     * @throws IOException in case the test fails
+     */
+    public void testWriteFileAtomically() throws IOException {
+
+        File folder = Files.createTempDirectory("opencms-test").toFile();
+        try {
+            File file = new File(folder, "index.html");
+            CmsFileUtil.writeFileAtomically(file, "first".getBytes("UTF-8"));
+            assertEquals("first", new String(CmsFileUtil.readFile(file), "UTF-8"));
+
+            CmsFileUtil.writeFileAtomically(file, "second".getBytes("UTF-8"));
+            assertEquals("second", new String(CmsFileUtil.readFile(file), "UTF-8"));
+
+            // no temporary files must be left behind
+            assertEquals(1, folder.listFiles().length);
+
+            // the temporary file name must also be valid for a one character file name
+            File shortFile = new File(folder, "a");
+            CmsFileUtil.writeFileAtomically(shortFile, "short".getBytes("UTF-8"));
+            assertEquals("short", new String(CmsFileUtil.readFile(shortFile), "UTF-8"));
+            assertEquals(2, folder.listFiles().length);
+        } finally {
+            CmsFileUtil.purgeDirectory(folder);
+        }
+    }
+
+    /**
+     * Tests that concurrent readers never see a partially written file with
+     * {@link CmsFileUtil#writeFileAtomically(File, byte[])}.<p>
+     *
+     * @throws Exception in case the test fails
+     */
+    public void testWriteFileAtomicallyConcurrentRead() throws Exception {
+
+        File folder = Files.createTempDirectory("opencms-test").toFile();
+        try {
+            final File file = new File(folder, "index.html");
+            final byte[][] contents = new byte[2][256 * 1024];
+            Arrays.fill(contents[0], (byte)'a');
+            Arrays.fill(contents[1], (byte)'b');
+            CmsFileUtil.writeFileAtomically(file, contents[0]);
+
+            final AtomicReference<String> error = new AtomicReference<String>();
+            final AtomicBoolean done = new AtomicBoolean();
+            Thread reader = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        while (!done.get() && (error.get() == null)) {
+                            byte[] read = CmsFileUtil.readFile(file);
+                            if (!Arrays.equals(contents[0], read) && !Arrays.equals(contents[1], read)) {
+                                error.set("partially written file read, length " + read.length);
+                            }
+                        }
+                    } catch (IOException e) {
+                        error.set(e.toString());
+                    }
+                }
+            };
+            reader.start();
+            try {
+                for (int i = 0; i < 200; i++) {
+                    CmsFileUtil.writeFileAtomically(file, contents[i % 2]);
+                }
+            } finally {
+                done.set(true);
+                reader.join();
+            }
+            assertNull(error.get(), error.get());
+            assertEquals(1, folder.listFiles().length);
+        } finally {
+            CmsFileUtil.purgeDirectory(folder);
+        }
+    }
 }
\ No newline at end of file